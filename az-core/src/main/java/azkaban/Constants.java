@@ -122,6 +122,51 @@ public class Constants {
   public static final boolean DEFAULT_AZKABAN_RAMP_STATUS_POOLING_ENABLED = false;
   // How often executors will poll ramp status in Poll Dispatch model
   public static final int DEFAULT_AZKABAN_RAMP_STATUS_POLLING_INTERVAL = 10;
+  // How often a running flow persisting incremental updates writes a full snapshot of its state
+  public static final long DEFAULT_AZKABAN_EXECUTION_SNAPSHOT_INTERVAL_MS = 5 * 60 * 1000L;
+  // Max number of incremental updates a running flow persists between two full snapshots
+  public static final int DEFAULT_AZKABAN_EXECUTION_SNAPSHOT_MAX_UPDATES = 100;
+  // How often the executor flushes the job and flow status updates it has buffered
+  public static final long DEFAULT_AZKABAN_EXECUTION_WRITE_BEHIND_FLUSH_INTERVAL_MS = 1000L;
+  // Number of buffered status updates which triggers a flush before the interval has elapsed
+  public static final int DEFAULT_AZKABAN_EXECUTION_WRITE_BEHIND_MAX_PENDING_UPDATES = 500;
+  // Max total number of jobs of the executions cached by the web server
+  public static final long DEFAULT_AZKABAN_EXECUTABLE_FLOW_CACHE_MAX_NODES = 200000L;
+  // Max age of a cached unfinished execution before it's reloaded from the DB
+  public static final long DEFAULT_AZKABAN_EXECUTABLE_FLOW_CACHE_REFRESH_INTERVAL_MS = 3000L;
+  // Suspended long polls for execution updates don't hold a jetty thread, only a listener
+  public static final int DEFAULT_AZKABAN_EXECUTION_UPDATE_LONG_POLL_MAX_WAITERS = 1000;
+  public static final long DEFAULT_AZKABAN_EXECUTION_UPDATE_LONG_POLL_MAX_WAIT_MS = 20000L;
+  // Executors are asked for the updates of their running executions one at a time by default
+  public static final int DEFAULT_AZKABAN_EXECUTOR_UPDATE_PARALLELISM = 1;
+  public static final long DEFAULT_AZKABAN_EXECUTOR_UPDATE_TIMEOUT_MS = 10000L;
+  public static final int DEFAULT_QUEUE_PROCESSOR_DISPATCH_THREADS = 1;
+  public static final int DEFAULT_QUEUE_PROCESSOR_MAX_DISPATCHES_PER_EXECUTOR = 2;
+  public static final int DEFAULT_EXECUTOR_CLIENT_MAX_CONNECTIONS = 200;
+  // The executors' jetty connector is blocking: each connection kept alive holds one of their
+  // threads (executor.maxThreads) until it's closed
+  public static final int DEFAULT_EXECUTOR_CLIENT_MAX_CONNECTIONS_PER_ROUTE = 10;
+  // Idle connections to the executors are closed after this
+  public static final long DEFAULT_EXECUTOR_CLIENT_KEEP_ALIVE_MS = 10000L;
+  public static final int DEFAULT_EXECUTOR_CLIENT_CONNECT_TIMEOUT_MS = 10000;
+  // Bounds the calls to an executor which stopped answering, e.g. the executions updates which
+  // have their own shorter timeout but keep a connection and a thread until this one
+  public static final int DEFAULT_EXECUTOR_CLIENT_READ_TIMEOUT_MS = 60000;
+  public static final int DEFAULT_EXECUTOR_CLIENT_POOL_TIMEOUT_MS = 30000;
+  public static final boolean DEFAULT_JOB_LOG_ASYNC_ENABLED = false;
+  public static final long DEFAULT_JOB_LOG_ASYNC_FLUSH_INTERVAL_MS = 1000L;
+  public static final int DEFAULT_JOB_LOG_ASYNC_MAX_PENDING_EVENTS = 1024;
+  public static final int DEFAULT_PROCESS_OUTPUT_PUMP_THREADS = 4;
+  public static final long DEFAULT_PROCESS_OUTPUT_PUMP_POLL_INTERVAL_MS = 20L;
+  public static final boolean DEFAULT_EXECUTION_LOGS_ASYNC_UPLOAD_ENABLED = false;
+  public static final int DEFAULT_EXECUTION_LOGS_UPLOAD_THREADS = 2;
+  public static final int DEFAULT_EXECUTION_DIR_HARDLINK_THREADS = 4;
+  // Project cache evicted down to this ratio of its max size, to make room for the next projects
+  public static final double DEFAULT_PROJECT_CACHE_LOW_WATERMARK_RATIO = 0.9;
+  public static final boolean DEFAULT_PROJECT_DOWNLOAD_STREAMING_ENABLED = false;
+  public static final boolean DEFAULT_TRIGGER_SCHEDULER_ENABLED = false;
+  public static final int DEFAULT_TRIGGER_ACTION_THREADS = 0;
+  public static final int DEFAULT_TRIGGER_LOAD_THREADS = 1;
   // Username to be sent to UserManager when OAuth is in use, and real username is not available:
   public static final String OAUTH_USERNAME_PLACEHOLDER = "<OAuth>";
   // Used by UserManager for password validation (to tell apart real passwords from auth codes).
@@ -291,6 +336,9 @@ public class Constants {
     // Jetty server configurations.
     public static final String JETTY_HEADER_BUFFER_SIZE = "jetty.headerBufferSize";
     public static final String JETTY_USE_SSL = "jetty.use.ssl";
+    // Use the NIO connectors, on which suspended requests (e.g. the long polls for execution
+    // updates) don't hold a thread. Only used by the web server.
+    public static final String JETTY_USE_NIO = "jetty.use.nio";
     public static final String JETTY_SSL_PORT = "jetty.ssl.port";
     public static final String JETTY_PORT = "jetty.port";
 
@@ -325,10 +373,23 @@ public class Constants {
     public static final String AZKABAN_STORAGE_CACHE_DEPENDENCY_ENABLED = "azkaban.storage.cache.dependency.enabled";
     public static final String AZKABAN_STORAGE_CACHE_DEPENDENCY_ROOT_URI = "azkaban.storage.cache.dependency_root.uri";
     public static final String AZKABAN_STORAGE_ORIGIN_DEPENDENCY_ROOT_URI = "azkaban.storage.origin.dependency_root.uri";
+    // Where the logs of finished flows and jobs are stored: DATABASE (execution_logs, default),
+    // LOCAL (a directory, typically a shared file system mounted on all the servers), HDFS, or the
+    // name of a custom azkaban.spi.LogStorage class
+    public static final String AZKABAN_LOGS_STORAGE_TYPE = "azkaban.logs.storage.type";
+    public static final String AZKABAN_LOGS_STORAGE_LOCAL_BASEDIR =
+        "azkaban.logs.storage.local.basedir";
+    public static final String AZKABAN_LOGS_STORAGE_HDFS_ROOT_URI =
+        "azkaban.logs.storage.hdfs.root.uri";
     public static final String AZKABAN_KERBEROS_PRINCIPAL = "azkaban.kerberos.principal";
     public static final String AZKABAN_KEYTAB_PATH = "azkaban.keytab.path";
     public static final String PROJECT_TEMP_DIR = "project.temp.dir";
 
+    // If true, project archives are extracted while they are downloaded from the storage, and the
+    // startup dependencies are downloaded at the same time. Not supported by the database storage.
+    public static final String PROJECT_DOWNLOAD_STREAMING_ENABLED =
+        "azkaban.project.download.streaming.enabled";
+
     // Event reporting properties
     public static final String AZKABAN_EVENT_REPORTING_CLASS_PARAM =
         "azkaban.event.reporting.class";
@@ -363,6 +424,22 @@ public class Constants {
     // enable quartz scheduler and flow trigger if true.
     public static final String ENABLE_QUARTZ = "azkaban.server.schedule.enable_quartz";
 
+    // If true, the trigger manager wakes up at the next check time of the triggers and checks only
+    // the due ones, instead of scanning all the triggers every trigger.scan.interval.
+    public static final String TRIGGER_SCHEDULER_ENABLED = "azkaban.trigger.scheduler.enabled";
+
+    // Number of threads running the actions of the triggers, e.g. submitting the scheduled flows.
+    // The triggers are then saved in batches. If 0, the actions run on the trigger scanner thread.
+    public static final String TRIGGER_ACTION_THREADS = "azkaban.trigger.action.threads";
+
+    // Encoding of the data column of triggers: GZIP (gzipped JSON, default) or BINARY (compact
+    // binary encoding, faster to read and write). Readers handle both, but servers from releases
+    // without BINARY can't read the triggers written with it.
+    public static final String TRIGGER_DATA_ENCODING = "azkaban.trigger.data.encoding";
+
+    // Number of threads decoding the triggers while they are read from the db, e.g. at startup.
+    public static final String TRIGGER_LOAD_THREADS = "azkaban.trigger.load.threads";
+
     public static final String CUSTOM_CREDENTIAL_NAME = "azkaban.security.credential";
 
     public static final String OAUTH_CREDENTIAL_NAME = "azkaban.oauth.credential";
@@ -395,6 +472,13 @@ public class Constants {
         "azkaban.executorselector.comparator.";
     public static final String QUEUEPROCESSING_ENABLED = "azkaban.queueprocessing.enabled";
     public static final String QUEUE_PROCESSOR_WAIT_IN_MS = "azkaban.queue.processor.wait.in.ms";
+    // Number of threads making the dispatch calls to the executors. With 1 the queue processor
+    // dispatches the queued flows one at a time, otherwise it only selects their executors.
+    public static final String QUEUE_PROCESSOR_DISPATCH_THREADS =
+        "azkaban.queue.processor.dispatch.threads";
+    // Max number of concurrent dispatch calls to the same executor
+    public static final String QUEUE_PROCESSOR_MAX_DISPATCHES_PER_EXECUTOR =
+        "azkaban.queue.processor.max.dispatches.per.executor";
 
     public static final String SESSION_TIME_TO_LIVE = "session.time.to.live";
 
@@ -409,6 +493,16 @@ public class Constants {
     public static final String PROJECT_CACHE_THROTTLE_PERCENTAGE =
         "azkaban.project_cache_throttle_percentage";
 
+    // once the project cache reaches azkaban.project_cache_size_percentage_of_disk, projects are
+    // deleted until it's below this percentage of the partition, e.g 0.7. Defaults to 90% of the
+    // former.
+    public static final String PROJECT_CACHE_LOW_WATERMARK_PERCENTAGE =
+        "azkaban.project_cache_low_watermark_percentage";
+
+    // number of threads hard linking the files of a project into an execution directory
+    public static final String EXECUTION_DIR_HARDLINK_THREADS =
+        "azkaban.execution.dir.hardlink.threads";
+
     // how many older versions of project files are kept in DB before deleting them
     public static final String PROJECT_VERSION_RETENTION = "project.version.retention";
 
@@ -467,6 +561,43 @@ public class Constants {
     public static final String EXECUTOR_CLIENT_TLS_ENABLED = "azkaban.executor.client.tls.enabled";
     public static final String EXECUTOR_CLIENT_TRUSTSTORE_PATH = "azkaban.executor.client.truststore";
     public static final String EXECUTOR_CLIENT_TRUSTSTORE_PASSWORD = "azkaban.executor.client.trustpassword";
+    // Connection pool and timeouts of the http client used to call the executors
+    public static final String EXECUTOR_CLIENT_MAX_CONNECTIONS =
+        "azkaban.executor.client.max.connections";
+    public static final String EXECUTOR_CLIENT_MAX_CONNECTIONS_PER_ROUTE =
+        "azkaban.executor.client.max.connections.per.route";
+    public static final String EXECUTOR_CLIENT_KEEP_ALIVE_MS = "azkaban.executor.client.keep.alive.ms";
+    public static final String EXECUTOR_CLIENT_CONNECT_TIMEOUT_MS =
+        "azkaban.executor.client.connect.timeout.ms";
+    // 0 means no timeout
+    public static final String EXECUTOR_CLIENT_READ_TIMEOUT_MS =
+        "azkaban.executor.client.read.timeout.ms";
+    // Max time to wait for a connection from the pool
+    public static final String EXECUTOR_CLIENT_POOL_TIMEOUT_MS =
+        "azkaban.executor.client.pool.timeout.ms";
+
+    // Job logs written in batches by background threads instead of by the logging threads
+    public static final String JOB_LOG_ASYNC_ENABLED = "azkaban.job.log.async.enabled";
+    // Max time before the logged lines are written to the job log file
+    public static final String JOB_LOG_ASYNC_FLUSH_INTERVAL_MS =
+        "azkaban.job.log.async.flush.interval.ms";
+    // Number of buffered lines which triggers a write, the logging threads wait at twice that
+    public static final String JOB_LOG_ASYNC_MAX_PENDING_EVENTS =
+        "azkaban.job.log.async.max.pending.events";
+
+    // Threads draining the output of all the running job processes of an executor
+    public static final String PROCESS_OUTPUT_PUMP_THREADS = "azkaban.process.output.pump.threads";
+    // Max wait of a pump thread before polling its process outputs again when none had any bytes
+    public static final String PROCESS_OUTPUT_PUMP_POLL_INTERVAL_MS =
+        "azkaban.process.output.pump.poll.interval.ms";
+
+    // If true, the flow and job logs are uploaded to the DB by background threads, in order per
+    // execution, instead of by the flow and job threads. The execution directory is deleted once
+    // its logs are uploaded. Until then, the logs of a finished flow can be incomplete in the UI.
+    public static final String EXECUTION_LOGS_ASYNC_UPLOAD_ENABLED =
+        "azkaban.execution.logs.async.upload.enabled";
+    public static final String EXECUTION_LOGS_UPLOAD_THREADS =
+        "azkaban.execution.logs.upload.threads";
 
     public static final String AZKABAN_EXECUTOR_REVERSE_PROXY_ENABLED =
         "azkaban.executor.reverse.proxy.enabled";
@@ -478,6 +609,59 @@ public class Constants {
     // Job callback
     public static final String AZKABAN_EXECUTOR_JOBCALLBACK_ENABLED =
         "azkaban.executor.jobcallback.enabled";
+
+    // If true, running flows persist only the nodes changed since their previous write instead of
+    // rewriting the whole flow on every job status change. A full snapshot is still written when
+    // the flow starts and finishes, and every snapshot.interval.ms or snapshot.max.updates.
+    public static final String AZKABAN_EXECUTION_INCREMENTAL_UPDATE_ENABLED =
+        "azkaban.execution.incremental.update.enabled";
+    public static final String AZKABAN_EXECUTION_SNAPSHOT_INTERVAL_MS =
+        "azkaban.execution.snapshot.interval.ms";
+    public static final String AZKABAN_EXECUTION_SNAPSHOT_MAX_UPDATES =
+        "azkaban.execution.snapshot.max.updates";
+
+    // Encoding of the flow_data column of execution_flows: GZIP (gzipped JSON, default) or BINARY
+    // (compact binary encoding, faster to read and write). Readers handle both, but servers from
+    // releases without BINARY can't read the flows written with it.
+    public static final String AZKABAN_EXECUTION_FLOW_DATA_ENCODING =
+        "azkaban.execution.flow.data.encoding";
+
+    // If true, the executor buffers the job and flow status updates of running flows, keeping
+    // only the latest one per job and flow, and writes them in batches every
+    // write.behind.flush.interval.ms or write.behind.max.pending.updates. A flow's updates are
+    // always flushed synchronously when it finishes.
+    public static final String AZKABAN_EXECUTION_WRITE_BEHIND_ENABLED =
+        "azkaban.execution.write.behind.enabled";
+    public static final String AZKABAN_EXECUTION_WRITE_BEHIND_FLUSH_INTERVAL_MS =
+        "azkaban.execution.write.behind.flush.interval.ms";
+    public static final String AZKABAN_EXECUTION_WRITE_BEHIND_MAX_PENDING_UPDATES =
+        "azkaban.execution.write.behind.max.pending.updates";
+
+    // Size of the web server cache of executions, in total number of jobs (nodes) of the cached
+    // executions. 0 disables the cache.
+    public static final String AZKABAN_EXECUTABLE_FLOW_CACHE_MAX_NODES =
+        "azkaban.executable.flow.cache.max.nodes";
+    // Unfinished executions are reloaded from the DB when their cached copy is older than this,
+    // even if the running executions updater keeps it up to date in between.
+    public static final String AZKABAN_EXECUTABLE_FLOW_CACHE_REFRESH_INTERVAL_MS =
+        "azkaban.executable.flow.cache.refresh.interval.ms";
+
+    // Max number of requests concurrently long polling for execution updates. Requests beyond
+    // that get an immediate answer. 0 disables long polling, as does disabling jetty.use.nio.
+    public static final String AZKABAN_EXECUTION_UPDATE_LONG_POLL_MAX_WAITERS =
+        "azkaban.execution.update.long.poll.max.waiters";
+    // Max time a long poll for execution updates waits before returning
+    public static final String AZKABAN_EXECUTION_UPDATE_LONG_POLL_MAX_WAIT_MS =
+        "azkaban.execution.update.long.poll.max.wait.ms";
+
+    // Number of executors the web server gets the updates of running executions from
+    // concurrently. 1 queries them one after the other.
+    public static final String AZKABAN_EXECUTOR_UPDATE_PARALLELISM =
+        "azkaban.executor.update.parallelism";
+    // When querying executors concurrently, time after which an executor which hasn't answered is
+    // handled as having failed the update, from when its request is started
+    public static final String AZKABAN_EXECUTOR_UPDATE_TIMEOUT_MS =
+        "azkaban.executor.update.timeout.ms";
   }
 
   public static class FlowProperties {
@@ -38,6 +38,7 @@ import java.util.Random;
 import java.util.TimeZone;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 import org.apache.commons.io.IOUtils;
 import org.apache.log4j.Logger;
@@ -231,6 +232,35 @@ public class Utils {
     }
   }
 
+  /**
+   * Unzip the entries of a zip file as they are read from the stream.
+   *
+   * @return total size in bytes of the files extracted
+   */
+  public static long unzip(final ZipInputStream source, final File dest) throws IOException {
+    long size = 0;
+    ZipEntry entry;
+    while ((entry = source.getNextEntry()) != null) {
+      final File newFile = new File(dest, entry.getName());
+      if (!newFile.getCanonicalPath().startsWith(dest.getCanonicalPath())) {
+        throw new IOException(
+            "Extracting zip entry would have resulted in a file outside the specified destination"
+                + " directory.");
+      }
+
+      if (entry.isDirectory()) {
+        newFile.mkdirs();
+      } else {
+        newFile.getParentFile().mkdirs();
+        try (final OutputStream output =
+            new BufferedOutputStream(new FileOutputStream(newFile))) {
+          size += IOUtils.copyLarge(source, output);
+        }
+      }
+    }
+    return size;
+  }
+
   public static String flattenToString(final Collection<?> collection,
       final String delimiter) {
     final StringBuffer buffer = new StringBuffer();
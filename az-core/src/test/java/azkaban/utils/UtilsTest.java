@@ -18,12 +18,16 @@ package azkaban.utils;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
+import org.apache.commons.io.FileUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -61,6 +65,55 @@ public class UtilsTest {
     }
   }
 
+  @Test
+  public void testUnzipStream() throws IOException {
+    final File zipFile = new File("myTest.zip");
+    try {
+      try (final ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zipFile))) {
+        out.putNextEntry(new ZipEntry("dir/"));
+        out.putNextEntry(new ZipEntry("dir/a.txt"));
+        out.write("hello".getBytes(StandardCharsets.UTF_8));
+        out.putNextEntry(new ZipEntry("b.txt"));
+        out.write("world!".getBytes(StandardCharsets.UTF_8));
+      }
+
+      final File dest = Utils.createTempDir();
+      try (final ZipInputStream source = new ZipInputStream(new FileInputStream(zipFile))) {
+        Assert.assertEquals(11, Utils.unzip(source, dest));
+      }
+      Assert.assertEquals("hello",
+          FileUtils.readFileToString(new File(dest, "dir/a.txt"), StandardCharsets.UTF_8));
+      Assert.assertEquals("world!",
+          FileUtils.readFileToString(new File(dest, "b.txt"), StandardCharsets.UTF_8));
+      FileUtils.deleteDirectory(dest);
+    } finally {
+      if (zipFile.exists()) {
+        zipFile.delete();
+      }
+    }
+  }
+
+  @Test
+  public void testUnzipInsecureStream() throws IOException {
+    final File zipFile = new File("myTest.zip");
+    try {
+      try (final ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zipFile))) {
+        out.putNextEntry(new ZipEntry("../../../../../evil.txt"));
+      }
+
+      final File dest = Utils.createTempDir();
+      try (final ZipInputStream source = new ZipInputStream(new FileInputStream(zipFile))) {
+        assertThatThrownBy(() -> Utils.unzip(source, dest)).isInstanceOf(IOException.class)
+            .hasMessageContaining("Extracting zip entry would have resulted in a file outside the "
+                + "specified destination directory.");
+      }
+    } finally {
+      if (zipFile.exists()) {
+        zipFile.delete();
+      }
+    }
+  }
+
   @Test
   public void testRunProcess() throws IOException, InterruptedException {
     ArrayList<String> result =
@@ -66,6 +66,7 @@ public abstract class AbstractExecutorManagerAdapter extends EventHandler implem
   private static final Duration RECENTLY_FINISHED_LIFETIME = Duration.ofMinutes(10);
   protected final EventListener eventListener;
   protected final ContainerizationMetrics containerizationMetrics;
+  protected final ExecutableFlowCache executableFlowCache;
 
   protected AbstractExecutorManagerAdapter(final Props azkProps,
       final ExecutorLoader executorLoader,
@@ -73,7 +74,8 @@ public abstract class AbstractExecutorManagerAdapter extends EventHandler implem
       final ExecutorApiGateway apiGateway,
       final AlerterHolder alerterHolder,
       final EventListener eventListener,
-      final ContainerizationMetrics containerizationMetrics) {
+      final ContainerizationMetrics containerizationMetrics,
+      final ExecutableFlowCache executableFlowCache) {
     this.azkProps = azkProps;
     this.executorLoader = executorLoader;
     this.commonMetrics = commonMetrics;
@@ -83,6 +85,7 @@ public abstract class AbstractExecutorManagerAdapter extends EventHandler implem
     this.maxConcurrentRunsPerFlowMap = ExecutorUtils.getMaxConcurentRunsPerFlowMap(azkProps);
     this.eventListener = eventListener;
     this.containerizationMetrics = containerizationMetrics;
+    this.executableFlowCache = executableFlowCache;
     this.addListener(eventListener);
   }
 
@@ -97,6 +100,27 @@ public abstract class AbstractExecutorManagerAdapter extends EventHandler implem
     return this.executorLoader.fetchExecutableFlow(execId);
   }
 
+  /**
+   * Fetch ExecutableFlow from the cache, or from database {@inheritDoc}
+   *
+   * @see azkaban.executor.ExecutorManagerAdapter#getCachedExecutableFlow(int)
+   */
+  @Override
+  public ExecutableFlow getCachedExecutableFlow(final int execId)
+      throws ExecutorManagerException {
+    return this.executableFlowCache.get(execId);
+  }
+
+  @Override
+  public boolean addExecutableFlowUpdateListener(final int execId, final Runnable listener) {
+    return this.executableFlowCache.addUpdateListener(execId, listener);
+  }
+
+  @Override
+  public void removeExecutableFlowUpdateListener(final int execId, final Runnable listener) {
+    this.executableFlowCache.removeUpdateListener(execId, listener);
+  }
+
   /**
    * This method is used to get size of aged queued flows from database.
    *
@@ -397,7 +421,7 @@ public abstract class AbstractExecutorManagerAdapter extends EventHandler implem
     final List<Integer> executionIds = new ArrayList<>();
     try {
       executionIds.addAll(ExecutorUtils.getRunningFlowsHelper(projectId, flowId,
-          this.executorLoader.fetchUnfinishedFlows().values()));
+          this.executorLoader.fetchUnfinishedFlowsMetadata().values()));
     } catch (final ExecutorManagerException e) {
       logger.error("Failed to get running flows for project " + projectId + ", flow "
           + flowId, e);
@@ -405,6 +429,20 @@ public abstract class AbstractExecutorManagerAdapter extends EventHandler implem
     return executionIds;
   }
 
+  /**
+   * Get the number of running (unfinished) flows from database, without reading the flow data.
+   * {@inheritDoc}
+   */
+  @Override
+  public int getNumRunningFlows() {
+    try {
+      return this.executorLoader.fetchUnfinishedFlowsMetadata().size();
+    } catch (final ExecutorManagerException e) {
+      logger.error("Failed to get the number of running flows.", e);
+      return 0;
+    }
+  }
+
   /**
    * Get all running (unfinished) flows from database. {@inheritDoc}
    */
@@ -463,6 +501,14 @@ public abstract class AbstractExecutorManagerAdapter extends EventHandler implem
     }
   }
 
+  protected int getJobLogLength(final ExecutableFlow exFlow, final String jobId,
+      final int attempt, final Pair<ExecutionReference, ExecutableFlow> pair)
+      throws ExecutorManagerException {
+    // The log of a running flow is on its executor and may still grow
+    return pair != null ? -1
+        : this.executorLoader.fetchLogLength(exFlow.getExecutionId(), jobId, attempt);
+  }
+
   protected List<Object> getExecutionJobStats(
       final ExecutableFlow exFlow, final String jobId, final int attempt,
       final Pair<ExecutionReference, ExecutableFlow> pair) throws ExecutorManagerException {
@@ -501,6 +547,14 @@ public abstract class AbstractExecutorManagerAdapter extends EventHandler implem
     return getJobLogData(exFlow, jobId, offset, length, attempt, pair);
   }
 
+  @Override
+  public int getExecutionJobLogLength(final ExecutableFlow exFlow, final String jobId,
+      final int attempt) throws ExecutorManagerException {
+    final Pair<ExecutionReference, ExecutableFlow> pair = this.executorLoader
+        .fetchActiveFlowByExecId(exFlow.getExecutionId());
+    return getJobLogLength(exFlow, jobId, attempt, pair);
+  }
+
   @Override
   public List<Object> getExecutionJobStats(final ExecutableFlow exFlow, final String jobId,
       final int attempt) throws ExecutorManagerException {
@@ -530,6 +584,7 @@ public abstract class AbstractExecutorManagerAdapter extends EventHandler implem
           // Flow is still queued, need to finalize it and update the status in DB.
           ExecutionControllerUtils.finalizeFlow(this.executorLoader, this.alerterHolder, exFlow,
               "Cancelled before dispatching to executor", null);
+          this.executableFlowCache.invalidate(exFlow.getExecutionId());
         }
       } else {
         throw new ExecutorManagerException("Execution "
@@ -625,7 +680,7 @@ public abstract class AbstractExecutorManagerAdapter extends EventHandler implem
     boolean isRunning = false;
     try {
       isRunning = isFlowRunningHelper(projectId, flowId,
-          this.executorLoader.fetchUnfinishedFlows().values());
+          this.executorLoader.fetchUnfinishedFlowsMetadata().values());
 
     } catch (final ExecutorManagerException e) {
       logger.error(
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.executor;
+
+import azkaban.Constants;
+import azkaban.Constants.ConfigurationKeys;
+import azkaban.metrics.MetricsManager;
+import azkaban.utils.Props;
+import com.codahale.metrics.Counter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.apache.log4j.Logger;
+
+/**
+ * Cache of the executions read by the web server, so that several users watching the same
+ * execution don't each cause the flow data to be fetched and decoded.
+ *
+ * <p>The cache is bounded by the total number of jobs of the cached executions, as that is what
+ * their memory footprint grows with. Finished executions don't change any more and stay cached
+ * until evicted. Unfinished ones are reloaded from the DB once their cached copy is older than the
+ * refresh interval; in between, the running executions updater applies the update maps it gets
+ * from the executors to the cached copies.
+ *
+ * <p>The cached instances are shared by all callers and must only be read to be displayed: they may
+ * be a few seconds behind the DB, and the updates are applied to them in place, like to the flows
+ * kept in memory by the executor manager. Whatever acts on an execution (e.g. kills or finalizes
+ * it) must read it from the DB instead.
+ *
+ * <p>It also serves long polls for execution updates, without holding a thread per request: the
+ * suspended requests register a listener, called once when an update is applied to the execution
+ * or its cached copy is invalidated. The executions which get no pushed updates (e.g. with POLL
+ * dispatch) are checked for changes every refresh interval by a single thread, which calls their
+ * listeners if they changed.
+ */
+@Singleton
+public class ExecutableFlowCache {
+
+  public static final String HIT_COUNTER_NAME = "executable-flow-cache-hit";
+  public static final String MISS_COUNTER_NAME = "executable-flow-cache-miss";
+  public static final String HIT_RATIO_GAUGE_NAME = "executable-flow-cache-hit-ratio";
+  public static final String SIZE_GAUGE_NAME = "executable-flow-cache-size";
+
+  private static final Logger logger = Logger.getLogger(ExecutableFlowCache.class);
+  private static final long MIN_CHECK_INTERVAL_MS = 1000L;
+
+  private final ExecutorLoader executorLoader;
+  private final long refreshIntervalMs;
+  // null if the cache is disabled
+  private final Cache<Integer, Entry> cache;
+  private final Counter hitCounter;
+  private final Counter missCounter;
+  private final int maxListeners;
+  // Guarded by itself, as is numListeners
+  private final Map<Integer, List<Runnable>> updateListeners = new HashMap<>();
+  private int numListeners = 0;
+
+  @Inject
+  public ExecutableFlowCache(final Props azkProps, final ExecutorLoader executorLoader,
+      final MetricsManager metricsManager) {
+    this.executorLoader = executorLoader;
+    this.refreshIntervalMs = azkProps.getLong(
+        ConfigurationKeys.AZKABAN_EXECUTABLE_FLOW_CACHE_REFRESH_INTERVAL_MS,
+        Constants.DEFAULT_AZKABAN_EXECUTABLE_FLOW_CACHE_REFRESH_INTERVAL_MS);
+    final long maxNodes = azkProps.getLong(
+        ConfigurationKeys.AZKABAN_EXECUTABLE_FLOW_CACHE_MAX_NODES,
+        Constants.DEFAULT_AZKABAN_EXECUTABLE_FLOW_CACHE_MAX_NODES);
+    if (maxNodes > 0) {
+      this.cache = CacheBuilder.newBuilder()
+          .maximumWeight(maxNodes)
+          .weigher((final Integer execId, final Entry entry) -> entry.weight)
+          .build();
+    } else {
+      this.cache = null;
+    }
+
+    this.maxListeners = azkProps.getInt(
+        ConfigurationKeys.AZKABAN_EXECUTION_UPDATE_LONG_POLL_MAX_WAITERS,
+        Constants.DEFAULT_AZKABAN_EXECUTION_UPDATE_LONG_POLL_MAX_WAITERS);
+
+    this.hitCounter = metricsManager.addCounter(HIT_COUNTER_NAME);
+    this.missCounter = metricsManager.addCounter(MISS_COUNTER_NAME);
+    metricsManager.addGauge(HIT_RATIO_GAUGE_NAME, this::getHitRatio);
+    metricsManager.addGauge(SIZE_GAUGE_NAME, this::size);
+
+    if (this.maxListeners > 0) {
+      final long checkIntervalMs = Math.max(this.refreshIntervalMs, MIN_CHECK_INTERVAL_MS);
+      final ScheduledExecutorService updateChecker = Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder().setNameFormat("azk-execution-update-checker").setDaemon(true)
+              .build());
+      updateChecker.scheduleWithFixedDelay(this::checkForUpdates, checkIntervalMs,
+          checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private static int countNodes(final ExecutableFlowBase flow) {
+    int count = 1;
+    for (final ExecutableNode node : flow.getExecutableNodes()) {
+      if (node instanceof ExecutableFlowBase) {
+        count += countNodes((ExecutableFlowBase) node);
+      } else {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Get an execution, from the cache if it's there and fresh enough, else from the DB.
+   *
+   * @return the execution, or null if it doesn't exist
+   */
+  public ExecutableFlow get(final int execId) throws ExecutorManagerException {
+    if (this.cache == null) {
+      return this.executorLoader.fetchExecutableFlow(execId);
+    }
+
+    final Entry entry = this.cache.getIfPresent(execId);
+    if (entry != null) {
+      if (!isStale(entry)) {
+        this.hitCounter.inc();
+        return entry.flow;
+      }
+      this.cache.asMap().remove(execId, entry);
+    }
+
+    this.missCounter.inc();
+    try {
+      // Concurrent requests for the same execution share a single load
+      return this.cache.get(execId, () -> {
+        final ExecutableFlow flow = this.executorLoader.fetchExecutableFlow(execId);
+        return flow == null ? null : new Entry(flow);
+      }).flow;
+    } catch (final InvalidCacheLoadException e) {
+      // The execution doesn't exist
+      return null;
+    } catch (final ExecutionException e) {
+      if (e.getCause() instanceof ExecutorManagerException) {
+        throw (ExecutorManagerException) e.getCause();
+      }
+      throw new ExecutorManagerException("Error loading execution " + execId, e.getCause());
+    }
+  }
+
+  /**
+   * Register a listener to be called once, when the execution is updated or its cached copy is
+   * invalidated. Used by the long polls for execution updates, which then read the execution again.
+   *
+   * @return false, without registering the listener, if too many listeners are registered
+   */
+  public boolean addUpdateListener(final int execId, final Runnable listener) {
+    synchronized (this.updateListeners) {
+      if (this.numListeners >= this.maxListeners) {
+        return false;
+      }
+      this.numListeners++;
+      this.updateListeners.computeIfAbsent(execId, id -> new ArrayList<>()).add(listener);
+      return true;
+    }
+  }
+
+  /**
+   * Unregister a listener which wasn't called, e.g. because the long poll timed out.
+   */
+  public void removeUpdateListener(final int execId, final Runnable listener) {
+    synchronized (this.updateListeners) {
+      final List<Runnable> listeners = this.updateListeners.get(execId);
+      if (listeners != null && listeners.remove(listener)) {
+        this.numListeners--;
+        if (listeners.isEmpty()) {
+          this.updateListeners.remove(execId);
+        }
+      }
+    }
+  }
+
+  /**
+   * Apply an update map received from an executor to the cached copy of the execution, if any.
+   */
+  public void applyUpdate(final int execId, final Map<String, Object> updateData) {
+    final Entry entry = this.cache == null ? null : this.cache.getIfPresent(execId);
+    if (entry != null) {
+      try {
+        entry.flow.applyUpdateObject(updateData);
+        if (this.cache.getIfPresent(execId) != entry) {
+          // Reloaded meanwhile, the update may be missing from the cached copy
+          this.cache.invalidate(execId);
+        }
+      } catch (final RuntimeException e) {
+        // e.g. the update refers to a node the cached copy doesn't have, reload it next time
+        logger.warn("Failed to apply update to cached execution " + execId, e);
+        this.cache.invalidate(execId);
+      }
+    }
+    notifyListeners(execId);
+  }
+
+  /**
+   * Drop the cached copy of an execution, e.g. after it was modified in the DB.
+   */
+  public void invalidate(final int execId) {
+    if (this.cache != null) {
+      this.cache.invalidate(execId);
+    }
+    notifyListeners(execId);
+  }
+
+  public long size() {
+    return this.cache == null ? 0 : this.cache.size();
+  }
+
+  public double getHitRatio() {
+    final long hits = this.hitCounter.getCount();
+    final long total = hits + this.missCounter.getCount();
+    return total == 0 ? 1.0 : (double) hits / total;
+  }
+
+  private void notifyListeners(final int execId) {
+    final List<Runnable> listeners;
+    synchronized (this.updateListeners) {
+      listeners = this.updateListeners.remove(execId);
+      if (listeners == null) {
+        return;
+      }
+      this.numListeners -= listeners.size();
+    }
+    for (final Runnable listener : listeners) {
+      try {
+        listener.run();
+      } catch (final RuntimeException e) {
+        logger.warn("Execution update listener of " + execId + " failed", e);
+      }
+    }
+  }
+
+  /**
+   * Reload the stale cached copies of the executions with listeners, and call the listeners of
+   * the ones that changed.
+   */
+  private void checkForUpdates() {
+    final List<Integer> execIds;
+    synchronized (this.updateListeners) {
+      execIds = new ArrayList<>(this.updateListeners.keySet());
+    }
+    for (final int execId : execIds) {
+      try {
+        final Entry entry = this.cache == null ? null : this.cache.getIfPresent(execId);
+        if (entry != null && !isStale(entry)) {
+          // Up to date, the pushed updates already called the listeners
+          continue;
+        }
+        final ExecutableFlow flow = get(execId);
+        if (entry == null || flow == null || flow.getUpdateTime() != entry.flow.getUpdateTime()
+            || flow.getStatus() != entry.flow.getStatus()) {
+          notifyListeners(execId);
+        }
+      } catch (final Exception e) {
+        logger.warn("Failed to check execution " + execId + " for updates", e);
+      }
+    }
+  }
+
+  private boolean isStale(final Entry entry) {
+    return !ExecutionControllerUtils.isFinished(entry.flow)
+        && System.currentTimeMillis() - entry.loadTime >= this.refreshIntervalMs;
+  }
+
+  private static class Entry {
+
+    private final ExecutableFlow flow;
+    private final int weight;
+    private final long loadTime;
+
+    private Entry(final ExecutableFlow flow) {
+      this.flow = flow;
+      this.weight = countNodes(flow);
+      this.loadTime = System.currentTimeMillis();
+    }
+  }
+}
@@ -73,7 +73,7 @@ public final class ExecutableFlowPriorityComparator implements
   }
 
   /* Helper method to fetch flow priority from flow props */
-  private int getPriority(final ExecutableFlow exflow) {
+  static int getPriority(final ExecutableFlow exflow) {
     final ExecutionOptions options = exflow.getExecutionOptions();
     int priority = ExecutionOptions.DEFAULT_FLOW_PRIORITY;
     if (options != null
@@ -285,6 +285,24 @@ public class ExecutableNode {
     this.setClusterInfo(null);
   }
 
+  /**
+   * @return a copy of the state stored in the job's row (status, times, attempt and output props)
+   * which isn't affected by later changes to this node. It has the same parent flow, but isn't one
+   * of its nodes.
+   */
+  public ExecutableNode createStatusSnapshot() {
+    final ExecutableNode snapshot = new ExecutableNode();
+    snapshot.setId(this.id);
+    snapshot.setParentFlow(this.parentFlow);
+    snapshot.setStatus(this.status);
+    snapshot.setStartTime(this.startTime);
+    snapshot.setEndTime(this.endTime);
+    snapshot.setUpdateTime(this.updateTime);
+    snapshot.setOutputProps(this.outputProps);
+    snapshot.attempt.set(this.attempt.get());
+    return snapshot;
+  }
+
   public List<Object> getAttemptObjects() {
     final List<Object> array = new ArrayList<>();
 
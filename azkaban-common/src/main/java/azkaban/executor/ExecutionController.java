@@ -51,9 +51,10 @@ public class ExecutionController extends AbstractExecutorManagerAdapter {
       final CommonMetrics commonMetrics,
       final ExecutorApiGateway apiGateway, final AlerterHolder alerterHolder, final
   ExecutorHealthChecker executorHealthChecker, final EventListener eventListener,
-      final ContainerizationMetrics containerizationMetrics) {
+      final ContainerizationMetrics containerizationMetrics,
+      final ExecutableFlowCache executableFlowCache) {
     super(azkProps, executorLoader, commonMetrics, apiGateway, alerterHolder, eventListener,
-        containerizationMetrics);
+        containerizationMetrics, executableFlowCache);
     this.executorHealthChecker = executorHealthChecker;
   }
 
@@ -144,7 +145,7 @@ public class ExecutionController extends AbstractExecutorManagerAdapter {
   public List<Integer> getRunningFlowIds() {
     final List<Integer> allIds = new ArrayList<>();
     try {
-      getExecutionIdsHelper(allIds, this.executorLoader.fetchUnfinishedFlows().values());
+      getExecutionIdsHelper(allIds, this.executorLoader.fetchUnfinishedFlowsMetadata().values());
     } catch (final ExecutorManagerException e) {
       logger.error("Failed to get running flow ids.", e);
     }
@@ -31,15 +31,18 @@ public class ExecutionFinalizer {
   private final ExecutorManagerUpdaterStage updaterStage;
   private final AlerterHolder alerterHolder;
   private final RunningExecutions runningExecutions;
+  private final ExecutableFlowCache executableFlowCache;
 
   @Inject
   public ExecutionFinalizer(final ExecutorLoader executorLoader,
       final ExecutorManagerUpdaterStage updaterStage,
-      final AlerterHolder alerterHolder, final RunningExecutions runningExecutions) {
+      final AlerterHolder alerterHolder, final RunningExecutions runningExecutions,
+      final ExecutableFlowCache executableFlowCache) {
     this.executorLoader = executorLoader;
     this.updaterStage = updaterStage;
     this.alerterHolder = alerterHolder;
     this.runningExecutions = runningExecutions;
+    this.executableFlowCache = executableFlowCache;
   }
 
   /**
@@ -89,6 +92,8 @@ public class ExecutionFinalizer {
       alertUser = false; // failed due to azkaban internal error, not to alert user
       logger.error(e);
     }
+    // The final state is in the DB, whether the cached copy got all the updates or not
+    this.executableFlowCache.invalidate(execId);
 
     // TODO append to the flow log that we marked this flow as failed + the extraReasons
 
@@ -17,12 +17,15 @@
 package azkaban.executor;
 
 import azkaban.DispatchMethod;
+import azkaban.Constants.ConfigurationKeys;
 import azkaban.db.DatabaseOperator;
 import azkaban.db.EncodingType;
 import azkaban.db.SQLTransaction;
+import azkaban.utils.BinaryObjectCodec;
 import azkaban.utils.GZIPUtils;
 import azkaban.utils.JSONUtils;
 import azkaban.utils.Pair;
+import azkaban.utils.Props;
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.ResultSet;
@@ -48,14 +51,32 @@ public class ExecutionFlowDao {
   private static final Logger logger = Logger.getLogger(ExecutionFlowDao.class);
   private final DatabaseOperator dbOperator;
   private final MysqlNamedLock mysqlNamedLock;
+  private final EncodingType flowDataEncodingType;
 
   private static final String POLLING_LOCK_NAME = "execution_flows_polling";
   private static final int GET_LOCK_TIMEOUT_IN_SECONDS = 5;
+  private static final String UPDATE_EXECUTABLE_FLOW_DATA =
+      "UPDATE execution_flows "
+          + "SET status=?,update_time=?,start_time=?,end_time=?,enc_type=?,flow_data=? "
+          + "WHERE exec_id=?";
 
-  @Inject
   public ExecutionFlowDao(final DatabaseOperator dbOperator, final MysqlNamedLock mysqlNamedLock) {
+    this(dbOperator, mysqlNamedLock, EncodingType.GZIP);
+  }
+
+  @Inject
+  public ExecutionFlowDao(final DatabaseOperator dbOperator, final MysqlNamedLock mysqlNamedLock,
+      final Props props) {
+    this(dbOperator, mysqlNamedLock, EncodingType.valueOf(props.getString(
+        ConfigurationKeys.AZKABAN_EXECUTION_FLOW_DATA_ENCODING, EncodingType.GZIP.name())
+        .toUpperCase()));
+  }
+
+  public ExecutionFlowDao(final DatabaseOperator dbOperator, final MysqlNamedLock mysqlNamedLock,
+      final EncodingType flowDataEncodingType) {
     this.dbOperator = dbOperator;
     this.mysqlNamedLock = mysqlNamedLock;
+    this.flowDataEncodingType = flowDataEncodingType;
   }
 
   public void uploadExecutableFlow(final ExecutableFlow flow)
@@ -292,25 +313,63 @@ public class ExecutionFlowDao {
   }
 
   void updateExecutableFlow(final ExecutableFlow flow) throws ExecutorManagerException {
-    updateExecutableFlow(flow, EncodingType.GZIP);
+    updateExecutableFlow(flow, this.flowDataEncodingType);
   }
 
   private void updateExecutableFlow(final ExecutableFlow flow, final EncodingType encType)
       throws ExecutorManagerException {
-    final String UPDATE_EXECUTABLE_FLOW_DATA =
-        "UPDATE execution_flows "
-            + "SET status=?,update_time=?,start_time=?,end_time=?,enc_type=?,flow_data=? "
-            + "WHERE exec_id=?";
+    final Object[] params = getUpdateExecutableFlowParams(flow, encType);
+    try {
+      this.dbOperator.update(UPDATE_EXECUTABLE_FLOW_DATA, params);
+    } catch (final SQLException e) {
+      throw new ExecutorManagerException("Error updating flow.", e);
+    }
+  }
+
+  /**
+   * Update several flows with a single JDBC batch. A flow which fails to encode is marked as
+   * failed, as in {@link #updateExecutableFlow(ExecutableFlow)}, without preventing the others
+   * from being written.
+   */
+  void updateExecutableFlows(final List<ExecutableFlow> flows) throws ExecutorManagerException {
+    final List<Object[]> params = new ArrayList<>(flows.size());
+    ExecutorManagerException encodingError = null;
+    for (final ExecutableFlow flow : flows) {
+      try {
+        params.add(getUpdateExecutableFlowParams(flow, this.flowDataEncodingType));
+      } catch (final ExecutorManagerException e) {
+        logger.error(e.getMessage(), e);
+        encodingError = e;
+      }
+    }
+
+    if (!params.isEmpty()) {
+      try {
+        this.dbOperator.batch(UPDATE_EXECUTABLE_FLOW_DATA, params.toArray(new Object[0][]));
+      } catch (final SQLException e) {
+        throw new ExecutorManagerException("Error updating flows.", e);
+      }
+    }
+    if (encodingError != null) {
+      throw encodingError;
+    }
+  }
 
+  private Object[] getUpdateExecutableFlowParams(final ExecutableFlow flow,
+      final EncodingType encType) throws ExecutorManagerException {
     byte[] data = null;
     try {
       // If this action fails, the execution must be failed.
-      final String json = JSONUtils.toJSON(flow.toObject());
-      final byte[] stringData = json.getBytes("UTF-8");
-      data = stringData;
-      // Todo kunkun-tang: use a common method to transform stringData to data.
-      if (encType == EncodingType.GZIP) {
-        data = GZIPUtils.gzipBytes(stringData);
+      if (encType == EncodingType.BINARY) {
+        data = BinaryObjectCodec.encode(flow.toObject());
+      } else {
+        final String json = JSONUtils.toJSON(flow.toObject());
+        final byte[] stringData = json.getBytes("UTF-8");
+        data = stringData;
+        // Todo kunkun-tang: use a common method to transform stringData to data.
+        if (encType == EncodingType.GZIP) {
+          data = GZIPUtils.gzipBytes(stringData);
+        }
       }
     } catch (final IOException e) {
       flow.setStatus(Status.FAILED);
@@ -329,13 +388,8 @@ public class ExecutionFlowDao {
           + "RuntimeException. Execution Id  = " + flow.getExecutionId(), re);
     }
 
-    try {
-      this.dbOperator.update(UPDATE_EXECUTABLE_FLOW_DATA, flow.getStatus()
-          .getNumVal(), flow.getUpdateTime(), flow.getStartTime(), flow
-          .getEndTime(), encType.getNumVal(), data, flow.getExecutionId());
-    } catch (final SQLException e) {
-      throw new ExecutorManagerException("Error updating flow.", e);
-    }
+    return new Object[]{flow.getStatus().getNumVal(), flow.getUpdateTime(), flow.getStartTime(),
+        flow.getEndTime(), encType.getNumVal(), data, flow.getExecutionId()};
   }
 
   private void updateExecutableFlowStatusInDB(final ExecutableFlow flow)
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.executor;
+
+import azkaban.db.DatabaseOperator;
+import azkaban.db.EncodingType;
+import azkaban.db.SQLTransaction;
+import azkaban.utils.GZIPUtils;
+import azkaban.utils.JSONUtils;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.apache.commons.dbutils.ResultSetHandler;
+import org.apache.log4j.Logger;
+
+/**
+ * DAO for the execution_flow_updates table, which stores incremental updates of running
+ * executions.
+ *
+ * <p>Instead of rewriting the whole flow_data blob of execution_flows on every job status change,
+ * a running flow may append only the nodes that changed since its previous write. The full state
+ * of an execution is the latest flow_data snapshot plus every update newer than that snapshot.
+ * Updates are deleted once a newer snapshot has been written.
+ */
+@Singleton
+public class ExecutionFlowUpdatesDao {
+
+  private static final Logger logger = Logger.getLogger(ExecutionFlowUpdatesDao.class);
+  private static final String DELETE_EXECUTABLE_FLOW_UPDATES =
+      "DELETE FROM execution_flow_updates WHERE exec_id=? AND update_time<=?";
+
+  private final DatabaseOperator dbOperator;
+
+  @Inject
+  public ExecutionFlowUpdatesDao(final DatabaseOperator dbOperator) {
+    this.dbOperator = dbOperator;
+  }
+
+  /**
+   * Persist the nodes of the flow which were updated after {@code lastUpdateTime}. The status and
+   * time columns of execution_flows are kept up to date in the same transaction, so listings that
+   * only read those columns stay accurate.
+   */
+  public void appendExecutableFlowUpdate(final ExecutableFlow flow, final long lastUpdateTime)
+      throws ExecutorManagerException {
+    final String UPDATE_EXECUTABLE_FLOW_STATUS =
+        "UPDATE execution_flows SET status=?,update_time=?,start_time=?,end_time=? "
+            + "WHERE exec_id=?";
+    final String INSERT_EXECUTABLE_FLOW_UPDATE = "INSERT INTO execution_flow_updates "
+        + "(exec_id, update_time, enc_type, update_data) values (?,?,?,?)";
+
+    final byte[] data;
+    try {
+      final String json = JSONUtils.toJSON(flow.toUpdateObject(lastUpdateTime));
+      data = GZIPUtils.gzipBytes(json.getBytes(StandardCharsets.UTF_8));
+    } catch (final IOException e) {
+      throw new ExecutorManagerException("Error encoding the update of execution flow. "
+          + "Execution Id  = " + flow.getExecutionId(), e);
+    }
+
+    final SQLTransaction<Integer> appendUpdate = transOperator -> {
+      transOperator.update(UPDATE_EXECUTABLE_FLOW_STATUS, flow.getStatus().getNumVal(),
+          flow.getUpdateTime(), flow.getStartTime(), flow.getEndTime(), flow.getExecutionId());
+      return transOperator.update(INSERT_EXECUTABLE_FLOW_UPDATE, flow.getExecutionId(),
+          flow.getUpdateTime(), EncodingType.GZIP.getNumVal(), data);
+    };
+
+    try {
+      this.dbOperator.transaction(appendUpdate);
+    } catch (final SQLException e) {
+      throw new ExecutorManagerException("Error appending update of execution "
+          + flow.getExecutionId(), e);
+    }
+  }
+
+  /**
+   * Remove the updates of an execution which are covered by a snapshot taken at {@code
+   * snapshotTime}. Updates appended concurrently with a later time are kept.
+   */
+  public int deleteExecutableFlowUpdates(final int execId, final long snapshotTime)
+      throws ExecutorManagerException {
+    try {
+      return this.dbOperator.update(DELETE_EXECUTABLE_FLOW_UPDATES, execId, snapshotTime);
+    } catch (final SQLException e) {
+      throw new ExecutorManagerException("Error deleting updates of execution " + execId, e);
+    }
+  }
+
+  /**
+   * Same as {@link #deleteExecutableFlowUpdates(int, long)} for several executions, keyed by
+   * execution id, with a single JDBC batch.
+   */
+  public void deleteExecutableFlowUpdates(final Map<Integer, Long> snapshotTimes)
+      throws ExecutorManagerException {
+    if (snapshotTimes.isEmpty()) {
+      return;
+    }
+    final Object[][] params = snapshotTimes.entrySet().stream()
+        .map(e -> new Object[]{e.getKey(), e.getValue()})
+        .toArray(Object[][]::new);
+    try {
+      this.dbOperator.batch(DELETE_EXECUTABLE_FLOW_UPDATES, params);
+    } catch (final SQLException e) {
+      throw new ExecutorManagerException("Error deleting updates of executions "
+          + snapshotTimes.keySet(), e);
+    }
+  }
+
+  /**
+   * Bring a flow read from its flow_data snapshot up to date by applying, in order, every update
+   * which is newer than the snapshot.
+   */
+  public void applyExecutableFlowUpdates(final ExecutableFlow flow)
+      throws ExecutorManagerException {
+    if (flow == null) {
+      return;
+    }
+    applyExecutableFlowUpdates(Collections.singletonList(flow));
+  }
+
+  /**
+   * Same as {@link #applyExecutableFlowUpdates(ExecutableFlow)}, fetching the updates of all the
+   * given flows with a single query.
+   */
+  public void applyExecutableFlowUpdates(final Collection<ExecutableFlow> flows)
+      throws ExecutorManagerException {
+    final Map<Integer, ExecutableFlow> unfinishedFlows = new HashMap<>();
+    for (final ExecutableFlow flow : flows) {
+      // Finished flows always end with a snapshot
+      if (!Status.isStatusFinished(flow.getStatus())) {
+        unfinishedFlows.put(flow.getExecutionId(), flow);
+      }
+    }
+    if (unfinishedFlows.isEmpty()) {
+      return;
+    }
+
+    final StringBuilder query = new StringBuilder(FetchExecutableFlowUpdates.FETCH_UPDATES);
+    query.append(" WHERE exec_id IN (");
+    query.append(String.join(",", Collections.nCopies(unfinishedFlows.size(), "?")));
+    query.append(") ORDER BY exec_id, update_time, update_id");
+
+    final List<Update> updates;
+    try {
+      updates = this.dbOperator.query(query.toString(), new FetchExecutableFlowUpdates(),
+          unfinishedFlows.keySet().toArray());
+    } catch (final SQLException e) {
+      throw new ExecutorManagerException("Error fetching execution flow updates", e);
+    }
+
+    for (final Update update : updates) {
+      final ExecutableFlow flow = unfinishedFlows.get(update.execId);
+      // Skip updates already contained in the snapshot, which may not have been deleted yet
+      if (flow == null || update.updateTime <= flow.getUpdateTime()) {
+        continue;
+      }
+      try {
+        flow.applyUpdateObject(update.decode());
+      } catch (final IOException | RuntimeException e) {
+        logger.error("Failed to apply update at " + update.updateTime + " to execution "
+            + update.execId, e);
+      }
+    }
+  }
+
+  private static class Update {
+
+    private final int execId;
+    private final long updateTime;
+    private final EncodingType encType;
+    private final byte[] data;
+
+    private Update(final int execId, final long updateTime, final EncodingType encType,
+        final byte[] data) {
+      this.execId = execId;
+      this.updateTime = updateTime;
+      this.encType = encType;
+      this.data = data;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> decode() throws IOException {
+      return (Map<String, Object>) GZIPUtils.transformBytesToObject(this.data, this.encType);
+    }
+  }
+
+  /**
+   * JDBC ResultSetHandler to fetch records from execution_flow_updates table
+   */
+  private static class FetchExecutableFlowUpdates implements ResultSetHandler<List<Update>> {
+
+    private static final String FETCH_UPDATES =
+        "SELECT exec_id, update_time, enc_type, update_data FROM execution_flow_updates";
+
+    @Override
+    public List<Update> handle(final ResultSet rs) throws SQLException {
+      if (!rs.next()) {
+        return Collections.emptyList();
+      }
+
+      final List<Update> updates = new ArrayList<>();
+      do {
+        final byte[] data = rs.getBytes(4);
+        if (data != null) {
+          updates.add(new Update(rs.getInt(1), rs.getLong(2),
+              EncodingType.fromInteger(rs.getInt(3)), data));
+        }
+      } while (rs.next());
+
+      return updates;
+    }
+  }
+}
@@ -40,6 +40,9 @@ import org.apache.log4j.Logger;
 public class ExecutionJobDao {
 
   private static final Logger logger = Logger.getLogger(ExecutorDao.class);
+  private static final String UPDATE_EXECUTION_NODE = "UPDATE execution_jobs "
+      + "SET start_time=?, end_time=?, status=?, output_params=? "
+      + "WHERE exec_id=? AND flow_id=? AND job_id=? AND attempt=?";
   private final DatabaseOperator dbOperator;
 
   @Inject
@@ -78,10 +81,32 @@ public class ExecutionJobDao {
   }
 
   public void updateExecutableNode(final ExecutableNode node) throws ExecutorManagerException {
-    final String UPSERT_EXECUTION_NODE = "UPDATE execution_jobs "
-        + "SET start_time=?, end_time=?, status=?, output_params=? "
-        + "WHERE exec_id=? AND flow_id=? AND job_id=? AND attempt=?";
+    final Object[] params = getUpdateExecutableNodeParams(node);
+    try {
+      this.dbOperator.update(UPDATE_EXECUTION_NODE, params);
+    } catch (final SQLException e) {
+      throw new ExecutorManagerException("Error updating job " + node.getId(), e);
+    }
+  }
 
+  /**
+   * Update several job rows with a single JDBC batch.
+   */
+  public void updateExecutableNodes(final List<ExecutableNode> nodes)
+      throws ExecutorManagerException {
+    final Object[][] params = new Object[nodes.size()][];
+    for (int i = 0; i < nodes.size(); i++) {
+      params[i] = getUpdateExecutableNodeParams(nodes.get(i));
+    }
+    try {
+      this.dbOperator.batch(UPDATE_EXECUTION_NODE, params);
+    } catch (final SQLException e) {
+      throw new ExecutorManagerException("Error updating " + nodes.size() + " jobs", e);
+    }
+  }
+
+  private Object[] getUpdateExecutableNodeParams(final ExecutableNode node)
+      throws ExecutorManagerException {
     byte[] outputParam = null;
     final Props outputProps = node.getOutputProps();
     if (outputProps != null) {
@@ -93,14 +118,9 @@ public class ExecutionJobDao {
         throw new ExecutorManagerException("Error encoding input params");
       }
     }
-    try {
-      this.dbOperator.update(UPSERT_EXECUTION_NODE, node.getStartTime(), node
-          .getEndTime(), node.getStatus().getNumVal(), outputParam, node
-          .getExecutableFlow().getExecutionId(), node.getParentFlow()
-          .getFlowPath(), node.getId(), node.getAttempt());
-    } catch (final SQLException e) {
-      throw new ExecutorManagerException("Error updating job " + node.getId(), e);
-    }
+    return new Object[]{node.getStartTime(), node.getEndTime(), node.getStatus().getNumVal(),
+        outputParam, node.getExecutableFlow().getExecutionId(),
+        node.getParentFlow().getFlowPath(), node.getId(), node.getAttempt()};
   }
 
   public List<ExecutableJobInfo> fetchJobInfoAttempts(final int execId, final String jobId)
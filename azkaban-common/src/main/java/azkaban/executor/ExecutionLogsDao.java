@@ -17,26 +17,30 @@
 package azkaban.executor;
 
 import azkaban.db.DatabaseOperator;
-import azkaban.db.DatabaseTransOperator;
 import azkaban.db.EncodingType;
-import azkaban.db.SQLTransaction;
+import azkaban.spi.LogStorage;
 import azkaban.utils.FileIOUtils;
 import azkaban.utils.FileIOUtils.LogData;
 import azkaban.utils.GZIPUtils;
 import azkaban.utils.Pair;
-import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.apache.commons.dbutils.ResultSetHandler;
-import org.apache.commons.io.IOUtils;
+import org.apache.commons.dbutils.handlers.ScalarHandler;
 import org.apache.log4j.Logger;
 import org.joda.time.DateTime;
 
@@ -45,19 +49,49 @@ import org.joda.time.DateTime;
 public class ExecutionLogsDao {
 
   private static final Logger logger = Logger.getLogger(ExecutionLogsDao.class);
+  // 1 MB of logs per transaction
+  private static final int DEFAULT_CHUNKS_PER_TRANSACTION = 20;
+  private static final String INSERT_EXECUTION_LOGS = "INSERT INTO execution_logs "
+      + "(exec_id, name, attempt, enc_type, start_byte, end_byte, "
+      + "log, upload_time) VALUES (?,?,?,?,?,?,?,?)";
   private final DatabaseOperator dbOperator;
+  // Null if the logs are stored in the DB
+  private final LogStorage logStorage;
   private final EncodingType defaultEncodingType = EncodingType.GZIP;
+  private final int chunksPerTransaction;
 
   @Inject
+  ExecutionLogsDao(final DatabaseOperator dbOperator, @Nullable final LogStorage logStorage) {
+    this(dbOperator, logStorage, DEFAULT_CHUNKS_PER_TRANSACTION);
+  }
+
   ExecutionLogsDao(final DatabaseOperator dbOperator) {
+    this(dbOperator, null, DEFAULT_CHUNKS_PER_TRANSACTION);
+  }
+
+  ExecutionLogsDao(final DatabaseOperator dbOperator, final LogStorage logStorage,
+      final int chunksPerTransaction) {
     this.dbOperator = dbOperator;
+    this.logStorage = logStorage;
+    this.chunksPerTransaction = chunksPerTransaction;
+  }
+
+  /**
+   * @return the key of a log in the log storage
+   */
+  static String getLogKey(final int execId, final String name, final int attempt)
+      throws UnsupportedEncodingException {
+    // The ids of the jobs of embedded flows contain ':', which isn't allowed in HDFS paths
+    final String fileName = name.isEmpty() ? "flow" : "job-" + URLEncoder.encode(name, "UTF-8");
+    return execId + "/" + fileName + "." + attempt + ".log";
   }
 
   // TODO kunkun-tang: the interface's parameter is called endByte, but actually is length.
   LogData fetchLogs(final int execId, final String name, final int attempt,
       final int startByte,
       final int length) throws ExecutorManagerException {
-    final FetchLogsHandler handler = new FetchLogsHandler(startByte, length + startByte);
+    final FetchLogsHandler handler =
+        new FetchLogsHandler(startByte, length + startByte, this.logStorage);
     try {
       return this.dbOperator.query(FetchLogsHandler.FETCH_LOGS, handler,
           execId, name, attempt, startByte, startByte + length);
@@ -69,69 +103,174 @@ public class ExecutionLogsDao {
 
   public void uploadLogFile(final int execId, final String name, final int attempt,
       final File... files) throws ExecutorManagerException {
-    final SQLTransaction<Integer> transaction = transOperator -> {
-      uploadLogFile(transOperator, execId, name, attempt, files, this.defaultEncodingType);
-      transOperator.getConnection().commit();
-      return 1;
-    };
     try {
-      this.dbOperator.transaction(transaction);
-    } catch (final SQLException e) {
+      if (this.logStorage != null) {
+        uploadLogFileToLogStorage(execId, name, attempt, files);
+      } else {
+        uploadLogFile(execId, name, attempt, files, this.defaultEncodingType);
+      }
+    } catch (final SQLException | IOException e) {
       logger.error("uploadLogFile failed.", e);
       throw new ExecutorManagerException("uploadLogFile failed.", e);
     }
   }
 
-  private void uploadLogFile(final DatabaseTransOperator transOperator, final int execId,
-      final String name,
-      final int attempt, final File[] files, final EncodingType encType)
-      throws SQLException {
+  /**
+   * Stores the files as one log in the log storage, in the {@link FramedLogFormat}, and a single
+   * row pointing to it in the DB.
+   */
+  private void uploadLogFileToLogStorage(final int execId, final String name, final int attempt,
+      final File[] files) throws SQLException, IOException {
+    final String key = getLogKey(execId, name, attempt);
+    final File headerFile = File.createTempFile("azkaban-log-header", ".tmp");
+    final File framesFile = File.createTempFile("azkaban-log-frames", ".tmp");
+    final long length;
+    try {
+      length = FramedLogFormat.write(files, headerFile, framesFile);
+      this.logStorage.putLog(key, headerFile, framesFile);
+    } finally {
+      headerFile.delete();
+      framesFile.delete();
+    }
+    try {
+      this.dbOperator.update(INSERT_EXECUTION_LOGS, execId, name, attempt,
+          EncodingType.EXTERNAL.getNumVal(), 0, (int) Math.min(length, Integer.MAX_VALUE),
+          key.getBytes(StandardCharsets.UTF_8), DateTime.now().getMillis());
+    } catch (final SQLException e) {
+      // Not if it's the log of an earlier upload, overwritten by this one
+      if (!isLogUploaded(execId, name, attempt)) {
+        deleteFromLogStorage(key);
+      }
+      throw e;
+    }
+  }
+
+  private boolean isLogUploaded(final int execId, final String name, final int attempt) {
+    final String FETCH_LOG_COUNT = "SELECT COUNT(*) FROM execution_logs "
+        + "WHERE exec_id=? AND name=? AND attempt=?";
+    try {
+      final Number count = this.dbOperator.query(FETCH_LOG_COUNT, new ScalarHandler<>(),
+          execId, name, attempt);
+      return count != null && count.intValue() > 0;
+    } catch (final SQLException e) {
+      logger.error("Failed to check if log " + execId + " : " + name + " was uploaded.", e);
+      // Rather keep an unused log than remove a used one
+      return true;
+    }
+  }
+
+  private void deleteFromLogStorage(final String key) {
+    try {
+      this.logStorage.deleteLog(key);
+    } catch (final IOException e) {
+      logger.error("Failed to delete log " + key + " from the log storage.", e);
+    }
+  }
+
+  /**
+   * Chunks the files into rows, inserted with a JDBC batch and committed every
+   * chunksPerTransaction rows. The files are read and compressed outside of the transactions, so
+   * a large log doesn't hold a connection and a transaction for its whole upload. If the upload
+   * fails, the rows it already committed are removed.
+   */
+  private void uploadLogFile(final int execId, final String name, final int attempt,
+      final File[] files, final EncodingType encType) throws SQLException, IOException {
     // 50K buffer... if logs are greater than this, we chunk.
     // However, we better prevent large log files from being uploaded somehow
     final byte[] buffer = new byte[50 * 1024];
+    final List<Object[]> rows = new ArrayList<>(this.chunksPerTransaction);
     int pos = 0;
-    int length = buffer.length;
     int startByte = 0;
-    try {
-      for (int i = 0; i < files.length; ++i) {
-        final File file = files[i];
-
-        final BufferedInputStream bufferedStream =
-            new BufferedInputStream(new FileInputStream(file));
-        try {
-          int size = bufferedStream.read(buffer, pos, length);
-          while (size >= 0) {
-            if (pos + size == buffer.length) {
-              // Flush here.
-              uploadLogPart(transOperator, execId, name, attempt, startByte,
-                  startByte + buffer.length, encType, buffer, buffer.length);
-
+    // End of the rows committed by this upload
+    int committedEnd = 0;
+    try (final GZIPUtils.Compressor compressor =
+        encType == EncodingType.GZIP ? new GZIPUtils.Compressor() : null) {
+      for (final File file : files) {
+        try (final InputStream inputStream = new FileInputStream(file)) {
+          int size;
+          while ((size = inputStream.read(buffer, pos, buffer.length - pos)) >= 0) {
+            pos += size;
+            if (pos == buffer.length) {
+              rows.add(createLogRow(execId, name, attempt, startByte, encType, compressor,
+                  buffer, pos));
+              startByte += pos;
               pos = 0;
-              length = buffer.length;
-              startByte += buffer.length;
-            } else {
-              // Usually end of file.
-              pos += size;
-              length = buffer.length - pos;
+              if (rows.size() == this.chunksPerTransaction) {
+                insertLogRows(rows);
+                rows.clear();
+                committedEnd = startByte;
+              }
             }
-            size = bufferedStream.read(buffer, pos, length);
           }
-        } finally {
-          IOUtils.closeQuietly(bufferedStream);
         }
       }
 
       // Final commit of buffer.
       if (pos > 0) {
-        uploadLogPart(transOperator, execId, name, attempt, startByte, startByte
-            + pos, encType, buffer, pos);
+        rows.add(createLogRow(execId, name, attempt, startByte, encType, compressor, buffer,
+            pos));
       }
+      if (!rows.isEmpty()) {
+        insertLogRows(rows);
+      }
+    } catch (final SQLException | IOException | RuntimeException e) {
+      if (committedEnd > 0) {
+        removeLogRows(execId, name, attempt, committedEnd);
+      }
+      throw e;
+    }
+  }
+
+  private static Object[] createLogRow(final int execId, final String name, final int attempt,
+      final int startByte, final EncodingType encType, final GZIPUtils.Compressor compressor,
+      final byte[] buffer, final int length) {
+    final byte[] buf;
+    if (encType == EncodingType.GZIP) {
+      buf = compressor.gzip(buffer, 0, length);
+    } else {
+      buf = Arrays.copyOf(buffer, length);
+    }
+    return new Object[]{execId, name, attempt, encType.getNumVal(), startByte,
+        startByte + length, buf, DateTime.now().getMillis()};
+  }
+
+  private void insertLogRows(final List<Object[]> rows) throws SQLException {
+    final Object[][] params = rows.toArray(new Object[0][]);
+    this.dbOperator.transaction(transOperator -> transOperator.batch(INSERT_EXECUTION_LOGS,
+        params));
+  }
+
+  /**
+   * Remove the rows of a failed upload, already committed by its previous transactions. As the
+   * rows of an upload start at byte 0, an upload of a log already uploaded fails at its first
+   * transaction and doesn't remove the rows of the earlier upload.
+   */
+  private void removeLogRows(final int execId, final String name, final int attempt,
+      final int endByte) {
+    final String DELETE_LOGS = "DELETE FROM execution_logs "
+        + "WHERE exec_id=? AND name=? AND attempt=? AND start_byte<?";
+    try {
+      this.dbOperator.update(DELETE_LOGS, execId, name, attempt, endByte);
     } catch (final SQLException e) {
-      logger.error("Error writing log part.", e);
-      throw new SQLException("Error writing log part", e);
-    } catch (final IOException e) {
-      logger.error("Error chunking.", e);
-      throw new SQLException("Error chunking", e);
+      logger.error("Failed to remove the logs of the failed upload of " + execId + " : " + name,
+          e);
+    }
+  }
+
+  /**
+   * @return the length in bytes of a log, 0 if it wasn't uploaded
+   */
+  int fetchLogLength(final int execId, final String name, final int attempt)
+      throws ExecutorManagerException {
+    final String FETCH_LOG_LENGTH = "SELECT MAX(end_byte) FROM execution_logs "
+        + "WHERE exec_id=? AND name=? AND attempt=?";
+    try {
+      final Number length = this.dbOperator.query(FETCH_LOG_LENGTH, new ScalarHandler<>(),
+          execId, name, attempt);
+      return length == null ? 0 : length.intValue();
+    } catch (final SQLException e) {
+      throw new ExecutorManagerException("Error fetching log length " + execId
+          + " : " + name, e);
     }
   }
 
@@ -139,6 +278,12 @@ public class ExecutionLogsDao {
       throws ExecutorManagerException {
     int totalRecordsRemoved = 0;
     int removedRecords;
+    if (this.logStorage != null) {
+      do {
+        removedRecords = removeLogStorageLogsBatch(millis, recordCleanupLimit);
+        totalRecordsRemoved = totalRecordsRemoved + removedRecords;
+      } while (removedRecords == recordCleanupLimit);
+    }
     do {
       removedRecords = removeExecutionLogsBatch(millis, recordCleanupLimit);
       logger.debug("Removed batch of execution logs. Count of records removed in this batch: "
@@ -154,6 +299,44 @@ public class ExecutionLogsDao {
     return totalRecordsRemoved;
   }
 
+  /**
+   * Delete the logs in the log storage uploaded before the given time, then their rows.
+   */
+  private int removeLogStorageLogsBatch(final long millis, final int recordCleanupLimit)
+      throws ExecutorManagerException {
+    final String SELECT_BY_TIME = "SELECT exec_id, name, attempt, log FROM execution_logs "
+        + "WHERE enc_type = ? AND upload_time < ? LIMIT ?";
+    final String DELETE_LOG = "DELETE FROM execution_logs "
+        + "WHERE exec_id=? AND name=? AND attempt=? AND enc_type=?";
+    try {
+      final List<Object[]> logs = this.dbOperator.query(SELECT_BY_TIME, rs -> {
+        final List<Object[]> rows = new ArrayList<>();
+        while (rs.next()) {
+          rows.add(new Object[]{rs.getInt(1), rs.getString(2), rs.getInt(3),
+              new String(rs.getBytes(4), StandardCharsets.UTF_8)});
+        }
+        return rows;
+      }, EncodingType.EXTERNAL.getNumVal(), millis, recordCleanupLimit);
+      if (logs.isEmpty()) {
+        return 0;
+      }
+
+      final Object[][] params = new Object[logs.size()][];
+      for (int i = 0; i < logs.size(); i++) {
+        final Object[] row = logs.get(i);
+        // The row is removed even if the file couldn't be, so that the cleanup moves on
+        deleteFromLogStorage((String) row[3]);
+        params[i] = new Object[]{row[0], row[1], row[2], EncodingType.EXTERNAL.getNumVal()};
+      }
+      this.dbOperator.batch(DELETE_LOG, params);
+      return logs.size();
+    } catch (final SQLException e) {
+      logger.error("delete execution logs failed", e);
+      throw new ExecutorManagerException(
+          "Error deleting old execution logs before " + millis, e);
+    }
+  }
+
   int removeExecutionLogsBatch(final long millis, final int recordCleanupLimit)
       throws ExecutorManagerException {
     final String DELETE_BY_TIME =
@@ -167,28 +350,6 @@ public class ExecutionLogsDao {
     }
   }
 
-  private void uploadLogPart(final DatabaseTransOperator transOperator, final int execId,
-      final String name,
-      final int attempt, final int startByte, final int endByte,
-      final EncodingType encType,
-      final byte[] buffer, final int length)
-      throws SQLException, IOException {
-    final String INSERT_EXECUTION_LOGS = "INSERT INTO execution_logs "
-        + "(exec_id, name, attempt, enc_type, start_byte, end_byte, "
-        + "log, upload_time) VALUES (?,?,?,?,?,?,?,?)";
-
-    byte[] buf = buffer;
-    if (encType == EncodingType.GZIP) {
-      buf = GZIPUtils.gzipBytes(buf, 0, length);
-    } else if (length < buf.length) {
-      buf = Arrays.copyOf(buffer, length);
-    }
-
-    transOperator.update(INSERT_EXECUTION_LOGS, execId, name, attempt,
-        encType.getNumVal(), startByte, startByte + length, buf, DateTime.now()
-            .getMillis());
-  }
-
   private static class FetchLogsHandler implements ResultSetHandler<LogData> {
 
     private static final String FETCH_LOGS =
@@ -199,10 +360,12 @@ public class ExecutionLogsDao {
 
     private final int startByte;
     private final int endByte;
+    private final LogStorage logStorage;
 
-    FetchLogsHandler(final int startByte, final int endByte) {
+    FetchLogsHandler(final int startByte, final int endByte, final LogStorage logStorage) {
       this.startByte = startByte;
       this.endByte = endByte;
+      this.logStorage = logStorage;
     }
 
     @Override
@@ -229,12 +392,20 @@ public class ExecutionLogsDao {
             this.endByte < endByte ? this.endByte - startByte - offset
                 : endByte - startByte - offset;
         try {
-          byte[] buffer = data;
-          if (encType == EncodingType.GZIP) {
-            buffer = GZIPUtils.unGzipBytes(data);
-          }
+          if (encType == EncodingType.EXTERNAL) {
+            // Only the range requested is read from the log storage
+            final byte[] buffer = readFromLogStorage(new String(data, StandardCharsets.UTF_8),
+                offset, length);
+            byteStream.write(buffer, 0, buffer.length);
+          } else {
+            byte[] buffer = data;
+            if (encType == EncodingType.GZIP) {
+              // The rest of the chunk isn't needed
+              buffer = GZIPUtils.unGzipBytes(data, offset + length);
+            }
 
-          byteStream.write(buffer, offset, length);
+            byteStream.write(buffer, offset, length);
+          }
         } catch (final IOException e) {
           throw new SQLException(e);
         }
@@ -247,5 +418,13 @@ public class ExecutionLogsDao {
       return new LogData(this.startByte + result.getFirst(), result.getSecond(),
           new String(buffer, result.getFirst(), result.getSecond(), StandardCharsets.UTF_8));
     }
+
+    private byte[] readFromLogStorage(final String key, final int offset, final int length)
+        throws IOException {
+      if (this.logStorage == null) {
+        throw new IOException("Log " + key + " is in the log storage, which isn't configured.");
+      }
+      return FramedLogFormat.read(this.logStorage, key, offset, length);
+    }
   }
 }
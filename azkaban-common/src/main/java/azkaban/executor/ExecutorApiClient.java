@@ -19,13 +19,16 @@ package azkaban.executor;
 import static azkaban.Constants.ConfigurationKeys.EXECUTOR_CLIENT_TLS_ENABLED;
 import static com.google.common.base.Preconditions.checkState;
 
+import azkaban.Constants;
 import azkaban.Constants.ConfigurationKeys;
 import azkaban.DispatchMethod;
+import azkaban.metrics.MetricsManager;
 import azkaban.utils.Pair;
 import azkaban.utils.Props;
 import azkaban.utils.RestfulApiClient;
 import azkaban.utils.UndefinedPropertyException;
 import com.google.common.annotations.VisibleForTesting;
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
@@ -36,19 +39,28 @@ import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.net.ssl.SSLContext;
 import org.apache.http.HttpResponse;
 import org.apache.http.StatusLine;
 import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.ssl.SSLContextBuilder;
 import org.apache.http.ssl.SSLContexts;
 import org.apache.http.util.EntityUtils;
@@ -58,13 +70,19 @@ import org.slf4j.LoggerFactory;
 /**
  * Client class that will be used to handle all Restful API calls between Executor and the host
  * application.
+ *
+ * <p>The calls share pooled http clients, so connections to the executors are kept alive and
+ * reused instead of being opened for every call.
  */
 @Singleton
-public class ExecutorApiClient extends RestfulApiClient<String> {
+public class ExecutorApiClient extends RestfulApiClient<String> implements Closeable {
 
   private final static Logger logger = LoggerFactory.getLogger(ExecutorApiClient.class);
   private final static String DEFAULT_CLIENT_TRUSTSTORE_PATH = "keystore";
   private final static String DEFAULT_CLIENT_TRUSTSTORE_PASSWORD = "changeit";
+  public static final String POOL_LEASED_GAUGE_NAME = "executor-client-pool-leased";
+  public static final String POOL_AVAILABLE_GAUGE_NAME = "executor-client-pool-available";
+  public static final String POOL_PENDING_GAUGE_NAME = "executor-client-pool-pending";
 
   private final boolean isReverseProxyEnabled;
   private final Optional<String> reverseProxyHost;
@@ -73,9 +91,14 @@ public class ExecutorApiClient extends RestfulApiClient<String> {
   private final String truststorePath;
   private final String truststorePassword;
   private SSLConnectionSocketFactory tlsSocketFactory;
+  private final PoolingHttpClientConnectionManager connectionManager;
+  private final CloseableHttpClient httpClient;
+  // null if TLS is disabled
+  private final PoolingHttpClientConnectionManager tlsConnectionManager;
+  private final CloseableHttpClient httpsClient;
 
   @Inject
-  public ExecutorApiClient(final Props azkProps) {
+  public ExecutorApiClient(final Props azkProps, final MetricsManager metricsManager) {
     super();
     isReverseProxyEnabled =
         azkProps.getBoolean(ConfigurationKeys.AZKABAN_EXECUTOR_REVERSE_PROXY_ENABLED,
@@ -113,6 +136,74 @@ public class ExecutorApiClient extends RestfulApiClient<String> {
     if (this.isTlsEnabled) {
       setupTlsSocketFactory();
     }
+
+    this.connectionManager = createConnectionManager(azkProps,
+        SSLConnectionSocketFactory.getSocketFactory());
+    this.httpClient = createPooledHttpClient(azkProps, this.connectionManager);
+    if (this.isTlsEnabled) {
+      this.tlsConnectionManager = createConnectionManager(azkProps, this.tlsSocketFactory);
+      this.httpsClient = createPooledHttpClient(azkProps, this.tlsConnectionManager);
+    } else {
+      this.tlsConnectionManager = null;
+      this.httpsClient = null;
+    }
+
+    // Pending requests mean that the pool is saturated
+    metricsManager.addGauge(POOL_LEASED_GAUGE_NAME, () -> getPoolStat(PoolStats::getLeased));
+    metricsManager.addGauge(POOL_AVAILABLE_GAUGE_NAME,
+        () -> getPoolStat(PoolStats::getAvailable));
+    metricsManager.addGauge(POOL_PENDING_GAUGE_NAME, () -> getPoolStat(PoolStats::getPending));
+  }
+
+  private static PoolingHttpClientConnectionManager createConnectionManager(final Props azkProps,
+      final SSLConnectionSocketFactory sslSocketFactory) {
+    final PoolingHttpClientConnectionManager connectionManager =
+        new PoolingHttpClientConnectionManager(RegistryBuilder.<ConnectionSocketFactory>create()
+            .register("http", PlainConnectionSocketFactory.getSocketFactory())
+            .register("https", sslSocketFactory)
+            .build());
+    connectionManager.setMaxTotal(azkProps.getInt(
+        ConfigurationKeys.EXECUTOR_CLIENT_MAX_CONNECTIONS,
+        Constants.DEFAULT_EXECUTOR_CLIENT_MAX_CONNECTIONS));
+    connectionManager.setDefaultMaxPerRoute(azkProps.getInt(
+        ConfigurationKeys.EXECUTOR_CLIENT_MAX_CONNECTIONS_PER_ROUTE,
+        Constants.DEFAULT_EXECUTOR_CLIENT_MAX_CONNECTIONS_PER_ROUTE));
+    return connectionManager;
+  }
+
+  private static CloseableHttpClient createPooledHttpClient(final Props azkProps,
+      final PoolingHttpClientConnectionManager connectionManager) {
+    final long keepAliveMs = azkProps.getLong(ConfigurationKeys.EXECUTOR_CLIENT_KEEP_ALIVE_MS,
+        Constants.DEFAULT_EXECUTOR_CLIENT_KEEP_ALIVE_MS);
+    final RequestConfig requestConfig = RequestConfig.custom()
+        .setConnectTimeout(azkProps.getInt(ConfigurationKeys.EXECUTOR_CLIENT_CONNECT_TIMEOUT_MS,
+            Constants.DEFAULT_EXECUTOR_CLIENT_CONNECT_TIMEOUT_MS))
+        .setSocketTimeout(azkProps.getInt(ConfigurationKeys.EXECUTOR_CLIENT_READ_TIMEOUT_MS,
+            Constants.DEFAULT_EXECUTOR_CLIENT_READ_TIMEOUT_MS))
+        .setConnectionRequestTimeout(azkProps.getInt(
+            ConfigurationKeys.EXECUTOR_CLIENT_POOL_TIMEOUT_MS,
+            Constants.DEFAULT_EXECUTOR_CLIENT_POOL_TIMEOUT_MS))
+        .build();
+    return HttpClients.custom()
+        .setConnectionManager(connectionManager)
+        .setDefaultRequestConfig(requestConfig)
+        // Keep connections alive as long as the executor allows, but no longer than keepAliveMs
+        .setKeepAliveStrategy((response, context) -> {
+          final long duration =
+              DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+          return duration > 0 ? Math.min(duration, keepAliveMs) : keepAliveMs;
+        })
+        .evictExpiredConnections()
+        .evictIdleConnections(keepAliveMs, TimeUnit.MILLISECONDS)
+        .build();
+  }
+
+  private int getPoolStat(final ToIntFunction<PoolStats> stat) {
+    int total = stat.applyAsInt(this.connectionManager.getTotalStats());
+    if (this.tlsConnectionManager != null) {
+      total += stat.applyAsInt(this.tlsConnectionManager.getTotalStats());
+    }
+    return total;
   }
 
   /**
@@ -177,15 +268,22 @@ public class ExecutorApiClient extends RestfulApiClient<String> {
   }
 
   /**
-   * Overrides the parent implementation to provide a TLS enabled http client if requested,
-   * otherwise returns the http client by invoking the parent class method.
+   * Overrides the parent implementation to return the shared pooled http client.
+   *
+   * @return http client
+   */
+  @Override
+  protected CloseableHttpClient createHttpClient() {
+    return this.httpClient;
+  }
+
+  /**
+   * Returns the shared pooled TLS enabled http client, or null if TLS is disabled.
    *
    * @return http client
    */
   protected CloseableHttpClient createHttpsClient() {
-    final HttpClientBuilder httpClientBuilder = HttpClients.custom()
-        .setSSLSocketFactory(this.tlsSocketFactory);
-    return httpClientBuilder.build();
+    return this.httpsClient;
   }
 
   /**
@@ -219,13 +317,40 @@ public class ExecutorApiClient extends RestfulApiClient<String> {
     }
   }
 
+  /**
+   * function to dispatch the request and pass back the response. Unlike the parent
+   * implementation, the client isn't closed as it is shared.
+   */
+  @Override
+  protected String sendAndReturn(final HttpUriRequest request) throws IOException {
+    return execute(this.createHttpClient(), request);
+  }
+
   /**
    * function to dispatch the https request and pass back the response.
    */
   protected String sendAndReturnHttps(final HttpUriRequest request)
           throws IOException {
-    try (final CloseableHttpClient client = this.createHttpsClient()) {
-      return this.parseResponse(client.execute(request));
+    return execute(this.createHttpsClient(), request);
+  }
+
+  private String execute(final CloseableHttpClient client, final HttpUriRequest request)
+      throws IOException {
+    // parseResponse() consumes the entity, so closing the response releases the connection to
+    // the pool and keeps it alive
+    try (final CloseableHttpResponse response = client.execute(request)) {
+      return this.parseResponse(response);
+    }
+  }
+
+  /**
+   * Close the pooled http clients and their connections.
+   */
+  @Override
+  public void close() throws IOException {
+    this.httpClient.close();
+    if (this.httpsClient != null) {
+      this.httpsClient.close();
     }
   }
 
@@ -261,6 +261,11 @@ public interface ExecutorLoader {
   LogData fetchLogs(int execId, String name, int attempt, int startByte,
       int endByte) throws ExecutorManagerException;
 
+  /**
+   * @return the length in bytes of an uploaded log, 0 if it wasn't uploaded
+   */
+  int fetchLogLength(int execId, String name, int attempt) throws ExecutorManagerException;
+
   List<Object> fetchAttachments(int execId, String name, int attempt)
       throws ExecutorManagerException;
 
@@ -273,6 +278,22 @@ public interface ExecutorLoader {
   void updateExecutableFlow(ExecutableFlow flow)
       throws ExecutorManagerException;
 
+  /**
+   * Same as {@link #updateExecutableFlow(ExecutableFlow)} for several flows, written with a
+   * single batch.
+   */
+  void updateExecutableFlows(List<ExecutableFlow> flows)
+      throws ExecutorManagerException;
+
+  /**
+   * Persist only the nodes of the flow which changed after {@code lastUpdateTime}, along with the
+   * flow status and times, instead of rewriting the whole flow. Readers rebuild the current state
+   * from the last snapshot written by {@link #updateExecutableFlow(ExecutableFlow)} plus the
+   * updates appended after it.
+   */
+  void appendExecutableFlowUpdate(ExecutableFlow flow, long lastUpdateTime)
+      throws ExecutorManagerException;
+
   void uploadExecutableNode(ExecutableNode node, Props inputParams)
       throws ExecutorManagerException;
 
@@ -288,6 +309,13 @@ public interface ExecutorLoader {
   void updateExecutableNode(ExecutableNode node)
       throws ExecutorManagerException;
 
+  /**
+   * Same as {@link #updateExecutableNode(ExecutableNode)} for several nodes, written with a
+   * single batch.
+   */
+  void updateExecutableNodes(List<ExecutableNode> nodes)
+      throws ExecutorManagerException;
+
   int fetchNumExecutableFlows(int projectId, String flowId)
       throws ExecutorManagerException;
 
@@ -28,7 +28,6 @@ import azkaban.utils.FileIOUtils.LogData;
 import azkaban.utils.Pair;
 import azkaban.utils.Props;
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.File;
 import java.lang.Thread.State;
@@ -37,15 +36,18 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import javax.inject.Inject;
@@ -74,7 +76,9 @@ public class ExecutorManager extends AbstractExecutorManagerAdapter {
   QueuedExecutions queuedFlows;
   File cacheDir;
   private QueueProcessorThread queueProcessor;
-  private volatile Pair<ExecutionReference, ExecutableFlow> runningCandidate = null;
+  // Flows taken from the queue and not dispatched yet, by execution id
+  private final Map<Integer, Pair<ExecutionReference, ExecutableFlow>> dispatchingFlows =
+      new ConcurrentHashMap<>();
   private List<String> filterList;
   private Map<String, Integer> comparatorWeightsMap;
   private long lastSuccessfulExecutorInfoRefresh;
@@ -89,9 +93,10 @@ public class ExecutorManager extends AbstractExecutorManagerAdapter {
       final ActiveExecutors activeExecutors,
       final ExecutorManagerUpdaterStage updaterStage,
       final ExecutionFinalizer executionFinalizer,
-      final RunningExecutionsUpdaterThread updaterThread) {
+      final RunningExecutionsUpdaterThread updaterThread,
+      final ExecutableFlowCache executableFlowCache) {
     super(azkProps, executorLoader, commonMetrics, apiGateway, null, new DummyEventListener(),
-        new DummyContainerizationMetricsImpl());
+        new DummyContainerizationMetricsImpl(), executableFlowCache);
     this.runningExecutions = runningExecutions;
     this.activeExecutors = activeExecutors;
     this.updaterStage = updaterStage;
@@ -135,7 +140,11 @@ public class ExecutorManager extends AbstractExecutorManagerAdapter {
         this.azkProps.getInt(
             Constants.ConfigurationKeys.MAX_DISPATCHING_ERRORS_PERMITTED,
             this.activeExecutors.getAll().size()),
-        this.sleepAfterDispatchFailure);
+        this.sleepAfterDispatchFailure,
+        this.azkProps.getInt(ConfigurationKeys.QUEUE_PROCESSOR_DISPATCH_THREADS,
+            Constants.DEFAULT_QUEUE_PROCESSOR_DISPATCH_THREADS),
+        this.azkProps.getInt(ConfigurationKeys.QUEUE_PROCESSOR_MAX_DISPATCHES_PER_EXECUTOR,
+            Constants.DEFAULT_QUEUE_PROCESSOR_MAX_DISPATCHES_PER_EXECUTOR));
   }
 
   private void setupExecutorComparatorWeightsMap() {
@@ -387,14 +396,10 @@ public class ExecutorManager extends AbstractExecutorManagerAdapter {
     final List<Integer> executionIds = new ArrayList<>();
     executionIds.addAll(ExecutorUtils.getRunningFlowsHelper(projectId, flowId,
         this.queuedFlows.getAllEntries()));
-    // it's possible an execution is runningCandidate, meaning it's in dispatching state neither in queuedFlows nor runningFlows,
-    // so checks the runningCandidate as well.
-    if (this.runningCandidate != null) {
-      executionIds
-          .addAll(
-              ExecutorUtils.getRunningFlowsHelper(projectId, flowId,
-                  Lists.newArrayList(this.runningCandidate)));
-    }
+    // it's possible an execution is being dispatched, meaning it's neither in queuedFlows nor
+    // runningFlows, so checks the dispatching flows as well.
+    executionIds.addAll(ExecutorUtils.getRunningFlowsHelper(projectId, flowId,
+        this.dispatchingFlows.values()));
     executionIds.addAll(ExecutorUtils.getRunningFlowsHelper(projectId, flowId,
         this.runningExecutions.get().values()));
     Collections.sort(executionIds);
@@ -447,6 +452,18 @@ public class ExecutorManager extends AbstractExecutorManagerAdapter {
     return flows;
   }
 
+  /**
+   * Get the number of active (running, non-dispatched) flows
+   * <p>
+   * {@inheritDoc}
+   *
+   * @see azkaban.executor.ExecutorManagerAdapter#getNumRunningFlows()
+   */
+  @Override
+  public int getNumRunningFlows() {
+    return this.queuedFlows.getAllEntries().size() + this.runningExecutions.get().size();
+  }
+
   /*
    * Helper method to get all running flows from a Pair<ExecutionReference,
    * ExecutableFlow collection
@@ -522,6 +539,14 @@ public class ExecutorManager extends AbstractExecutorManagerAdapter {
     return getJobLogData(exFlow, jobId, offset, length, attempt, pair);
   }
 
+  @Override
+  public int getExecutionJobLogLength(final ExecutableFlow exFlow, final String jobId,
+      final int attempt) throws ExecutorManagerException {
+    final Pair<ExecutionReference, ExecutableFlow> pair =
+        this.runningExecutions.get().get(exFlow.getExecutionId());
+    return getJobLogLength(exFlow, jobId, attempt, pair);
+  }
+
   @Override
   public List<Object> getExecutionJobStats(final ExecutableFlow exFlow, final String jobId,
       final int attempt) throws ExecutorManagerException {
@@ -709,7 +734,13 @@ public class ExecutorManager extends AbstractExecutorManagerAdapter {
 
   /*
    * This thread is responsible for processing queued flows using dispatcher and
-   * making rest api calls to executor server
+   * making rest api calls to executor server.
+   *
+   * With more than one dispatch thread, the executors are still selected one flow at a time by
+   * this thread, against the same snapshot of executors, but the dispatch calls are made
+   * concurrently by a pool, with at most maxDispatchesPerExecutor calls in flight per executor.
+   * A flow whose dispatch failed goes back to the queue and is retried right away on the other
+   * executors. A flow whose dispatch fails with an unexpected error is finalized.
    */
   private class QueueProcessorThread extends Thread {
 
@@ -718,6 +749,14 @@ public class ExecutorManager extends AbstractExecutorManagerAdapter {
     private final long activeExecutorRefreshWindowInMillisec;
     private final int activeExecutorRefreshWindowInFlows;
     private final Duration sleepAfterDispatchFailure;
+    // null if the flows are dispatched by this thread
+    private final ExecutorService dispatchService;
+    private final int maxDispatchesPerExecutor;
+    // Guarded by itself: number of dispatch calls in flight per executor id
+    private final Map<Integer, Integer> inFlightDispatches = new HashMap<>();
+    // Executors which failed to dispatch a flow, by execution id, until it's dispatched
+    private final Map<Integer, Set<Executor>> failedDispatchExecutors =
+        new ConcurrentHashMap<>();
 
     private volatile boolean shutdown = false;
     private volatile boolean isActive = true;
@@ -726,7 +765,9 @@ public class ExecutorManager extends AbstractExecutorManagerAdapter {
         final long activeExecutorRefreshWindowInTime,
         final int activeExecutorRefreshWindowInFlows,
         final int maxDispatchingErrors,
-        final Duration sleepAfterDispatchFailure) {
+        final Duration sleepAfterDispatchFailure,
+        final int dispatchThreads,
+        final int maxDispatchesPerExecutor) {
       setActive(isActive);
       this.maxDispatchingErrors = maxDispatchingErrors;
       this.activeExecutorRefreshWindowInFlows =
@@ -734,6 +775,14 @@ public class ExecutorManager extends AbstractExecutorManagerAdapter {
       this.activeExecutorRefreshWindowInMillisec =
           activeExecutorRefreshWindowInTime;
       this.sleepAfterDispatchFailure = sleepAfterDispatchFailure;
+      this.maxDispatchesPerExecutor = maxDispatchesPerExecutor;
+      if (dispatchThreads > 1) {
+        this.dispatchService = Executors.newFixedThreadPool(dispatchThreads,
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("azk-dispatch-pool-%d")
+                .build());
+      } else {
+        this.dispatchService = null;
+      }
       this.setName("AzkabanWebServer-QueueProcessor-Thread");
     }
 
@@ -749,6 +798,9 @@ public class ExecutorManager extends AbstractExecutorManagerAdapter {
     public void shutdown() {
       this.shutdown = true;
       this.interrupt();
+      if (this.dispatchService != null) {
+        this.dispatchService.shutdown();
+      }
     }
 
     @Override
@@ -777,12 +829,14 @@ public class ExecutorManager extends AbstractExecutorManagerAdapter {
         ExecutorManagerException {
       long lastExecutorRefreshTime = 0;
       int currentContinuousFlowProcessed = 0;
+      Pair<ExecutionReference, ExecutableFlow> candidate;
 
-      while (isActive() && (ExecutorManager.this.runningCandidate = ExecutorManager.this.queuedFlows
-          .fetchHead()) != null) {
-        final ExecutionReference reference = ExecutorManager.this.runningCandidate.getFirst();
-        final ExecutableFlow exflow = ExecutorManager.this.runningCandidate.getSecond();
+      while (!this.shutdown && isActive()
+          && (candidate = ExecutorManager.this.queuedFlows.fetchHead()) != null) {
+        final ExecutionReference reference = candidate.getFirst();
+        final ExecutableFlow exflow = candidate.getSecond();
         final long currentTime = System.currentTimeMillis();
+        ExecutorManager.this.dispatchingFlows.put(exflow.getExecutionId(), candidate);
 
         // if we have dispatched more than maxContinuousFlowProcessed or
         // It has been more then activeExecutorsRefreshWindow millisec since we
@@ -809,20 +863,29 @@ public class ExecutorManager extends AbstractExecutorManagerAdapter {
          *   2. re-attempting a flow (which has been tried before) is considered as all executors are busy
          * </pre>
          */
-        if (exflow.getUpdateTime() > lastExecutorRefreshTime) {
+        // Flows whose dispatch failed are retried right away (on the other executors)
+        if (exflow.getUpdateTime() > lastExecutorRefreshTime
+            && !this.failedDispatchExecutors.containsKey(exflow.getExecutionId())) {
           // put back in the queue
           ExecutorManager.this.queuedFlows.enqueue(exflow, reference);
-          ExecutorManager.this.runningCandidate = null;
+          ExecutorManager.this.dispatchingFlows.remove(exflow.getExecutionId());
           final long sleepInterval =
               activeExecutorsRefreshWindow
                   - (currentTime - lastExecutorRefreshTime);
           // wait till next executor refresh
           Thread.sleep(sleepInterval);
-        } else {
+        } else if (this.dispatchService == null) {
           exflow.setUpdateTime(currentTime);
           // process flow with current snapshot of activeExecutors
-          selectExecutorAndDispatchFlow(reference, exflow);
-          ExecutorManager.this.runningCandidate = null;
+          try {
+            selectExecutorAndDispatchFlow(reference, exflow);
+          } finally {
+            ExecutorManager.this.dispatchingFlows.remove(exflow.getExecutionId());
+          }
+        } else {
+          exflow.setUpdateTime(currentTime);
+          // select the executor with current snapshot of activeExecutors, dispatch in the pool
+          selectExecutorAndSubmitDispatch(reference, exflow);
         }
 
         // do not count failed flow processing (flows still in queue)
@@ -872,6 +935,147 @@ public class ExecutorManager extends AbstractExecutorManagerAdapter {
       }
     }
 
+    /* select an executor for the flow, then dispatch it asynchronously */
+    private void selectExecutorAndSubmitDispatch(final ExecutionReference reference,
+        final ExecutableFlow exflow) throws ExecutorManagerException, InterruptedException {
+      final int execId = exflow.getExecutionId();
+      final Set<Executor> failedExecutors =
+          this.failedDispatchExecutors.getOrDefault(execId, Collections.emptySet());
+      Set<Executor> candidateExecutors = new HashSet<>(
+          ExecutorManager.this.activeExecutors.getAll());
+      candidateExecutors.removeAll(failedExecutors);
+      if (candidateExecutors.isEmpty()) {
+        // FAILED ON ALL EXECUTORS - try them all again
+        this.failedDispatchExecutors.remove(execId);
+        candidateExecutors.addAll(ExecutorManager.this.activeExecutors.getAll());
+        sleepAfterDispatchFailure();
+      }
+
+      final Executor selectedExecutor;
+      try {
+        candidateExecutors = waitForAvailableExecutors(candidateExecutors);
+        selectedExecutor = selectExecutor(exflow, candidateExecutors);
+        if (selectedExecutor == null) {
+          // Not a retry any more, wait for the next executor refresh like other busy flows
+          this.failedDispatchExecutors.remove(execId);
+          ExecutorManager.this.dispatchingFlows.remove(execId);
+          ExecutorManager.this.commonMetrics.markDispatchFail();
+          handleNoExecutorSelectedCase(reference, exflow);
+          // RE-QUEUED - exit
+          return;
+        }
+        // The user specified executor may not be among the available ones
+        acquireDispatchSlot(selectedExecutor);
+      } catch (final InterruptedException e) {
+        // Shutting down, leave the flow in the queue
+        ExecutorManager.this.dispatchingFlows.remove(execId);
+        ExecutorManager.this.queuedFlows.enqueue(exflow, reference);
+        throw e;
+      }
+
+      try {
+        this.dispatchService.submit(() -> {
+          try {
+            dispatchSelectedExecutor(reference, exflow, selectedExecutor);
+          } catch (final Throwable th) {
+            // Not a failed dispatch call, so failed rather than retried
+            this.failedDispatchExecutors.remove(execId);
+            if (!ExecutorManager.this.runningExecutions.get().containsKey(execId)) {
+              final String message = "Failed to dispatch queued execution " + exflow.getId();
+              ExecutorManager.logger.error(message, th);
+              ExecutorManager.this.executionFinalizer.finalizeFlow(exflow, message, th);
+            }
+          } finally {
+            ExecutorManager.this.dispatchingFlows.remove(execId);
+            releaseDispatchSlot(selectedExecutor);
+          }
+        });
+      } catch (final RejectedExecutionException e) {
+        // Shutting down, leave the flow in the queue
+        releaseDispatchSlot(selectedExecutor);
+        ExecutorManager.this.dispatchingFlows.remove(execId);
+        ExecutorManager.this.queuedFlows.enqueue(exflow, reference);
+      }
+    }
+
+    /* dispatch call made in the dispatch pool */
+    private void dispatchSelectedExecutor(final ExecutionReference reference,
+        final ExecutableFlow exflow, final Executor selectedExecutor) {
+      final int execId = exflow.getExecutionId();
+      synchronized (exflow) {
+        try {
+          dispatch(reference, exflow, selectedExecutor);
+          ExecutorManager.this.commonMetrics.markDispatchSuccess();
+          this.failedDispatchExecutors.remove(execId);
+          // SUCCESS - exit
+          return;
+        } catch (final ExecutorManagerException e) {
+          logFailedDispatchAttempt(reference, exflow, selectedExecutor, e);
+          ExecutorManager.this.commonMetrics.markDispatchFail();
+          reference.setNumErrors(reference.getNumErrors() + 1);
+          if (reference.getNumErrors() >= this.maxDispatchingErrors) {
+            // GAVE UP DISPATCHING
+            this.failedDispatchExecutors.remove(execId);
+            final String message = "Failed to dispatch queued execution " + exflow.getId()
+                + " because reached " + ConfigurationKeys.MAX_DISPATCHING_ERRORS_PERMITTED
+                + " (tried " + reference.getNumErrors() + " executors)";
+            ExecutorManager.logger.error(message);
+            ExecutorManager.this.executionFinalizer.finalizeFlow(exflow, message, e);
+            return;
+          }
+        }
+
+        // FAILED ATTEMPT - back to the queue, to try other executors except selectedExecutor
+        this.failedDispatchExecutors
+            .computeIfAbsent(execId, id -> ConcurrentHashMap.newKeySet()).add(selectedExecutor);
+        try {
+          ExecutorManager.this.queuedFlows.enqueue(exflow, reference);
+        } catch (final ExecutorManagerException e) {
+          this.failedDispatchExecutors.remove(execId);
+          ExecutorManager.this.executionFinalizer
+              .finalizeFlow(exflow, "Failed to queue execution again after dispatch failure", e);
+        }
+      }
+    }
+
+    /* executors among the given ones with a dispatch slot available, waits if there is none */
+    private Set<Executor> waitForAvailableExecutors(final Set<Executor> executors)
+        throws InterruptedException {
+      synchronized (this.inFlightDispatches) {
+        while (true) {
+          final Set<Executor> available = new HashSet<>();
+          for (final Executor executor : executors) {
+            if (this.inFlightDispatches.getOrDefault(executor.getId(), 0)
+                < this.maxDispatchesPerExecutor) {
+              available.add(executor);
+            }
+          }
+          if (!available.isEmpty() || executors.isEmpty()) {
+            return available;
+          }
+          this.inFlightDispatches.wait();
+        }
+      }
+    }
+
+    private void acquireDispatchSlot(final Executor executor) throws InterruptedException {
+      synchronized (this.inFlightDispatches) {
+        while (this.inFlightDispatches.getOrDefault(executor.getId(), 0)
+            >= this.maxDispatchesPerExecutor) {
+          this.inFlightDispatches.wait();
+        }
+        this.inFlightDispatches.merge(executor.getId(), 1, Integer::sum);
+      }
+    }
+
+    private void releaseDispatchSlot(final Executor executor) {
+      synchronized (this.inFlightDispatches) {
+        this.inFlightDispatches.computeIfPresent(executor.getId(),
+            (id, count) -> count > 1 ? count - 1 : null);
+        this.inFlightDispatches.notifyAll();
+      }
+    }
+
     private void updateRemainingExecutorsAndSleep(final Set<Executor> remainingExecutors,
         final Executor selectedExecutor) {
       remainingExecutors.remove(selectedExecutor);
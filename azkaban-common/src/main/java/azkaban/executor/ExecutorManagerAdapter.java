@@ -35,10 +35,34 @@ public interface ExecutorManagerAdapter {
   public ExecutableFlow getExecutableFlow(int execId)
       throws ExecutorManagerException;
 
+  /**
+   * Get an execution to display it. It may be a few seconds behind the DB and is shared with other
+   * readers, so it must not be modified, nor used to act on the execution.
+   */
+  public ExecutableFlow getCachedExecutableFlow(int execId)
+      throws ExecutorManagerException;
+
+  /**
+   * Register a listener called once, when the execution returned by
+   * {@link #getCachedExecutableFlow(int)} may have changed. Used by the long polls for execution
+   * updates.
+   *
+   * @return false, without registering the listener, if too many listeners are registered
+   */
+  public boolean addExecutableFlowUpdateListener(int execId, Runnable listener);
+
+  public void removeExecutableFlowUpdateListener(int execId, Runnable listener);
+
   public List<Integer> getRunningFlows(int projectId, String flowId);
 
   public List<ExecutableFlow> getRunningFlows();
 
+  /**
+   * Returns the number of running (unfinished) flows, which is cheaper to get than the flows
+   * themselves.
+   */
+  public int getNumRunningFlows();
+
   public long getQueuedFlowSize();
 
   public long getAgedQueuedFlowSize();
@@ -90,6 +114,13 @@ public interface ExecutorManagerAdapter {
   public LogData getExecutionJobLog(ExecutableFlow exFlow, String jobId,
       int offset, int length, int attempt) throws ExecutorManagerException;
 
+  /**
+   * @return the length in bytes of the log of a job attempt, -1 if the flow is still running and
+   * the log may still grow
+   */
+  public int getExecutionJobLogLength(ExecutableFlow exFlow, String jobId, int attempt)
+      throws ExecutorManagerException;
+
   public List<Object> getExecutionJobStats(ExecutableFlow exflow, String jobId,
       int attempt) throws ExecutorManagerException;
 
@@ -91,6 +91,11 @@ public class FetchActiveFlowDao {
 
   private static Pair<ExecutionReference, ExecutableFlow> getExecutableFlowMetadataHelper(
       final ResultSet rs) throws SQLException {
+    // Skipped like in getExecutableFlowHelper, as such an execution can't be loaded
+    if (rs.getBoolean("no_flow_data")) {
+      logger.warn("Execution id " + rs.getInt("exec_id") + " has flow_data = null, skipping it");
+      return null;
+    }
     final Flow flow = new Flow(rs.getString("flow_id"));
     final Project project = new Project(rs.getInt("project_id"), null);
     project.setVersion(rs.getInt("version"));
@@ -234,7 +239,8 @@ public class FetchActiveFlowDao {
         "SELECT ex.exec_id exec_id, ex.project_id project_id, ex.version version, "
             + "ex.flow_id flow_id, et.host host, et.port port, ex.executor_id executorId, "
             + "ex.status status, ex.submit_time submit_time, ex.start_time start_time, "
-            + "ex.end_time end_time, ex.submit_user submit_user, et.active executorStatus"
+            + "ex.end_time end_time, ex.submit_user submit_user, et.active executorStatus, "
+            + "ex.flow_data IS NULL no_flow_data"
             + " FROM execution_flows ex"
             + " LEFT JOIN "
             + " executors et ON ex.executor_id = et.id"
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.executor;
+
+import azkaban.spi.LogStorage;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Format of the logs in the {@link LogStorage}: the log is cut in frames of {@link #FRAME_SIZE}
+ * bytes, each deflated independently, after a header with the offset of every frame in the file.
+ *
+ * <pre>
+ * int magic, int frame size, int number of frames n,
+ * long[n + 1] offsets of the frames and of the end of the last one, frames
+ * </pre>
+ *
+ * <p>A range of the log is read with three small reads, the start of the header, the offsets of
+ * the frames the range overlaps and those frames, so reading a page of a large log decompresses
+ * at most two frames more than the page.
+ */
+final class FramedLogFormat {
+
+  static final int FRAME_SIZE = 64 * 1024;
+  // "AZLF"
+  private static final int MAGIC = 0x415a4c46;
+  private static final int HEADER_SIZE = 12;
+
+  private FramedLogFormat() {
+  }
+
+  /**
+   * Write the concatenation of the files as a framed log, in two parts: the header, then the
+   * frames, to be stored in that order.
+   *
+   * @return length of the log in bytes, uncompressed
+   */
+  static long write(final File[] files, final File headerFile, final File framesFile)
+      throws IOException {
+    final byte[] frame = new byte[FRAME_SIZE];
+    final byte[] output = new byte[FRAME_SIZE];
+    final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    // Offsets of the ends of the frames, from the start of the frames
+    final List<Long> frameEnds = new ArrayList<>();
+    long compressedLength = 0;
+    long length = 0;
+    try (final OutputStream frames = new BufferedOutputStream(
+        new FileOutputStream(framesFile))) {
+      int pos = 0;
+      for (final File file : files) {
+        try (final InputStream in = new FileInputStream(file)) {
+          int size;
+          while ((size = in.read(frame, pos, FRAME_SIZE - pos)) >= 0) {
+            pos += size;
+            if (pos == FRAME_SIZE) {
+              compressedLength += writeFrame(deflater, frame, pos, output, frames);
+              frameEnds.add(compressedLength);
+              length += pos;
+              pos = 0;
+            }
+          }
+        }
+      }
+      if (pos > 0) {
+        compressedLength += writeFrame(deflater, frame, pos, output, frames);
+        frameEnds.add(compressedLength);
+        length += pos;
+      }
+    } finally {
+      deflater.end();
+    }
+
+    try (final DataOutputStream header = new DataOutputStream(new BufferedOutputStream(
+        new FileOutputStream(headerFile)))) {
+      header.writeInt(MAGIC);
+      header.writeInt(FRAME_SIZE);
+      header.writeInt(frameEnds.size());
+      final long headerLength = HEADER_SIZE + 8L * (frameEnds.size() + 1);
+      header.writeLong(headerLength);
+      for (final long frameEnd : frameEnds) {
+        header.writeLong(headerLength + frameEnd);
+      }
+    }
+    return length;
+  }
+
+  private static int writeFrame(final Deflater deflater, final byte[] frame, final int length,
+      final byte[] output, final OutputStream out) throws IOException {
+    deflater.reset();
+    deflater.setInput(frame, 0, length);
+    deflater.finish();
+    int written = 0;
+    while (!deflater.finished()) {
+      final int size = deflater.deflate(output);
+      out.write(output, 0, size);
+      written += size;
+    }
+    return written;
+  }
+
+  /**
+   * Read a range of a framed log.
+   *
+   * @return the bytes read, fewer than length if the end of the log is reached
+   */
+  static byte[] read(final LogStorage logStorage, final String key, final int offset,
+      final int length) throws IOException {
+    final ByteBuffer header = ByteBuffer.wrap(logStorage.readLog(key, 0, HEADER_SIZE));
+    if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+      throw new IOException("Log " + key + " isn't a framed log.");
+    }
+    final int frameSize = header.getInt();
+    final int numFrames = header.getInt();
+    final int firstFrame = offset / frameSize;
+    if (length <= 0 || offset < 0 || firstFrame >= numFrames) {
+      return new byte[0];
+    }
+    final int lastFrame =
+        (int) Math.min(((long) offset + length - 1) / frameSize, numFrames - 1);
+
+    final int numReadFrames = lastFrame - firstFrame + 1;
+    final ByteBuffer index = ByteBuffer.wrap(logStorage.readLog(key,
+        HEADER_SIZE + 8L * firstFrame, 8 * (numReadFrames + 1)));
+    final long[] frameOffsets = new long[numReadFrames + 1];
+    for (int i = 0; i < frameOffsets.length; i++) {
+      frameOffsets[i] = index.getLong();
+    }
+    final byte[] compressed = logStorage.readLog(key, frameOffsets[0],
+        (int) (frameOffsets[numReadFrames] - frameOffsets[0]));
+
+    final byte[] frames = new byte[numReadFrames * frameSize];
+    int framesLength = 0;
+    final Inflater inflater = new Inflater(true);
+    try {
+      for (int i = 0; i < numReadFrames; i++) {
+        inflater.reset();
+        inflater.setInput(compressed, (int) (frameOffsets[i] - frameOffsets[0]),
+            (int) (frameOffsets[i + 1] - frameOffsets[i]));
+        while (!inflater.finished()) {
+          final int size = inflater.inflate(frames, framesLength, frames.length - framesLength);
+          if (size == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+            throw new IOException("Frame " + (firstFrame + i) + " of log " + key
+                + " is truncated.");
+          }
+          framesLength += size;
+        }
+      }
+    } catch (final DataFormatException e) {
+      throw new IOException("Frame of log " + key + " is corrupt.", e);
+    } finally {
+      inflater.end();
+    }
+
+    final int start = offset - firstFrame * frameSize;
+    final int end = Math.min(framesLength, start + length);
+    return start >= end ? new byte[0] : Arrays.copyOfRange(frames, start, end);
+  }
+}
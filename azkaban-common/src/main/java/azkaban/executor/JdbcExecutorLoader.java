@@ -22,9 +22,11 @@ import azkaban.utils.Pair;
 import azkaban.utils.Props;
 import java.io.File;
 import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
@@ -32,6 +34,7 @@ import javax.inject.Singleton;
 public class JdbcExecutorLoader implements ExecutorLoader {
 
   private final ExecutionFlowDao executionFlowDao;
+  private final ExecutionFlowUpdatesDao executionFlowUpdatesDao;
   private final ExecutorDao executorDao;
   private final ExecutionJobDao executionJobDao;
   private final ExecutionLogsDao executionLogsDao;
@@ -44,6 +47,7 @@ public class JdbcExecutorLoader implements ExecutorLoader {
 
   @Inject
   public JdbcExecutorLoader(final ExecutionFlowDao executionFlowDao,
+      final ExecutionFlowUpdatesDao executionFlowUpdatesDao,
       final ExecutorDao executorDao,
       final ExecutionJobDao executionJobDao,
       final ExecutionLogsDao executionLogsDao,
@@ -54,6 +58,7 @@ public class JdbcExecutorLoader implements ExecutorLoader {
       final NumExecutionsDao numExecutionsDao,
       final ExecutionRampDao executionRampDao) {
     this.executionFlowDao = executionFlowDao;
+    this.executionFlowUpdatesDao = executionFlowUpdatesDao;
     this.executorDao = executorDao;
     this.executionJobDao = executionJobDao;
     this.executionLogsDao = executionLogsDao;
@@ -75,12 +80,42 @@ public class JdbcExecutorLoader implements ExecutorLoader {
   public void updateExecutableFlow(final ExecutableFlow flow)
       throws ExecutorManagerException {
     this.executionFlowDao.updateExecutableFlow(flow);
+    // The new snapshot supersedes the incremental updates written so far
+    this.executionFlowUpdatesDao.deleteExecutableFlowUpdates(flow.getExecutionId(),
+        getSnapshotTime(flow));
+  }
+
+  @Override
+  public void updateExecutableFlows(final List<ExecutableFlow> flows)
+      throws ExecutorManagerException {
+    this.executionFlowDao.updateExecutableFlows(flows);
+    final Map<Integer, Long> snapshotTimes = new HashMap<>();
+    for (final ExecutableFlow flow : flows) {
+      snapshotTimes.put(flow.getExecutionId(), getSnapshotTime(flow));
+    }
+    this.executionFlowUpdatesDao.deleteExecutableFlowUpdates(snapshotTimes);
+  }
+
+  /**
+   * Incremental updates covered by a snapshot of the flow. Once the flow is finished no further
+   * update is read, so all of them can go.
+   */
+  private static long getSnapshotTime(final ExecutableFlow flow) {
+    return Status.isStatusFinished(flow.getStatus()) ? Long.MAX_VALUE : flow.getUpdateTime();
+  }
+
+  @Override
+  public void appendExecutableFlowUpdate(final ExecutableFlow flow, final long lastUpdateTime)
+      throws ExecutorManagerException {
+    this.executionFlowUpdatesDao.appendExecutableFlowUpdate(flow, lastUpdateTime);
   }
 
   @Override
   public ExecutableFlow fetchExecutableFlow(final int id)
       throws ExecutorManagerException {
-    return this.executionFlowDao.fetchExecutableFlow(id);
+    final ExecutableFlow flow = this.executionFlowDao.fetchExecutableFlow(id);
+    this.executionFlowUpdatesDao.applyExecutableFlowUpdates(flow);
+    return flow;
   }
 
   @Override
@@ -98,7 +133,9 @@ public class JdbcExecutorLoader implements ExecutorLoader {
   @Override
   public List<ExecutableFlow> fetchStaleFlows(Duration executionDuration)
       throws ExecutorManagerException {
-    return this.executionFlowDao.fetchStaleFlows(executionDuration);
+    final List<ExecutableFlow> flows = this.executionFlowDao.fetchStaleFlows(executionDuration);
+    this.executionFlowUpdatesDao.applyExecutableFlowUpdates(flows);
+    return flows;
   }
 
   @Override
@@ -119,13 +156,19 @@ public class JdbcExecutorLoader implements ExecutorLoader {
   @Override
   public Map<Integer, Pair<ExecutionReference, ExecutableFlow>> fetchActiveFlows()
       throws ExecutorManagerException {
-    return this.fetchActiveFlowDao.fetchActiveFlows();
+    final Map<Integer, Pair<ExecutionReference, ExecutableFlow>> flows =
+        this.fetchActiveFlowDao.fetchActiveFlows();
+    applyExecutableFlowUpdates(flows);
+    return flows;
   }
 
   @Override
   public Map<Integer, Pair<ExecutionReference, ExecutableFlow>> fetchUnfinishedFlows()
       throws ExecutorManagerException {
-    return this.fetchActiveFlowDao.fetchUnfinishedFlows();
+    final Map<Integer, Pair<ExecutionReference, ExecutableFlow>> flows =
+        this.fetchActiveFlowDao.fetchUnfinishedFlows();
+    applyExecutableFlowUpdates(flows);
+    return flows;
   }
 
   @Override
@@ -137,7 +180,21 @@ public class JdbcExecutorLoader implements ExecutorLoader {
   @Override
   public Pair<ExecutionReference, ExecutableFlow> fetchActiveFlowByExecId(final int execId)
       throws ExecutorManagerException {
-    return this.fetchActiveFlowDao.fetchActiveFlowByExecId(execId);
+    final Pair<ExecutionReference, ExecutableFlow> flow =
+        this.fetchActiveFlowDao.fetchActiveFlowByExecId(execId);
+    if (flow != null) {
+      this.executionFlowUpdatesDao.applyExecutableFlowUpdates(flow.getSecond());
+    }
+    return flow;
+  }
+
+  private void applyExecutableFlowUpdates(
+      final Map<Integer, Pair<ExecutionReference, ExecutableFlow>> flows)
+      throws ExecutorManagerException {
+    if (!flows.isEmpty()) {
+      this.executionFlowUpdatesDao.applyExecutableFlowUpdates(
+          flows.values().stream().map(Pair::getSecond).collect(Collectors.toList()));
+    }
   }
 
   @Override
@@ -227,6 +284,12 @@ public class JdbcExecutorLoader implements ExecutorLoader {
     this.executionJobDao.updateExecutableNode(node);
   }
 
+  @Override
+  public void updateExecutableNodes(final List<ExecutableNode> nodes)
+      throws ExecutorManagerException {
+    this.executionJobDao.updateExecutableNodes(nodes);
+  }
+
   @Override
   public List<ExecutableJobInfo> fetchJobInfoAttempts(final int execId, final String jobId)
       throws ExecutorManagerException {
@@ -275,6 +338,12 @@ public class JdbcExecutorLoader implements ExecutorLoader {
     return this.executionLogsDao.fetchLogs(execId, name, attempt, startByte, length);
   }
 
+  @Override
+  public int fetchLogLength(final int execId, final String name, final int attempt)
+      throws ExecutorManagerException {
+    return this.executionLogsDao.fetchLogLength(execId, name, attempt);
+  }
+
   @Override
   public List<Object> fetchAttachments(final int execId, final String jobId, final int attempt)
       throws ExecutorManagerException {
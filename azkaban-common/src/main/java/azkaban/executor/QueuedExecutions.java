@@ -1,57 +1,84 @@
 package azkaban.executor;
 
 import azkaban.utils.Pair;
+import com.google.common.collect.Collections2;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.concurrent.BlockingQueue;
+import java.util.PriorityQueue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.PriorityBlockingQueue;
-import org.apache.log4j.Logger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * <pre>
  * Composite data structure to represent non-dispatched flows in webserver.
- * This data structure wraps a blocking queue and a concurrent hashmap.
+ * This data structure wraps a heap ordered by priority and a concurrent hashmap.
  * </pre>
+ *
+ * <p>The heap holds a snapshot of the sort fields of each flow, taken when it's enqueued and also
+ * kept in the hashmap, so that changes to a queued flow don't corrupt the ordering until it is
+ * explicitly repositioned with {@link #reprioritize(int)}. Removing or repositioning an execution
+ * only replaces its snapshot in the hashmap, in O(1): the snapshots left in the heap are stale,
+ * skipped when they reach its head, and dropped by rebuilding the heap in O(n) once they
+ * outnumber the queued executions.
+ *
+ * <p>Changes are serialized by a lock only held for the duration of the O(log n) updates. Reads
+ * don't take it: lookups go to the hashmap and {@link #getAllEntries()} is a weakly consistent
+ * view of it, which sees every queued execution at most once, even if it is repositioned
+ * meanwhile.
  */
 public class QueuedExecutions {
 
-  private static final Logger logger = Logger.getLogger(QueuedExecutions.class);
   final long capacity;
 
-  /* map to easily access queued flows */
-  final private ConcurrentHashMap<Integer, Pair<ExecutionReference, ExecutableFlow>> queuedFlowMap;
-  /* actual queue */
-  final private BlockingQueue<Pair<ExecutionReference, ExecutableFlow>> queuedFlowList;
+  /* map to easily access queued flows, with their current key in queuedFlowList */
+  final private ConcurrentHashMap<Integer, QueueKey> queuedFlowMap;
+  /* actual queue, in dispatch order, with stale keys, guarded by lock as is numStaleKeys */
+  private PriorityQueue<QueueKey> queuedFlowList;
+  private int numStaleKeys = 0;
+  final private ReentrantLock lock = new ReentrantLock();
+  final private Condition notEmpty = this.lock.newCondition();
 
   public QueuedExecutions(final long capacity) {
     this.capacity = capacity;
-    this.queuedFlowMap =
-        new ConcurrentHashMap<>();
-    this.queuedFlowList =
-        new PriorityBlockingQueue<>(10,
-            new ExecutableFlowPriorityComparator());
+    this.queuedFlowMap = new ConcurrentHashMap<>();
+    this.queuedFlowList = new PriorityQueue<>();
   }
 
   /**
-   * Wraps BoundedQueue Take method to have a corresponding update in queuedFlowMap lookup table
+   * Takes the flow with the highest priority, waiting for one to be enqueued if the queue is
+   * empty
    */
   public Pair<ExecutionReference, ExecutableFlow> fetchHead()
       throws InterruptedException {
-    final Pair<ExecutionReference, ExecutableFlow> pair = this.queuedFlowList.take();
-    if (pair != null && pair.getFirst() != null) {
-      this.queuedFlowMap.remove(pair.getFirst().getExecId());
+    this.lock.lockInterruptibly();
+    try {
+      while (true) {
+        final QueueKey head = this.queuedFlowList.poll();
+        if (head == null) {
+          this.notEmpty.await();
+        } else if (this.queuedFlowMap.remove(head.executionId, head)) {
+          return head.pair;
+        } else {
+          this.numStaleKeys--;
+        }
+      }
+    } finally {
+      this.lock.unlock();
     }
-    return pair;
   }
 
   /**
    * Helper method to have a single point of deletion in the queued flows
    */
   public void dequeue(final int executionId) {
-    if (this.queuedFlowMap.containsKey(executionId)) {
-      this.queuedFlowList.remove(this.queuedFlowMap.get(executionId));
-      this.queuedFlowMap.remove(executionId);
+    this.lock.lock();
+    try {
+      if (this.queuedFlowMap.remove(executionId) != null) {
+        addStaleKey();
+      }
+    } finally {
+      this.lock.unlock();
     }
   }
 
@@ -64,28 +91,22 @@ public class QueuedExecutions {
    * @param ref
    *          reference to be enqueued
    * @throws ExecutorManagerException
-   *           case 1: if blocking queue put method fails due to
-   *           InterruptedException
-   *           case 2: if there already an element with
-   *           same execution Id
+   *           if there already an element with same execution Id
    * </pre>
    */
   public void enqueue(final ExecutableFlow exflow, final ExecutionReference ref)
       throws ExecutorManagerException {
-    if (hasExecution(exflow.getExecutionId())) {
-      final String errMsg = "Flow already in queue " + exflow.getExecutionId();
-      throw new ExecutorManagerException(errMsg);
-    }
-
-    final Pair<ExecutionReference, ExecutableFlow> pair =
-        new Pair<>(ref, exflow);
+    this.lock.lock();
     try {
-      this.queuedFlowMap.put(exflow.getExecutionId(), pair);
-      this.queuedFlowList.put(pair);
-    } catch (final InterruptedException e) {
-      final String errMsg = "Failed to insert flow " + exflow.getExecutionId();
-      logger.error(errMsg, e);
-      throw new ExecutorManagerException(errMsg);
+      final QueueKey key = new QueueKey(new Pair<>(ref, exflow));
+      if (this.queuedFlowMap.putIfAbsent(exflow.getExecutionId(), key) != null) {
+        final String errMsg = "Flow already in queue " + exflow.getExecutionId();
+        throw new ExecutorManagerException(errMsg);
+      }
+      this.queuedFlowList.add(key);
+      this.notEmpty.signal();
+    } finally {
+      this.lock.unlock();
     }
   }
 
@@ -96,10 +117,7 @@ public class QueuedExecutions {
    * @param collection
    *
    * @throws ExecutorManagerException
-   *           case 1: if blocking queue put method fails due to
-   *           InterruptedException
-   *           case 2: if there already an element with
-   *           same execution Id
+   *           if there already an element with same execution Id
    * </pre>
    */
   public void enqueueAll(
@@ -110,11 +128,33 @@ public class QueuedExecutions {
     }
   }
 
+  /**
+   * Moves a queued execution to its new position in the queue, after the priority or update time
+   * of its flow changed. Returns false, if execution not in queue
+   */
+  public boolean reprioritize(final int executionId) {
+    this.lock.lock();
+    try {
+      final QueueKey key = this.queuedFlowMap.get(executionId);
+      if (key == null) {
+        return false;
+      }
+      final QueueKey newKey = new QueueKey(key.pair);
+      this.queuedFlowMap.put(executionId, newKey);
+      this.queuedFlowList.add(newKey);
+      addStaleKey();
+      return true;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
   /**
    * Returns a read only collection of all the queued (flows, reference) pairs
    */
   public Collection<Pair<ExecutionReference, ExecutableFlow>> getAllEntries() {
-    return Collections.unmodifiableCollection(this.queuedFlowMap.values());
+    return Collections.unmodifiableCollection(
+        Collections2.transform(this.queuedFlowMap.values(), key -> key.pair));
   }
 
   /**
@@ -128,27 +168,23 @@ public class QueuedExecutions {
    * Fetch flow for an execution. Returns null, if execution not in queue
    */
   public ExecutableFlow getFlow(final int executionId) {
-    if (hasExecution(executionId)) {
-      return this.queuedFlowMap.get(executionId).getSecond();
-    }
-    return null;
+    final QueueKey key = this.queuedFlowMap.get(executionId);
+    return key == null ? null : key.pair.getSecond();
   }
 
   /**
    * Fetch Activereference for an execution. Returns null, if execution not in queue
    */
   public ExecutionReference getReference(final int executionId) {
-    if (hasExecution(executionId)) {
-      return this.queuedFlowMap.get(executionId).getFirst();
-    }
-    return null;
+    final QueueKey key = this.queuedFlowMap.get(executionId);
+    return key == null ? null : key.pair.getFirst();
   }
 
   /**
    * Size of the queue
    */
   public long size() {
-    return this.queuedFlowList.size();
+    return this.queuedFlowMap.size();
   }
 
   /**
@@ -162,15 +198,62 @@ public class QueuedExecutions {
    * Verify, if queue is empty or not
    */
   public boolean isEmpty() {
-    return this.queuedFlowList.isEmpty() && this.queuedFlowMap.isEmpty();
+    return this.queuedFlowMap.isEmpty();
   }
 
   /**
    * Empties queue by dequeuing all the elements
    */
   public void clear() {
-    for (final Pair<ExecutionReference, ExecutableFlow> pair : this.queuedFlowMap.values()) {
-      dequeue(pair.getFirst().getExecId());
+    this.lock.lock();
+    try {
+      this.queuedFlowList.clear();
+      this.queuedFlowMap.clear();
+      this.numStaleKeys = 0;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /* Rebuilds the heap without its stale keys once they outnumber the queued executions */
+  private void addStaleKey() {
+    if (++this.numStaleKeys > this.queuedFlowMap.size()) {
+      this.queuedFlowList = new PriorityQueue<>(this.queuedFlowMap.values());
+      this.numStaleKeys = 0;
+    }
+  }
+
+  /**
+   * A queued flow with its sort fields, in the order of {@link ExecutableFlowPriorityComparator}
+   */
+  private static final class QueueKey implements Comparable<QueueKey> {
+
+    private final Pair<ExecutionReference, ExecutableFlow> pair;
+    private final int priority;
+    private final long updateTime;
+    private final int executionId;
+
+    private QueueKey(final Pair<ExecutionReference, ExecutableFlow> pair) {
+      final ExecutableFlow exflow = pair.getSecond();
+      this.pair = pair;
+      this.priority = ExecutableFlowPriorityComparator.getPriority(exflow);
+      this.updateTime = exflow.getUpdateTime();
+      this.executionId = exflow.getExecutionId();
+    }
+
+    @Override
+    public int compareTo(final QueueKey other) {
+      // descending order of priority
+      int diff = Integer.compare(other.priority, this.priority);
+      if (diff == 0) {
+        // ascending order of update time, if same priority
+        diff = Long.compare(this.updateTime, other.updateTime);
+      }
+      if (diff == 0) {
+        // ascending order of execution id, if same priority and updateTime
+        diff = Integer.compare(this.executionId, other.executionId);
+      }
+      return diff;
     }
   }
 }
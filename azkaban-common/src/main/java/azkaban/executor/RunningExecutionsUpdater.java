@@ -16,21 +16,40 @@
 
 package azkaban.executor;
 
+import azkaban.Constants;
+import azkaban.Constants.ConfigurationKeys;
 import azkaban.alert.Alerter;
 import azkaban.metrics.CommonMetrics;
 import azkaban.utils.Pair;
+import azkaban.utils.Props;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import javax.inject.Inject;
 import org.apache.log4j.Logger;
 import org.joda.time.DateTime;
 
 /**
  * Updates running executions.
+ *
+ * <p>The executors are asked for the updates of their running executions either one after the
+ * other, or concurrently (see {@link ConfigurationKeys#AZKABAN_EXECUTOR_UPDATE_PARALLELISM}) so that
+ * a slow executor doesn't delay the updates from the other ones. The updates themselves are always
+ * applied by the calling thread.
+ *
+ * <p>Each executor has {@link ConfigurationKeys#AZKABAN_EXECUTOR_UPDATE_TIMEOUT_MS} to answer from
+ * when its request is started on the pool. Requests which take longer are not interrupted, they
+ * end with the read timeout of the http client, and the executor isn't asked again until then.
  */
 public class RunningExecutionsUpdater {
 
@@ -48,12 +67,20 @@ public class RunningExecutionsUpdater {
   private final RunningExecutions runningExecutions;
   private final ExecutionFinalizer executionFinalizer;
   private final ExecutorLoader executorLoader;
+  private final ExecutableFlowCache executableFlowCache;
+  private final long executorUpdateTimeoutMs;
+  // null if the executors are queried one after the other
+  private final ExecutorService executorUpdateService;
+  // Requests to the executors not answered yet, only used by the updating thread
+  private final Map<Executor, PendingUpdate> pendingUpdates = new HashMap<>();
 
   @Inject
-  public RunningExecutionsUpdater(final ExecutorManagerUpdaterStage updaterStage,
+  public RunningExecutionsUpdater(final Props azkProps,
+      final ExecutorManagerUpdaterStage updaterStage,
       final AlerterHolder alerterHolder, final CommonMetrics commonMetrics,
       final ExecutorApiGateway apiGateway, final RunningExecutions runningExecutions,
-      final ExecutionFinalizer executionFinalizer, final ExecutorLoader executorLoader) {
+      final ExecutionFinalizer executionFinalizer, final ExecutorLoader executorLoader,
+      final ExecutableFlowCache executableFlowCache) {
     this.updaterStage = updaterStage;
     this.alerterHolder = alerterHolder;
     this.commonMetrics = commonMetrics;
@@ -61,6 +88,19 @@ public class RunningExecutionsUpdater {
     this.runningExecutions = runningExecutions;
     this.executionFinalizer = executionFinalizer;
     this.executorLoader = executorLoader;
+    this.executableFlowCache = executableFlowCache;
+    this.executorUpdateTimeoutMs = azkProps.getLong(
+        ConfigurationKeys.AZKABAN_EXECUTOR_UPDATE_TIMEOUT_MS,
+        Constants.DEFAULT_AZKABAN_EXECUTOR_UPDATE_TIMEOUT_MS);
+    final int parallelism = azkProps.getInt(ConfigurationKeys.AZKABAN_EXECUTOR_UPDATE_PARALLELISM,
+        Constants.DEFAULT_AZKABAN_EXECUTOR_UPDATE_PARALLELISM);
+    if (parallelism > 1) {
+      this.executorUpdateService = Executors.newFixedThreadPool(parallelism,
+          new ThreadFactoryBuilder().setNameFormat("azk-executor-update-pool-%d")
+              .setDaemon(true).build());
+    } else {
+      this.executorUpdateService = null;
+    }
   }
 
   /**
@@ -69,10 +109,22 @@ public class RunningExecutionsUpdater {
   @SuppressWarnings("unchecked")
   public void updateExecutions() {
     this.updaterStage.set("Starting update all flows.");
+    final long roundStart = System.currentTimeMillis();
     final Map<Optional<Executor>, List<ExecutableFlow>> exFlowMap = getFlowToExecutorMap();
     final ArrayList<ExecutableFlow> finalizeFlows =
         new ArrayList<>();
 
+    // Ask all the executors at once, their answers are then handled in the loop below
+    if (this.executorUpdateService != null) {
+      // Answered since the last round, asked again for fresh updates
+      this.pendingUpdates.values().removeIf(pendingUpdate -> pendingUpdate.future.isDone());
+      for (final Map.Entry<Optional<Executor>, List<ExecutableFlow>> entry : exFlowMap
+          .entrySet()) {
+        entry.getKey().ifPresent(executor -> this.pendingUpdates.computeIfAbsent(executor,
+            e -> new PendingUpdate(executor, entry.getValue())));
+      }
+    }
+
     for (final Map.Entry<Optional<Executor>, List<ExecutableFlow>> entry : exFlowMap
         .entrySet()) {
 
@@ -92,7 +144,8 @@ public class RunningExecutionsUpdater {
 
       Map<String, Object> results = null;
       try {
-        results = this.apiGateway.updateExecutions(executor, entry.getValue());
+        results = this.executorUpdateService == null ? fetchUpdates(executor, entry.getValue())
+            : getUpdates(executor);
       } catch (final ExecutorManagerException e) {
         handleException(entry, executor, e, finalizeFlows);
       }
@@ -130,9 +183,60 @@ public class RunningExecutionsUpdater {
           .finalizeFlow(flow, "Not running on the assigned executor (any more)", null);
     }
 
+    this.commonMetrics.recordExecutorUpdateRoundLatency(System.currentTimeMillis() - roundStart);
     this.updaterStage.set("Updated all active flows. Waiting for next round.");
   }
 
+  private Map<String, Object> fetchUpdates(final Executor executor,
+      final List<ExecutableFlow> flows) throws ExecutorManagerException {
+    final long start = System.currentTimeMillis();
+    try {
+      return this.apiGateway.updateExecutions(executor, flows);
+    } finally {
+      this.commonMetrics.recordExecutorUpdateLatency(executor.getHost() + ":" + executor.getPort(),
+          System.currentTimeMillis() - start);
+    }
+  }
+
+  /**
+   * Wait for the answer of an executor, until its timeout from when its request was started.
+   */
+  private Map<String, Object> getUpdates(final Executor executor)
+      throws ExecutorManagerException {
+    final PendingUpdate pendingUpdate = this.pendingUpdates.get(executor);
+    try {
+      while (true) {
+        final long startTime = pendingUpdate.startTime;
+        // Still waiting for a thread of the pool if not started
+        final long waitMs = startTime == 0 ? this.executorUpdateTimeoutMs
+            : startTime + this.executorUpdateTimeoutMs - System.currentTimeMillis();
+        try {
+          final Map<String, Object> results =
+              pendingUpdate.future.get(Math.max(waitMs, 0), TimeUnit.MILLISECONDS);
+          this.pendingUpdates.remove(executor);
+          return results;
+        } catch (final TimeoutException e) {
+          if (startTime != 0) {
+            // Still pending in the next rounds, until the request ends
+            throw new ExecutorManagerException("No update from executor " + executor.getHost()
+                + ":" + executor.getPort() + " within " + this.executorUpdateTimeoutMs + " ms",
+                e);
+          }
+        }
+      }
+    } catch (final ExecutionException e) {
+      this.pendingUpdates.remove(executor);
+      if (e.getCause() instanceof ExecutorManagerException) {
+        throw (ExecutorManagerException) e.getCause();
+      }
+      throw new ExecutorManagerException("Failed to get update from executor "
+          + executor.getHost(), e.getCause());
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ExecutorManagerException(e);
+    }
+  }
+
   private void handleException(final Entry<Optional<Executor>, List<ExecutableFlow>> entry,
       final Executor executor, final ExecutorManagerException e,
       final ArrayList<ExecutableFlow> finalizeFlows) {
@@ -240,6 +344,7 @@ public class RunningExecutionsUpdater {
     final Status oldStatus = flow.getStatus();
     flow.applyUpdateObject(updateData);
     final Status newStatus = flow.getStatus();
+    this.executableFlowCache.applyUpdate(execId, updateData);
 
     if (oldStatus != newStatus && newStatus.equals(Status.FAILED_FINISHING)) {
       ExecutionControllerUtils.alertUserOnFirstError(flow, this.alerterHolder);
@@ -248,4 +353,21 @@ public class RunningExecutionsUpdater {
     return flow;
   }
 
+
+  /**
+   * Request to an executor submitted to the pool.
+   */
+  private class PendingUpdate {
+
+    private final Future<Map<String, Object>> future;
+    // When a thread of the pool started the request, 0 until then
+    private volatile long startTime;
+
+    private PendingUpdate(final Executor executor, final List<ExecutableFlow> flows) {
+      this.future = RunningExecutionsUpdater.this.executorUpdateService.submit(() -> {
+        this.startTime = System.currentTimeMillis();
+        return fetchUpdates(executor, flows);
+      });
+    }
+  }
 }
@@ -25,6 +25,7 @@ import azkaban.executor.AbstractExecutorManagerAdapter;
 import azkaban.executor.AlerterHolder;
 import azkaban.executor.ConnectorParams;
 import azkaban.executor.ExecutableFlow;
+import azkaban.executor.ExecutableFlowCache;
 import azkaban.executor.ExecutionOptions;
 import azkaban.executor.ExecutionReference;
 import azkaban.executor.Executor;
@@ -81,9 +82,10 @@ public class ContainerizedDispatchManager extends AbstractExecutorManagerAdapter
       final AlerterHolder alerterHolder,
       final ContainerizedWatch containerizedWatch,
       final EventListener eventListener,
-      final ContainerizationMetrics containerizationMetrics) throws ExecutorManagerException {
+      final ContainerizationMetrics containerizationMetrics,
+      final ExecutableFlowCache executableFlowCache) throws ExecutorManagerException {
     super(azkProps, executorLoader, commonMetrics, apiGateway, alerterHolder, eventListener,
-        containerizationMetrics);
+        containerizationMetrics, executableFlowCache);
     rateLimiter =
         RateLimiter.create(azkProps
             .getInt(ContainerizedDispatchManagerProperties.CONTAINERIZED_CREATION_RATE_LIMIT, 20));
@@ -112,7 +114,7 @@ public class ContainerizedDispatchManager extends AbstractExecutorManagerAdapter
   public List<Integer> getRunningFlowIds() {
     final List<Integer> allIds = new ArrayList<>();
     try {
-      getExecutionIdsHelper(allIds, this.executorLoader.fetchUnfinishedFlows().values());
+      getExecutionIdsHelper(allIds, this.executorLoader.fetchUnfinishedFlowsMetadata().values());
     } catch (final ExecutorManagerException e) {
       logger.error("Failed to get running flow ids.", e);
     }
@@ -24,6 +24,7 @@ import azkaban.Constants.JobProperties;
 import azkaban.flow.CommonJobProperties;
 import azkaban.jobExecutor.utils.process.AzkabanProcess;
 import azkaban.jobExecutor.utils.process.AzkabanProcessBuilder;
+import azkaban.jobExecutor.utils.process.ProcessFailureException;
 import azkaban.metrics.CommonMetrics;
 import azkaban.utils.ExecuteAsUser;
 import azkaban.utils.Pair;
@@ -309,6 +310,12 @@ public class ProcessJob extends AbstractProcessJob {
             file.delete();
           }
         }
+        if (e instanceof ProcessFailureException
+            && ((ProcessFailureException) e).getRecentOutput() != null) {
+          // Part of the job's failure message, the end of the output usually tells what failed
+          throw new RuntimeException(e.getMessage() + ". Last output:\n"
+              + ((ProcessFailureException) e).getRecentOutput().trim(), e);
+        }
         throw new RuntimeException(e);
       } finally {
         info("Process with id " + this.process.getProcessId() + " completed "
@@ -21,15 +21,26 @@ public class ProcessFailureException extends RuntimeException {
   private static final long serialVersionUID = 1;
 
   private final int exitCode;
+  // End of the process output, null if unknown
+  private final String recentOutput;
 
   public ProcessFailureException(final int exitCode) {
+    this(exitCode, null);
+  }
+
+  public ProcessFailureException(final int exitCode, final String recentOutput) {
     this.exitCode = exitCode;
+    this.recentOutput = recentOutput;
   }
 
   public int getExitCode() {
     return this.exitCode;
   }
 
+  public String getRecentOutput() {
+    return this.recentOutput;
+  }
+
   @Override
   public String getMessage() {
     return "Process exited with code " + this.exitCode;
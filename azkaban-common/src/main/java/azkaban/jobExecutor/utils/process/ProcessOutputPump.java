@@ -0,0 +1,311 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.jobExecutor.utils.process;
+
+import azkaban.Constants;
+import azkaban.Constants.ConfigurationKeys;
+import azkaban.utils.Props;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.log4j.Logger;
+
+/**
+ * Drains the output of all the job processes of the executor with a small, fixed set of threads,
+ * instead of a blocking reader thread per process stream.
+ *
+ * <p>The pipes of a process can't be selected with NIO, and a blocking read holds its thread until
+ * the process writes. So while the process runs, each pump thread polls the bytes available on the
+ * streams assigned to it and waits a little when none of them had any (see {@link
+ * ConfigurationKeys#PROCESS_OUTPUT_PUMP_THREADS}). Once the process exited and its buffered output
+ * is read, the rest of the stream is read with blocking reads until its end by a finisher thread,
+ * as children of the process may still write to it. The bytes read are split into lines logged to
+ * the job's logger, and the last bytes of the output are kept in a ring buffer for error
+ * reporting.
+ */
+public class ProcessOutputPump {
+
+  static final int RECENT_OUTPUT_BYTES = 4096;
+  private static final int READ_BUFFER_SIZE = 8192;
+  private static final Logger logger = Logger.getLogger(ProcessOutputPump.class);
+  private static volatile ProcessOutputPump instance;
+
+  private final PumpThread[] threads;
+  private final AtomicInteger nextThread = new AtomicInteger();
+  private final long pollIntervalMs;
+  // Only busy until the end of the outputs of the exited processes
+  private final ExecutorService finisher = Executors.newCachedThreadPool(
+      new ThreadFactoryBuilder().setNameFormat("azk-process-output-finisher-%d").setDaemon(true)
+          .build());
+
+  ProcessOutputPump(final int numThreads, final long pollIntervalMs) {
+    this.pollIntervalMs = pollIntervalMs;
+    this.threads = new PumpThread[numThreads];
+    for (int i = 0; i < numThreads; i++) {
+      this.threads[i] = new PumpThread("azk-process-output-pump-" + i);
+      this.threads[i].start();
+    }
+  }
+
+  /**
+   * Start the pump with the given settings, unless a process already started it with the default
+   * ones.
+   */
+  public static synchronized void initialize(final Props props) {
+    if (instance != null) {
+      logger.warn("Process output pump already started");
+      return;
+    }
+    final int numThreads = props.getInt(ConfigurationKeys.PROCESS_OUTPUT_PUMP_THREADS,
+        Constants.DEFAULT_PROCESS_OUTPUT_PUMP_THREADS);
+    final long pollIntervalMs = props.getLong(
+        ConfigurationKeys.PROCESS_OUTPUT_PUMP_POLL_INTERVAL_MS,
+        Constants.DEFAULT_PROCESS_OUTPUT_PUMP_POLL_INTERVAL_MS);
+    logger.info("Starting process output pump with " + numThreads + " threads");
+    instance = new ProcessOutputPump(numThreads, pollIntervalMs);
+  }
+
+  public static ProcessOutputPump getInstance() {
+    if (instance == null) {
+      initialize(new Props());
+    }
+    return instance;
+  }
+
+  /**
+   * Start draining a process output stream to the given logger.
+   */
+  public Drain register(final InputStream in, final Logger logger) {
+    final PumpThread thread =
+        this.threads[Math.floorMod(this.nextThread.getAndIncrement(), this.threads.length)];
+    final Drain drain = new Drain(in, logger, thread);
+    thread.add(drain);
+    return drain;
+  }
+
+  /**
+   * Output stream of a process, being drained by the pump.
+   */
+  public class Drain {
+
+    private final InputStream in;
+    private final Logger logger;
+    private final PumpThread thread;
+    private final CountDownLatch completeLatch = new CountDownLatch(1);
+    // Accessed by the thread draining the stream only, the pump thread then the finisher
+    private byte[] line = new byte[256];
+    private int lineLength = 0;
+    // Completed or handed to the finisher, accessed by the pump thread only
+    private boolean detached = false;
+    // Guarded by this
+    private final byte[] recentOutput = new byte[RECENT_OUTPUT_BYTES];
+    private long outputLength = 0;
+    private volatile boolean processExited = false;
+
+    private Drain(final InputStream in, final Logger logger, final PumpThread thread) {
+      this.in = in;
+      this.logger = logger;
+      this.thread = thread;
+    }
+
+    /**
+     * Tells the pump that the process exited: the stream is drained until its end, then the drain
+     * completes.
+     */
+    public void processExited() {
+      this.processExited = true;
+      this.thread.wakeUp();
+    }
+
+    /**
+     * @return true if all the output was logged within the given time
+     */
+    public boolean awaitCompletion(final long waitMs) {
+      try {
+        return this.completeLatch.await(waitMs, TimeUnit.MILLISECONDS);
+      } catch (final InterruptedException e) {
+        this.logger.info("I/O thread interrupted.", e);
+        return false;
+      }
+    }
+
+    public boolean isComplete() {
+      return this.completeLatch.getCount() == 0L;
+    }
+
+    /**
+     * @return the last bytes of the output, at most {@link #RECENT_OUTPUT_BYTES}
+     */
+    public synchronized String getRecentOutput() {
+      final int length = (int) Math.min(this.outputLength, this.recentOutput.length);
+      final int start = (int) ((this.outputLength - length) % this.recentOutput.length);
+      final byte[] bytes = new byte[length];
+      final int firstPart = Math.min(length, this.recentOutput.length - start);
+      System.arraycopy(this.recentOutput, start, bytes, 0, firstPart);
+      System.arraycopy(this.recentOutput, 0, bytes, firstPart, length - firstPart);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Read the bytes available, if any, without blocking. Once the process exited and no bytes
+     * are available, hand the stream to the finisher.
+     *
+     * @return true if some bytes were read
+     */
+    private boolean pump(final byte[] buffer) {
+      // Read before checking the stream, so that the output written before the exit isn't missed
+      final boolean exited = this.processExited;
+      try {
+        final int available = this.in.available();
+        if (available > 0) {
+          final int read = this.in.read(buffer, 0, Math.min(available, buffer.length));
+          if (read > 0) {
+            append(buffer, read);
+            return true;
+          }
+        }
+        if (exited) {
+          this.detached = true;
+          ProcessOutputPump.this.finisher.execute(this::readToEnd);
+        }
+      } catch (final IOException | RuntimeException e) {
+        // The stream is closed once the process exited and the drain timed out
+        if (!exited) {
+          this.logger.error("Error reading from logging stream:", e);
+        }
+        this.detached = true;
+        complete();
+      }
+      return false;
+    }
+
+    /**
+     * Read the rest of the output of the exited process, blocking until the end of the stream or
+     * until it's closed.
+     */
+    private void readToEnd() {
+      final byte[] buffer = new byte[READ_BUFFER_SIZE];
+      try {
+        int read;
+        while ((read = this.in.read(buffer)) != -1) {
+          append(buffer, read);
+        }
+      } catch (final IOException | RuntimeException e) {
+        // Closed when the output isn't complete in time, e.g. as a child of the process keeps the
+        // stream open
+      }
+      complete();
+    }
+
+    private void append(final byte[] buffer, final int length) {
+      synchronized (this) {
+        for (int i = 0; i < length; i++) {
+          this.recentOutput[(int) (this.outputLength++ % this.recentOutput.length)] = buffer[i];
+        }
+      }
+      for (int i = 0; i < length; i++) {
+        if (buffer[i] == '\n') {
+          logLine();
+        } else {
+          if (this.lineLength == this.line.length) {
+            this.line = Arrays.copyOf(this.line, this.line.length * 2);
+          }
+          this.line[this.lineLength++] = buffer[i];
+        }
+      }
+    }
+
+    private void logLine() {
+      // Same as BufferedReader.readLine(), "\r\n" ends a line too
+      int length = this.lineLength;
+      if (length > 0 && this.line[length - 1] == '\r') {
+        length--;
+      }
+      this.logger.info(new String(this.line, 0, length, StandardCharsets.UTF_8));
+      this.lineLength = 0;
+    }
+
+    private void complete() {
+      if (this.lineLength > 0) {
+        logLine();
+      }
+      this.completeLatch.countDown();
+    }
+  }
+
+  private class PumpThread extends Thread {
+
+    private final List<Drain> drains = new CopyOnWriteArrayList<>();
+    private final byte[] buffer = new byte[READ_BUFFER_SIZE];
+    // Guarded by this
+    private boolean wakeUp = false;
+
+    private PumpThread(final String name) {
+      super(name);
+      setDaemon(true);
+    }
+
+    private void add(final Drain drain) {
+      this.drains.add(drain);
+      wakeUp();
+    }
+
+    private synchronized void wakeUp() {
+      this.wakeUp = true;
+      notifyAll();
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (true) {
+          boolean readAny = false;
+          for (final Drain drain : this.drains) {
+            if (drain.pump(this.buffer)) {
+              readAny = true;
+            } else if (drain.detached) {
+              this.drains.remove(drain);
+            }
+          }
+          synchronized (this) {
+            // Wait for a new stream when idle, else poll the streams again soon
+            while (!readAny && !this.wakeUp) {
+              if (this.drains.isEmpty()) {
+                wait();
+              } else {
+                wait(ProcessOutputPump.this.pollIntervalMs);
+                break;
+              }
+            }
+            this.wakeUp = false;
+          }
+        }
+      } catch (final InterruptedException e) {
+        // Daemon threads, never interrupted
+      }
+    }
+  }
+}
@@ -17,6 +17,7 @@
 package azkaban.metrics;
 
 import com.codahale.metrics.Counter;
+import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Meter;
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -39,6 +40,8 @@ public class CommonMetrics {
   public static final String OOM_WAITING_JOB_COUNT_NAME = "OOM-waiting-job-count";
   public static final String UPLOAD_FAT_PROJECT_METER_NAME = "upload-fat-project-meter";
   public static final String UPLOAD_THIN_PROJECT_METER_NAME = "upload-thin-project-meter";
+  public static final String EXECUTOR_UPDATE_ROUND_LATENCY_NAME = "executor-update-round-latency";
+  public static final String EXECUTOR_UPDATE_LATENCY_NAME_PREFIX = "executor-update-latency-";
 
   private Counter OOMWaitingJobCount;
   private final MetricsManager metricsManager;
@@ -52,6 +55,7 @@ public class CommonMetrics {
   private Meter submitFlowSkipMeter;
   private Meter uploadFatProjectMeter;
   private Meter uploadThinProjectMeter;
+  private Histogram executorUpdateRoundLatency;
 
   @Inject
   public CommonMetrics(final MetricsManager metricsManager) {
@@ -71,6 +75,8 @@ public class CommonMetrics {
     this.OOMWaitingJobCount = this.metricsManager.addCounter(OOM_WAITING_JOB_COUNT_NAME);
     this.uploadFatProjectMeter = this.metricsManager.addMeter(UPLOAD_FAT_PROJECT_METER_NAME);
     this.uploadThinProjectMeter = this.metricsManager.addMeter(UPLOAD_THIN_PROJECT_METER_NAME);
+    this.executorUpdateRoundLatency =
+        this.metricsManager.addHistogram(EXECUTOR_UPDATE_ROUND_LATENCY_NAME);
   }
 
   /**
@@ -140,6 +146,22 @@ public class CommonMetrics {
    */
   public void markUploadThinProject() { this.uploadThinProjectMeter.mark(); }
 
+  /**
+   * Record the time taken to get the updates of the running executions from all executors.
+   */
+  public void recordExecutorUpdateRoundLatency(final long latencyMs) {
+    this.executorUpdateRoundLatency.update(latencyMs);
+  }
+
+  /**
+   * Record the time taken by an executor to answer a request for the updates of its running
+   * executions, failed requests included.
+   */
+  public void recordExecutorUpdateLatency(final String executorHostPort, final long latencyMs) {
+    this.metricsManager.addHistogram(EXECUTOR_UPDATE_LATENCY_NAME_PREFIX + executorHostPort)
+        .update(latencyMs);
+  }
+
   /**
    * Mark the occurrence of a job waiting event due to OOM
    */
@@ -16,14 +16,15 @@
 package azkaban.scheduler;
 
 import azkaban.executor.ExecutionOptions;
+import azkaban.utils.CronFireTimeCache;
 import azkaban.utils.Pair;
 import azkaban.utils.TimeUtils;
-import azkaban.utils.Utils;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 import org.joda.time.ReadablePeriod;
-import org.quartz.CronExpression;
 
 
 public class Schedule {
@@ -177,8 +178,7 @@ public class Schedule {
 
     if (this.cronExpression != null) {
       final DateTime nextTime = getNextCronRuntime(
-          this.nextExecTime, this.timezone, Utils.parseCronExpression(this.cronExpression,
-              this.timezone));
+          this.nextExecTime, this.timezone, this.cronExpression);
       this.nextExecTime = nextTime.getMillis();
       return true;
     }
@@ -223,13 +223,44 @@ public class Schedule {
    * @return the First Scheduled DateTime to run this flow.
    */
   private DateTime getNextCronRuntime(final long scheduleTime, final DateTimeZone timezone,
-      final CronExpression ce) {
+      final String cronExpression) {
+
+    final Date date = new DateTime(scheduleTime).withZone(timezone).toDate();
+    final Date nextDate = CronFireTimeCache.getNextFireTimeAfter(cronExpression, timezone, date);
+    return new DateTime(nextDate != null ? nextDate : date);
+  }
+
+  /**
+   * @return the upcoming execution times in a window, after start and up to end included, at most
+   *     max of them
+   */
+  public List<Long> getExecutionTimes(final long start, final long end, final int max) {
+    final long last = Math.min(end, this.endSchedTime);
+    if (this.cronExpression != null) {
+      // The next execution time is a fire time, unless the schedule was just created
+      final List<Long> times = new ArrayList<>();
+      if (this.nextExecTime > start && this.nextExecTime <= last && max > 0) {
+        times.add(this.nextExecTime);
+      }
+      times.addAll(CronFireTimeCache.getFireTimes(this.cronExpression, this.timezone,
+          Math.max(start, this.nextExecTime), last, max - times.size()));
+      return times;
+    }
 
-    Date date = new DateTime(scheduleTime).withZone(timezone).toDate();
-    if (ce != null) {
-      date = ce.getNextValidTimeAfter(date);
+    final List<Long> times = new ArrayList<>();
+    DateTime time = new DateTime(this.nextExecTime).withZone(this.timezone);
+    // Bounded as getNextRuntime, in case the next execution time is far before the window
+    for (int count = 0; time.getMillis() <= last && times.size() < max && count < 100000;
+        count++) {
+      if (time.getMillis() > start) {
+        times.add(time.getMillis());
+      }
+      if (this.period == null) {
+        break;
+      }
+      time = time.plus(this.period);
     }
-    return new DateTime(date);
+    return times;
   }
 
   public boolean isRecurring() {
@@ -18,6 +18,8 @@ package azkaban.server;
 import azkaban.utils.Props;
 import java.util.List;
 import org.mortbay.jetty.bio.SocketConnector;
+import org.mortbay.jetty.nio.SelectChannelConnector;
+import org.mortbay.jetty.security.SslSelectChannelConnector;
 import org.mortbay.jetty.security.SslSocketConnector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -56,14 +58,50 @@ public class JettyServerUtils {
     secureConnector.setTrustPassword(props.getString(JETTY_TRUSTPASSWORD));
     secureConnector.setHeaderBufferSize(DEFAULT_HEADER_BUFFER_SIZE);
 
-    // set up vulnerable cipher suites to exclude
+    final String[] cipherSuitesToExclude = getCipherSuitesToExclude(props);
+    if (cipherSuitesToExclude != null) {
+      secureConnector.setExcludeCipherSuites(cipherSuitesToExclude);
+    }
+    return secureConnector;
+  }
+
+  /**
+   * Same as {@link #getSslSocketConnector(int, Props)}, with a non-blocking connector on which
+   * suspended requests don't hold a thread.
+   *
+   * @param sslPortNumber Port number to bind for the socket
+   * @param props         Azkaban properties containing configurations for Jetty Server
+   * @return SSL enabled {@link SslSelectChannelConnector}, for https connection to the jetty server
+   */
+  public static SslSelectChannelConnector getSslSelectChannelConnector(final int sslPortNumber,
+      final Props props) {
+    final SslSelectChannelConnector secureConnector = new SslSelectChannelConnector();
+    secureConnector.setPort(sslPortNumber);
+    secureConnector.setKeystore(props.getString(JETTY_KEYSTORE));
+    secureConnector.setPassword(props.getString(JETTY_PASSWORD));
+    secureConnector.setKeyPassword(props.getString(JETTY_KEYPASSWORD));
+    secureConnector.setTruststore(props.getString(JETTY_TRUSTSTORE));
+    secureConnector.setTrustPassword(props.getString(JETTY_TRUSTPASSWORD));
+    secureConnector.setHeaderBufferSize(DEFAULT_HEADER_BUFFER_SIZE);
+
+    final String[] cipherSuitesToExclude = getCipherSuitesToExclude(props);
+    if (cipherSuitesToExclude != null) {
+      secureConnector.setExcludeCipherSuites(cipherSuitesToExclude);
+    }
+    return secureConnector;
+  }
+
+  /**
+   * @return the vulnerable cipher suites to exclude, null if none
+   */
+  private static String[] getCipherSuitesToExclude(final Props props) {
     final List<String> cipherSuitesToExclude = props
         .getStringList("jetty.excludeCipherSuites");
     logger.info("Excluded Cipher Suites: " + String.valueOf(cipherSuitesToExclude));
-    if (cipherSuitesToExclude != null && !cipherSuitesToExclude.isEmpty()) {
-      secureConnector.setExcludeCipherSuites(cipherSuitesToExclude.toArray(new String[0]));
+    if (cipherSuitesToExclude == null || cipherSuitesToExclude.isEmpty()) {
+      return null;
     }
-    return secureConnector;
+    return cipherSuitesToExclude.toArray(new String[0]);
   }
 
   /**
@@ -76,4 +114,16 @@ public class JettyServerUtils {
     connector.setHeaderBufferSize(DEFAULT_HEADER_BUFFER_SIZE);
     return connector;
   }
+
+  /**
+   * @param port Port number to bind for the socket
+   * @return A plain non-blocking {@link SelectChannelConnector} for http connection to the jetty
+   * server, on which suspended requests don't hold a thread
+   */
+  public static SelectChannelConnector getSelectChannelConnector(final int port) {
+    final SelectChannelConnector connector = new SelectChannelConnector();
+    connector.setPort(port);
+    connector.setHeaderBufferSize(DEFAULT_HEADER_BUFFER_SIZE);
+    return connector;
+  }
 }
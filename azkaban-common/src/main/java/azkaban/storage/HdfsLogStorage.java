@@ -0,0 +1,120 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.storage;
+
+import static azkaban.HadoopModule.HADOOP_FILE_CONTEXT;
+import static azkaban.HadoopModule.HADOOP_FS_AUTH;
+import static java.util.Objects.requireNonNull;
+
+import azkaban.AzkabanCommonModuleConfig;
+import azkaban.spi.LogStorage;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.EnumSet;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import org.apache.hadoop.fs.CreateFlag;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileContext;
+import org.apache.hadoop.fs.Options;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.permission.FsPermission;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stores the logs as files under azkaban.logs.storage.hdfs.root.uri.
+ */
+@Singleton
+public class HdfsLogStorage implements LogStorage {
+
+  private static final Logger log = LoggerFactory.getLogger(HdfsLogStorage.class);
+
+  private final AbstractHdfsAuth hdfsAuth;
+  private final FileContext hdfsFileContext;
+  private final String logRootUri;
+
+  @Inject
+  public HdfsLogStorage(final AzkabanCommonModuleConfig config,
+      @Named(HADOOP_FS_AUTH) final AbstractHdfsAuth hdfsAuth,
+      @Named(HADOOP_FILE_CONTEXT) final FileContext hdfsFileContext) {
+    this.hdfsAuth = requireNonNull(hdfsAuth);
+    this.hdfsFileContext = requireNonNull(hdfsFileContext);
+    this.logRootUri = requireNonNull(config.getHdfsLogRootUri(),
+        "azkaban.logs.storage.hdfs.root.uri is not set").toString();
+  }
+
+  private Path fullLogPath(final String key) {
+    return new Path(this.logRootUri, key);
+  }
+
+  @Override
+  public long putLog(final String key, final File... files) throws IOException {
+    this.hdfsAuth.authorize();
+    final Path targetPath = fullLogPath(key);
+    final Path tmpPath = new Path(targetPath.getParent(), targetPath.getName() + ".tmp");
+    this.hdfsFileContext.mkdir(targetPath.getParent(), FsPermission.getDefault(), true);
+
+    // Written to a temporary file first, so that a log is never read partially written
+    long length = 0;
+    try (final FSDataOutputStream out = this.hdfsFileContext.create(tmpPath,
+        EnumSet.of(CreateFlag.CREATE, CreateFlag.OVERWRITE))) {
+      for (final File file : files) {
+        length += Files.copy(file.toPath(), out);
+      }
+    } catch (final IOException e) {
+      log.error("Error writing log " + tmpPath, e);
+      this.hdfsFileContext.delete(tmpPath, false);
+      throw e;
+    }
+    this.hdfsFileContext.rename(tmpPath, targetPath, Options.Rename.OVERWRITE);
+    return length;
+  }
+
+  @Override
+  public byte[] readLog(final String key, final long offset, final int length)
+      throws IOException {
+    this.hdfsAuth.authorize();
+    final byte[] buffer = new byte[length];
+    int read = 0;
+    try (final FSDataInputStream in = this.hdfsFileContext.open(fullLogPath(key))) {
+      while (read < length) {
+        final int size = in.read(offset + read, buffer, read, length - read);
+        if (size < 0) {
+          break;
+        }
+        read += size;
+      }
+    }
+    return read == length ? buffer : Arrays.copyOf(buffer, read);
+  }
+
+  @Override
+  public boolean deleteLog(final String key) throws IOException {
+    this.hdfsAuth.authorize();
+    try {
+      return this.hdfsFileContext.delete(fullLogPath(key), false);
+    } catch (final FileNotFoundException e) {
+      return false;
+    }
+  }
+}
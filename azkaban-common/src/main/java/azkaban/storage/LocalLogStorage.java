@@ -0,0 +1,124 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.storage;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import azkaban.AzkabanCommonModuleConfig;
+import azkaban.spi.LogStorage;
+import azkaban.utils.FileIOUtils;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stores the logs as files in a local directory, which should be on a file system shared by the
+ * executors and the web servers, e.g. NFS.
+ */
+@Singleton
+public class LocalLogStorage implements LogStorage {
+
+  private static final Logger log = LoggerFactory.getLogger(LocalLogStorage.class);
+
+  private final File rootDirectory;
+
+  @Inject
+  public LocalLogStorage(final AzkabanCommonModuleConfig config) {
+    this(new File(config.getLocalLogStorageBaseDirPath()));
+  }
+
+  LocalLogStorage(final File rootDirectory) {
+    if (!rootDirectory.exists()) {
+      rootDirectory.mkdirs();
+      log.info("Creating dir: " + rootDirectory.getAbsolutePath());
+    }
+    checkArgument(rootDirectory.isDirectory());
+    if (!FileIOUtils.isDirWritable(rootDirectory)) {
+      throw new IllegalArgumentException("Directory not writable: " + rootDirectory);
+    }
+    this.rootDirectory = rootDirectory;
+  }
+
+  private File getFileInRoot(final String key) {
+    return new File(this.rootDirectory, key);
+  }
+
+  @Override
+  public long putLog(final String key, final File... files) throws IOException {
+    final File targetFile = getFileInRoot(key);
+    Files.createDirectories(targetFile.getParentFile().toPath());
+
+    // Written to a temporary file first, so that a log is never read partially written
+    final File tmpFile = new File(targetFile.getParentFile(), targetFile.getName() + ".tmp");
+    long length = 0;
+    try (final OutputStream out = Files.newOutputStream(tmpFile.toPath())) {
+      for (final File file : files) {
+        length += Files.copy(file.toPath(), out);
+      }
+    } catch (final IOException e) {
+      Files.deleteIfExists(tmpFile.toPath());
+      throw e;
+    }
+    Files.move(tmpFile.toPath(), targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+    return length;
+  }
+
+  @Override
+  public byte[] readLog(final String key, final long offset, final int length)
+      throws IOException {
+    try (final FileChannel channel = FileChannel.open(getFileInRoot(key).toPath(),
+        StandardOpenOption.READ)) {
+      final int toRead = (int) Math.max(0, Math.min(length, channel.size() - offset));
+      final ByteBuffer buffer = ByteBuffer.allocate(toRead);
+      while (buffer.hasRemaining()
+          && channel.read(buffer, offset + buffer.position()) >= 0) {
+      }
+      return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+  }
+
+  @Override
+  public boolean deleteLog(final String key) throws IOException {
+    final File file = getFileInRoot(key);
+    try {
+      Files.delete(file.toPath());
+    } catch (final NoSuchFileException e) {
+      return false;
+    }
+    // Remove the directory of the execution with its last log
+    final File parent = file.getParentFile();
+    if (!parent.equals(this.rootDirectory)) {
+      final String[] remaining = parent.list();
+      if (remaining != null && remaining.length == 0) {
+        parent.delete();
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.storage;
+
+import azkaban.spi.LogStorage;
+
+/**
+ * Implementations of {@link LogStorage}. DATABASE has none: the logs are stored in the
+ * execution_logs table.
+ */
+public enum LogStorageImplementationType {
+  DATABASE(null),
+  LOCAL(LocalLogStorage.class),
+  HDFS(HdfsLogStorage.class);
+
+  private final Class<? extends LogStorage> implementationClass;
+
+  LogStorageImplementationType(final Class<? extends LogStorage> implementationClass) {
+    this.implementationClass = implementationClass;
+  }
+
+  public static LogStorageImplementationType from(final String name) {
+    try {
+      return valueOf(name);
+    } catch (final IllegalArgumentException | NullPointerException e) {
+      return null;
+    }
+  }
+
+  public Class<? extends LogStorage> getImplementationClass() {
+    return this.implementationClass;
+  }
+}
@@ -21,6 +21,8 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
 
+import azkaban.Constants;
+import azkaban.Constants.ConfigurationKeys;
 import azkaban.project.Project;
 import azkaban.project.ProjectFileHandler;
 import azkaban.project.ProjectLoader;
@@ -34,6 +36,9 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.List;
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -54,12 +59,15 @@ public class ProjectStorageManager {
   private final Storage storage;
   private final ProjectLoader projectLoader;
   private final File tempDir;
+  private final boolean streamingEnabled;
 
   @Inject
   public ProjectStorageManager(final Props props, final Storage storage,
       final ProjectLoader projectLoader,
       final StorageCleaner storageCleaner) {
     this.tempDir = new File(props.getString("project.temp.dir", "temp"));
+    this.streamingEnabled = props.getBoolean(ConfigurationKeys.PROJECT_DOWNLOAD_STREAMING_ENABLED,
+        Constants.DEFAULT_PROJECT_DOWNLOAD_STREAMING_ENABLED);
     this.storage = requireNonNull(storage, "storage is null");
     this.projectLoader = requireNonNull(projectLoader, "projectLoader is null");
     this.storageCleaner = requireNonNull(storageCleaner, "storageCleanUp is null");
@@ -186,6 +194,48 @@ public class ProjectStorageManager {
     }
   }
 
+  /**
+   * @return true if project files are to be read with {@link #openProjectFile} rather than
+   * {@link #getProjectFile}
+   */
+  public boolean isProjectFileStreamingEnabled() {
+    // The database storage can only copy the chunks of a project file to a local file
+    return this.streamingEnabled && !(this.storage instanceof DatabaseStorage);
+  }
+
+  /**
+   * Fetch the metadata of a project file, to be read with {@link #openProjectFile}.
+   *
+   * @param projectId required project ID
+   * @param version version to be fetched
+   * @return Handler object without local file
+   */
+  public ProjectFileHandler getProjectFileMetadata(final int projectId, final int version) {
+    return requireNonNull(this.projectLoader.fetchProjectMetaData(projectId, version),
+        String.format("No project file. project ID: %d version: %d", projectId, version));
+  }
+
+  /**
+   * Open a project file in storage, without copying it to a local file first. The checksum of the
+   * file is validated when the end of the stream is reached, failing that read with an
+   * IOException on mismatch.
+   *
+   * @param pfh handler from {@link #getProjectFileMetadata}
+   * @return stream of the project file, to be closed by the caller
+   */
+  public InputStream openProjectFile(final ProjectFileHandler pfh) throws IOException {
+    final String resourceId = requireNonNull(pfh.getResourceId(),
+        String.format("URI is null. project ID: %d version: %d",
+            pfh.getProjectId(), pfh.getVersion()));
+    final MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance(HashUtils.MD5.getName());
+    } catch (final NoSuchAlgorithmException e) {
+      throw new StorageException(e);
+    }
+    return new ChecksumValidatingInputStream(this.storage.getProject(resourceId), digest, pfh);
+  }
+
   private void validateChecksum(final File file, final ProjectFileHandler pfh) throws IOException {
     final byte[] hash = HashUtils.MD5.getHashBytes(file);
     checkState(HashUtils.isSameHash(pfh.getMD5Hash(), hash),
@@ -195,6 +245,54 @@ public class ProjectStorageManager {
     );
   }
 
+  /**
+   * Validates the MD5 hash of a project file once its end is read.
+   */
+  private static class ChecksumValidatingInputStream extends DigestInputStream {
+
+    private final ProjectFileHandler pfh;
+    private boolean validated = false;
+
+    ChecksumValidatingInputStream(final InputStream in, final MessageDigest digest,
+        final ProjectFileHandler pfh) {
+      super(in, digest);
+      this.pfh = pfh;
+    }
+
+    @Override
+    public int read() throws IOException {
+      final int b = super.read();
+      if (b < 0) {
+        validate();
+      }
+      return b;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+      final int size = super.read(b, off, len);
+      if (size < 0) {
+        validate();
+      }
+      return size;
+    }
+
+    private void validate() throws IOException {
+      if (this.validated) {
+        return;
+      }
+      this.validated = true;
+      final byte[] hash = getMessageDigest().digest();
+      if (!HashUtils.isSameHash(this.pfh.getMD5Hash(), hash)) {
+        throw new IOException(String.format(
+            "MD5 HASH Failed. project ID: %d version: %d Expected: %s Actual: %s",
+            this.pfh.getProjectId(), this.pfh.getVersion(),
+            HashUtils.bytesHashToString(this.pfh.getMD5Hash()),
+            HashUtils.bytesHashToString(hash)));
+      }
+    }
+  }
+
   private File createTempOutputFile(final ProjectFileHandler projectFileHandler)
       throws IOException {
     return File.createTempFile(
@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BooleanSupplier;
 import org.apache.commons.jexl2.Expression;
 import org.apache.commons.jexl2.JexlEngine;
 import org.apache.commons.jexl2.MapContext;
@@ -34,13 +35,15 @@ public class Condition {
   private static CheckerTypeLoader checkerLoader = null;
   private final MapContext context = new MapContext();
   private Expression expression;
+  // The expression compiled by ConditionCompiler, null if it must be interpreted
+  private BooleanSupplier compiledExpression;
   private Map<String, ConditionChecker> checkers =
       new HashMap<>();
   private Long nextCheckTime = -1L;
 
   public Condition(final Map<String, ConditionChecker> checkers, final String expr) {
     setCheckers(checkers);
-    this.expression = jexl.createExpression(expr);
+    setExpression(expr);
     updateNextCheckTime();
   }
 
@@ -48,7 +51,7 @@ public class Condition {
       final long nextCheckTime) {
     this.nextCheckTime = nextCheckTime;
     setCheckers(checkers);
-    this.expression = jexl.createExpression(expr);
+    setExpression(expr);
   }
 
   public synchronized static void setCheckerLoader(final CheckerTypeLoader loader) {
@@ -123,18 +126,26 @@ public class Condition {
         + new DateTime(this.nextCheckTime));
   }
 
+  boolean isCompiled() {
+    return this.compiledExpression != null;
+  }
+
   public String getExpression() {
     return this.expression.getExpression();
   }
 
   public void setExpression(final String expr) {
     this.expression = jexl.createExpression(expr);
+    this.compiledExpression = ConditionCompiler.compile(expr, this.checkers);
   }
 
   public boolean isMet() {
     if (logger.isDebugEnabled()) {
       logger.debug("Testing condition " + this.expression);
     }
+    if (this.compiledExpression != null) {
+      return this.compiledExpression.getAsBoolean();
+    }
     return this.expression.evaluate(this.context).equals(Boolean.TRUE);
   }
 
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.trigger;
+
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Compiles the common condition expressions, calls to the eval() method of the checkers combined
+ * with &&, || and !, into direct calls to the checkers, so that checking a condition doesn't
+ * interpret its JEXL expression every time.
+ *
+ * <pre>
+ * or  := and ('||' and)*
+ * and := not ('&&' not)*
+ * not := '!' not | '(' or ')' | checker '.eval()'
+ * </pre>
+ *
+ * <p>As with JEXL, the operands are evaluated from left to right and && and || short-circuit. The
+ * checkers are expected to return a Boolean, anything else is false.
+ */
+final class ConditionCompiler {
+
+  private static final String EVAL = ".eval()";
+
+  private final String expr;
+  private final Map<String, ConditionChecker> checkers;
+  private int pos = 0;
+
+  private ConditionCompiler(final String expr, final Map<String, ConditionChecker> checkers) {
+    this.expr = expr;
+    this.checkers = checkers;
+  }
+
+  /**
+   * @return the compiled expression, or null if it isn't of a supported shape or refers to
+   *     unknown checkers, in which case it must be interpreted by JEXL
+   */
+  static BooleanSupplier compile(final String expr,
+      final Map<String, ConditionChecker> checkers) {
+    final ConditionCompiler compiler = new ConditionCompiler(expr, checkers);
+    final BooleanSupplier compiled = compiler.parseOr();
+    compiler.skipSpaces();
+    return compiled != null && compiler.pos == expr.length() ? compiled : null;
+  }
+
+  private BooleanSupplier parseOr() {
+    BooleanSupplier left = parseAnd();
+    while (left != null && consume("||")) {
+      final BooleanSupplier first = left;
+      final BooleanSupplier second = parseAnd();
+      if (second == null) {
+        return null;
+      }
+      left = () -> first.getAsBoolean() || second.getAsBoolean();
+    }
+    return left;
+  }
+
+  private BooleanSupplier parseAnd() {
+    BooleanSupplier left = parseNot();
+    while (left != null && consume("&&")) {
+      final BooleanSupplier first = left;
+      final BooleanSupplier second = parseNot();
+      if (second == null) {
+        return null;
+      }
+      left = () -> first.getAsBoolean() && second.getAsBoolean();
+    }
+    return left;
+  }
+
+  private BooleanSupplier parseNot() {
+    if (consume("!")) {
+      final BooleanSupplier operand = parseNot();
+      return operand == null ? null : () -> !operand.getAsBoolean();
+    }
+    if (consume("(")) {
+      final BooleanSupplier inner = parseOr();
+      return inner != null && consume(")") ? inner : null;
+    }
+    return parseChecker();
+  }
+
+  private BooleanSupplier parseChecker() {
+    skipSpaces();
+    final int start = this.pos;
+    while (this.pos < this.expr.length()
+        && Character.isJavaIdentifierPart(this.expr.charAt(this.pos))) {
+      this.pos++;
+    }
+    if (start == this.pos || !Character.isJavaIdentifierStart(this.expr.charAt(start))
+        || !this.expr.startsWith(EVAL, this.pos)) {
+      return null;
+    }
+    final ConditionChecker checker = this.checkers.get(this.expr.substring(start, this.pos));
+    if (checker == null) {
+      return null;
+    }
+    this.pos += EVAL.length();
+    return () -> Boolean.TRUE.equals(checker.eval());
+  }
+
+  private boolean consume(final String token) {
+    skipSpaces();
+    if (this.expr.startsWith(token, this.pos)) {
+      this.pos += token.length();
+      return true;
+    }
+    return false;
+  }
+
+  private void skipSpaces() {
+    while (this.pos < this.expr.length() && Character.isWhitespace(this.expr.charAt(this.pos))) {
+      this.pos++;
+    }
+  }
+}
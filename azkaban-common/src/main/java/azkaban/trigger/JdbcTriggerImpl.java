@@ -16,11 +16,16 @@
 
 package azkaban.trigger;
 
+import azkaban.Constants;
+import azkaban.Constants.ConfigurationKeys;
 import azkaban.db.EncodingType;
 import azkaban.db.DatabaseOperator;
 import azkaban.db.SQLTransaction;
+import azkaban.utils.BinaryObjectCodec;
 import azkaban.utils.GZIPUtils;
 import azkaban.utils.JSONUtils;
+import azkaban.utils.Props;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.io.IOException;
@@ -29,6 +34,11 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.apache.commons.dbutils.ResultSetHandler;
 import org.apache.log4j.Logger;
 import org.joda.time.DateTime;
@@ -55,41 +65,60 @@ public class JdbcTriggerImpl implements TriggerLoader {
           + " SET trigger_source=?, modify_time=?, enc_type=?, data=? WHERE trigger_id=?";
   private static final Logger logger = Logger.getLogger(JdbcTriggerImpl.class);
   private final DatabaseOperator dbOperator;
-  private final EncodingType defaultEncodingType = EncodingType.GZIP;
+  private final EncodingType defaultEncodingType;
+  private final int loadThreads;
 
-  @Inject
   public JdbcTriggerImpl(final DatabaseOperator databaseOperator) {
+    this(databaseOperator, EncodingType.GZIP, Constants.DEFAULT_TRIGGER_LOAD_THREADS);
+  }
+
+  @Inject
+  public JdbcTriggerImpl(final DatabaseOperator databaseOperator, final Props props) {
+    this(databaseOperator, EncodingType.valueOf(props.getString(
+        ConfigurationKeys.TRIGGER_DATA_ENCODING, EncodingType.GZIP.name()).toUpperCase()),
+        props.getInt(ConfigurationKeys.TRIGGER_LOAD_THREADS,
+            Constants.DEFAULT_TRIGGER_LOAD_THREADS));
+  }
+
+  public JdbcTriggerImpl(final DatabaseOperator databaseOperator,
+      final EncodingType defaultEncodingType, final int loadThreads) {
     this.dbOperator = databaseOperator;
+    this.defaultEncodingType = defaultEncodingType;
+    this.loadThreads = loadThreads;
   }
 
   @Override
   public List<Trigger> getUpdatedTriggers(final long lastUpdateTime) throws TriggerLoaderException {
     logger.info("Loading triggers changed since " + new DateTime(lastUpdateTime).toString());
-
-    final ResultSetHandler<List<Trigger>> handler = new TriggerResultHandler();
-
-    try {
-      final List<Trigger> triggers = this.dbOperator
-          .query(GET_UPDATED_TRIGGERS, handler, lastUpdateTime);
-      logger.info("Loaded " + triggers.size() + " triggers.");
-      return triggers;
-    } catch (final SQLException ex) {
-      throw new TriggerLoaderException("Loading triggers from db failed.", ex);
-    }
+    return loadTriggers(GET_UPDATED_TRIGGERS, lastUpdateTime);
   }
 
   @Override
   public List<Trigger> loadTriggers() throws TriggerLoaderException {
     logger.info("Loading all triggers from db.");
+    return loadTriggers(GET_ALL_TRIGGERS);
+  }
 
-    final ResultSetHandler<List<Trigger>> handler = new TriggerResultHandler();
-
+  /**
+   * Loads the triggers returned by the query. With more than one load thread, the triggers are
+   * decoded on the load threads while the next rows are read.
+   */
+  private List<Trigger> loadTriggers(final String query, final Object... params)
+      throws TriggerLoaderException {
+    final ExecutorService decoders = this.loadThreads > 1 ? Executors.newFixedThreadPool(
+        this.loadThreads, new ThreadFactoryBuilder().setDaemon(true)
+            .setNameFormat("azk-trigger-loader-%d").build()) : null;
     try {
-      final List<Trigger> triggers = this.dbOperator.query(GET_ALL_TRIGGERS, handler);
+      final List<Trigger> triggers = this.dbOperator
+          .query(query, new TriggerResultHandler(decoders), params);
       logger.info("Loaded " + triggers.size() + " triggers.");
       return triggers;
     } catch (final SQLException ex) {
       throw new TriggerLoaderException("Loading triggers from db failed.", ex);
+    } finally {
+      if (decoders != null) {
+        decoders.shutdownNow();
+      }
     }
   }
 
@@ -125,6 +154,7 @@ public class JdbcTriggerImpl implements TriggerLoader {
     try {
       final long id = this.dbOperator.transaction(insertAndGetLastID);
       t.setTriggerId((int) id);
+      t.setLastModifyTime(System.currentTimeMillis());
       updateTrigger(t);
       logger.info("uploaded trigger " + t.getDescription());
     } catch (final SQLException ex) {
@@ -136,13 +166,66 @@ public class JdbcTriggerImpl implements TriggerLoader {
   @Override
   public void updateTrigger(final Trigger t) throws TriggerLoaderException {
     logger.info("Updating trigger " + t.getTriggerId() + " into db.");
-    t.setLastModifyTime(System.currentTimeMillis());
     updateTrigger(t, this.defaultEncodingType);
   }
 
   private void updateTrigger(final Trigger t, final EncodingType encType)
       throws TriggerLoaderException {
 
+    final byte[] data = encodeTrigger(t, encType);
+
+    try {
+      final int updates = this.dbOperator
+          .update(UPDATE_TRIGGER, t.getSource(), t.getLastModifyTime(), encType.getNumVal(), data,
+              t.getTriggerId());
+      if (updates == 0) {
+        throw new TriggerLoaderException("No trigger has been updated.");
+      }
+    } catch (final SQLException ex) {
+      logger.error("Updating Trigger " + t.getTriggerId() + " failed.");
+      throw new TriggerLoaderException("DB Trigger update failed. ", ex);
+    }
+  }
+
+  @Override
+  public void updateTriggers(final List<Trigger> triggers) throws TriggerLoaderException {
+    logger.info("Updating " + triggers.size() + " triggers into db.");
+    final Object[][] params = new Object[triggers.size()][];
+    for (int i = 0; i < params.length; i++) {
+      final Trigger t = triggers.get(i);
+      params[i] = new Object[]{t.getSource(), t.getLastModifyTime(),
+          this.defaultEncodingType.getNumVal(), encodeTrigger(t, this.defaultEncodingType),
+          t.getTriggerId()};
+    }
+
+    final int[] updates;
+    try {
+      updates = this.dbOperator.batch(UPDATE_TRIGGER, params);
+    } catch (final SQLException ex) {
+      logger.error("Updating " + triggers.size() + " triggers failed.");
+      throw new TriggerLoaderException("DB Trigger update failed. ", ex);
+    }
+    final List<Integer> notUpdated = new ArrayList<>();
+    for (int i = 0; i < updates.length; i++) {
+      if (updates[i] == 0) {
+        notUpdated.add(triggers.get(i).getTriggerId());
+      }
+    }
+    if (!notUpdated.isEmpty()) {
+      throw new TriggerLoaderException("Triggers " + notUpdated + " have not been updated.");
+    }
+  }
+
+  private byte[] encodeTrigger(final Trigger t, final EncodingType encType)
+      throws TriggerLoaderException {
+    if (encType == EncodingType.BINARY) {
+      try {
+        return BinaryObjectCodec.encode(t.toJson());
+      } catch (final IOException e) {
+        logger.error("Trigger encoding fails", e);
+        throw new TriggerLoaderException("Error encoding the trigger " + t.toString(), e);
+      }
+    }
     final String json = JSONUtils.toJSON(t.toJson());
     byte[] data = null;
     try {
@@ -158,18 +241,7 @@ public class JdbcTriggerImpl implements TriggerLoader {
       logger.error("Trigger encoding fails", e);
       throw new TriggerLoaderException("Error encoding the trigger " + t.toString(), e);
     }
-
-    try {
-      final int updates = this.dbOperator
-          .update(UPDATE_TRIGGER, t.getSource(), t.getLastModifyTime(), encType.getNumVal(), data,
-              t.getTriggerId());
-      if (updates == 0) {
-        throw new TriggerLoaderException("No trigger has been updated.");
-      }
-    } catch (final SQLException ex) {
-      logger.error("Updating Trigger " + t.getTriggerId() + " failed.");
-      throw new TriggerLoaderException("DB Trigger update failed. ", ex);
-    }
+    return data;
   }
 
   @Override
@@ -193,42 +265,83 @@ public class JdbcTriggerImpl implements TriggerLoader {
 
   public static class TriggerResultHandler implements ResultSetHandler<List<Trigger>> {
 
+    // Null to decode the triggers on the calling thread
+    private final Executor decoders;
+
+    public TriggerResultHandler() {
+      this(null);
+    }
+
+    public TriggerResultHandler(final Executor decoders) {
+      this.decoders = decoders;
+    }
+
     @Override
     public List<Trigger> handle(final ResultSet rs) throws SQLException {
       if (!rs.next()) {
         return Collections.<Trigger>emptyList();
       }
 
+      final List<CompletableFuture<Trigger>> decoded = new ArrayList<>();
       final ArrayList<Trigger> triggers = new ArrayList<>();
       do {
         final int triggerId = rs.getInt(1);
         final int encodingType = rs.getInt(4);
         final byte[] data = rs.getBytes(5);
 
-        Object jsonObj = null;
-        if (data != null) {
-          final EncodingType encType = EncodingType.fromInteger(encodingType);
-
-          try {
-            // Convoluted way to inflate strings. Should find common package or
-            // helper function.
-            jsonObj = JSONUtils.parseJSONFromString(encType == EncodingType.GZIP ?
-                GZIPUtils.unGzipString(data, "UTF-8") : new String(data, "UTF-8"));
-          } catch (final IOException e) {
-            throw new SQLException("Error reconstructing trigger data ");
+        if (this.decoders == null) {
+          addTrigger(triggers, decodeTrigger(triggerId, encodingType, data));
+        } else {
+          decoded.add(CompletableFuture.supplyAsync(() -> {
+            try {
+              return decodeTrigger(triggerId, encodingType, data);
+            } catch (final SQLException e) {
+              throw new CompletionException(e);
+            }
+          }, this.decoders));
+        }
+      } while (rs.next());
+
+      // In the order of the rows
+      for (final CompletableFuture<Trigger> future : decoded) {
+        try {
+          addTrigger(triggers, future.join());
+        } catch (final CompletionException e) {
+          if (e.getCause() instanceof SQLException) {
+            throw (SQLException) e.getCause();
           }
+          throw e;
         }
+      }
+      return triggers;
+    }
+
+    private static void addTrigger(final List<Trigger> triggers, final Trigger t) {
+      if (t != null) {
+        triggers.add(t);
+      }
+    }
 
-        Trigger t = null;
+    /**
+     * @return the trigger, or null if it can't be created from its data
+     */
+    private static Trigger decodeTrigger(final int triggerId, final int encodingType,
+        final byte[] data) throws SQLException {
+      Object jsonObj = null;
+      if (data != null) {
         try {
-          t = Trigger.fromJson(jsonObj);
-          triggers.add(t);
-        } catch (final Exception e) {
-          logger.error("Failed to load trigger " + triggerId, e);
+          jsonObj = GZIPUtils.transformBytesToObject(data, EncodingType.fromInteger(encodingType));
+        } catch (final IOException e) {
+          throw new SQLException("Error reconstructing trigger data ");
         }
-      } while (rs.next());
+      }
 
-      return triggers;
+      try {
+        return Trigger.fromJson(jsonObj);
+      } catch (final Exception e) {
+        logger.error("Failed to load trigger " + triggerId, e);
+        return null;
+      }
     }
   }
 }
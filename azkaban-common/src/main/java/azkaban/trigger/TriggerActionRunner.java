@@ -0,0 +1,85 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.trigger;
+
+import azkaban.metrics.MetricsManager;
+import azkaban.utils.KeyedSerialExecutor;
+import com.codahale.metrics.Histogram;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.log4j.Logger;
+
+/**
+ * Runs the actions of the triggers on a pool of threads, so that the trigger scanner doesn't wait
+ * for e.g. flow submissions before checking the next triggers.
+ *
+ * <p>The actions with the same key, e.g. of the same project, run one at a time in the order they
+ * were queued, while those with different keys run in parallel.
+ */
+class TriggerActionRunner {
+
+  static final String QUEUE_SIZE_GAUGE_NAME = "trigger-action-queue-size";
+  // Time from the scheduled fire time of the trigger to its actions being done, e.g. the flow
+  // submitted, including the delay of the scanner and the time queued
+  static final String LATENCY_HISTOGRAM_NAME = "trigger-action-latency";
+
+  private static final Logger logger = Logger.getLogger(TriggerActionRunner.class);
+
+  private final KeyedSerialExecutor<String> workers;
+  private final AtomicInteger queueSize = new AtomicInteger();
+  private final Histogram latency;
+
+  TriggerActionRunner(final int numThreads, final MetricsManager metricsManager) {
+    this.workers = new KeyedSerialExecutor<>(numThreads, "azk-trigger-action-%d");
+    metricsManager.addGauge(QUEUE_SIZE_GAUGE_NAME, this::getQueueSize);
+    this.latency = metricsManager.addHistogram(LATENCY_HISTOGRAM_NAME);
+  }
+
+  /**
+   * Queue the actions of a trigger, to run after the ones previously queued with the same key.
+   *
+   * @param fireTime when the trigger was due, the current time if unknown or later
+   */
+  void run(final String key, final long fireTime, final Runnable actions) {
+    final long startTime = fireTime > 0 ? Math.min(fireTime, System.currentTimeMillis())
+        : System.currentTimeMillis();
+    this.queueSize.incrementAndGet();
+    final Runnable task = () -> {
+      this.queueSize.decrementAndGet();
+      try {
+        actions.run();
+      } catch (final RuntimeException e) {
+        logger.error("Error running trigger actions of " + key, e);
+      }
+      this.latency.update(System.currentTimeMillis() - startTime);
+    };
+    this.workers.execute(key, task);
+  }
+
+  /**
+   * @return number of queued actions not started yet
+   */
+  int getQueueSize() {
+    return this.queueSize.get();
+  }
+
+  /**
+   * Wait for the queued actions to complete, then stop the threads.
+   */
+  void shutdown(final long timeoutMs) {
+    this.workers.shutdown(timeoutMs);
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.trigger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Log of the last change of each trigger, ordered by modification time, with one log per trigger
+ * source, so that the triggers changed since a time are found with a range scan instead of going
+ * through all the triggers.
+ *
+ * <p>The index assigns the modification times: each trigger indexed gets a time strictly after the
+ * ones of the triggers indexed before it, in the same step. A trigger must be touched before it is
+ * saved, so that it is saved with its indexed time. As the times are assigned in the order the
+ * triggers become visible, a read having seen a trigger also sees all the ones indexed before it,
+ * and a reader resuming from the latest time it has seen doesn't skip any trigger. Reads don't lock
+ * and may miss a trigger being indexed, which then has a later time than all those returned.
+ */
+class TriggerIndex {
+
+  private final NavigableSet<Entry> all = new ConcurrentSkipListSet<>();
+  private final ConcurrentMap<String, NavigableSet<Entry>> bySource = new ConcurrentHashMap<>();
+  // Guarded by this
+  private final Map<Integer, Entry> entries = new HashMap<>();
+  // Guarded by this
+  private long lastModifyTime = Long.MIN_VALUE;
+
+  /**
+   * Index the triggers loaded at startup with their saved modification times.
+   */
+  synchronized void load(final List<Trigger> triggers) {
+    for (final Trigger t : triggers) {
+      this.lastModifyTime = Math.max(this.lastModifyTime, t.getLastModifyTime());
+      index(t);
+    }
+  }
+
+  /**
+   * Index a changed trigger with a new modification time, set on the trigger.
+   */
+  synchronized void touch(final Trigger t) {
+    t.setLastModifyTime(System.currentTimeMillis());
+    put(t);
+  }
+
+  /**
+   * Index a trigger with its modification time, moved after the ones already indexed if needed.
+   */
+  synchronized void put(final Trigger t) {
+    if (t.getLastModifyTime() <= this.lastModifyTime) {
+      t.setLastModifyTime(this.lastModifyTime + 1);
+    }
+    this.lastModifyTime = t.getLastModifyTime();
+    index(t);
+  }
+
+  private void index(final Trigger t) {
+    remove(t.getTriggerId());
+    final Entry entry = new Entry(t.getLastModifyTime(), t.getTriggerId(), t);
+    this.entries.put(t.getTriggerId(), entry);
+    this.all.add(entry);
+    this.bySource.computeIfAbsent(t.getSource(), source -> new ConcurrentSkipListSet<>())
+        .add(entry);
+  }
+
+  synchronized void remove(final int triggerId) {
+    final Entry entry = this.entries.remove(triggerId);
+    if (entry != null) {
+      this.all.remove(entry);
+      this.bySource.get(entry.trigger.getSource()).remove(entry);
+    }
+  }
+
+  List<Trigger> getTriggers(final String source) {
+    return getTriggers(this.bySource.get(source), Long.MIN_VALUE);
+  }
+
+  /**
+   * @return the triggers last modified after the given time
+   */
+  List<Trigger> getUpdatedTriggers(final long lastUpdateTime) {
+    return getTriggers(this.all, lastUpdateTime);
+  }
+
+  /**
+   * @return the triggers of the source last modified after the given time
+   */
+  List<Trigger> getUpdatedTriggers(final String source, final long lastUpdateTime) {
+    return getTriggers(this.bySource.get(source), lastUpdateTime);
+  }
+
+  private static List<Trigger> getTriggers(final NavigableSet<Entry> log,
+      final long lastUpdateTime) {
+    final List<Trigger> triggers = new ArrayList<>();
+    if (log != null) {
+      // After all the entries of lastUpdateTime
+      for (final Entry entry : log.tailSet(new Entry(lastUpdateTime, Integer.MAX_VALUE, null),
+          false)) {
+        triggers.add(entry.trigger);
+      }
+    }
+    return triggers;
+  }
+
+  private static class Entry implements Comparable<Entry> {
+
+    // Of when the trigger was indexed, as the one of the trigger may change after
+    private final long modifyTime;
+    private final int triggerId;
+    private final Trigger trigger;
+
+    private Entry(final long modifyTime, final int triggerId, final Trigger trigger) {
+      this.modifyTime = modifyTime;
+      this.triggerId = triggerId;
+      this.trigger = trigger;
+    }
+
+    @Override
+    public int compareTo(final Entry o) {
+      final int byTime = Long.compare(this.modifyTime, o.modifyTime);
+      return byTime != 0 ? byTime : Integer.compare(this.triggerId, o.triggerId);
+    }
+  }
+}
@@ -24,8 +24,21 @@ public interface TriggerLoader {
 
   public void removeTrigger(Trigger s) throws TriggerLoaderException;
 
+  /**
+   * Update a trigger, with the modification time set by the caller.
+   */
   public void updateTrigger(Trigger t) throws TriggerLoaderException;
 
+  /**
+   * Update several triggers at once. Unless overridden, they are updated one by one.
+   */
+  public default void updateTriggers(final List<Trigger> triggers)
+      throws TriggerLoaderException {
+    for (final Trigger t : triggers) {
+      updateTrigger(t);
+    }
+  }
+
   public List<Trigger> loadTriggers() throws TriggerLoaderException;
 
   public Trigger loadTrigger(int triggerId) throws TriggerLoaderException;
@@ -18,20 +18,31 @@ package azkaban.trigger;
 
 import static java.util.Objects.requireNonNull;
 
+import azkaban.Constants;
+import azkaban.Constants.ConfigurationKeys;
 import azkaban.event.EventHandler;
 import azkaban.executor.ExecutorManagerAdapter;
 import azkaban.executor.ExecutorManagerException;
+import azkaban.metrics.MetricsManager;
+import azkaban.trigger.builtin.ExecuteFlowAction;
 import azkaban.utils.Props;
+import com.google.common.util.concurrent.Striped;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
 import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.apache.log4j.Logger;
@@ -41,12 +52,22 @@ public class TriggerManager extends EventHandler implements
     TriggerManagerAdapter {
 
   public static final long DEFAULT_SCANNER_INTERVAL_MS = 60000;
+  private static final int MAX_TRIGGER_UPDATE_BATCH_SIZE = 100;
+  private static final long ACTION_SHUTDOWN_TIMEOUT_MS = 60000;
   private static final Logger logger = Logger.getLogger(TriggerManager.class);
   private static final Map<Integer, Trigger> triggerIdMap =
       new ConcurrentHashMap<>();
+  // Triggers of triggerIdMap by source and modification time
+  private static final TriggerIndex triggerIndex = new TriggerIndex();
 
-  private final TriggerScannerThread runnerThread;
+  private final TriggerScanner runnerThread;
   private final Object syncObj = new Object();
+  // Held while a trigger is checked or changed, so that a check never saves a replaced trigger
+  private final Striped<Lock> triggerLocks = Striped.lock(64);
+  // null if the actions run on the scanner thread
+  private final TriggerActionRunner actionRunner;
+  // Triggers changed by the scanner and not saved yet, only used by the scanner thread
+  private final Map<Integer, Trigger> pendingUpdates = new HashMap<>();
   private final CheckerTypeLoader checkerTypeLoader;
   private final ActionTypeLoader actionTypeLoader;
   private final TriggerLoader triggerLoader;
@@ -57,7 +78,8 @@ public class TriggerManager extends EventHandler implements
 
   @Inject
   public TriggerManager(final Props props, final TriggerLoader triggerLoader,
-      final ExecutorManagerAdapter executorManagerAdapter) throws TriggerManagerException {
+      final ExecutorManagerAdapter executorManagerAdapter, final MetricsManager metricsManager)
+      throws TriggerManagerException {
 
     requireNonNull(props);
     requireNonNull(executorManagerAdapter);
@@ -65,7 +87,16 @@ public class TriggerManager extends EventHandler implements
 
     final long scannerInterval =
         props.getLong("trigger.scan.interval", DEFAULT_SCANNER_INTERVAL_MS);
-    this.runnerThread = new TriggerScannerThread(scannerInterval);
+    if (props.getBoolean(ConfigurationKeys.TRIGGER_SCHEDULER_ENABLED,
+        Constants.DEFAULT_TRIGGER_SCHEDULER_ENABLED)) {
+      this.runnerThread = new TriggerSchedulerThread(scannerInterval);
+    } else {
+      this.runnerThread = new TriggerScannerThread(scannerInterval);
+    }
+    final int actionThreads = props.getInt(ConfigurationKeys.TRIGGER_ACTION_THREADS,
+        Constants.DEFAULT_TRIGGER_ACTION_THREADS);
+    this.actionRunner =
+        actionThreads > 0 ? new TriggerActionRunner(actionThreads, metricsManager) : null;
 
     this.checkerTypeLoader = new CheckerTypeLoader();
     this.actionTypeLoader = new ActionTypeLoader();
@@ -93,6 +124,7 @@ public class TriggerManager extends EventHandler implements
         this.runnerThread.addTrigger(t);
         triggerIdMap.put(t.getTriggerId(), t);
       }
+      triggerIndex.load(triggers);
     } catch (final Exception e) {
       logger.error(e);
       throw new TriggerManagerException(e);
@@ -119,6 +151,7 @@ public class TriggerManager extends EventHandler implements
       }
       this.runnerThread.addTrigger(t);
       triggerIdMap.put(t.getTriggerId(), t);
+      triggerIndex.put(t);
     }
   }
 
@@ -135,13 +168,18 @@ public class TriggerManager extends EventHandler implements
   public void updateTrigger(final Trigger t) throws TriggerManagerException {
     logger.info("Updating trigger " + t + " in TriggerManager");
     synchronized (this.syncObj) {
-      this.runnerThread.deleteTrigger(triggerIdMap.get(t.getTriggerId()));
-      this.runnerThread.addTrigger(t);
-      triggerIdMap.put(t.getTriggerId(), t);
+      final Lock lock = this.triggerLocks.get(t.getTriggerId());
+      lock.lock();
       try {
+        this.runnerThread.deleteTrigger(triggerIdMap.get(t.getTriggerId()));
+        this.runnerThread.addTrigger(t);
+        triggerIdMap.put(t.getTriggerId(), t);
+        triggerIndex.touch(t);
         this.triggerLoader.updateTrigger(t);
       } catch (final TriggerLoaderException e) {
         throw new TriggerManagerException(e);
+      } finally {
+        lock.unlock();
       }
     }
   }
@@ -149,13 +187,18 @@ public class TriggerManager extends EventHandler implements
   public void removeTrigger(final Trigger t) throws TriggerManagerException {
     logger.info("Removing trigger " + t + " from TriggerManager");
     synchronized (this.syncObj) {
-      this.runnerThread.deleteTrigger(t);
-      triggerIdMap.remove(t.getTriggerId());
+      final Lock lock = this.triggerLocks.get(t.getTriggerId());
+      lock.lock();
       try {
+        this.runnerThread.deleteTrigger(t);
+        triggerIdMap.remove(t.getTriggerId());
+        triggerIndex.remove(t.getTriggerId());
         t.stopCheckers();
         this.triggerLoader.removeTrigger(t);
       } catch (final TriggerLoaderException e) {
         throw new TriggerManagerException(e);
+      } finally {
+        lock.unlock();
       }
     }
   }
@@ -177,42 +220,24 @@ public class TriggerManager extends EventHandler implements
   public void expireTrigger(final int triggerId) {
     final Trigger t = getTrigger(triggerId);
     t.setStatus(TriggerStatus.EXPIRED);
+    this.runnerThread.triggerChanged(t);
   }
 
   @Override
   public List<Trigger> getTriggers(final String triggerSource) {
-    final List<Trigger> triggers = new ArrayList<>();
-    for (final Trigger t : triggerIdMap.values()) {
-      if (t.getSource().equals(triggerSource)) {
-        triggers.add(t);
-      }
-    }
-    return triggers;
+    return triggerIndex.getTriggers(triggerSource);
   }
 
   @Override
   public List<Trigger> getTriggerUpdates(final String triggerSource,
       final long lastUpdateTime) throws TriggerManagerException {
-    final List<Trigger> triggers = new ArrayList<>();
-    for (final Trigger t : triggerIdMap.values()) {
-      if (t.getSource().equals(triggerSource)
-          && t.getLastModifyTime() > lastUpdateTime) {
-        triggers.add(t);
-      }
-    }
-    return triggers;
+    return triggerIndex.getUpdatedTriggers(triggerSource, lastUpdateTime);
   }
 
   @Override
   public List<Trigger> getAllTriggerUpdates(final long lastUpdateTime)
       throws TriggerManagerException {
-    final List<Trigger> triggers = new ArrayList<>();
-    for (final Trigger t : triggerIdMap.values()) {
-      if (t.getLastModifyTime() > lastUpdateTime) {
-        triggers.add(t);
-      }
-    }
-    return triggers;
+    return triggerIndex.getUpdatedTriggers(lastUpdateTime);
   }
 
   @Override
@@ -235,6 +260,9 @@ public class TriggerManager extends EventHandler implements
   @Override
   public void shutdown() {
     this.runnerThread.shutdown();
+    if (this.actionRunner != null) {
+      this.actionRunner.shutdown(ACTION_SHUTDOWN_TIMEOUT_MS);
+    }
   }
 
   @Override
@@ -254,7 +282,185 @@ public class TriggerManager extends EventHandler implements
     this.actionTypeLoader.registerActionType(name, action);
   }
 
-  private class TriggerScannerThread extends Thread {
+  /**
+   * Check the conditions of a trigger and do its actions if they are met.
+   *
+   * @return true if the trigger expired and must be removed
+   */
+  private boolean checkTrigger(final Trigger t) throws TriggerManagerException {
+    this.scannerStage = "Checking for trigger " + t.getTriggerId();
+
+    if (t.getStatus().equals(TriggerStatus.READY)) {
+
+      /**
+       * Prior to this change, expiration condition should never be called though
+       * we have some related code here. ExpireCondition used the same BasicTimeChecker
+       * as triggerCondition do. As a consequence, we need to figure out a way to distinguish
+       * the previous ExpireCondition and this commit's ExpireCondition.
+       */
+      if (t.getExpireCondition().getExpression().contains("EndTimeChecker") && t
+          .expireConditionMet()) {
+        onTriggerPause(t);
+      } else if (t.triggerConditionMet()) {
+        onTriggerTrigger(t);
+      }
+    }
+    return t.getStatus().equals(TriggerStatus.EXPIRED) && t.getSource().equals("azkaban");
+  }
+
+  private void onTriggerTrigger(final Trigger t) throws TriggerManagerException {
+    final List<TriggerAction> actions = t.getTriggerActions();
+    runActions(t, () -> doTriggerActions(t, actions));
+
+    if (t.isResetOnTrigger()) {
+      t.resetTriggerConditions();
+    } else {
+      logger.info("NextCheckTime did not change. Setting status to expired for trigger"
+          + t.getTriggerId());
+      t.setStatus(TriggerStatus.EXPIRED);
+    }
+    saveTrigger(t);
+  }
+
+  private void doTriggerActions(final Trigger t, final List<TriggerAction> actions) {
+    for (final TriggerAction action : actions) {
+      try {
+        logger.info("Doing trigger actions " + action.getDescription() + " for " + t);
+        action.doAction();
+      } catch (final ExecutorManagerException e) {
+        if (e.getReason() == ExecutorManagerException.Reason.SkippedExecution) {
+          logger.info("Skipped action [" + action.getDescription() + "] for [" + t +
+              "] because: " + e.getMessage());
+        } else {
+          logger.error("Failed to do action [" + action.getDescription() + "] for [" + t + "]",
+              e);
+        }
+      } catch (final Throwable th) {
+        logger.error("Failed to do action [" + action.getDescription() + "] for [" + t + "]", th);
+      }
+    }
+  }
+
+  private void onTriggerPause(final Trigger t) throws TriggerManagerException {
+    final List<TriggerAction> expireActions = t.getExpireActions();
+    runActions(t, () -> doExpireActions(t, expireActions));
+    logger.info("Pausing Trigger " + t.getDescription());
+    t.setStatus(TriggerStatus.PAUSED);
+    saveTrigger(t);
+  }
+
+  private void doExpireActions(final Trigger t, final List<TriggerAction> expireActions) {
+    for (final TriggerAction action : expireActions) {
+      try {
+        logger.info("Doing expire actions for " + action.getDescription() + " for " + t);
+        action.doAction();
+      } catch (final Exception e) {
+        logger.error("Failed to do expire action " + action.getDescription() + " for " + t, e);
+      } catch (final Throwable th) {
+        logger.error("Failed to do expire action " + action.getDescription() + " for " + t, th);
+      }
+    }
+  }
+
+  private void runActions(final Trigger t, final Runnable actions) {
+    if (this.actionRunner == null) {
+      this.runnerThread.runActions(actions);
+    } else {
+      // Checked when due, before its conditions are reset
+      this.actionRunner.run(getActionKey(t), t.getNextCheckTime(), actions);
+    }
+  }
+
+  /**
+   * The actions of the triggers of a project run in order, e.g. its flows are submitted in the
+   * order they are scheduled.
+   */
+  private static String getActionKey(final Trigger t) {
+    for (final TriggerAction action : t.getTriggerActions()) {
+      if (action instanceof ExecuteFlowAction) {
+        return "project-" + ((ExecuteFlowAction) action).getProjectId();
+      }
+    }
+    return "trigger-" + t.getTriggerId();
+  }
+
+  /**
+   * Save a trigger changed by the scanner, at once if the actions run on the scanner thread, else
+   * with the next batch.
+   */
+  private void saveTrigger(final Trigger t) throws TriggerManagerException {
+    // Not if removed meanwhile. Can't be replaced or removed now, as the caller holds the lock of
+    // the trigger or of the manager.
+    if (triggerIdMap.get(t.getTriggerId()) != t) {
+      return;
+    }
+    triggerIndex.touch(t);
+    if (this.actionRunner == null) {
+      try {
+        this.triggerLoader.updateTrigger(t);
+      } catch (final TriggerLoaderException e) {
+        throw new TriggerManagerException(e);
+      }
+    } else {
+      this.pendingUpdates.put(t.getTriggerId(), t);
+    }
+  }
+
+  private void savePendingUpdates() {
+    if (this.pendingUpdates.isEmpty()) {
+      return;
+    }
+    synchronized (this.syncObj) {
+      final List<Trigger> triggers = new ArrayList<>();
+      for (final Iterator<Trigger> it = this.pendingUpdates.values().iterator(); it.hasNext(); ) {
+        final Trigger t = it.next();
+        it.remove();
+        // Not if replaced or removed since
+        if (triggerIdMap.get(t.getTriggerId()) == t) {
+          triggers.add(t);
+        }
+      }
+      if (!triggers.isEmpty()) {
+        try {
+          this.triggerLoader.updateTriggers(triggers);
+        } catch (final Throwable th) {
+          logger.error("Failed to save " + triggers.size() + " triggers, retrying with the next "
+              + "batch", th);
+          // Unless changed again by the scanner meanwhile
+          for (final Trigger t : triggers) {
+            this.pendingUpdates.putIfAbsent(t.getTriggerId(), t);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Thread checking the triggers when they are due.
+   */
+  private abstract class TriggerScanner extends Thread {
+
+    abstract void addTrigger(Trigger t);
+
+    abstract void deleteTrigger(Trigger t);
+
+    /**
+     * Called when a trigger is changed in place, e.g. expired.
+     */
+    void triggerChanged(final Trigger t) {
+    }
+
+    /**
+     * Run the actions of a checked trigger on this thread.
+     */
+    void runActions(final Runnable actions) {
+      actions.run();
+    }
+
+    abstract void shutdown();
+  }
+
+  private class TriggerScannerThread extends TriggerScanner {
 
     private final long scannerInterval;
     private final BlockingQueue<Trigger> triggers;
@@ -296,6 +502,7 @@ public class TriggerManager extends EventHandler implements
 
             try {
               checkAllTriggers();
+              savePendingUpdates();
             } catch (final Exception e) {
               e.printStackTrace();
               logger.error(e.getMessage());
@@ -321,30 +528,14 @@ public class TriggerManager extends EventHandler implements
           }
         }
       }
+      savePendingUpdates();
     }
 
     private void checkAllTriggers() throws TriggerManagerException {
       // sweep through the rest of them
       for (final Trigger t : this.triggers) {
         try {
-          TriggerManager.this.scannerStage = "Checking for trigger " + t.getTriggerId();
-
-          if (t.getStatus().equals(TriggerStatus.READY)) {
-
-            /**
-             * Prior to this change, expiration condition should never be called though
-             * we have some related code here. ExpireCondition used the same BasicTimeChecker
-             * as triggerCondition do. As a consequence, we need to figure out a way to distinguish
-             * the previous ExpireCondition and this commit's ExpireCondition.
-             */
-            if (t.getExpireCondition().getExpression().contains("EndTimeChecker") && t
-                .expireConditionMet()) {
-              onTriggerPause(t);
-            } else if (t.triggerConditionMet()) {
-              onTriggerTrigger(t);
-            }
-          }
-          if (t.getStatus().equals(TriggerStatus.EXPIRED) && t.getSource().equals("azkaban")) {
+          if (checkTrigger(t)) {
             removeTrigger(t);
           } else {
             t.updateNextCheckTime();
@@ -356,74 +547,199 @@ public class TriggerManager extends EventHandler implements
       }
     }
 
-    private void onTriggerTrigger(final Trigger t) throws TriggerManagerException {
-      final List<TriggerAction> actions = t.getTriggerActions();
-      for (final TriggerAction action : actions) {
+    private class TriggerComparator implements Comparator<Trigger> {
+
+      @Override
+      public int compare(final Trigger arg0, final Trigger arg1) {
+        final long first = arg1.getNextCheckTime();
+        final long second = arg0.getNextCheckTime();
+
+        if (first == second) {
+          return 0;
+        } else if (first < second) {
+          return 1;
+        }
+        return -1;
+      }
+    }
+  }
+
+  /**
+   * Wakes up at the next check time of the triggers and checks only the due ones. Triggers without
+   * a next check time in the future, e.g. waiting on an execution, are checked every scanner
+   * interval like with the {@link TriggerScannerThread}.
+   *
+   * <p>The checks don't hold the lock of the trigger manager, only the lock of the checked trigger,
+   * so that the triggers are added, updated and removed without waiting for a scan. The actions run
+   * inline are only run once that lock is released.
+   */
+  private class TriggerSchedulerThread extends TriggerScanner {
+
+    private final long scannerInterval;
+    private final DelayQueue<ScheduledTrigger> queue = new DelayQueue<>();
+    // Current schedule of each trigger, the other ones left in the queue are skipped
+    private final ConcurrentMap<Integer, ScheduledTrigger> schedules = new ConcurrentHashMap<>();
+    // Actions of the checked trigger, run once its lock is released
+    private final List<Runnable> deferredActions = new ArrayList<>();
+    private volatile boolean shutdown = false;
+
+    public TriggerSchedulerThread(final long scannerInterval) {
+      this.setName("TriggerRunnerManager-Trigger-Scheduler-Thread");
+      this.scannerInterval = scannerInterval;
+    }
+
+    @Override
+    public void shutdown() {
+      logger.error("Shutting down trigger manager thread " + this.getName());
+      this.shutdown = true;
+      this.interrupt();
+    }
+
+    @Override
+    public void addTrigger(final Trigger t) {
+      t.updateNextCheckTime();
+      schedule(t, System.currentTimeMillis());
+    }
+
+    @Override
+    public void deleteTrigger(final Trigger t) {
+      if (t != null) {
+        this.schedules.computeIfPresent(t.getTriggerId(),
+            (id, scheduled) -> scheduled.trigger == t ? null : scheduled);
+      }
+    }
+
+    @Override
+    void triggerChanged(final Trigger t) {
+      schedule(t, System.currentTimeMillis());
+    }
+
+    /**
+     * Actions may add, update or remove triggers, which takes the lock of the manager before the
+     * one of the trigger, so they don't run under the lock of the checked trigger.
+     */
+    @Override
+    void runActions(final Runnable actions) {
+      this.deferredActions.add(actions);
+    }
+
+    private void schedule(final Trigger t, final long pollTime) {
+      final ScheduledTrigger scheduled = new ScheduledTrigger(t, nextCheckTime(t, pollTime));
+      this.schedules.put(t.getTriggerId(), scheduled);
+      this.queue.add(scheduled);
+    }
+
+    private long nextCheckTime(final Trigger t, final long pollTime) {
+      final long now = System.currentTimeMillis();
+      final long nextCheckTime = t.getNextCheckTime();
+      // The time checkers are met once their check time is passed
+      if (t.getStatus().equals(TriggerStatus.READY) && nextCheckTime >= now
+          && nextCheckTime < Long.MAX_VALUE) {
+        return nextCheckTime + 1;
+      }
+      return pollTime;
+    }
+
+    @Override
+    public void run() {
+      while (!this.shutdown) {
         try {
-          logger.info("Doing trigger actions " + action.getDescription() + " for " + t);
-          action.doAction();
-        } catch (final ExecutorManagerException e) {
-          if (e.getReason() == ExecutorManagerException.Reason.SkippedExecution) {
-            logger.info("Skipped action [" + action.getDescription() + "] for [" + t +
-                "] because: " + e.getMessage());
-          } else {
-            logger.error("Failed to do action [" + action.getDescription() + "] for [" + t + "]",
-                e);
+          // Wakes up at least every interval to report it's alive
+          final ScheduledTrigger scheduled =
+              this.queue.poll(this.scannerInterval, TimeUnit.MILLISECONDS);
+          TriggerManager.this.lastRunnerThreadCheckTime = System.currentTimeMillis();
+          if (scheduled != null) {
+            checkScheduledTrigger(scheduled);
           }
-        } catch (final Throwable th) {
-          logger.error("Failed to do action [" + action.getDescription() + "] for [" + t + "]", th);
+          final ScheduledTrigger next = this.queue.peek();
+          // Saved once no other trigger is due
+          if (next == null || next.getDelay(TimeUnit.MILLISECONDS) > 0
+              || TriggerManager.this.pendingUpdates.size() >= MAX_TRIGGER_UPDATE_BATCH_SIZE) {
+            savePendingUpdates();
+          }
+          TriggerManager.this.runnerThreadIdleTime = next == null ? this.scannerInterval
+              : Math.max(0, next.getDelay(TimeUnit.MILLISECONDS));
+          TriggerManager.this.scannerStage = "Waiting for the next due trigger.";
+        } catch (final InterruptedException e) {
+          logger.info("Interrupted. Probably to shut down.");
         }
       }
+      savePendingUpdates();
+    }
 
-      if (t.isResetOnTrigger()) {
-        t.resetTriggerConditions();
-      } else {
-        logger.info("NextCheckTime did not change. Setting status to expired for trigger"
-            + t.getTriggerId());
-        t.setStatus(TriggerStatus.EXPIRED);
-      }
+    private void checkScheduledTrigger(final ScheduledTrigger scheduled) {
+      final Trigger t = scheduled.trigger;
+      boolean expired = false;
+      final Lock lock = TriggerManager.this.triggerLocks.get(t.getTriggerId());
+      lock.lock();
       try {
-        TriggerManager.this.triggerLoader.updateTrigger(t);
-      } catch (final TriggerLoaderException e) {
-        throw new TriggerManagerException(e);
+        if (this.schedules.get(t.getTriggerId()) != scheduled) {
+          // Updated, removed or rescheduled since
+          return;
+        }
+        expired = checkTrigger(t);
+        if (!expired) {
+          t.updateNextCheckTime();
+          reschedule(scheduled,
+              nextCheckTime(t, System.currentTimeMillis() + this.scannerInterval));
+        }
+      } catch (final Throwable th) {
+        logger.error("Failed to process trigger with id : " + t, th);
+        // Checked again after the interval, as by the scanner
+        reschedule(scheduled, System.currentTimeMillis() + this.scannerInterval);
+      } finally {
+        lock.unlock();
       }
-    }
 
-    private void onTriggerPause(final Trigger t) throws TriggerManagerException {
-      final List<TriggerAction> expireActions = t.getExpireActions();
-      for (final TriggerAction action : expireActions) {
+      for (final Runnable actions : this.deferredActions) {
+        actions.run();
+      }
+      this.deferredActions.clear();
+
+      if (expired) {
+        // Removed without the lock of the trigger, which is taken after the one of the manager
         try {
-          logger.info("Doing expire actions for " + action.getDescription() + " for " + t);
-          action.doAction();
-        } catch (final Exception e) {
-          logger.error("Failed to do expire action " + action.getDescription() + " for " + t, e);
+          synchronized (TriggerManager.this.syncObj) {
+            if (triggerIdMap.get(t.getTriggerId()) == t) {
+              removeTrigger(t);
+            }
+          }
         } catch (final Throwable th) {
-          logger.error("Failed to do expire action " + action.getDescription() + " for " + t, th);
+          logger.error("Failed to remove trigger with id : " + t, th);
+          reschedule(scheduled, System.currentTimeMillis() + this.scannerInterval);
         }
       }
-      logger.info("Pausing Trigger " + t.getDescription());
-      t.setStatus(TriggerStatus.PAUSED);
-      try {
-        TriggerManager.this.triggerLoader.updateTrigger(t);
-      } catch (final TriggerLoaderException e) {
-        throw new TriggerManagerException(e);
+    }
+
+    /**
+     * Schedule the next check of a trigger, unless it was changed since its last schedule.
+     */
+    private void reschedule(final ScheduledTrigger scheduled, final long checkTime) {
+      final ScheduledTrigger next = new ScheduledTrigger(scheduled.trigger, checkTime);
+      if (this.schedules.replace(scheduled.trigger.getTriggerId(), scheduled, next)) {
+        this.queue.add(next);
       }
     }
+  }
 
-    private class TriggerComparator implements Comparator<Trigger> {
+  private static class ScheduledTrigger implements Delayed {
 
-      @Override
-      public int compare(final Trigger arg0, final Trigger arg1) {
-        final long first = arg1.getNextCheckTime();
-        final long second = arg0.getNextCheckTime();
+    private final Trigger trigger;
+    private final long checkTime;
 
-        if (first == second) {
-          return 0;
-        } else if (first < second) {
-          return 1;
-        }
-        return -1;
-      }
+    private ScheduledTrigger(final Trigger trigger, final long checkTime) {
+      this.trigger = trigger;
+      this.checkTime = checkTime;
+    }
+
+    @Override
+    public long getDelay(final TimeUnit unit) {
+      return unit.convert(this.checkTime - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int compareTo(final Delayed o) {
+      return Long.compare(this.checkTime, ((ScheduledTrigger) o).checkTime);
     }
   }
 
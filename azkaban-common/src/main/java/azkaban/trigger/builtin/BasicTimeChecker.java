@@ -16,6 +16,7 @@
 package azkaban.trigger.builtin;
 
 import azkaban.trigger.ConditionChecker;
+import azkaban.utils.CronFireTimeCache;
 import azkaban.utils.TimeUtils;
 import azkaban.utils.Utils;
 import java.util.Date;
@@ -171,7 +172,8 @@ public class BasicTimeChecker implements ConditionChecker {
       if (this.period == null && this.cronExpression == null) {
         break;
       } else if (this.cronExecutionTime != null) {
-        final Date nextDate = this.cronExecutionTime.getNextValidTimeAfter(date.toDate());
+        final Date nextDate = CronFireTimeCache.getNextFireTimeAfter(this.cronExpression,
+            this.timezone, date.toDate());
         // Some Cron Expressions possibly do not have follow-up occurrences
         if (nextDate != null) {
           date = new DateTime(nextDate);
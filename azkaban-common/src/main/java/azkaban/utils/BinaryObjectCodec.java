@@ -0,0 +1,325 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact binary encoding of the object trees produced by the toObject() methods, i.e. nested
+ * maps, collections, strings, numbers, booleans and nulls.
+ *
+ * <p>Compared to JSON + GZIP it avoids formatting and parsing text: numbers are stored as
+ * varints, and every distinct string, map keys included, is written once and then referenced by
+ * its index. Decoding yields the same types as {@link JSONUtils#parseJSONFromString(String)}
+ * (HashMap, ArrayList, Integer/Long/Double, String, Boolean), so the result can be fed to the
+ * existing fillExecutableFromMapObject() methods.
+ *
+ * <p>Layout: a format version byte, the varint length of the raw encoding, then the raw encoding
+ * compressed with {@link Deflater}.
+ */
+public class BinaryObjectCodec {
+
+  private static final byte FORMAT_VERSION = 1;
+
+  private static final byte NULL = 0;
+  private static final byte FALSE = 1;
+  private static final byte TRUE = 2;
+  private static final byte INT = 3;
+  private static final byte LONG = 4;
+  private static final byte DOUBLE = 5;
+  private static final byte STRING = 6;
+  private static final byte STRING_REF = 7;
+  private static final byte LIST = 8;
+  private static final byte MAP = 9;
+
+  public static byte[] encode(final Object obj) throws IOException {
+    final Encoder encoder = new Encoder();
+    encoder.writeValue(obj);
+
+    final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(encoder.buf, 0, encoder.pos);
+      deflater.finish();
+      final Encoder out = new Encoder(encoder.pos / 4 + 16);
+      out.writeByte(FORMAT_VERSION);
+      out.writeVarLong(encoder.pos);
+      while (!deflater.finished()) {
+        out.ensureCapacity(4096);
+        out.pos += deflater.deflate(out.buf, out.pos, out.buf.length - out.pos);
+      }
+      return Arrays.copyOf(out.buf, out.pos);
+    } finally {
+      deflater.end();
+    }
+  }
+
+  public static Object decode(final byte[] data) throws IOException {
+    final Decoder header = new Decoder(data);
+    final byte version = header.readByte();
+    if (version != FORMAT_VERSION) {
+      throw new IOException("Unsupported binary format version " + version);
+    }
+    final long rawLength = header.readVarLong();
+    if (rawLength < 0 || rawLength > Integer.MAX_VALUE) {
+      throw new IOException("Invalid binary data length " + rawLength);
+    }
+
+    final byte[] raw = new byte[(int) rawLength];
+    final Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(data, header.pos, data.length - header.pos);
+      int length = 0;
+      while (length < raw.length) {
+        final int inflated = inflater.inflate(raw, length, raw.length - length);
+        if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+          throw new IOException("Truncated binary data");
+        }
+        length += inflated;
+      }
+    } catch (final DataFormatException e) {
+      throw new IOException("Corrupted binary data", e);
+    } finally {
+      inflater.end();
+    }
+
+    final Decoder decoder = new Decoder(raw);
+    final Object obj = decoder.readValue();
+    if (decoder.pos != raw.length) {
+      throw new IOException("Unexpected trailing binary data");
+    }
+    return obj;
+  }
+
+  private static final class Encoder {
+
+    private final Map<String, Integer> strings = new HashMap<>();
+    private byte[] buf;
+    private int pos = 0;
+
+    private Encoder() {
+      this(1024);
+    }
+
+    private Encoder(final int capacity) {
+      this.buf = new byte[capacity];
+    }
+
+    private void ensureCapacity(final int extra) {
+      if (this.pos + extra > this.buf.length) {
+        this.buf = Arrays.copyOf(this.buf, Math.max(this.buf.length * 2, this.pos + extra));
+      }
+    }
+
+    private void writeByte(final byte b) {
+      ensureCapacity(1);
+      this.buf[this.pos++] = b;
+    }
+
+    private void writeVarLong(long value) {
+      ensureCapacity(10);
+      while ((value & ~0x7FL) != 0) {
+        this.buf[this.pos++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      this.buf[this.pos++] = (byte) value;
+    }
+
+    private void writeZigZag(final long value) {
+      writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    private void writeString(final String value) {
+      final Integer index = this.strings.get(value);
+      if (index != null) {
+        writeByte(STRING_REF);
+        writeVarLong(index);
+        return;
+      }
+      this.strings.put(value, this.strings.size());
+      final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeByte(STRING);
+      writeVarLong(bytes.length);
+      ensureCapacity(bytes.length);
+      System.arraycopy(bytes, 0, this.buf, this.pos, bytes.length);
+      this.pos += bytes.length;
+    }
+
+    private void writeValue(final Object value) throws IOException {
+      if (value == null) {
+        writeByte(NULL);
+      } else if (value instanceof String) {
+        writeString((String) value);
+      } else if (value instanceof Boolean) {
+        writeByte((Boolean) value ? TRUE : FALSE);
+      } else if (value instanceof Integer || value instanceof Short || value instanceof Byte
+          || value instanceof AtomicInteger) {
+        writeByte(INT);
+        writeZigZag(((Number) value).intValue());
+      } else if (value instanceof Long || value instanceof AtomicLong) {
+        // Same as JSON, values which fit in an int are read back as Integer
+        final long longValue = ((Number) value).longValue();
+        writeByte(longValue == (int) longValue ? INT : LONG);
+        writeZigZag(longValue);
+      } else if (value instanceof Double || value instanceof Float) {
+        writeByte(DOUBLE);
+        final long bits = Double.doubleToLongBits(((Number) value).doubleValue());
+        ensureCapacity(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+          this.buf[this.pos++] = (byte) (bits >>> shift);
+        }
+      } else if (value instanceof Map) {
+        final Map<?, ?> map = (Map<?, ?>) value;
+        writeByte(MAP);
+        writeVarLong(map.size());
+        for (final Map.Entry<?, ?> entry : map.entrySet()) {
+          writeString(String.valueOf(entry.getKey()));
+          writeValue(entry.getValue());
+        }
+      } else if (value instanceof Collection) {
+        final Collection<?> collection = (Collection<?>) value;
+        writeByte(LIST);
+        writeVarLong(collection.size());
+        for (final Object element : collection) {
+          writeValue(element);
+        }
+      } else if (value instanceof Object[]) {
+        writeValue(Arrays.asList((Object[]) value));
+      } else {
+        // Anything else is encoded the way JSON would represent it
+        writeValue(JSONUtils.parseJSONFromString(JSONUtils.toJSON(value)));
+      }
+    }
+  }
+
+  private static final class Decoder {
+
+    private final List<String> strings = new ArrayList<>();
+    private final byte[] buf;
+    private int pos = 0;
+
+    private Decoder(final byte[] buf) {
+      this.buf = buf;
+    }
+
+    private byte readByte() throws IOException {
+      if (this.pos >= this.buf.length) {
+        throw new IOException("Truncated binary data");
+      }
+      return this.buf[this.pos++];
+    }
+
+    private long readVarLong() throws IOException {
+      long value = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        final byte b = readByte();
+        value |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new IOException("Malformed varint");
+    }
+
+    private long readZigZag() throws IOException {
+      final long value = readVarLong();
+      return (value >>> 1) ^ -(value & 1);
+    }
+
+    private int readSize() throws IOException {
+      final long size = readVarLong();
+      // Every element takes at least one byte
+      if (size < 0 || size > this.buf.length - this.pos) {
+        throw new IOException("Invalid size " + size);
+      }
+      return (int) size;
+    }
+
+    private String readString(final byte tag) throws IOException {
+      if (tag == STRING_REF) {
+        final long index = readVarLong();
+        if (index < 0 || index >= this.strings.size()) {
+          throw new IOException("Invalid string reference " + index);
+        }
+        return this.strings.get((int) index);
+      }
+      if (tag != STRING) {
+        throw new IOException("Expected a string, found tag " + tag);
+      }
+      final int length = readSize();
+      final String value = new String(this.buf, this.pos, length, StandardCharsets.UTF_8);
+      this.pos += length;
+      this.strings.add(value);
+      return value;
+    }
+
+    private Object readValue() throws IOException {
+      final byte tag = readByte();
+      switch (tag) {
+        case NULL:
+          return null;
+        case FALSE:
+          return Boolean.FALSE;
+        case TRUE:
+          return Boolean.TRUE;
+        case INT:
+          return (int) readZigZag();
+        case LONG:
+          return readZigZag();
+        case DOUBLE:
+          long bits = 0;
+          for (int i = 0; i < 8; i++) {
+            bits = (bits << 8) | (readByte() & 0xFF);
+          }
+          return Double.longBitsToDouble(bits);
+        case STRING:
+        case STRING_REF:
+          return readString(tag);
+        case LIST: {
+          final int size = readSize();
+          final ArrayList<Object> list = new ArrayList<>(size);
+          for (int i = 0; i < size; i++) {
+            list.add(readValue());
+          }
+          return list;
+        }
+        case MAP: {
+          final int size = readSize();
+          final HashMap<String, Object> map = new HashMap<>((int) (size / 0.75f) + 1);
+          for (int i = 0; i < size; i++) {
+            final String key = readString(readByte());
+            map.put(key, readValue());
+          }
+          return map;
+        }
+        default:
+          throw new IOException("Unknown tag " + tag);
+      }
+    }
+  }
+}
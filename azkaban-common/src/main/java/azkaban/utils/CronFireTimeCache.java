@@ -0,0 +1,204 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.utils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import org.joda.time.DateTimeZone;
+import org.quartz.CronExpression;
+
+/**
+ * Fire times of the cron schedules, shared by all the schedules with the same cron expression
+ * and time zone, as there are many more schedules than distinct cron expressions.
+ *
+ * <p>For each cron expression and time zone, the next {@link #SERIES_LENGTH} fire times are
+ * computed at once, and recomputed when asked for a time past the last of them.
+ *
+ * <p>Around the DST transitions of the time zone, Quartz doesn't return the same next fire time
+ * when asked from a fire time or from just before it, e.g. 1:30 AM PDT is skipped when asked from
+ * 1 AM PDT but not from 1:20 AM PDT on the day DST ends. So a series stops a day before the next
+ * transition, and the fire times less than a day away from a transition aren't cached.
+ */
+public final class CronFireTimeCache {
+
+  static final int SERIES_LENGTH = 64;
+  private static final int MAX_CACHED_EXPRESSIONS = 10000;
+  private static final long TRANSITION_MARGIN_MS = 24 * 60 * 60 * 1000L;
+
+  private static final Cache<Key, Series> cache = CacheBuilder.newBuilder()
+      .maximumSize(MAX_CACHED_EXPRESSIONS)
+      .build();
+
+  private CronFireTimeCache() {
+  }
+
+  /**
+   * Same as {@link CronExpression#getNextValidTimeAfter(Date)} on the expression parsed by {@link
+   * Utils#parseCronExpression(String, DateTimeZone)}.
+   *
+   * @return the first fire time strictly after the given time, or null if there is none or the
+   *     expression can't be parsed
+   */
+  public static Date getNextFireTimeAfter(final String cronExpression,
+      final DateTimeZone timezone, final Date after) {
+    final long time = getNextFireTimeAfter(cronExpression, timezone, after.getTime());
+    return time < 0 ? null : new Date(time);
+  }
+
+  /**
+   * Fire times in a window, e.g. to list the upcoming executions of a schedule.
+   *
+   * @return at most max fire times, after start and up to end included
+   */
+  public static List<Long> getFireTimes(final String cronExpression, final DateTimeZone timezone,
+      final long start, final long end, final int max) {
+    final List<Long> times = new ArrayList<>();
+    long time = start;
+    while (times.size() < max) {
+      time = getNextFireTimeAfter(cronExpression, timezone, time);
+      if (time < 0 || time > end) {
+        break;
+      }
+      times.add(time);
+    }
+    return times;
+  }
+
+  /**
+   * @return the first fire time after the given time, or -1
+   */
+  private static long getNextFireTimeAfter(final String cronExpression,
+      final DateTimeZone timezone, final long after) {
+    final Key key = new Key(cronExpression, timezone.getID());
+    final Series series = cache.asMap().compute(key, (k, cached) -> {
+      if (cached != null && (cached.covers(after) || after < cached.start
+          || isNearTransition(timezone, after))) {
+        return cached;
+      }
+      final CronExpression expression = cached != null ? cached.expression
+          : Utils.parseCronExpression(cronExpression, timezone);
+      return expression == null ? null : new Series(expression, timezone, after);
+    });
+    if (series == null) {
+      return -1;
+    }
+    if (series.covers(after)) {
+      return series.getNextFireTimeAfter(after);
+    }
+    // Before the cached series, which is kept for the current schedules, or near a transition
+    synchronized (series.expression) {
+      final Date next = series.expression.getNextValidTimeAfter(new Date(after));
+      return next == null ? -1 : next.getTime();
+    }
+  }
+
+  private static boolean isNearTransition(final DateTimeZone timezone, final long time) {
+    // Both are the same time if the time zone has no transitions, e.g. UTC
+    final long next = timezone.nextTransition(time);
+    final long previous = timezone.previousTransition(time + 1);
+    return (next != time && next - time < TRANSITION_MARGIN_MS)
+        || (previous != time + 1 && time - previous < TRANSITION_MARGIN_MS);
+  }
+
+  /**
+   * Consecutive fire times from a start time, the first one after it included, up to a day before
+   * the next transition of the time zone.
+   */
+  private static class Series {
+
+    private final CronExpression expression;
+    private final long start;
+    private final long[] times;
+    // Whether there are no more fire times after the last one
+    private final boolean complete;
+
+    private Series(final CronExpression expression, final DateTimeZone timezone,
+        final long start) {
+      this.expression = expression;
+      this.start = start;
+      // The same time if the time zone has no transitions, e.g. UTC
+      final long transition = timezone.nextTransition(start);
+      final long end = transition > start ? transition - TRANSITION_MARGIN_MS : Long.MAX_VALUE;
+      final long[] times = new long[SERIES_LENGTH];
+      int length = 0;
+      boolean complete = false;
+      // Left empty if too close to a transition
+      if (start < end && !isNearTransition(timezone, start)) {
+        synchronized (expression) {
+          Date next = expression.getNextValidTimeAfter(new Date(start));
+          while (next != null && next.getTime() < end && length < SERIES_LENGTH) {
+            times[length++] = next.getTime();
+            next = expression.getNextValidTimeAfter(next);
+          }
+          complete = next == null;
+        }
+      }
+      this.times = Arrays.copyOf(times, length);
+      this.complete = complete;
+    }
+
+    /**
+     * @return whether the next fire time after the given time is in the series
+     */
+    private boolean covers(final long time) {
+      if (time < this.start) {
+        return false;
+      }
+      return this.complete || (this.times.length > 0 && time < this.times[this.times.length - 1]);
+    }
+
+    private long getNextFireTimeAfter(final long time) {
+      int index = Arrays.binarySearch(this.times, time);
+      index = index >= 0 ? index + 1 : -index - 1;
+      return index < this.times.length ? this.times[index] : -1;
+    }
+  }
+
+  private static class Key {
+
+    private final String cronExpression;
+    private final String timezone;
+
+    private Key(final String cronExpression, final String timezone) {
+      this.cronExpression = cronExpression;
+      this.timezone = timezone;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      final Key key = (Key) o;
+      return this.cronExpression.equals(key.cronExpression)
+          && this.timezone.equals(key.timezone);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(this.cronExpression, this.timezone);
+    }
+  }
+}
@@ -26,16 +26,27 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import org.apache.commons.fileupload.util.Streams;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
@@ -49,6 +60,11 @@ import org.slf4j.LoggerFactory;
 public class FileIOUtils {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(FileIOUtils.class);
+  // Log chunks up to this size are read into a buffer reused by the reading thread
+  private static final int MAX_POOLED_READ_BUFFER_SIZE = 1024 * 1024;
+  private static final ThreadLocal<byte[]> READ_BUFFERS = new ThreadLocal<>();
+  // Number of links created by each task of a parallel hard link copy
+  private static final int HARDLINK_BATCH_SIZE = 256;
 
   /**
    * Check if a directory is writable
@@ -274,6 +290,17 @@ public class FileIOUtils {
    */
   public static int createDeepHardlink(final File sourceDir, final File destDir)
       throws IOException {
+    return createDeepHardlink(sourceDir, destDir, Runnable::run);
+  }
+
+  /**
+   * Hard link files and recurse into directories. The directories are created by the calling
+   * thread while walking the tree, the links are created in batches by the executor.
+   *
+   * @return number of links created
+   */
+  public static int createDeepHardlink(final File sourceDir, final File destDir,
+      final Executor executor) throws IOException {
     if (!sourceDir.exists()) {
       throw new IOException("Source directory " + sourceDir.getPath()
           + " doesn't exist");
@@ -284,45 +311,82 @@ public class FileIOUtils {
       throw new IOException("Source or Destination is not a directory.");
     }
 
-    final Set<String> paths = new HashSet<>();
-    createDirsFindFiles(sourceDir, sourceDir, destDir, paths);
-
-    int linkCount = 0;
-    for (String path : paths) {
-      final File sourceLink = new File(sourceDir, path);
-      path = destDir + path;
-
-      final File[] targetFiles = sourceLink.listFiles();
-      for (final File targetFile : targetFiles) {
-        if (targetFile.isFile()) {
-          final File linkFile = new File(path, targetFile.getName());
-          // NOTE!! If modifying this, you must run this ignored test manually to validate:
-          // FileIOUtilsTest#testHardlinkCopyOfBigDir
-          Files.createLink(linkFile.toPath(), Paths.get(targetFile.getAbsolutePath()));
-          linkCount++;
+    final Path source = sourceDir.toPath();
+    final Path dest = destDir.toPath();
+    final List<CompletableFuture<Integer>> batches = new ArrayList<>();
+    try {
+      Files.walkFileTree(source, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE,
+          new SimpleFileVisitor<Path>() {
+            private List<Path> batch = new ArrayList<>();
+
+            @Override
+            public FileVisitResult preVisitDirectory(final Path dir,
+                final BasicFileAttributes attrs) throws IOException {
+              Files.createDirectories(dest.resolve(source.relativize(dir).toString()));
+              return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+              if (attrs.isRegularFile()) {
+                this.batch.add(file);
+                if (this.batch.size() == HARDLINK_BATCH_SIZE) {
+                  submitBatch();
+                }
+              }
+              return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(final Path dir, final IOException e)
+                throws IOException {
+              if (e != null) {
+                throw e;
+              }
+              if (dir.equals(source)) {
+                submitBatch();
+              }
+              return FileVisitResult.CONTINUE;
+            }
+
+            private void submitBatch() {
+              if (this.batch.isEmpty()) {
+                return;
+              }
+              final List<Path> files = this.batch;
+              this.batch = new ArrayList<>();
+              batches.add(CompletableFuture.supplyAsync(() -> {
+                for (final Path file : files) {
+                  // NOTE!! If modifying this, you must run this ignored test manually to validate:
+                  // FileIOUtilsTest#testHardlinkCopyOfBigDir
+                  try {
+                    Files.createLink(dest.resolve(source.relativize(file).toString()),
+                        file.toAbsolutePath());
+                  } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                  }
+                }
+                return files.size();
+              }, executor));
+            }
+          });
+    } finally {
+      // Wait for all the batches, also on failure, so that no link is created after returning
+      try {
+        CompletableFuture.allOf(batches.toArray(new CompletableFuture[0])).join();
+      } catch (final CompletionException e) {
+        if (e.getCause() instanceof UncheckedIOException) {
+          throw ((UncheckedIOException) e.getCause()).getCause();
         }
+        throw e;
       }
     }
-    return linkCount;
-  }
 
-  private static void createDirsFindFiles(final File baseDir, final File sourceDir,
-      final File destDir, final Set<String> paths) {
-    final File[] srcList = sourceDir.listFiles();
-    final String path = getRelativePath(baseDir, sourceDir);
-    paths.add(path);
-
-    for (final File file : srcList) {
-      if (file.isDirectory()) {
-        final File newDestDir = new File(destDir, file.getName());
-        newDestDir.mkdirs();
-        createDirsFindFiles(baseDir, file, newDestDir, paths);
-      }
+    int linkCount = 0;
+    for (final CompletableFuture<Integer> batch : batches) {
+      linkCount += batch.join();
     }
-  }
-
-  private static String getRelativePath(final File basePath, final File sourceDir) {
-    return sourceDir.getPath().substring(basePath.getPath().length());
+    return linkCount;
   }
 
   public static Pair<Integer, Integer> readUtf8File(final File file, final int offset,
@@ -354,64 +418,62 @@ public class FileIOUtils {
 
   public static LogData readUtf8File(final File file, final int fileOffset, final int length)
       throws IOException {
-    final byte[] buffer = new byte[length];
-    final FileInputStream fileStream = new FileInputStream(file);
-
-    final long skipped = fileStream.skip(fileOffset);
-    if (skipped < fileOffset) {
-      fileStream.close();
-      return new LogData(fileOffset, 0, "");
-    }
-
-    BufferedInputStream inputStream = null;
-    int read = 0;
-    try {
-      inputStream = new BufferedInputStream(fileStream);
-      read = inputStream.read(buffer);
-    } finally {
-      IOUtils.closeQuietly(inputStream);
-    }
-
-    if (read <= 0) {
-      return new LogData(fileOffset, 0, "");
-    }
-    final Pair<Integer, Integer> utf8Range = getUtf8Range(buffer, 0, read);
-    final String outputString =
-        new String(buffer, utf8Range.getFirst(), utf8Range.getSecond(), StandardCharsets.UTF_8);
-
-    return new LogData(fileOffset + utf8Range.getFirst(),
-        utf8Range.getSecond(), outputString);
+    return readUtf8Chunk(file, fileOffset, length);
   }
 
   public static JobMetaData readUtf8MetaDataFile(final File file, final int fileOffset,
       final int length) throws IOException {
-    final byte[] buffer = new byte[length];
-    final FileInputStream fileStream = new FileInputStream(file);
+    final LogData chunk = readUtf8Chunk(file, fileOffset, length);
+    return new JobMetaData(chunk.getOffset(), chunk.getLength(), chunk.getData());
+  }
 
-    final long skipped = fileStream.skip(fileOffset);
-    if (skipped < fileOffset) {
-      fileStream.close();
-      return new JobMetaData(fileOffset, 0, "");
-    }
+  /**
+   * Read up to length bytes of a file from the given offset, adjusted to whole UTF-8 characters.
+   *
+   * <p>The bytes are read with a positional read, so reading the end of a large log costs the same
+   * as reading its beginning, into a buffer reused by the calling thread.
+   */
+  private static LogData readUtf8Chunk(final File file, final int fileOffset, final int length)
+      throws IOException {
+    try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      final long size = channel.size();
+      if (length <= 0 || fileOffset < 0 || fileOffset >= size) {
+        return new LogData(fileOffset, 0, "");
+      }
 
-    BufferedInputStream inputStream = null;
-    int read = 0;
-    try {
-      inputStream = new BufferedInputStream(fileStream);
-      read = inputStream.read(buffer);
-    } finally {
-      IOUtils.closeQuietly(inputStream);
-    }
+      final int toRead = (int) Math.min(length, size - fileOffset);
+      final byte[] buffer = getReadBuffer(toRead);
+      final ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, toRead);
+      while (byteBuffer.hasRemaining()
+          && channel.read(byteBuffer, fileOffset + byteBuffer.position()) >= 0) {
+      }
+      final int read = byteBuffer.position();
+      if (read <= 0) {
+        return new LogData(fileOffset, 0, "");
+      }
 
-    if (read <= 0) {
-      return new JobMetaData(fileOffset, 0, "");
+      final Pair<Integer, Integer> utf8Range = getUtf8Range(buffer, 0, read);
+      if (utf8Range.getSecond() <= 0) {
+        return new LogData(fileOffset, 0, "");
+      }
+      final String outputString =
+          new String(buffer, utf8Range.getFirst(), utf8Range.getSecond(), StandardCharsets.UTF_8);
+      return new LogData(fileOffset + utf8Range.getFirst(), utf8Range.getSecond(),
+          outputString);
     }
-    final Pair<Integer, Integer> utf8Range = getUtf8Range(buffer, 0, read);
-    final String outputString =
-        new String(buffer, utf8Range.getFirst(), utf8Range.getSecond(), StandardCharsets.UTF_8);
+  }
 
-    return new JobMetaData(fileOffset + utf8Range.getFirst(),
-        utf8Range.getSecond(), outputString);
+  private static byte[] getReadBuffer(final int size) {
+    if (size > MAX_POOLED_READ_BUFFER_SIZE) {
+      return new byte[size];
+    }
+    byte[] buffer = READ_BUFFERS.get();
+    if (buffer == null || buffer.length < size) {
+      buffer = new byte[Math.min(Math.max(Integer.highestOneBit(size) << 1, 4096),
+          MAX_POOLED_READ_BUFFER_SIZE)];
+      READ_BUFFERS.set(buffer);
+    }
+    return buffer;
   }
 
   /**
@@ -20,6 +20,9 @@ import azkaban.db.EncodingType;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 import org.apache.commons.io.IOUtils;
@@ -59,6 +62,18 @@ public class GZIPUtils {
     return byteOutputStream.toByteArray();
   }
 
+  /**
+   * Decompress only the first bytes of the gzipped data.
+   *
+   * @param maxLength max number of bytes to decompress
+   */
+  public static byte[] unGzipBytes(final byte[] bytes, final int maxLength) throws IOException {
+    final GZIPInputStream gzipInputStream = new GZIPInputStream(new ByteArrayInputStream(bytes));
+    final ByteArrayOutputStream byteOutputStream = new ByteArrayOutputStream();
+    IOUtils.copyLarge(gzipInputStream, byteOutputStream, 0, maxLength);
+    return byteOutputStream.toByteArray();
+  }
+
   public static String unGzipString(final byte[] bytes, final String encType)
       throws IOException {
     final byte[] response = unGzipBytes(bytes);
@@ -70,10 +85,65 @@ public class GZIPUtils {
     if (encType == EncodingType.GZIP) {
       final String jsonString = GZIPUtils.unGzipString(data, "UTF-8");
       return JSONUtils.parseJSONFromString(jsonString);
+    } else if (encType == EncodingType.BINARY) {
+      return BinaryObjectCodec.decode(data);
     } else {
       final String jsonString = new String(data, "UTF-8");
       return JSONUtils.parseJSONFromString(jsonString);
     }
   }
 
+  /**
+   * Gzips many buffers with the same Deflater and output buffer, instead of new streams and
+   * buffers for each. The output is a complete gzip member per call, same as {@link
+   * #gzipBytes(byte[], int, int)}. Not thread safe, call {@link #close()} to release the native
+   * memory of the Deflater.
+   */
+  public static class Compressor implements AutoCloseable {
+
+    private static final int HEADER_LENGTH = 10;
+    private static final int TRAILER_LENGTH = 8;
+    // Same header as GZIPOutputStream: magic, deflate, no flags, no mtime, no extra flags, unknown OS
+    private static final byte[] HEADER = {(byte) 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0,
+        0, 0, (byte) 0xff};
+
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final CRC32 crc = new CRC32();
+    private byte[] output = new byte[1024];
+
+    public byte[] gzip(final byte[] bytes, final int offset, final int length) {
+      this.deflater.reset();
+      this.crc.reset();
+      this.crc.update(bytes, offset, length);
+      this.deflater.setInput(bytes, offset, length);
+      this.deflater.finish();
+
+      System.arraycopy(HEADER, 0, this.output, 0, HEADER_LENGTH);
+      int size = HEADER_LENGTH;
+      while (!this.deflater.finished()) {
+        if (size == this.output.length) {
+          this.output = Arrays.copyOf(this.output, this.output.length * 2);
+        }
+        size += this.deflater.deflate(this.output, size, this.output.length - size);
+      }
+      if (this.output.length - size < TRAILER_LENGTH) {
+        this.output = Arrays.copyOf(this.output, size + TRAILER_LENGTH);
+      }
+      writeIntLE(this.output, size, (int) this.crc.getValue());
+      writeIntLE(this.output, size + 4, length);
+      return Arrays.copyOf(this.output, size + TRAILER_LENGTH);
+    }
+
+    private static void writeIntLE(final byte[] buffer, final int offset, final int value) {
+      buffer[offset] = (byte) value;
+      buffer[offset + 1] = (byte) (value >> 8);
+      buffer[offset + 2] = (byte) (value >> 16);
+      buffer[offset + 3] = (byte) (value >> 24);
+    }
+
+    @Override
+    public void close() {
+      this.deflater.end();
+    }
+  }
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.utils;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.apache.log4j.Logger;
+
+/**
+ * Runs tasks on a pool of daemon threads. The tasks with the same key run one at a time, in the
+ * order they were queued, while those with different keys run in parallel.
+ *
+ * <p>A task failing with an exception is logged and doesn't prevent the next tasks of its key
+ * from running.
+ */
+public class KeyedSerialExecutor<K> {
+
+  private static final Logger logger = Logger.getLogger(KeyedSerialExecutor.class);
+
+  private final ExecutorService workers;
+  // Last task queued for each key, the next one runs after it
+  private final Map<K, CompletableFuture<Void>> lastTasks = new ConcurrentHashMap<>();
+
+  /**
+   * @param threadNameFormat e.g. "azk-worker-%d"
+   */
+  public KeyedSerialExecutor(final int numThreads, final String threadNameFormat) {
+    this.workers = Executors.newFixedThreadPool(numThreads,
+        new ThreadFactoryBuilder().setNameFormat(threadNameFormat).setDaemon(true).build());
+  }
+
+  /**
+   * Queue a task, to run after the ones previously queued with the same key.
+   */
+  public void execute(final K key, final Runnable task) {
+    final Runnable safeTask = () -> {
+      try {
+        task.run();
+      } catch (final RuntimeException e) {
+        logger.error("Error running task of " + key, e);
+      }
+    };
+    final CompletableFuture<Void> future = this.lastTasks.compute(key,
+        (k, last) -> last == null ? CompletableFuture.runAsync(safeTask, this.workers)
+            : last.thenRunAsync(safeTask, this.workers));
+    future.whenComplete((result, error) -> this.lastTasks.remove(key, future));
+  }
+
+  /**
+   * @return number of keys with queued or running tasks
+   */
+  public int getNumPendingKeys() {
+    return this.lastTasks.size();
+  }
+
+  /**
+   * Wait for the queued tasks to complete, then stop the threads.
+   */
+  public void shutdown(final long timeoutMs) {
+    try {
+      CompletableFuture.allOf(this.lastTasks.values().toArray(new CompletableFuture[0]))
+          .get(timeoutMs, TimeUnit.MILLISECONDS);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (final ExecutionException | TimeoutException e) {
+      logger.error("Tasks of " + this.lastTasks.keySet() + " not completed.", e);
+    }
+    this.workers.shutdown();
+  }
+}
@@ -388,6 +388,7 @@ public class ContainerizedDispatchManagerTest {
   private void submitFlow(final ExecutableFlow flow, final ExecutionReference ref) throws
       Exception {
     when(this.loader.fetchUnfinishedFlows()).thenReturn(this.unfinishedFlows);
+    when(this.loader.fetchUnfinishedFlowsMetadata()).thenReturn(this.unfinishedFlows);
     when(this.loader.fetchExecutableFlow(flow.getExecutionId())).thenReturn(flow);
     this.containerizedDispatchManager.submitExecutableFlow(flow, this.user.getUserId());
     this.unfinishedFlows.put(flow.getExecutionId(), new Pair<>(ref, flow));
@@ -399,6 +400,7 @@ public class ContainerizedDispatchManagerTest {
             this.flow2.getExecutionId(), new Pair<>(this.ref2, this.flow2),
             this.flow3.getExecutionId(), new Pair<>(this.ref3, this.flow3));
     when(this.loader.fetchUnfinishedFlows()).thenReturn(this.unfinishedFlows);
+    when(this.loader.fetchUnfinishedFlowsMetadata()).thenReturn(this.unfinishedFlows);
   }
 
   private void initializeContainerizedDispatchImpl() throws Exception{
@@ -406,7 +408,8 @@ public class ContainerizedDispatchManagerTest {
         new ContainerizedDispatchManager(this.props, this.loader,
         this.commonMetrics,
         this.apiGateway, this.containerizedImpl, null, null, this.eventListener,
-            this.containerizationMetrics);
+            this.containerizationMetrics,
+            new ExecutableFlowCache(this.props, this.loader, new MetricsManager(new MetricRegistry())));
   }
 
   @Test
@@ -433,6 +436,16 @@ public class ContainerizedDispatchManagerTest {
         apiClient.getLastBuildExecutorUriRespone());
   }
 
+  @Test
+  public void testGetJobLogLength() throws Exception {
+    final ContainerizedDispatchManager dispatchManager = createDefaultDispatchWithGateway(
+        new WrappedExecutorApiClient(createContainerDispatchEnabledProps(this.props)));
+    when(this.loader.fetchLogLength(this.flow2.getExecutionId(), "job1", 0)).thenReturn(1024);
+    // Still running
+    assertThat(dispatchManager.getExecutionJobLogLength(this.flow1, "job1", 0)).isEqualTo(-1);
+    assertThat(dispatchManager.getExecutionJobLogLength(this.flow2, "job1", 0)).isEqualTo(1024);
+  }
+
   @Test
   public void testCancelFlow() throws Exception {
     WrappedExecutorApiClient apiClient =
@@ -488,7 +501,8 @@ public class ContainerizedDispatchManagerTest {
     ContainerizedDispatchManager dispatchManager =
         new ContainerizedDispatchManager(containerEnabledProps, this.loader,
             this.commonMetrics, apiGateway, this.containerizedImpl,null, null, this.eventListener,
-            this.containerizationMetrics);
+            this.containerizationMetrics, new ExecutableFlowCache(containerEnabledProps,
+            this.loader, new MetricsManager(new MetricRegistry())));
     dispatchManager.start();
     return dispatchManager;
   }
@@ -507,7 +521,7 @@ public class ContainerizedDispatchManagerTest {
     private String nextHttpPostResponse = DEFAULT_LOG_JSON;
 
     public WrappedExecutorApiClient(Props azkProps) {
-      super(azkProps);
+      super(azkProps, new MetricsManager(new MetricRegistry()));
     }
 
     public URI getExpectedReverseProxyContainerizedURI() throws IOException {
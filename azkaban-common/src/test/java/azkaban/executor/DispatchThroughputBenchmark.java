@@ -0,0 +1,117 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.executor;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import azkaban.Constants.ConfigurationKeys;
+import azkaban.DispatchMethod;
+import azkaban.alert.Alerter;
+import azkaban.metrics.CommonMetrics;
+import azkaban.metrics.MetricsManager;
+import azkaban.utils.Props;
+import azkaban.utils.TestUtils;
+import com.codahale.metrics.MetricRegistry;
+import java.time.Duration;
+
+/**
+ * Measures how fast the queue processor dispatches a backlog of queued flows, when every dispatch
+ * call to an executor takes some time, with the flows dispatched one at a time or by a pool of
+ * dispatch threads.
+ *
+ * <p>Not run as part of the tests. Run the main method from the test classpath, optionally with
+ * the dispatch latency in ms, the number of executors and the number of flows as arguments.
+ */
+public class DispatchThroughputBenchmark {
+
+  private static final int[] DISPATCH_THREADS = {1, 4, 8, 16};
+
+  public static void main(final String[] args) throws Exception {
+    final long latencyMs = args.length > 0 ? Long.parseLong(args[0]) : 50;
+    final int numExecutors = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+    final int numFlows = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+
+    for (final int threads : DISPATCH_THREADS) {
+      final long elapsedMs = run(threads, latencyMs, numExecutors, numFlows);
+      System.out.printf("%2d dispatch threads  %6d ms  %8.1f flows/s%n", threads, elapsedMs,
+          numFlows * 1000.0 / elapsedMs);
+    }
+    // The executor info refresher threads of the managers are still alive
+    System.exit(0);
+  }
+
+  /**
+   * @return time in ms to dispatch all the queued flows
+   */
+  private static long run(final int dispatchThreads, final long latencyMs,
+      final int numExecutors, final int numFlows) throws Exception {
+    final Props props = new Props();
+    props.put(ConfigurationKeys.USE_MULTIPLE_EXECUTORS, "true");
+    props.put(ConfigurationKeys.QUEUEPROCESSING_ENABLED, "true");
+    props.put(ConfigurationKeys.MAX_CONCURRENT_RUNS_ONEFLOW, numFlows);
+    props.put(ConfigurationKeys.QUEUE_PROCESSOR_DISPATCH_THREADS, dispatchThreads);
+
+    final MockExecutorLoader loader = new MockExecutorLoader();
+    for (int i = 0; i < numExecutors; i++) {
+      loader.addExecutor("localhost", 12345 + i);
+    }
+    final ExecutorApiGateway apiGateway = mock(ExecutorApiGateway.class);
+    when(apiGateway.callWithExecutable(any(), any(), eq(ConnectorParams.EXECUTE_ACTION)))
+        .then(invocation -> {
+          Thread.sleep(latencyMs);
+          return null;
+        });
+
+    final AlerterHolder alerterHolder = mock(AlerterHolder.class);
+    when(alerterHolder.get("email")).thenReturn(mock(Alerter.class));
+    final MetricsManager metricsManager = new MetricsManager(new MetricRegistry());
+    final RunningExecutions runningExecutions = new RunningExecutions();
+    final ExecutorManagerUpdaterStage updaterStage = new ExecutorManagerUpdaterStage();
+    final ExecutableFlowCache executableFlowCache =
+        new ExecutableFlowCache(props, loader, metricsManager);
+    final ExecutionFinalizer executionFinalizer = new ExecutionFinalizer(loader, updaterStage,
+        alerterHolder, runningExecutions, executableFlowCache);
+    // Only the dispatching is measured, the running executions aren't updated
+    final ExecutorManager manager = new ExecutorManager(props, loader,
+        new CommonMetrics(metricsManager), apiGateway, runningExecutions,
+        new ActiveExecutors(loader), updaterStage, executionFinalizer,
+        mock(RunningExecutionsUpdaterThread.class), executableFlowCache);
+    manager.setSleepAfterDispatchFailure(Duration.ZERO);
+    manager.initialize();
+
+    for (int i = 1; i <= numFlows; i++) {
+      final ExecutableFlow flow = TestUtils
+          .createTestExecutableFlow("exectest1", "exec1", DispatchMethod.PUSH);
+      flow.setExecutionId(i);
+      manager.submitExecutableFlow(flow, "benchmark");
+    }
+
+    final long start = System.currentTimeMillis();
+    manager.start();
+    try {
+      while (runningExecutions.get().size() < numFlows) {
+        Thread.sleep(1);
+      }
+      return System.currentTimeMillis() - start;
+    } finally {
+      manager.shutdown();
+    }
+  }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import azkaban.Constants.ConfigurationKeys;
+import azkaban.DispatchMethod;
+import azkaban.metrics.MetricsManager;
+import azkaban.utils.Props;
+import azkaban.utils.TestUtils;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.ImmutableMap;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ExecutableFlowCacheTest {
+
+  private ExecutorLoader loader;
+  private MetricRegistry metricRegistry;
+  private Props props;
+  private ExecutableFlow flow;
+
+  @Before
+  public void setUp() throws Exception {
+    this.loader = mock(ExecutorLoader.class);
+    this.metricRegistry = new MetricRegistry();
+    this.props = new Props();
+    this.flow = TestUtils.createTestExecutableFlow("exectest1", "exec1", DispatchMethod.POLL);
+    this.flow.setExecutionId(1);
+    this.flow.setStatus(Status.RUNNING);
+    when(this.loader.fetchExecutableFlow(1)).thenReturn(this.flow);
+  }
+
+  private ExecutableFlowCache createCache() {
+    return new ExecutableFlowCache(this.props, this.loader,
+        new MetricsManager(this.metricRegistry));
+  }
+
+  @Test
+  public void testCachedUntilRefreshInterval() throws Exception {
+    this.props.put(ConfigurationKeys.AZKABAN_EXECUTABLE_FLOW_CACHE_REFRESH_INTERVAL_MS, 60000);
+    final ExecutableFlowCache cache = createCache();
+
+    assertThat(cache.get(1)).isSameAs(this.flow);
+    assertThat(cache.get(1)).isSameAs(this.flow);
+    verify(this.loader, times(1)).fetchExecutableFlow(1);
+    assertThat(cache.getHitRatio()).isEqualTo(0.5);
+    assertThat(((Gauge<?>) this.metricRegistry.getGauges()
+        .get(ExecutableFlowCache.HIT_RATIO_GAUGE_NAME)).getValue()).isEqualTo(0.5);
+    assertThat(((Gauge<?>) this.metricRegistry.getGauges()
+        .get(ExecutableFlowCache.SIZE_GAUGE_NAME)).getValue()).isEqualTo(1L);
+
+    cache.invalidate(1);
+    cache.get(1);
+    verify(this.loader, times(2)).fetchExecutableFlow(1);
+  }
+
+  @Test
+  public void testUnfinishedFlowIsReloaded() throws Exception {
+    this.props.put(ConfigurationKeys.AZKABAN_EXECUTABLE_FLOW_CACHE_REFRESH_INTERVAL_MS, 0);
+    final ExecutableFlowCache cache = createCache();
+
+    cache.get(1);
+    cache.get(1);
+    verify(this.loader, times(2)).fetchExecutableFlow(1);
+
+    // Finished flows don't change any more
+    this.flow.setStatus(Status.SUCCEEDED);
+    cache.get(1);
+    cache.get(1);
+    verify(this.loader, times(2)).fetchExecutableFlow(1);
+  }
+
+  @Test
+  public void testApplyUpdate() throws Exception {
+    this.props.put(ConfigurationKeys.AZKABAN_EXECUTABLE_FLOW_CACHE_REFRESH_INTERVAL_MS, 60000);
+    final ExecutableFlowCache cache = createCache();
+    // Not cached, nothing to do
+    cache.applyUpdate(1,
+        ImmutableMap.of(ExecutableNode.STATUS_PARAM, Status.KILLING.getNumVal()));
+    cache.get(1);
+
+    cache.applyUpdate(1, ImmutableMap.of(
+        ExecutableNode.STATUS_PARAM, Status.FAILED_FINISHING.getNumVal(),
+        ExecutableNode.UPDATE_TIME_PARAM, 10L,
+        ExecutableFlowBase.NODES_PARAM, Collections.singletonList(ImmutableMap.of(
+            ExecutableNode.ID_PARAM, "job1",
+            ExecutableNode.STATUS_PARAM, Status.FAILED.getNumVal(),
+            ExecutableNode.START_TIME_PARAM, 5L,
+            ExecutableNode.UPDATE_TIME_PARAM, 10L,
+            ExecutableNode.END_TIME_PARAM, 10L))));
+    final ExecutableFlow cached = cache.get(1);
+    assertThat(cached.getStatus()).isEqualTo(Status.FAILED_FINISHING);
+    assertThat(cached.getExecutableNode("job1").getStatus()).isEqualTo(Status.FAILED);
+    assertThat(cached.getExecutableNode("job1").getEndTime()).isEqualTo(10L);
+    assertThat(cached.getExecutableNodes()).hasSameSizeAs(this.flow.getExecutableNodes());
+    verify(this.loader, times(1)).fetchExecutableFlow(1);
+
+    // Applied in place, without copying the execution
+    cache.applyUpdate(1, ImmutableMap.of(
+        ExecutableNode.STATUS_PARAM, Status.FAILED.getNumVal(),
+        ExecutableNode.UPDATE_TIME_PARAM, 20L));
+    assertThat(cache.get(1)).isSameAs(cached);
+    assertThat(cached.getStatus()).isEqualTo(Status.FAILED);
+    verify(this.loader, times(1)).fetchExecutableFlow(1);
+  }
+
+  @Test
+  public void testMissingExecution() throws Exception {
+    final ExecutableFlowCache cache = createCache();
+    assertThat(cache.get(2)).isNull();
+    assertThat(cache.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void testBoundedByNumberOfNodes() throws Exception {
+    this.props.put(ConfigurationKeys.AZKABAN_EXECUTABLE_FLOW_CACHE_REFRESH_INTERVAL_MS, 60000);
+    // Room for a single flow
+    this.props.put(ConfigurationKeys.AZKABAN_EXECUTABLE_FLOW_CACHE_MAX_NODES,
+        this.flow.getExecutableNodes().size() + 1);
+    final ExecutableFlow flow2 = TestUtils
+        .createTestExecutableFlow("exectest1", "exec1", DispatchMethod.POLL);
+    flow2.setExecutionId(2);
+    when(this.loader.fetchExecutableFlow(2)).thenReturn(flow2);
+    final ExecutableFlowCache cache = createCache();
+
+    cache.get(1);
+    cache.get(2);
+    assertThat(cache.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void testUpdateListener() throws Exception {
+    this.props.put(ConfigurationKeys.AZKABAN_EXECUTABLE_FLOW_CACHE_REFRESH_INTERVAL_MS, 60000);
+    final ExecutableFlowCache cache = createCache();
+    cache.get(1);
+
+    final AtomicInteger calls = new AtomicInteger();
+    final Runnable listener = calls::incrementAndGet;
+    final Runnable removedListener = () -> calls.addAndGet(100);
+    assertThat(cache.addUpdateListener(1, listener)).isTrue();
+    assertThat(cache.addUpdateListener(1, removedListener)).isTrue();
+    cache.removeUpdateListener(1, removedListener);
+
+    cache.applyUpdate(1, ImmutableMap.of(ExecutableNode.UPDATE_TIME_PARAM, 20L));
+    assertThat(calls.get()).isEqualTo(1);
+    // Called once only
+    cache.applyUpdate(1, ImmutableMap.of(ExecutableNode.UPDATE_TIME_PARAM, 30L));
+    assertThat(calls.get()).isEqualTo(1);
+
+    assertThat(cache.addUpdateListener(1, listener)).isTrue();
+    cache.invalidate(1);
+    assertThat(calls.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void testUpdateListenerWithoutPushedUpdates() throws Exception {
+    this.props.put(ConfigurationKeys.AZKABAN_EXECUTABLE_FLOW_CACHE_REFRESH_INTERVAL_MS, 100);
+    this.flow.setUpdateTime(10L);
+    final ExecutableFlowCache cache = createCache();
+    cache.get(1);
+
+    final AtomicInteger calls = new AtomicInteger();
+    assertThat(cache.addUpdateListener(1, calls::incrementAndGet)).isTrue();
+    final ExecutableFlow updated = TestUtils
+        .createTestExecutableFlow("exectest1", "exec1", DispatchMethod.POLL);
+    updated.setExecutionId(1);
+    updated.setUpdateTime(20L);
+    when(this.loader.fetchExecutableFlow(1)).thenReturn(updated);
+    // Found by the periodic check once the cached copy is stale
+    azkaban.test.TestUtils.await().untilAsserted(() -> assertThat(calls.get()).isEqualTo(1));
+    assertThat(cache.get(1).getUpdateTime()).isEqualTo(20L);
+  }
+
+  @Test
+  public void testTooManyUpdateListeners() throws Exception {
+    this.props.put(ConfigurationKeys.AZKABAN_EXECUTION_UPDATE_LONG_POLL_MAX_WAITERS, 1);
+    final ExecutableFlowCache cache = createCache();
+
+    final Runnable listener = () -> {
+    };
+    assertThat(cache.addUpdateListener(1, listener)).isTrue();
+    assertThat(cache.addUpdateListener(2, () -> {
+    })).isFalse();
+    cache.removeUpdateListener(1, listener);
+    assertThat(cache.addUpdateListener(2, listener)).isTrue();
+  }
+
+  @Test
+  public void testDisabled() throws Exception {
+    this.props.put(ConfigurationKeys.AZKABAN_EXECUTABLE_FLOW_CACHE_MAX_NODES, 0);
+    final ExecutableFlowCache cache = createCache();
+
+    cache.get(1);
+    cache.get(1);
+    verify(this.loader, times(2)).fetchExecutableFlow(1);
+    assertThat(cache.size()).isEqualTo(0);
+  }
+}
@@ -25,6 +25,7 @@ import static org.mockito.Mockito.when;
 import azkaban.DispatchMethod;
 import azkaban.db.DatabaseOperator;
 import azkaban.db.DatabaseTransOperator;
+import azkaban.db.EncodingType;
 import azkaban.imagemgmt.version.VersionSet;
 import azkaban.project.JdbcProjectImpl;
 import azkaban.project.ProjectLoader;
@@ -41,6 +42,7 @@ import java.io.IOException;
 import java.sql.SQLException;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -151,6 +153,45 @@ public class ExecutionFlowDaoTest {
     assertTwoFlowSame(fetchFlow, fetchFlow2);
   }
 
+  @Test
+  public void testUpdateExecutableFlows() throws Exception {
+    final ExecutableFlow flow1 = createTestFlow();
+    final ExecutableFlow flow2 = createTestFlow();
+    this.executionFlowDao.uploadExecutableFlow(flow1);
+    this.executionFlowDao.uploadExecutableFlow(flow2);
+
+    flow1.setStatus(Status.RUNNING);
+    flow1.getExecutableNode("job1").setStatus(Status.SUCCEEDED);
+    flow2.setEndTime(System.currentTimeMillis());
+    flow2.setStatus(Status.FAILED);
+    this.executionFlowDao.updateExecutableFlows(Arrays.asList(flow1, flow2));
+
+    assertTwoFlowSame(flow1, this.executionFlowDao.fetchExecutableFlow(flow1.getExecutionId()));
+    assertThat(this.executionFlowDao.fetchExecutableFlow(flow1.getExecutionId())
+        .getExecutableNode("job1").getStatus()).isEqualTo(Status.SUCCEEDED);
+    assertTwoFlowSame(flow2, this.executionFlowDao.fetchExecutableFlow(flow2.getExecutionId()));
+  }
+
+  @Test
+  public void testUpdateExecutableFlowBinaryEncoding() throws Exception {
+    final ExecutionFlowDao binaryFlowDao =
+        new ExecutionFlowDao(dbOperator, this.mysqlNamedLock, EncodingType.BINARY);
+    final ExecutableFlow flow = createTestFlow();
+    binaryFlowDao.uploadExecutableFlow(flow);
+
+    flow.setStatus(Status.RUNNING);
+    flow.getExecutableNode("job1").setStatus(Status.SUCCEEDED);
+    binaryFlowDao.updateExecutableFlow(flow);
+
+    // Flows written with either encoding are read the same way
+    final ExecutableFlow fetchFlow =
+        this.executionFlowDao.fetchExecutableFlow(flow.getExecutionId());
+    assertTwoFlowSame(flow, fetchFlow);
+    assertThat(fetchFlow.getExecutableNode("job1").getStatus()).isEqualTo(Status.SUCCEEDED);
+    assertThat(this.fetchActiveFlowDao.fetchActiveFlowByExecId(flow.getExecutionId())
+        .getSecond().getExecutableNode("job1").getStatus()).isEqualTo(Status.SUCCEEDED);
+  }
+
   @Test
   public void fetchFlowHistory() throws Exception {
     final ExecutableFlow flow = createTestFlow();
@@ -368,6 +409,19 @@ public class ExecutionFlowDaoTest {
         false);
   }
 
+  @Test
+  public void testFetchUnfinishedFlowsMetadataSkipsNullFlowData() throws Exception {
+    final List<ExecutableFlow> flows = createExecutions();
+    dbOperator.update("UPDATE execution_flows SET flow_data = NULL WHERE exec_id = ?",
+        flows.get(0).getExecutionId());
+    final Map<Integer, Pair<ExecutionReference, ExecutableFlow>> unfinishedFlows =
+        this.fetchActiveFlowDao.fetchUnfinishedFlowsMetadata();
+    assertNotFound(unfinishedFlows, flows.get(0), "Returned an execution without flow data");
+    assertFound(unfinishedFlows, flows.get(2), true);
+    assertThat(unfinishedFlows.keySet())
+        .isEqualTo(this.fetchActiveFlowDao.fetchUnfinishedFlows().keySet());
+  }
+
   @Test
   public void testFetchActiveFlowByExecId() throws Exception {
     final List<ExecutableFlow> flows = createExecutions();
@@ -517,6 +571,34 @@ public class ExecutionFlowDaoTest {
     assertThat(inOutProps.getSecond().get("hello")).isEqualTo("output");
   }
 
+  @Test
+  public void testUpdateExecutableNodes() throws Exception {
+    final ExecutableFlow flow = TestUtils.createTestExecutableFlow("exectest1", "exec1", DispatchMethod.POLL);
+    flow.setExecutionId(11);
+
+    final ExecutableNode node1 = flow.getExecutableNode("job1");
+    final ExecutableNode node2 = flow.getExecutableNode("job2");
+    this.executionJobDao.uploadExecutableNode(node1, null);
+    this.executionJobDao.uploadExecutableNode(node2, null);
+
+    final Props outputProps = new Props();
+    outputProps.put("hello", "output");
+    node1.setStatus(Status.SUCCEEDED);
+    node1.setEndTime(System.currentTimeMillis());
+    node1.setOutputProps(outputProps);
+    node2.setStatus(Status.RUNNING);
+    this.executionJobDao.updateExecutableNodes(Arrays.asList(node1, node2));
+
+    assertThat(this.executionJobDao.fetchJobInfo(11, "job1", 0).getStatus())
+        .isEqualTo(Status.SUCCEEDED);
+    assertThat(this.executionJobDao.fetchJobInfo(11, "job1", 0).getEndTime())
+        .isEqualTo(node1.getEndTime());
+    assertThat(this.executionJobDao.fetchExecutionJobOutputProps(11, "job1").get("hello"))
+        .isEqualTo("output");
+    assertThat(this.executionJobDao.fetchJobInfo(11, "job2", 0).getStatus())
+        .isEqualTo(Status.RUNNING);
+  }
+
   @Test
   public void testSelectAndUpdateExecution() throws Exception {
     final ExecutableFlow flow = TestUtils.createTestExecutableFlow("exectest1", "exec1", DispatchMethod.POLL);
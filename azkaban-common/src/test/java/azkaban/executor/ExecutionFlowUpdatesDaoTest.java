@@ -0,0 +1,158 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import azkaban.DispatchMethod;
+import azkaban.db.DatabaseOperator;
+import azkaban.test.Utils;
+import azkaban.utils.TestUtils;
+import java.sql.SQLException;
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ExecutionFlowUpdatesDaoTest {
+
+  private static DatabaseOperator dbOperator;
+  private ExecutionFlowDao executionFlowDao;
+  private ExecutionFlowUpdatesDao executionFlowUpdatesDao;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    dbOperator = Utils.initTestDB();
+  }
+
+  @AfterClass
+  public static void destroyDB() throws Exception {
+    try {
+      dbOperator.update("DROP ALL OBJECTS");
+      dbOperator.update("SHUTDOWN");
+    } catch (final SQLException e) {
+      e.printStackTrace();
+    }
+  }
+
+  @Before
+  public void setup() {
+    this.executionFlowDao = new ExecutionFlowDao(dbOperator, mock(MysqlNamedLock.class));
+    this.executionFlowUpdatesDao = new ExecutionFlowUpdatesDao(dbOperator);
+  }
+
+  @After
+  public void clearDB() {
+    try {
+      dbOperator.update("DELETE FROM execution_flow_updates");
+      dbOperator.update("DELETE FROM execution_flows");
+    } catch (final SQLException e) {
+      e.printStackTrace();
+    }
+  }
+
+  private ExecutableFlow createRunningFlow() throws Exception {
+    final ExecutableFlow flow = TestUtils
+        .createTestExecutableFlow("exectest1", "exec1", DispatchMethod.POLL);
+    flow.setStatus(Status.RUNNING);
+    flow.setUpdateTime(1000);
+    this.executionFlowDao.uploadExecutableFlow(flow);
+    return flow;
+  }
+
+  private ExecutableFlow fetchFlow(final int execId) throws Exception {
+    final ExecutableFlow flow = this.executionFlowDao.fetchExecutableFlow(execId);
+    this.executionFlowUpdatesDao.applyExecutableFlowUpdates(flow);
+    return flow;
+  }
+
+  @Test
+  public void testApplyUpdatesOnTopOfSnapshot() throws Exception {
+    final ExecutableFlow flow = createRunningFlow();
+
+    final ExecutableNode job1 = flow.getExecutableNode("job1");
+    job1.setStatus(Status.SUCCEEDED);
+    job1.setStartTime(1100);
+    job1.setEndTime(1200);
+    job1.setUpdateTime(1200);
+    flow.setUpdateTime(1200);
+    this.executionFlowUpdatesDao.appendExecutableFlowUpdate(flow, 1000);
+
+    final ExecutableNode job2 = flow.getExecutableNode("job2");
+    job2.setStatus(Status.RUNNING);
+    job2.setStartTime(1250);
+    job2.setUpdateTime(1300);
+    flow.setUpdateTime(1300);
+    this.executionFlowUpdatesDao.appendExecutableFlowUpdate(flow, 1200);
+
+    final ExecutableFlow fetched = fetchFlow(flow.getExecutionId());
+    assertThat(fetched.getUpdateTime()).isEqualTo(1300);
+    assertThat(fetched.getExecutableNode("job1").getStatus()).isEqualTo(Status.SUCCEEDED);
+    assertThat(fetched.getExecutableNode("job1").getEndTime()).isEqualTo(1200);
+    assertThat(fetched.getExecutableNode("job2").getStatus()).isEqualTo(Status.RUNNING);
+    assertThat(fetched.getExecutableNode("job3").getStatus()).isEqualTo(Status.READY);
+  }
+
+  @Test
+  public void testUpdatesOlderThanSnapshotAreIgnored() throws Exception {
+    final ExecutableFlow flow = createRunningFlow();
+
+    final ExecutableNode job1 = flow.getExecutableNode("job1");
+    job1.setStatus(Status.RUNNING);
+    job1.setUpdateTime(1100);
+    flow.setUpdateTime(1100);
+    this.executionFlowUpdatesDao.appendExecutableFlowUpdate(flow, 1000);
+
+    // A newer snapshot for which the updates haven't been deleted yet
+    job1.setStatus(Status.SUCCEEDED);
+    job1.setUpdateTime(1200);
+    flow.setUpdateTime(1200);
+    this.executionFlowDao.updateExecutableFlow(flow);
+
+    final ExecutableFlow fetched = fetchFlow(flow.getExecutionId());
+    assertThat(fetched.getExecutableNode("job1").getStatus()).isEqualTo(Status.SUCCEEDED);
+  }
+
+  @Test
+  public void testDeleteUpdatesCoveredBySnapshot() throws Exception {
+    final ExecutableFlow flow = createRunningFlow();
+    for (final long time : Arrays.asList(1100L, 1200L, 1300L)) {
+      flow.setUpdateTime(time);
+      this.executionFlowUpdatesDao.appendExecutableFlowUpdate(flow, time - 100);
+    }
+
+    assertThat(this.executionFlowUpdatesDao
+        .deleteExecutableFlowUpdates(flow.getExecutionId(), 1200)).isEqualTo(2);
+    assertThat(this.executionFlowUpdatesDao
+        .deleteExecutableFlowUpdates(flow.getExecutionId(), Long.MAX_VALUE)).isEqualTo(1);
+  }
+
+  @Test
+  public void testAppendUpdateRefreshesStatusColumns() throws Exception {
+    final ExecutableFlow flow = createRunningFlow();
+    flow.setStatus(Status.FAILED_FINISHING);
+    flow.setUpdateTime(1100);
+    this.executionFlowUpdatesDao.appendExecutableFlowUpdate(flow, 1000);
+
+    final int status = dbOperator.query("SELECT status FROM execution_flows WHERE exec_id=?",
+        rs -> rs.next() ? rs.getInt(1) : -1, flow.getExecutionId());
+    assertThat(status).isEqualTo(Status.FAILED_FINISHING.getNumVal());
+  }
+}
@@ -17,21 +17,34 @@
 package azkaban.executor;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
+import azkaban.AzkabanCommonModuleConfig;
 import azkaban.db.DatabaseOperator;
+import azkaban.storage.LocalLogStorage;
 import azkaban.test.Utils;
 import azkaban.test.executions.ExecutionsTestUtil;
 import azkaban.utils.FileIOUtils.LogData;
 import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
+import org.apache.commons.dbutils.handlers.ScalarHandler;
+import org.apache.commons.io.FileUtils;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class ExecutionLogsDaoTest {
 
+  @Rule
+  public final TemporaryFolder temp = new TemporaryFolder();
+
   private static final String LOG_TEST_DIR_NAME = "logtest";
   private static DatabaseOperator dbOperator;
   private ExecutionLogsDao executionLogsDao;
@@ -108,6 +121,100 @@ public class ExecutionLogsDaoTest {
     final LogData logsResult3 = this.executionLogsDao.fetchLogs(1, "largeFiles", 0, 150000, 250000);
     assertThat(logsResult3).isNotNull();
     assertThat(logsResult3.getLength()).isEqualTo(185493);
+    assertThat(this.executionLogsDao.fetchLogLength(1, "largeFiles", 0)).isEqualTo(335493);
+    assertThat(this.executionLogsDao.fetchLogLength(1, "unknown", 0)).isEqualTo(0);
+  }
+
+  @Test
+  public void testUploadLogInSeveralTransactions() throws Exception {
+    final ExecutionLogsDao dao = new ExecutionLogsDao(dbOperator, null, 2);
+    final File logDir = ExecutionsTestUtil.getFlowDir(LOG_TEST_DIR_NAME);
+    final File[] largelog =
+        {new File(logDir, "largeLog1.log"), new File(logDir, "largeLog2.log"),
+            new File(logDir, "largeLog3.log")};
+
+    dao.uploadLogFile(1, "largeFiles", 0, largelog);
+
+    final StringBuilder expected = new StringBuilder();
+    for (final File file : largelog) {
+      expected.append(FileUtils.readFileToString(file, StandardCharsets.UTF_8));
+    }
+    final LogData logsResult = dao.fetchLogs(1, "largeFiles", 0, 0, expected.length() + 1000);
+    assertThat(logsResult.getData()).isEqualTo(expected.toString());
+    assertThat(dbOperator.query("SELECT COUNT(*) FROM execution_logs",
+        new ScalarHandler<Long>())).isEqualTo(7L);
+  }
+
+  @Test
+  public void testFailedUploadRemovesOnlyItsRows() throws Exception {
+    final ExecutionLogsDao dao = new ExecutionLogsDao(dbOperator, null, 2);
+    final File logDir = ExecutionsTestUtil.getFlowDir(LOG_TEST_DIR_NAME);
+    final File[] largelog =
+        {new File(logDir, "largeLog1.log"), new File(logDir, "largeLog2.log"),
+            new File(logDir, "largeLog3.log")};
+    final File[] missingLog = {largelog[0], largelog[1], new File(logDir, "missing.log")};
+
+    // Fails after committing some rows, which are removed
+    try {
+      dao.uploadLogFile(1, "largeFiles", 0, missingLog);
+      fail("Missing file uploaded");
+    } catch (final ExecutorManagerException e) {
+      assertThat(dbOperator.query("SELECT COUNT(*) FROM execution_logs",
+          new ScalarHandler<Long>())).isEqualTo(0L);
+    }
+
+    // Uploaded again, doesn't remove the rows of the first upload
+    dao.uploadLogFile(1, "largeFiles", 0, largelog);
+    try {
+      dao.uploadLogFile(1, "largeFiles", 0, largelog);
+      fail("Log uploaded twice");
+    } catch (final ExecutorManagerException e) {
+      assertThat(dbOperator.query("SELECT COUNT(*) FROM execution_logs",
+          new ScalarHandler<Long>())).isEqualTo(7L);
+    }
+  }
+
+  @Test
+  public void testUploadLogToLogStorage() throws Exception {
+    final AzkabanCommonModuleConfig config = mock(AzkabanCommonModuleConfig.class);
+    when(config.getLocalLogStorageBaseDirPath())
+        .thenReturn(this.temp.getRoot().getAbsolutePath());
+    final ExecutionLogsDao dao = new ExecutionLogsDao(dbOperator, new LocalLogStorage(config));
+    final File logDir = ExecutionsTestUtil.getFlowDir(LOG_TEST_DIR_NAME);
+    final File[] largelog =
+        {new File(logDir, "largeLog1.log"), new File(logDir, "largeLog2.log"),
+            new File(logDir, "largeLog3.log")};
+
+    dao.uploadLogFile(1, "embedded:job", 0, largelog);
+
+    final File logFile = new File(this.temp.getRoot(),
+        ExecutionLogsDao.getLogKey(1, "embedded:job", 0));
+    assertThat(logFile).exists();
+    assertThat(dbOperator.query("SELECT COUNT(*) FROM execution_logs",
+        new ScalarHandler<Long>())).isEqualTo(1L);
+
+    final StringBuilder log = new StringBuilder();
+    for (final File file : largelog) {
+      log.append(FileUtils.readFileToString(file, StandardCharsets.UTF_8));
+    }
+    final String expected = log.toString();
+    assertThat(dao.fetchLogLength(1, "embedded:job", 0)).isEqualTo(expected.length());
+    final LogData logsResult = dao.fetchLogs(1, "embedded:job", 0, 0, expected.length() + 1000);
+    assertThat(logsResult.getData()).isEqualTo(expected);
+    final LogData logsResult2 = dao.fetchLogs(1, "embedded:job", 0, 150000, 250000);
+    assertThat(logsResult2.getOffset()).isEqualTo(150000);
+    assertThat(logsResult2.getLength()).isEqualTo(185493);
+    assertThat(logsResult2.getData()).isEqualTo(expected.substring(150000));
+    // Across a frame boundary
+    final LogData logsResult3 = dao.fetchLogs(1, "embedded:job", 0,
+        FramedLogFormat.FRAME_SIZE - 10, 20);
+    assertThat(logsResult3.getData()).isEqualTo(expected.substring(
+        FramedLogFormat.FRAME_SIZE - 10, FramedLogFormat.FRAME_SIZE + 10));
+
+    final int removed = dao.removeExecutionLogsByTime(System.currentTimeMillis() + 1000, 10);
+    assertThat(removed).isEqualTo(1);
+    assertThat(logFile).doesNotExist();
+    assertThat(dao.fetchLogs(1, "embedded:job", 0, 0, 1000)).isNull();
   }
 
   @Test
@@ -23,11 +23,15 @@ import static azkaban.Constants.ConfigurationKeys.EXECUTOR_CLIENT_TRUSTSTORE_PAS
 import static azkaban.Constants.ConfigurationKeys.EXECUTOR_CLIENT_TRUSTSTORE_PATH;
 
 import azkaban.DispatchMethod;
+import azkaban.metrics.MetricsManager;
 import azkaban.utils.Pair;
 import azkaban.utils.Props;
 import azkaban.utils.UndefinedPropertyException;
+import com.codahale.metrics.MetricRegistry;
 import java.io.IOException;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 import javax.net.ssl.SSLHandshakeException;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
@@ -37,6 +41,7 @@ import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.util.EntityUtils;
+import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -104,6 +109,28 @@ public class ExecutorApiClientTest {
     tlsEnabledServer.start();
   }
 
+  private final List<ExecutorApiClient> clients = new ArrayList<>();
+
+  private ExecutorApiClient createClient(final Props props) {
+    return createClient(props, new MetricRegistry());
+  }
+
+  private ExecutorApiClient createClient(final Props props, final MetricRegistry registry) {
+    final ExecutorApiClient client = new ExecutorApiClient(props, new MetricsManager(registry));
+    this.clients.add(client);
+    return client;
+  }
+
+  /**
+   * The test server has few threads, and each connection kept alive by a client holds one.
+   */
+  @After
+  public void closeClients() throws IOException {
+    for (final ExecutorApiClient client : this.clients) {
+      client.close();
+    }
+  }
+
   @BeforeClass
   public static void setUp() throws Exception {
     tlsEnabledProps = new Props();
@@ -121,14 +148,14 @@ public class ExecutorApiClientTest {
 
   @Test
   public void testTlsEnabledApiClient() {
-    final ExecutorApiClient tlsEnabledClient = new ExecutorApiClient(this.tlsEnabledProps);
+    final ExecutorApiClient tlsEnabledClient = createClient(this.tlsEnabledProps);
     Assert.assertNotNull(tlsEnabledClient);
     Assert.assertNotNull(tlsEnabledClient.getTlsSocketFactory());
   }
 
   @Test
   public void testPostResponse() throws Exception {
-    final ExecutorApiClient tlsEnabledClient = new ExecutorApiClient(this.tlsEnabledProps);
+    final ExecutorApiClient tlsEnabledClient = createClient(this.tlsEnabledProps);
     final String postResponse = tlsEnabledClient
         .doPost(new URI(SimpleServlet.TLS_ENABLED_URI), DispatchMethod.CONTAINERIZED, null);
     Assert.assertEquals(SimpleServlet.POST_RESPONSE_STRING, postResponse);
@@ -136,7 +163,7 @@ public class ExecutorApiClientTest {
 
   @Test
   public void testDoPostCall() throws Exception {
-    final ExecutorApiClient tlsEnabledClient = new ExecutorApiClient(this.tlsEnabledProps);
+    final ExecutorApiClient tlsEnabledClient = createClient(this.tlsEnabledProps);
     ExecutorApiClient spyTlsEnabledClient = Mockito.spy(tlsEnabledClient);
     final String postResponse = spyTlsEnabledClient
             .doPost(new URI(SimpleServlet.TLS_ENABLED_URI), DispatchMethod.CONTAINERIZED, null);
@@ -150,7 +177,7 @@ public class ExecutorApiClientTest {
     // Currently ExecutorApiClient does not make any POST requests.
     // This is for sanity testing that TLS enabled http-client continues working as expected with
     // GET requests as well.
-    final ExecutorApiClient tlsEnabledClient = new ExecutorApiClient(this.tlsEnabledProps);
+    final ExecutorApiClient tlsEnabledClient = createClient(this.tlsEnabledProps);
     final HttpClient httpClient = tlsEnabledClient.createHttpsClient();
     final HttpGet httpGet = new HttpGet(SimpleServlet.TLS_ENABLED_URI);
     final HttpResponse httpResponse = httpClient.execute(httpGet);
@@ -160,16 +187,33 @@ public class ExecutorApiClientTest {
     Assert.assertEquals(SimpleServlet.GET_RESPONSE_STRING, getResponse);
   }
 
+  @Test
+  public void testConnectionIsReused() throws Exception {
+    final MetricRegistry registry = new MetricRegistry();
+    final ExecutorApiClient tlsEnabledClient = createClient(this.tlsEnabledProps, registry);
+    for (int i = 0; i < 3; i++) {
+      Assert.assertEquals(SimpleServlet.POST_RESPONSE_STRING, tlsEnabledClient
+          .doPost(new URI(SimpleServlet.TLS_ENABLED_URI), DispatchMethod.CONTAINERIZED, null));
+    }
+    // A single connection was opened and went back to the pool after each call
+    Assert.assertEquals(0, registry.getGauges()
+        .get(ExecutorApiClient.POOL_LEASED_GAUGE_NAME).getValue());
+    Assert.assertEquals(1, registry.getGauges()
+        .get(ExecutorApiClient.POOL_AVAILABLE_GAUGE_NAME).getValue());
+    Assert.assertEquals(0, registry.getGauges()
+        .get(ExecutorApiClient.POOL_PENDING_GAUGE_NAME).getValue());
+  }
+
   @Test
   public void testCreateDefaultExecutorApiClient() {
-    final ExecutorApiClient tlsDisabledClient = new ExecutorApiClient(new Props());
+    final ExecutorApiClient tlsDisabledClient = createClient(new Props());
     Assert.assertNotNull(tlsDisabledClient);
     Assert.assertNull(tlsDisabledClient.getTlsSocketFactory());
   }
 
   @Test(expected = SSLHandshakeException.class)
   public void testFailureWithClientTlsDisabled() throws Exception {
-    final ExecutorApiClient tlsDisabledClient = new ExecutorApiClient(new Props());
+    final ExecutorApiClient tlsDisabledClient = createClient(new Props());
     // this should throw SSLHandshakeException
     final String postResponse = tlsDisabledClient
         .httpPost(new URI(SimpleServlet.TLS_ENABLED_URI), null);
@@ -181,7 +225,7 @@ public class ExecutorApiClientTest {
     final Props tlsPropsWithInvalidCert = new Props(tlsEnabledProps);
     tlsPropsWithInvalidCert.put(EXECUTOR_CLIENT_TRUSTSTORE_PATH,
         ExecutorApiClient.class.getResource("invalid-cacerts").getPath());
-    final ExecutorApiClient tlsEnabledClient = new ExecutorApiClient(tlsPropsWithInvalidCert);
+    final ExecutorApiClient tlsEnabledClient = createClient(tlsPropsWithInvalidCert);
 
     // this should throw SSLHandshakeException
     final String postResponse = tlsEnabledClient
@@ -192,7 +236,7 @@ public class ExecutorApiClientTest {
   @Test
   public void testReverseProxyValidProperties() {
     final Props validProps = new Props(validReverseProxyProps);
-    final ExecutorApiClient validClient = new ExecutorApiClient(validProps);
+    final ExecutorApiClient validClient = createClient(validProps);
     Assert.assertEquals(true, validClient.isReverseProxyEnabled());
     Assert.assertEquals(REVERSE_PROXY_HOST, validClient.getReverseProxyHost().get());
     Assert.assertEquals(REVERSE_PROXY_PORT, validClient.getReverseProxyPort().get().intValue());
@@ -204,7 +248,7 @@ public class ExecutorApiClientTest {
     invalidProps.put(AZKABAN_EXECUTOR_REVERSE_PROXY_ENABLED, "true");
     // missing reverse proxy host
     try {
-      final ExecutorApiClient client = new ExecutorApiClient(invalidProps);
+      final ExecutorApiClient client = createClient(invalidProps);
       Assert.fail();
     } catch (UndefinedPropertyException upe) {
       Assert.assertTrue(upe.getMessage().contains(AZKABAN_EXECUTOR_REVERSE_PROXY_HOSTNAME));
@@ -213,7 +257,7 @@ public class ExecutorApiClientTest {
 
     // missing reverse proxy port
     try {
-      final ExecutorApiClient client = new ExecutorApiClient(invalidProps);
+      final ExecutorApiClient client = createClient(invalidProps);
       Assert.fail();
     } catch (UndefinedPropertyException upe) {
       Assert.assertTrue(upe.getMessage().contains(AZKABAN_EXECUTOR_REVERSE_PROXY_PORT));
@@ -222,7 +266,7 @@ public class ExecutorApiClientTest {
     // sanity check for success
     invalidProps.put(AZKABAN_EXECUTOR_REVERSE_PROXY_PORT, REVERSE_PROXY_PORT);
     try {
-      final ExecutorApiClient client = new ExecutorApiClient(invalidProps);
+      final ExecutorApiClient client = createClient(invalidProps);
       Assert.assertNotNull(client);
     } catch (UndefinedPropertyException upe) {
       Assert.fail();
@@ -231,7 +275,7 @@ public class ExecutorApiClientTest {
 
   @Test
   public void testBuildUriWithoutReverseProxy() throws  Exception {
-    final ExecutorApiClient client = new ExecutorApiClient(new Props());
+    final ExecutorApiClient client = createClient(new Props());
     URI uri = client.buildExecutorUri("localhost", JETTY_TLS_PORT, "executor",true, null,
         (Pair<String,String>[])null);
     Assert.assertEquals("http://localhost:" + JETTY_TLS_PORT+ "/executor", uri.toString());
@@ -239,7 +283,7 @@ public class ExecutorApiClientTest {
 
   @Test
   public void testBuildUriWithReverseProxy() throws Exception {
-    final ExecutorApiClient client = new ExecutorApiClient(validReverseProxyProps);
+    final ExecutorApiClient client = createClient(validReverseProxyProps);
     URI uri = client.buildExecutorUri(null, 0, "execid-101/container",false, DispatchMethod.CONTAINERIZED,
         (Pair<String,String>[])null);
     Assert.assertEquals("http://" + REVERSE_PROXY_HOST + ":" + REVERSE_PROXY_PORT +
@@ -1,8 +1,10 @@
 package azkaban.executor;
 
+import azkaban.metrics.MetricsManager;
 import azkaban.utils.JSONUtils;
 import azkaban.utils.Pair;
 import azkaban.utils.Props;
+import com.codahale.metrics.MetricRegistry;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -18,7 +20,8 @@ public class ExecutorApiGatewaySystemTest {
 
   @Before
   public void setUp() throws Exception {
-    final ExecutorApiClient client = new ExecutorApiClient(new Props());
+    final ExecutorApiClient client = new ExecutorApiClient(new Props(),
+        new MetricsManager(new MetricRegistry()));
     this.apiGateway = new ExecutorApiGateway(client, new Props());
   }
 
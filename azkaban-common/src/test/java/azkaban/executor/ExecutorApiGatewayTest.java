@@ -28,9 +28,11 @@ import static org.mockito.Mockito.when;
 
 import azkaban.Constants.ConfigurationKeys;
 import azkaban.DispatchMethod;
+import azkaban.metrics.MetricsManager;
 import azkaban.utils.JSONUtils;
 import azkaban.utils.Pair;
 import azkaban.utils.Props;
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import java.io.IOException;
@@ -180,7 +182,7 @@ public class ExecutorApiGatewayTest {
     private static String SUCCESS_JSON = "{\"status\":\"success\"}";
 
     public SendDisabledExecutorApiClient(Props azkProps) {
-      super(azkProps);
+      super(azkProps, new MetricsManager(new MetricRegistry()));
     }
 
     @Override
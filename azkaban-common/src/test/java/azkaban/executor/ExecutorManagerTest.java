@@ -49,6 +49,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import org.junit.After;
 import org.junit.Assert;
@@ -151,17 +154,20 @@ public class ExecutorManagerTest {
       throws ExecutorManagerException {
     // TODO rename this test to ExecutorManagerIntegrationTest & create separate unit tests as well?
     final ActiveExecutors activeExecutors = new ActiveExecutors(this.loader);
+    final ExecutableFlowCache executableFlowCache = new ExecutableFlowCache(this.props,
+        this.loader, new MetricsManager(new MetricRegistry()));
     final ExecutionFinalizer executionFinalizer = new ExecutionFinalizer(this.loader,
-        this.updaterStage, this.alertHolder, this.runningExecutions);
+        this.updaterStage, this.alertHolder, this.runningExecutions, executableFlowCache);
     final RunningExecutionsUpdaterThread updaterThread = new RunningExecutionsUpdaterThread(
-        new RunningExecutionsUpdater(
+        new RunningExecutionsUpdater(this.props,
             this.updaterStage, this.alertHolder, this.commonMetrics, this.apiGateway,
-            this.runningExecutions, executionFinalizer, this.loader), this.runningExecutions);
+            this.runningExecutions, executionFinalizer, this.loader, executableFlowCache),
+        this.runningExecutions);
     updaterThread.waitTimeIdleMs = 0;
     updaterThread.waitTimeMs = 0;
     final ExecutorManager executorManager = new ExecutorManager(this.props, this.loader,
         this.commonMetrics, this.apiGateway, this.runningExecutions, activeExecutors,
-        this.updaterStage, executionFinalizer, updaterThread);
+        this.updaterStage, executionFinalizer, updaterThread, executableFlowCache);
     executorManager.setSleepAfterDispatchFailure(Duration.ZERO);
     executorManager.initialize();
     return executorManager;
@@ -519,6 +525,98 @@ public class ExecutorManagerTest {
     verify(this.loader, Mockito.times(2)).unassignExecutor(-1);
   }
 
+  @Test
+  public void testPipelinedDispatchMultipleRetries() throws Exception {
+    this.props.put(Constants.ConfigurationKeys.MAX_DISPATCHING_ERRORS_PERMITTED, 4);
+    this.props.put(ConfigurationKeys.QUEUE_PROCESSOR_DISPATCH_THREADS, 4);
+    testSetUpForRunningFlows();
+    this.manager.start();
+    final ExecutableFlow flow1 = TestUtils.createTestExecutableFlow("exectest1", "exec1", DispatchMethod.PUSH);
+    when(this.loader.fetchExecutableFlow(-1)).thenReturn(flow1);
+
+    // fail 2 first dispatch attempts, then succeed
+    when(this.apiGateway.callWithExecutable(any(), any(), eq(ConnectorParams.EXECUTE_ACTION)))
+        .thenThrow(new ExecutorManagerException("Mocked dispatch exception 1"))
+        .thenThrow(new ExecutorManagerException("Mocked dispatch exception 2"))
+        .thenReturn(null);
+
+    mockFlowDoesNotExist();
+
+    this.manager.submitExecutableFlow(flow1, this.user.getUserId());
+    waitFlowFinished(flow1);
+
+    // the failed executor is excluded from the retry, so both are tried
+    verify(this.apiGateway, Mockito.atLeast(1))
+        .callWithExecutable(flow1, this.manager.fetchExecutor(1), ConnectorParams.EXECUTE_ACTION);
+    verify(this.apiGateway, Mockito.atLeast(1))
+        .callWithExecutable(flow1, this.manager.fetchExecutor(2), ConnectorParams.EXECUTE_ACTION);
+    verify(this.apiGateway, Mockito.times(3))
+        .callWithExecutable(eq(flow1), any(), eq(ConnectorParams.EXECUTE_ACTION));
+    verify(this.loader, Mockito.times(2)).unassignExecutor(-1);
+  }
+
+  @Test
+  public void testPipelinedDispatchUnexpectedError() throws Exception {
+    this.props.put(ConfigurationKeys.QUEUE_PROCESSOR_DISPATCH_THREADS, 4);
+    testSetUpForRunningFlows();
+    this.manager.start();
+    final ExecutableFlow flow1 = TestUtils.createTestExecutableFlow("exectest1", "exec1", DispatchMethod.PUSH);
+    flow1.getExecutionOptions().setFailureEmails(Arrays.asList("test@example.com"));
+    when(this.loader.fetchExecutableFlow(-1)).thenReturn(flow1);
+    when(this.apiGateway.callWithExecutable(any(), any(), eq(ConnectorParams.EXECUTE_ACTION)))
+        .thenThrow(new IllegalStateException("Mocked unexpected error"));
+    this.manager.submitExecutableFlow(flow1, this.user.getUserId());
+
+    // Finalized instead of lost or retried
+    azkaban.test.TestUtils.await().untilAsserted(() -> verify(this.mailAlerter).alertOnError(
+        eq(flow1), eq("Failed to dispatch queued execution derived-member-data"),
+        contains("Mocked unexpected error")));
+    verify(this.apiGateway, Mockito.times(1))
+        .callWithExecutable(eq(flow1), any(), eq(ConnectorParams.EXECUTE_ACTION));
+  }
+
+  @Test
+  public void testPipelinedDispatchLimitsDispatchesPerExecutor() throws Exception {
+    this.props.put(ConfigurationKeys.QUEUE_PROCESSOR_DISPATCH_THREADS, 4);
+    this.props.put(ConfigurationKeys.QUEUE_PROCESSOR_MAX_DISPATCHES_PER_EXECUTOR, 1);
+    testSetUpForRunningFlows();
+    this.manager.start();
+
+    final CountDownLatch release = new CountDownLatch(1);
+    final Map<Executor, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    final AtomicInteger maxInFlight = new AtomicInteger();
+    final AtomicInteger calls = new AtomicInteger();
+    when(this.apiGateway.callWithExecutable(any(), any(), eq(ConnectorParams.EXECUTE_ACTION)))
+        .then(invocation -> {
+          final AtomicInteger count = inFlight
+              .computeIfAbsent(invocation.getArgument(1), e -> new AtomicInteger());
+          maxInFlight.accumulateAndGet(count.incrementAndGet(), Math::max);
+          calls.incrementAndGet();
+          release.await();
+          count.decrementAndGet();
+          return null;
+        });
+
+    final List<Integer> execIds = Arrays.asList(101, 102, 103);
+    for (int i = 0; i < execIds.size(); i++) {
+      final ExecutableFlow flow = TestUtils
+          .createTestExecutableFlow("exectest1", "exec" + (i + 1), DispatchMethod.PUSH);
+      flow.setExecutionId(execIds.get(i));
+      this.manager.submitExecutableFlow(flow, this.user.getUserId());
+    }
+
+    // one dispatch in flight on each executor, the third flow waits for a slot
+    azkaban.test.TestUtils.await().untilAsserted(() -> assertThat(calls.get()).isEqualTo(2));
+    Thread.sleep(200);
+    assertThat(calls.get()).isEqualTo(2);
+
+    release.countDown();
+    azkaban.test.TestUtils.await().untilAsserted(
+        () -> assertThat(this.runningExecutions.get().keySet()).containsAll(execIds));
+    assertThat(calls.get()).isEqualTo(3);
+    assertThat(maxInFlight.get()).isEqualTo(1);
+  }
+
   @Test
   public void testSetFlowLock() throws Exception {
     testSetUpForRunningFlows();
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.executor;
+
+import static azkaban.executor.FramedLogFormat.FRAME_SIZE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import azkaban.spi.LogStorage;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FramedLogFormatTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private final LogStorage logStorage = mock(LogStorage.class);
+  private byte[] log;
+
+  @Before
+  public void setUp() throws Exception {
+    // Not all compressible, so that some frames don't shrink
+    this.log = new byte[3 * FRAME_SIZE + 123];
+    new Random(1).nextBytes(this.log);
+    Arrays.fill(this.log, 0, FRAME_SIZE, (byte) 'a');
+  }
+
+  private void store(final File... files) throws Exception {
+    final File header = this.temp.newFile();
+    final File frames = this.temp.newFile();
+    assertThat(FramedLogFormat.write(files, header, frames)).isEqualTo(this.log.length);
+    final byte[] stored = concat(Files.readAllBytes(header.toPath()),
+        Files.readAllBytes(frames.toPath()));
+    when(this.logStorage.readLog(eq("key"), anyLong(), anyInt())).thenAnswer(invocation -> {
+      final int offset = (int) (long) invocation.getArgument(1);
+      final int length = invocation.getArgument(2);
+      return Arrays.copyOfRange(stored, offset, Math.min(stored.length, offset + length));
+    });
+  }
+
+  private static byte[] concat(final byte[] a, final byte[] b) {
+    final byte[] result = Arrays.copyOf(a, a.length + b.length);
+    System.arraycopy(b, 0, result, a.length, b.length);
+    return result;
+  }
+
+  private File newFile(final int from, final int to) throws Exception {
+    final File file = this.temp.newFile();
+    Files.write(file.toPath(), Arrays.copyOfRange(this.log, from, to));
+    return file;
+  }
+
+  @Test
+  public void testReadRanges() throws Exception {
+    // The files don't end on frame boundaries
+    store(newFile(0, 1000), newFile(1000, 2 * FRAME_SIZE + 7), newFile(2 * FRAME_SIZE + 7,
+        this.log.length));
+
+    assertThat(FramedLogFormat.read(this.logStorage, "key", 0, this.log.length))
+        .isEqualTo(this.log);
+    assertThat(FramedLogFormat.read(this.logStorage, "key", FRAME_SIZE - 5, 10))
+        .isEqualTo(Arrays.copyOfRange(this.log, FRAME_SIZE - 5, FRAME_SIZE + 5));
+    assertThat(FramedLogFormat.read(this.logStorage, "key", 10, 2 * FRAME_SIZE))
+        .isEqualTo(Arrays.copyOfRange(this.log, 10, 2 * FRAME_SIZE + 10));
+    assertThat(FramedLogFormat.read(this.logStorage, "key", this.log.length - 3, 100))
+        .isEqualTo(Arrays.copyOfRange(this.log, this.log.length - 3, this.log.length));
+    assertThat(FramedLogFormat.read(this.logStorage, "key", this.log.length, 100)).isEmpty();
+    assertThat(FramedLogFormat.read(this.logStorage, "key", 10 * FRAME_SIZE, 100)).isEmpty();
+  }
+
+  @Test
+  public void testEmptyLog() throws Exception {
+    this.log = new byte[0];
+    store(newFile(0, 0));
+    assertThat(FramedLogFormat.read(this.logStorage, "key", 0, 100)).isEmpty();
+  }
+}
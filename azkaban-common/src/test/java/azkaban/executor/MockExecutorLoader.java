@@ -160,6 +160,23 @@ public class MockExecutorLoader implements ExecutorLoader {
     this.flowUpdateCount++;
   }
 
+  @Override
+  public void updateExecutableFlows(final List<ExecutableFlow> flows)
+      throws ExecutorManagerException {
+    for (final ExecutableFlow flow : flows) {
+      updateExecutableFlow(flow);
+    }
+  }
+
+  @Override
+  public void appendExecutableFlowUpdate(final ExecutableFlow flow, final long lastUpdateTime)
+      throws ExecutorManagerException {
+    final ExecutableFlow toUpdate = this.flows.get(flow.getExecutionId());
+
+    toUpdate.applyUpdateObject(flow.toUpdateObject(lastUpdateTime));
+    this.flowUpdateCount++;
+  }
+
   @Override
   public void uploadExecutableNode(final ExecutableNode node, final Props inputParams)
       throws ExecutorManagerException {
@@ -193,6 +210,14 @@ public class MockExecutorLoader implements ExecutorLoader {
     this.flowUpdateCount++;
   }
 
+  @Override
+  public void updateExecutableNodes(final List<ExecutableNode> nodes)
+      throws ExecutorManagerException {
+    for (final ExecutableNode node : nodes) {
+      updateExecutableNode(node);
+    }
+  }
+
   @Override
   public int fetchNumExecutableFlows(final int projectId, final String flowId)
       throws ExecutorManagerException {
@@ -231,6 +256,12 @@ public class MockExecutorLoader implements ExecutorLoader {
     return null;
   }
 
+  @Override
+  public int fetchLogLength(final int execId, final String name, final int attempt)
+      throws ExecutorManagerException {
+    return 0;
+  }
+
   @Override
   public List<ExecutableFlow> fetchFlowHistory(final int skip, final int num)
       throws ExecutorManagerException {
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.executor;
+
+import azkaban.DispatchMethod;
+import azkaban.flow.Flow;
+import azkaban.project.Project;
+import azkaban.utils.Pair;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+
+/**
+ * Compares {@link QueuedExecutions} with a PriorityBlockingQueue and a side map, the structure it
+ * used to wrap, on a large queue: enqueue all the flows, cancel a part of them in random order,
+ * then fetch the rest.
+ *
+ * <p>Not run as part of the tests. Run the main method from the test classpath, optionally with
+ * the number of queued flows and the percentage of them cancelled as arguments.
+ */
+public class QueuedExecutionsBenchmark {
+
+  private static final int WARMUP_ITERATIONS = 3;
+  private static final int MEASURED_ITERATIONS = 5;
+
+  public static void main(final String[] args) throws Exception {
+    final int numFlows = args.length > 0 ? Integer.parseInt(args[0]) : 50000;
+    final int cancelPercent = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+
+    final List<Pair<ExecutionReference, ExecutableFlow>> pairs = createPairs(numFlows);
+    final List<Integer> cancelled = new ArrayList<>();
+    for (int i = 0; i < numFlows * cancelPercent / 100; i++) {
+      cancelled.add(i);
+    }
+    Collections.shuffle(cancelled, new Random(1));
+
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      runQueuedExecutions(pairs, cancelled);
+      runPriorityBlockingQueue(pairs, cancelled);
+    }
+    long[] queuedExecutions = new long[3];
+    long[] priorityBlockingQueue = new long[3];
+    for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+      queuedExecutions = add(queuedExecutions, runQueuedExecutions(pairs, cancelled));
+      priorityBlockingQueue = add(priorityBlockingQueue,
+          runPriorityBlockingQueue(pairs, cancelled));
+    }
+    print("QueuedExecutions", numFlows, cancelled.size(), queuedExecutions);
+    print("PriorityBlockingQueue", numFlows, cancelled.size(), priorityBlockingQueue);
+  }
+
+  private static void print(final String name, final int numFlows, final int numCancelled,
+      final long[] result) {
+    System.out.printf("%-22s %6d flows  enqueue %8.3f ms  cancel %6d %10.3f ms  "
+            + "fetch %8.3f ms%n", name, numFlows, result[0] / 1e6 / MEASURED_ITERATIONS,
+        numCancelled, result[1] / 1e6 / MEASURED_ITERATIONS,
+        result[2] / 1e6 / MEASURED_ITERATIONS);
+  }
+
+  private static long[] add(final long[] total, final long[] result) {
+    for (int i = 0; i < total.length; i++) {
+      total[i] += result[i];
+    }
+    return total;
+  }
+
+  /**
+   * @return total enqueue, cancel and fetch times in ns
+   */
+  private static long[] runQueuedExecutions(
+      final List<Pair<ExecutionReference, ExecutableFlow>> pairs, final List<Integer> cancelled)
+      throws Exception {
+    final QueuedExecutions queue = new QueuedExecutions(pairs.size());
+    long start = System.nanoTime();
+    queue.enqueueAll(pairs);
+    final long enqueueNanos = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    for (final int execId : cancelled) {
+      queue.dequeue(execId);
+    }
+    final long cancelNanos = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    while (!queue.isEmpty()) {
+      queue.fetchHead();
+    }
+    return new long[]{enqueueNanos, cancelNanos, System.nanoTime() - start};
+  }
+
+  /**
+   * @return total enqueue, cancel and fetch times in ns
+   */
+  private static long[] runPriorityBlockingQueue(
+      final List<Pair<ExecutionReference, ExecutableFlow>> pairs, final List<Integer> cancelled)
+      throws Exception {
+    final ConcurrentHashMap<Integer, Pair<ExecutionReference, ExecutableFlow>> map =
+        new ConcurrentHashMap<>();
+    final PriorityBlockingQueue<Pair<ExecutionReference, ExecutableFlow>> queue =
+        new PriorityBlockingQueue<>(10, new ExecutableFlowPriorityComparator());
+    long start = System.nanoTime();
+    for (final Pair<ExecutionReference, ExecutableFlow> pair : pairs) {
+      map.put(pair.getSecond().getExecutionId(), pair);
+      queue.put(pair);
+    }
+    final long enqueueNanos = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    for (final int execId : cancelled) {
+      queue.remove(map.remove(execId));
+    }
+    final long cancelNanos = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    while (!queue.isEmpty()) {
+      map.remove(queue.take().getSecond().getExecutionId());
+    }
+    return new long[]{enqueueNanos, cancelNanos, System.nanoTime() - start};
+  }
+
+  private static List<Pair<ExecutionReference, ExecutableFlow>> createPairs(final int numFlows) {
+    final Flow flow = new Flow("benchmark");
+    flow.initialize();
+    final Project project = new Project(1, "benchmark");
+    final HashMap<String, Flow> flows = new HashMap<>();
+    flows.put(flow.getId(), flow);
+    project.setFlows(flows);
+
+    final Random random = new Random(0);
+    final List<Pair<ExecutionReference, ExecutableFlow>> pairs = new ArrayList<>(numFlows);
+    for (int i = 0; i < numFlows; i++) {
+      final ExecutableFlow exflow = new ExecutableFlow(project, flow);
+      exflow.setExecutionId(i);
+      exflow.setUpdateTime(random.nextInt(numFlows));
+      // A few flows with an explicit priority
+      if (i % 10 == 0) {
+        exflow.getExecutionOptions().getFlowParameters()
+            .put(ExecutionOptions.FLOW_PRIORITY, String.valueOf(random.nextInt(10)));
+      }
+      pairs.add(new Pair<>(new ExecutionReference(i, DispatchMethod.PUSH), exflow));
+    }
+    return pairs;
+  }
+}
@@ -22,6 +22,8 @@ import azkaban.utils.TestUtils;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -149,6 +151,58 @@ public class QueuedExecutionsTest {
     Assert.assertEquals(queue.fetchHead(), dataList.get(1));
   }
 
+  /* Test dequeue method keeps the order of the remaining flows */
+  @Test
+  public void testDequeueKeepsOrder() throws IOException, ExecutorManagerException,
+      InterruptedException {
+    final QueuedExecutions queue = new QueuedExecutions(5);
+    final List<Pair<ExecutionReference, ExecutableFlow>> dataList = getDummyData();
+    dataList.add(createExecutablePair("exec3", 3));
+    queue.enqueueAll(dataList);
+    queue.dequeue(2);
+    Assert.assertEquals(dataList.get(0), queue.fetchHead());
+    Assert.assertEquals(dataList.get(2), queue.fetchHead());
+    Assert.assertTrue(queue.isEmpty());
+  }
+
+  /* Test reprioritize method */
+  @Test
+  public void testReprioritize() throws IOException, ExecutorManagerException,
+      InterruptedException {
+    final QueuedExecutions queue = new QueuedExecutions(5);
+    final List<Pair<ExecutionReference, ExecutableFlow>> dataList = getDummyData();
+    queue.enqueueAll(dataList);
+
+    // not taken into account until the flow is repositioned
+    dataList.get(1).getSecond().getExecutionOptions().getFlowParameters()
+        .put(ExecutionOptions.FLOW_PRIORITY, "10");
+    Assert.assertTrue(queue.reprioritize(2));
+    Assert.assertFalse(queue.reprioritize(5));
+    Assert.assertEquals(queue.size(), 2);
+    Assert.assertEquals(dataList.get(1), queue.fetchHead());
+    Assert.assertEquals(dataList.get(0), queue.fetchHead());
+  }
+
+  /* Test fetchHead method waits for a flow to be enqueued */
+  @Test
+  public void testFetchHeadWaits() throws Exception {
+    final QueuedExecutions queue = new QueuedExecutions(5);
+    final Pair<ExecutionReference, ExecutableFlow> pair = createExecutablePair("exec1", 1);
+    final CompletableFuture<Pair<ExecutionReference, ExecutableFlow>> head =
+        CompletableFuture.supplyAsync(() -> {
+          try {
+            return queue.fetchHead();
+          } catch (final InterruptedException e) {
+            throw new RuntimeException(e);
+          }
+        });
+    Thread.sleep(100);
+    Assert.assertFalse(head.isDone());
+    queue.enqueue(pair.getSecond(), pair.getFirst());
+    Assert.assertEquals(pair, head.get(10, TimeUnit.SECONDS));
+    Assert.assertTrue(queue.isEmpty());
+  }
+
   /* Test isFull method */
   @Test
   public void testIsFull() throws IOException, ExecutorManagerException,
@@ -1,22 +1,30 @@
 package azkaban.executor;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
+import azkaban.Constants.ConfigurationKeys;
 import azkaban.DispatchMethod;
 import azkaban.alert.Alerter;
 import azkaban.metrics.CommonMetrics;
 import azkaban.utils.Pair;
+import azkaban.utils.Props;
 import com.google.common.collect.ImmutableMap;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.joda.time.DateTimeUtils;
 import org.junit.After;
 import org.junit.Before;
@@ -27,6 +35,7 @@ import org.mockito.MockitoAnnotations;
 public class RunningExecutionsUpdaterTest {
 
   private static final int EXECUTION_ID_77 = 77;
+  private static final int EXECUTION_ID_88 = 88;
   private static final ExecutorManagerException API_CALL_EXCEPTION =
       new ExecutorManagerException("Mocked API timeout");
 
@@ -44,6 +53,8 @@ public class RunningExecutionsUpdaterTest {
   private Alerter mailAlerter;
   @Mock
   private ExecutorLoader executorLoader;
+  @Mock
+  private ExecutableFlowCache executableFlowCache;
 
   private ExecutableFlow execution;
   private RunningExecutions runningExecutions;
@@ -60,12 +71,16 @@ public class RunningExecutionsUpdaterTest {
     this.runningExecutions = new RunningExecutions();
     this.runningExecutions.get().put(EXECUTION_ID_77, new Pair<>(
         new ExecutionReference(EXECUTION_ID_77, this.activeExecutor, DispatchMethod.PUSH), this.execution));
-    this.updater = new RunningExecutionsUpdater(this.updaterStage, this.alerterHolder,
-        this.commonMetrics, this.apiGateway, this.runningExecutions, this.executionFinalizer,
-        this.executorLoader);
+    this.updater = createUpdater(new Props());
     when(this.alerterHolder.get("email")).thenReturn(this.mailAlerter);
   }
 
+  private RunningExecutionsUpdater createUpdater(final Props props) {
+    return new RunningExecutionsUpdater(props, this.updaterStage, this.alerterHolder,
+        this.commonMetrics, this.apiGateway, this.runningExecutions, this.executionFinalizer,
+        this.executorLoader, this.executableFlowCache);
+  }
+
   @After
   public void tearDown() {
     DateTimeUtils.setCurrentMillisSystem();
@@ -143,6 +158,90 @@ public class RunningExecutionsUpdaterTest {
     verifyZeroInteractions(this.executionFinalizer);
   }
 
+  /**
+   * An executor which doesn't answer in time shouldn't delay the updates from the other ones.
+   */
+  @Test
+  public void updateExecutionsConcurrentlyExecutorTimesOut() throws Exception {
+    final Props props = new Props();
+    props.put(ConfigurationKeys.AZKABAN_EXECUTOR_UPDATE_PARALLELISM, 2);
+    props.put(ConfigurationKeys.AZKABAN_EXECUTOR_UPDATE_TIMEOUT_MS, 200);
+    this.updater = createUpdater(props);
+
+    final Executor slowExecutor = new Executor(2, "slowExecutor-2", 9999, true);
+    final ExecutableFlow slowExecution = new ExecutableFlow();
+    slowExecution.setExecutionId(EXECUTION_ID_88);
+    final ExecutionReference slowRef =
+        new ExecutionReference(EXECUTION_ID_88, slowExecutor, DispatchMethod.PUSH);
+    this.runningExecutions.get().put(EXECUTION_ID_88, new Pair<>(slowRef, slowExecution));
+    when(this.executorLoader.fetchExecutor(anyInt())).thenReturn(slowExecutor);
+
+    final CountDownLatch released = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      released.await();
+      return null;
+    }).when(this.apiGateway).updateExecutions(eq(slowExecutor), any());
+    final Map<String, Object> executionMap = new HashMap<>(ImmutableMap.of(
+        ConnectorParams.UPDATE_MAP_EXEC_ID, EXECUTION_ID_77,
+        ExecutableNode.STATUS_PARAM, Status.RUNNING.getNumVal()));
+    doReturn(ImmutableMap.of(ConnectorParams.RESPONSE_UPDATED_FLOWS,
+        Collections.singletonList(executionMap)))
+        .when(this.apiGateway).updateExecutions(eq(this.activeExecutor), any());
+
+    try {
+      this.updater.updateExecutions();
+    } finally {
+      released.countDown();
+    }
+
+    verifyCallUpdateApi();
+    assertThat(this.execution.getStatus()).isEqualTo(Status.RUNNING);
+    assertThat(slowRef.getNumErrors()).isEqualTo(1);
+    verifyZeroInteractions(this.executionFinalizer);
+  }
+
+  /**
+   * The timeout of an executor starts when its request is started, not with the round.
+   */
+  @Test
+  public void updateExecutionsConcurrentlyTimeoutStartsWithTheRequest() throws Exception {
+    final Props props = new Props();
+    props.put(ConfigurationKeys.AZKABAN_EXECUTOR_UPDATE_PARALLELISM, 2);
+    props.put(ConfigurationKeys.AZKABAN_EXECUTOR_UPDATE_TIMEOUT_MS, 1000);
+    this.updater = createUpdater(props);
+
+    final List<ExecutionReference> refs = new ArrayList<>();
+    refs.add(this.runningExecutions.get().get(EXECUTION_ID_77).getFirst());
+    for (final int execId : new int[]{EXECUTION_ID_88, EXECUTION_ID_88 + 1}) {
+      final Executor executor = new Executor(execId, "executor-" + execId, 9999, true);
+      final ExecutableFlow execution = new ExecutableFlow();
+      execution.setExecutionId(execId);
+      final ExecutionReference ref = new ExecutionReference(execId, executor, DispatchMethod.PUSH);
+      refs.add(ref);
+      this.runningExecutions.get().put(execId, new Pair<>(ref, execution));
+    }
+    final Map<String, Object> executionMap = new HashMap<>(ImmutableMap.of(
+        ConnectorParams.UPDATE_MAP_EXEC_ID, EXECUTION_ID_77,
+        ExecutableNode.STATUS_PARAM, Status.RUNNING.getNumVal()));
+    // The first 2 requests keep both threads of the pool busy for 700 ms, the last one then
+    // answers 1200 ms after the start of the round
+    final AtomicInteger requests = new AtomicInteger();
+    doAnswer(invocation -> {
+      Thread.sleep(requests.getAndIncrement() < 2 ? 700 : 500);
+      return ImmutableMap.of(ConnectorParams.RESPONSE_UPDATED_FLOWS,
+          invocation.getArgument(0) == this.activeExecutor
+              ? Collections.singletonList(executionMap) : Collections.emptyList());
+    }).when(this.apiGateway).updateExecutions(any(), any());
+
+    this.updater.updateExecutions();
+
+    verifyCallUpdateApi();
+    assertThat(this.execution.getStatus()).isEqualTo(Status.RUNNING);
+    for (final ExecutionReference ref : refs) {
+      assertThat(ref.getNumErrors()).isEqualTo(0);
+    }
+  }
+
   private void mockFlowStillRunning() throws Exception {
     mockUpdateResponse();
   }
@@ -17,9 +17,11 @@
 package azkaban.jobExecutor;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import azkaban.Constants.JobProperties;
 import azkaban.flow.CommonJobProperties;
+import azkaban.jobExecutor.utils.process.ProcessFailureException;
 import azkaban.utils.Props;
 import java.io.File;
 import java.io.IOException;
@@ -150,6 +152,15 @@ public class ProcessJobTest {
     }
   }
 
+  @Test
+  public void testFailureMessageHasLastOutput() throws Exception {
+    this.props.put(ProcessJob.COMMAND, "bash -c 'echo first; echo last; exit 3'");
+
+    assertThatThrownBy(() -> this.job.run())
+        .hasCauseInstanceOf(ProcessFailureException.class)
+        .hasMessage("Process exited with code 3. Last output:\nfirst\nlast");
+  }
+
   @Test
   public void testMultipleUnixCommands() throws Exception {
     // Initialize the Props
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.jobExecutor.utils.process;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import org.apache.log4j.Logger;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+public class ProcessOutputPumpTest {
+
+  private final ProcessOutputPump pump = new ProcessOutputPump(1, 20);
+
+  @Test
+  public void testLogsLines() throws Exception {
+    final Logger logger = mock(Logger.class);
+    final PipedOutputStream out = new PipedOutputStream();
+    final ProcessOutputPump.Drain drain =
+        this.pump.register(new PipedInputStream(out, 1024), logger);
+
+    out.write("first\r\nsec".getBytes(StandardCharsets.UTF_8));
+    out.flush();
+    azkaban.test.TestUtils.await().untilAsserted(() -> verify(logger).info("first"));
+    out.write("ond\nlast".getBytes(StandardCharsets.UTF_8));
+    out.flush();
+    assertThat(drain.isComplete()).isFalse();
+
+    out.close();
+    drain.processExited();
+    assertThat(drain.awaitCompletion(10000)).isTrue();
+    final InOrder inOrder = inOrder(logger);
+    inOrder.verify(logger).info("first");
+    inOrder.verify(logger).info("second");
+    inOrder.verify(logger).info("last");
+    assertThat(drain.getRecentOutput()).isEqualTo("first\r\nsecond\nlast");
+  }
+
+  @Test
+  public void testKeepsRecentOutput() throws Exception {
+    final Logger logger = mock(Logger.class);
+    final PipedOutputStream out = new PipedOutputStream();
+    final ProcessOutputPump.Drain drain =
+        this.pump.register(new PipedInputStream(out, 1024), logger);
+
+    final StringBuilder output = new StringBuilder();
+    for (int i = 0; output.length() < ProcessOutputPump.RECENT_OUTPUT_BYTES * 2; i++) {
+      final String line = "line " + i + "\n";
+      output.append(line);
+      out.write(line.getBytes(StandardCharsets.UTF_8));
+    }
+    out.close();
+    drain.processExited();
+
+    assertThat(drain.awaitCompletion(10000)).isTrue();
+    assertThat(drain.getRecentOutput()).isEqualTo(
+        output.substring(output.length() - ProcessOutputPump.RECENT_OUTPUT_BYTES));
+  }
+
+  /**
+   * The output is read until the end of the stream, not only the bytes available at the exit.
+   */
+  @Test
+  public void testReadsUntilEndOfStream() throws Exception {
+    final Logger logger = mock(Logger.class);
+    final PipedOutputStream out = new PipedOutputStream();
+    final ProcessOutputPump.Drain drain =
+        this.pump.register(new PipedInputStream(out, 1024), logger);
+
+    // Still written by a child of the process
+    drain.processExited();
+    Thread.sleep(100);
+    assertThat(drain.isComplete()).isFalse();
+    out.write("after exit\n".getBytes(StandardCharsets.UTF_8));
+    out.close();
+
+    assertThat(drain.awaitCompletion(10000)).isTrue();
+    verify(logger).info("after exit");
+    assertThat(drain.getRecentOutput()).isEqualTo("after exit\n");
+  }
+
+  @Test
+  public void testClosedStream() throws Exception {
+    final Logger logger = mock(Logger.class);
+    final PipedInputStream in = new PipedInputStream(new PipedOutputStream());
+    final ProcessOutputPump.Drain drain = this.pump.register(in, logger);
+    drain.processExited();
+    in.close();
+
+    assertThat(drain.awaitCompletion(10000)).isTrue();
+    assertThat(drain.getRecentOutput()).isEmpty();
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LocalLogStorageTest {
+
+  @Rule
+  public final TemporaryFolder temp = new TemporaryFolder();
+
+  private File rootDirectory;
+  private LocalLogStorage logStorage;
+
+  @Before
+  public void setUp() throws Exception {
+    this.rootDirectory = new File(this.temp.getRoot(), "logs");
+    this.logStorage = new LocalLogStorage(this.rootDirectory);
+  }
+
+  private File createFile(final String name, final String content) throws Exception {
+    final File file = this.temp.newFile(name);
+    FileUtils.writeStringToFile(file, content, StandardCharsets.UTF_8);
+    return file;
+  }
+
+  @Test
+  public void testPutReadDeleteLog() throws Exception {
+    final long length = this.logStorage.putLog("1/job-a.0.log",
+        createFile("a.log.1", "0123456789"), createFile("a.log", "abcdef"));
+    assertThat(length).isEqualTo(16);
+    assertThat(new File(this.rootDirectory, "1/job-a.0.log")).exists();
+    assertThat(new File(this.rootDirectory, "1/job-a.0.log.tmp")).doesNotExist();
+
+    assertThat(new String(this.logStorage.readLog("1/job-a.0.log", 0, 100),
+        StandardCharsets.UTF_8)).isEqualTo("0123456789abcdef");
+    assertThat(new String(this.logStorage.readLog("1/job-a.0.log", 8, 4),
+        StandardCharsets.UTF_8)).isEqualTo("89ab");
+    assertThat(this.logStorage.readLog("1/job-a.0.log", 20, 4)).isEmpty();
+
+    assertThat(this.logStorage.deleteLog("1/job-a.0.log")).isTrue();
+    assertThat(this.logStorage.deleteLog("1/job-a.0.log")).isFalse();
+    // The execution directory is removed with its last log
+    assertThat(new File(this.rootDirectory, "1")).doesNotExist();
+    assertThat(this.rootDirectory).exists();
+  }
+
+  @Test
+  public void testPutLogReplacesLog() throws Exception {
+    this.logStorage.putLog("1/flow.0.log", createFile("first.log", "first"));
+    this.logStorage.putLog("1/flow.0.log", createFile("second.log", "second"));
+    assertThat(new String(this.logStorage.readLog("1/flow.0.log", 0, 100),
+        StandardCharsets.UTF_8)).isEqualTo("second");
+  }
+}
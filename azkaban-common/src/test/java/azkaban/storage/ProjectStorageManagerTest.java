@@ -0,0 +1,91 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.storage;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import azkaban.Constants.ConfigurationKeys;
+import azkaban.project.ProjectFileHandler;
+import azkaban.project.ProjectLoader;
+import azkaban.spi.Storage;
+import azkaban.utils.HashUtils;
+import azkaban.utils.Props;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ProjectStorageManagerTest {
+
+  private static final String CONTENT = "project zip";
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private final Storage storage = mock(Storage.class);
+  private final ProjectLoader projectLoader = mock(ProjectLoader.class);
+  private ProjectStorageManager projectStorageManager;
+
+  @Before
+  public void setUp() throws Exception {
+    final Props props = new Props();
+    props.put(ConfigurationKeys.PROJECT_TEMP_DIR, this.temp.getRoot().getAbsolutePath());
+    props.put(ConfigurationKeys.PROJECT_DOWNLOAD_STREAMING_ENABLED, "true");
+    this.projectStorageManager = new ProjectStorageManager(props, this.storage,
+        this.projectLoader, mock(StorageCleaner.class));
+    when(this.storage.getProject("resource"))
+        .thenAnswer(invocation -> new ByteArrayInputStream(CONTENT.getBytes(UTF_8)));
+  }
+
+  private ProjectFileHandler createProjectFileHandler(final byte[] md5) {
+    final ProjectFileHandler pfh = new ProjectFileHandler(1, 2, 0, "user", "zip", "project.zip",
+        1, md5, Collections.emptySet(), "resource", "127.0.0.1");
+    when(this.projectLoader.fetchProjectMetaData(1, 2)).thenReturn(pfh);
+    return pfh;
+  }
+
+  @Test
+  public void testOpenProjectFile() throws Exception {
+    createProjectFileHandler(HashUtils.MD5.getHashBytes(CONTENT));
+
+    assertThat(this.projectStorageManager.isProjectFileStreamingEnabled()).isTrue();
+    final ProjectFileHandler pfh = this.projectStorageManager.getProjectFileMetadata(1, 2);
+    try (final InputStream in = this.projectStorageManager.openProjectFile(pfh)) {
+      assertThat(IOUtils.toString(in, UTF_8)).isEqualTo(CONTENT);
+    }
+  }
+
+  @Test
+  public void testOpenProjectFileWithWrongChecksum() throws Exception {
+    final ProjectFileHandler pfh =
+        createProjectFileHandler(HashUtils.MD5.getHashBytes("other content"));
+
+    try (final InputStream in = this.projectStorageManager.openProjectFile(pfh)) {
+      assertThatThrownBy(() -> IOUtils.toString(in, UTF_8)).isInstanceOf(IOException.class)
+          .hasMessageContaining("MD5 HASH Failed");
+    }
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.trigger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import org.apache.commons.jexl2.JexlEngine;
+import org.apache.commons.jexl2.MapContext;
+import org.junit.Test;
+
+public class ConditionCompilerTest {
+
+  private static final String[] EXPRESSIONS = {
+      "a.eval()",
+      " a.eval() && b.eval() ",
+      "a.eval() || b.eval() && c.eval()",
+      "(a.eval() || b.eval()) && !c.eval()",
+      "( a.eval() && b.eval() ) || ( a.eval() && ! b.eval() )",
+      "!!a.eval() || !(b.eval() || c.eval())",
+  };
+
+  private final Map<String, ConditionChecker> checkers = new HashMap<>();
+  private final ConditionChecker a = addChecker("a");
+  private final ConditionChecker b = addChecker("b");
+  private final ConditionChecker c = addChecker("c");
+
+  private ConditionChecker addChecker(final String id) {
+    final ConditionChecker checker = mock(ConditionChecker.class);
+    when(checker.getId()).thenReturn(id);
+    this.checkers.put(id, checker);
+    return checker;
+  }
+
+  @Test
+  public void testCompiledExpressionsMatchJexl() {
+    final JexlEngine jexl = new JexlEngine();
+    final MapContext context = new MapContext();
+    this.checkers.forEach(context::set);
+
+    for (final String expr : EXPRESSIONS) {
+      final BooleanSupplier compiled = ConditionCompiler.compile(expr, this.checkers);
+      assertThat(compiled).as(expr).isNotNull();
+      for (int values = 0; values < 8; values++) {
+        when(this.a.eval()).thenReturn((values & 1) != 0);
+        when(this.b.eval()).thenReturn((values & 2) != 0);
+        when(this.c.eval()).thenReturn((values & 4) != 0);
+        assertThat(compiled.getAsBoolean()).as(expr + " with " + values)
+            .isEqualTo(jexl.createExpression(expr).evaluate(context).equals(Boolean.TRUE));
+      }
+    }
+  }
+
+  @Test
+  public void testShortCircuits() {
+    when(this.a.eval()).thenReturn(false);
+    assertThat(ConditionCompiler.compile("a.eval() && b.eval()", this.checkers).getAsBoolean())
+        .isFalse();
+    verify(this.b, never()).eval();
+  }
+
+  @Test
+  public void testUnsupportedExpressionsAreNotCompiled() {
+    assertThat(ConditionCompiler.compile("a.eval() == true", this.checkers)).isNull();
+    assertThat(ConditionCompiler.compile("a.eval() and b.eval()", this.checkers)).isNull();
+    assertThat(ConditionCompiler.compile("a.getNum() > 1", this.checkers)).isNull();
+    assertThat(ConditionCompiler.compile("(a.eval()", this.checkers)).isNull();
+    assertThat(ConditionCompiler.compile("a.eval() &&", this.checkers)).isNull();
+    // Unknown checker
+    assertThat(ConditionCompiler.compile("d.eval()", this.checkers)).isNull();
+  }
+
+  @Test
+  public void testConditionFallsBackToJexl() {
+    when(this.a.eval()).thenReturn(true);
+    final Condition compiled = new Condition(this.checkers, "a.eval()");
+    assertThat(compiled.isCompiled()).isTrue();
+    assertThat(compiled.isMet()).isTrue();
+
+    final Condition interpreted = new Condition(this.checkers, "a.eval() == true");
+    assertThat(interpreted.isCompiled()).isFalse();
+    assertThat(interpreted.isMet()).isTrue();
+
+    interpreted.setExpression("!a.eval()");
+    assertThat(interpreted.isCompiled()).isTrue();
+    assertThat(interpreted.isMet()).isFalse();
+  }
+}
@@ -17,14 +17,17 @@
 package azkaban.trigger;
 
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import azkaban.db.DatabaseOperator;
+import azkaban.db.EncodingType;
 import azkaban.executor.ExecutionOptions;
 import azkaban.trigger.builtin.BasicTimeChecker;
 import azkaban.trigger.builtin.ExecuteFlowAction;
 import azkaban.utils.TimeUtils;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -127,6 +130,74 @@ public class JdbcTriggerImplTest {
     assertTrue(ts.get(0).isResetOnExpire() == false);
   }
 
+  @Test
+  public void testUpdateTriggers() throws Exception {
+    final Trigger t1 = createTrigger("testProj1", "testFlow1", "source1");
+    final Trigger t2 = createTrigger("testProj2", "testFlow2", "source2");
+    this.loader.addTrigger(t1);
+    this.loader.addTrigger(t2);
+    t1.setResetOnExpire(false);
+    t2.setResetOnExpire(false);
+    this.loader.updateTriggers(Arrays.asList(t1, t2));
+    final List<Trigger> ts = this.loader.loadTriggers();
+    assertTrue(ts.size() == 2);
+    for (final Trigger t : ts) {
+      assertTrue(t.isResetOnExpire() == false);
+    }
+
+    this.loader.removeTrigger(t2);
+    try {
+      this.loader.updateTriggers(Arrays.asList(t1, t2));
+      fail("Removed trigger updated");
+    } catch (final TriggerLoaderException e) {
+      assertTrue(e.getMessage().contains("[" + t2.getTriggerId() + "]"));
+    }
+  }
+
+  @Test
+  public void testBinaryEncoding() throws Exception {
+    final TriggerLoader binaryLoader = new JdbcTriggerImpl(dbOperator, EncodingType.BINARY, 1);
+    final Trigger t1 = createTrigger("testProj1", "testFlow1", "source1");
+    final Trigger t2 = createTrigger("testProj2", "testFlow2", "source2");
+    this.loader.addTrigger(t1);
+    binaryLoader.addTrigger(t2);
+
+    // Both encodings are read by either loader
+    for (final TriggerLoader l : Arrays.asList(this.loader, binaryLoader)) {
+      final List<Trigger> ts = l.loadTriggers();
+      assertTrue(ts.size() == 2);
+      final Trigger loaded = l.loadTrigger(t2.getTriggerId());
+      assertTrue(loaded.getSource().equals("source2"));
+      assertTrue(loaded.getLastModifyTime() == t2.getLastModifyTime());
+      assertTrue(loaded.toJson().equals(t2.toJson()));
+    }
+  }
+
+  @Test
+  public void testLoadTriggersOnManyThreads() throws Exception {
+    final TriggerLoader parallelLoader = new JdbcTriggerImpl(dbOperator, EncodingType.GZIP, 4);
+    final List<Integer> ids = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      final Trigger t = createTrigger("testProj" + i, "testFlow" + i, "source" + i);
+      this.loader.addTrigger(t);
+      ids.add(t.getTriggerId());
+    }
+    // Corrupted data is skipped, as when loading on a single thread
+    dbOperator.update("UPDATE triggers SET enc_type=?, data=? WHERE trigger_id=?",
+        EncodingType.PLAIN.getNumVal(), "{}".getBytes("UTF-8"), ids.remove(10));
+
+    // In the same order as on a single thread
+    final List<Trigger> expected = this.loader.loadTriggers();
+    final List<Trigger> loaded = parallelLoader.loadTriggers();
+    assertTrue(expected.size() == ids.size());
+    assertTrue(loaded.size() == expected.size());
+    for (int i = 0; i < loaded.size(); i++) {
+      assertTrue(loaded.get(i).getTriggerId() == expected.get(i).getTriggerId());
+      assertTrue(loaded.get(i).getSource().equals(expected.get(i).getSource()));
+    }
+    assertTrue(parallelLoader.getUpdatedTriggers(0).size() == ids.size());
+  }
+
   private Trigger createTrigger(final String projName, final String flowName, final String source) {
     final DateTime now = DateTime.now();
     final ConditionChecker checker1 =
@@ -43,7 +43,6 @@ public class MockTriggerLoader implements TriggerLoader {
   @Override
   public synchronized void updateTrigger(final Trigger t)
       throws TriggerLoaderException {
-    t.setLastModifyTime(System.currentTimeMillis());
     this.triggers.put(t.getTriggerId(), t);
   }
 
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.trigger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import azkaban.metrics.MetricsManager;
+import azkaban.test.TestUtils;
+import com.codahale.metrics.MetricRegistry;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import org.junit.After;
+import org.junit.Test;
+
+public class TriggerActionRunnerTest {
+
+  private final MetricRegistry registry = new MetricRegistry();
+  private final TriggerActionRunner runner =
+      new TriggerActionRunner(2, new MetricsManager(this.registry));
+  private final List<String> events = new CopyOnWriteArrayList<>();
+
+  @After
+  public void tearDown() {
+    this.runner.shutdown(10000);
+  }
+
+  @Test
+  public void testActionsOfAKeyRunInOrder() throws Exception {
+    final CountDownLatch blockAction = new CountDownLatch(1);
+    this.runner.run("project-1", 0, () -> {
+      try {
+        blockAction.await();
+      } catch (final InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+      this.events.add("1:a");
+    });
+    this.runner.run("project-1", 0, () -> this.events.add("1:b"));
+    this.runner.run("project-2", 0, () -> this.events.add("2:a"));
+
+    // The actions of another project aren't blocked
+    TestUtils.await().untilAsserted(() -> assertThat(this.events).containsExactly("2:a"));
+    assertThat(this.runner.getQueueSize()).isEqualTo(1);
+    assertThat(this.registry.getGauges().get(TriggerActionRunner.QUEUE_SIZE_GAUGE_NAME)
+        .getValue()).isEqualTo(1);
+    blockAction.countDown();
+    TestUtils.await().untilAsserted(
+        () -> assertThat(this.events).containsExactly("2:a", "1:a", "1:b"));
+    TestUtils.await().untilAsserted(() -> assertThat(
+        this.registry.histogram(TriggerActionRunner.LATENCY_HISTOGRAM_NAME).getCount())
+        .isEqualTo(3));
+    assertThat(this.runner.getQueueSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void testFailedActionDoesNotStopTheQueue() throws Exception {
+    this.runner.run("project-1", 0, () -> {
+      throw new IllegalStateException("failed action");
+    });
+    this.runner.run("project-1", 0, () -> this.events.add("1:b"));
+    TestUtils.await().untilAsserted(() -> assertThat(this.events).containsExactly("1:b"));
+  }
+
+  @Test
+  public void testLatencyFromTheFireTime() throws Exception {
+    // Due a second ago, e.g. as the scanner was late
+    this.runner.run("project-1", System.currentTimeMillis() - 1000, () -> this.events.add("1:a"));
+    TestUtils.await().untilAsserted(() -> assertThat(this.events).containsExactly("1:a"));
+    TestUtils.await().untilAsserted(() -> assertThat(
+        this.registry.histogram(TriggerActionRunner.LATENCY_HISTOGRAM_NAME).getCount())
+        .isEqualTo(1));
+    assertThat(this.registry.histogram(TriggerActionRunner.LATENCY_HISTOGRAM_NAME).getSnapshot()
+        .getMin()).isGreaterThanOrEqualTo(1000);
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.trigger;
+
+import azkaban.trigger.builtin.BasicTimeChecker;
+import azkaban.utils.TimeUtils;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.jexl2.Expression;
+import org.apache.commons.jexl2.JexlEngine;
+import org.apache.commons.jexl2.MapContext;
+import org.joda.time.DateTimeZone;
+
+/**
+ * Compares the time to check the trigger conditions of many triggers, as the trigger scanner
+ * does, with the compiled expressions and with JEXL interpreting them.
+ *
+ * <p>Not run as part of the tests. Run the main method from the test classpath, optionally with
+ * the number of triggers as argument.
+ */
+public class TriggerConditionBenchmark {
+
+  private static final int WARMUP_ITERATIONS = 20;
+  private static final int MEASURED_ITERATIONS = 50;
+
+  public static void main(final String[] args) {
+    final int numTriggers = args.length > 0 ? Integer.parseInt(args[0]) : 30000;
+    final JexlEngine jexl = new JexlEngine();
+    final List<Condition> conditions = new ArrayList<>();
+    final List<Expression> expressions = new ArrayList<>();
+    final List<MapContext> contexts = new ArrayList<>();
+    for (int i = 0; i < numTriggers; i++) {
+      final Condition condition = createCondition(i);
+      if (!condition.isCompiled()) {
+        throw new IllegalStateException(condition.getExpression() + " isn't compiled");
+      }
+      conditions.add(condition);
+      expressions.add(jexl.createExpression(condition.getExpression()));
+      final MapContext context = new MapContext();
+      condition.getCheckers().forEach(context::set);
+      contexts.add(context);
+    }
+
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      checkCompiled(conditions);
+      checkInterpreted(expressions, contexts);
+    }
+    long compiledNanos = 0;
+    long interpretedNanos = 0;
+    int met = 0;
+    for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+      long start = System.nanoTime();
+      met += checkCompiled(conditions);
+      compiledNanos += System.nanoTime() - start;
+
+      start = System.nanoTime();
+      met -= checkInterpreted(expressions, contexts);
+      interpretedNanos += System.nanoTime() - start;
+    }
+    if (met != 0) {
+      throw new IllegalStateException("Compiled and interpreted conditions don't match");
+    }
+    System.out.printf("%d triggers  compiled %8.3f ms  JEXL %8.3f ms%n", numTriggers,
+        compiledNanos / 1e6 / MEASURED_ITERATIONS, interpretedNanos / 1e6 / MEASURED_ITERATIONS);
+  }
+
+  private static int checkCompiled(final List<Condition> conditions) {
+    int met = 0;
+    for (final Condition condition : conditions) {
+      if (condition.isMet()) {
+        met++;
+      }
+    }
+    return met;
+  }
+
+  private static int checkInterpreted(final List<Expression> expressions,
+      final List<MapContext> contexts) {
+    int met = 0;
+    for (int i = 0; i < expressions.size(); i++) {
+      if (expressions.get(i).evaluate(contexts.get(i)).equals(Boolean.TRUE)) {
+        met++;
+      }
+    }
+    return met;
+  }
+
+  /**
+   * Mostly schedules, a single time checker, and some combinations of time checkers.
+   */
+  private static Condition createCondition(final int i) {
+    final long now = System.currentTimeMillis();
+    final Map<String, ConditionChecker> checkers = new HashMap<>();
+    final int numCheckers = i % 10 == 0 ? 3 : 1;
+    for (int j = 0; j < numCheckers; j++) {
+      // Half of them are due
+      final long checkTime = now + (i % 2 == 0 ? -60000 : 3600000) + j;
+      final ConditionChecker checker = new BasicTimeChecker("BasicTimeChecker_" + j, checkTime,
+          DateTimeZone.UTC, checkTime, true, false, TimeUtils.parsePeriodString("1d"), null);
+      checkers.put(checker.getId(), checker);
+    }
+    final String expr = numCheckers == 1 ? "BasicTimeChecker_0.eval()"
+        : "(BasicTimeChecker_0.eval() || BasicTimeChecker_1.eval()) && !BasicTimeChecker_2.eval()";
+    return new Condition(checkers, expr);
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.trigger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+
+public class TriggerIndexTest {
+
+  private final TriggerIndex index = new TriggerIndex();
+
+  private static Trigger createTrigger(final int id, final String source,
+      final long lastModifyTime) {
+    return new Trigger.TriggerBuilder("azkaban", source, mock(Condition.class),
+        mock(Condition.class), Collections.emptyList())
+        .setId(id)
+        .setLastModifyTime(lastModifyTime)
+        .build();
+  }
+
+  @Test
+  public void testUpdatedTriggers() {
+    final Trigger t1 = createTrigger(1, "SimpleTimeTrigger", 100);
+    final Trigger t2 = createTrigger(2, "SimpleTimeTrigger", 200);
+    final Trigger t3 = createTrigger(3, "FlowTrigger", 200);
+    final Trigger t4 = createTrigger(4, "SimpleTimeTrigger", 300);
+    this.index.load(Arrays.asList(t4, t3, t2, t1));
+
+    assertThat(this.index.getUpdatedTriggers(0)).containsExactly(t1, t2, t3, t4);
+    assertThat(this.index.getUpdatedTriggers(100)).containsExactly(t2, t3, t4);
+    assertThat(this.index.getUpdatedTriggers(199)).containsExactly(t2, t3, t4);
+    assertThat(this.index.getUpdatedTriggers(200)).containsExactly(t4);
+    assertThat(this.index.getUpdatedTriggers(300)).isEmpty();
+
+    assertThat(this.index.getUpdatedTriggers("SimpleTimeTrigger", 100)).containsExactly(t2, t4);
+    assertThat(this.index.getUpdatedTriggers("FlowTrigger", 0)).containsExactly(t3);
+    assertThat(this.index.getUpdatedTriggers("Unknown", 0)).isEmpty();
+    assertThat(this.index.getTriggers("SimpleTimeTrigger")).containsExactly(t1, t2, t4);
+    assertThat(this.index.getTriggers("Unknown")).isEmpty();
+  }
+
+  @Test
+  public void testTriggerIndexedAgainAndRemoved() {
+    final Trigger t1 = createTrigger(1, "SimpleTimeTrigger", 100);
+    final Trigger t2 = createTrigger(2, "SimpleTimeTrigger", 200);
+    this.index.put(t1);
+    this.index.put(t2);
+
+    t1.setLastModifyTime(300);
+    this.index.put(t1);
+    assertThat(this.index.getUpdatedTriggers(0)).containsExactly(t2, t1);
+    assertThat(this.index.getUpdatedTriggers(200)).containsExactly(t1);
+
+    // Replaced by another instance of the same trigger
+    final Trigger replaced = createTrigger(1, "SimpleTimeTrigger", 400);
+    this.index.put(replaced);
+    assertThat(this.index.getUpdatedTriggers("SimpleTimeTrigger", 0))
+        .containsExactly(t2, replaced);
+
+    this.index.remove(2);
+    this.index.remove(5);
+    assertThat(this.index.getUpdatedTriggers(0)).containsExactly(replaced);
+    assertThat(this.index.getTriggers("SimpleTimeTrigger")).containsExactly(replaced);
+  }
+
+  @Test
+  public void testModifyTimesFollowTheIndexOrder() {
+    final Trigger t1 = createTrigger(1, "SimpleTimeTrigger", 100);
+    final Trigger t2 = createTrigger(2, "SimpleTimeTrigger", 200);
+    this.index.load(Arrays.asList(t1, t2));
+
+    // Stamped before t3 but indexed after it, as by a slow batch save
+    final Trigger t3 = createTrigger(3, "SimpleTimeTrigger", 300);
+    final Trigger t4 = createTrigger(4, "SimpleTimeTrigger", 250);
+    this.index.put(t3);
+    this.index.put(t4);
+    assertThat(t4.getLastModifyTime()).isGreaterThan(t3.getLastModifyTime());
+    assertThat(this.index.getUpdatedTriggers(t3.getLastModifyTime())).containsExactly(t4);
+
+    // Touched in the same millisecond
+    this.index.touch(t1);
+    this.index.touch(t2);
+    assertThat(t1.getLastModifyTime()).isGreaterThan(t4.getLastModifyTime());
+    assertThat(t2.getLastModifyTime()).isGreaterThan(t1.getLastModifyTime());
+    assertThat(this.index.getUpdatedTriggers(t1.getLastModifyTime())).containsExactly(t2);
+    assertThat(this.index.getUpdatedTriggers(0)).containsExactly(t3, t4, t1, t2);
+  }
+}
@@ -21,6 +21,7 @@ import static org.mockito.Mockito.mock;
 import azkaban.Constants.ConfigurationKeys;
 import azkaban.executor.ActiveExecutors;
 import azkaban.executor.AlerterHolder;
+import azkaban.executor.ExecutableFlowCache;
 import azkaban.executor.ExecutionFinalizer;
 import azkaban.executor.ExecutorApiGateway;
 import azkaban.executor.ExecutorLoader;
@@ -56,6 +57,7 @@ public class TriggerManagerDeadlockTest {
   private AlerterHolder alertHolder;
   private ExecutionFinalizer executionFinalizer;
   private CommonMetrics commonMetrics;
+  private ExecutableFlowCache executableFlowCache;
 
   @Before
   public void setup() throws ExecutorManagerException, TriggerManagerException {
@@ -68,25 +70,28 @@ public class TriggerManagerDeadlockTest {
     this.runningExecutions = new RunningExecutions();
     this.updaterStage = new ExecutorManagerUpdaterStage();
     this.alertHolder = mock(AlerterHolder.class);
+    final MetricsManager metricsManager = new MetricsManager(new MetricRegistry());
+    this.executableFlowCache = new ExecutableFlowCache(props, this.execLoader, metricsManager);
     this.executionFinalizer = new ExecutionFinalizer(this.execLoader,
-        this.updaterStage, this.alertHolder, this.runningExecutions);
-    this.commonMetrics = new CommonMetrics(new MetricsManager(new MetricRegistry()));
+        this.updaterStage, this.alertHolder, this.runningExecutions, this.executableFlowCache);
+    this.commonMetrics = new CommonMetrics(metricsManager);
     final ExecutorManager executorManager = getExecutorManager(props);
-    this.triggerManager = new TriggerManager(props, this.loader, executorManager);
+    this.triggerManager = new TriggerManager(props, this.loader, executorManager, metricsManager);
   }
 
   private ExecutorManager getExecutorManager(final Props props) throws ExecutorManagerException {
     final ActiveExecutors activeExecutors = new ActiveExecutors(this.execLoader);
-    final RunningExecutionsUpdaterThread updaterThread = getRunningExecutionsUpdaterThread();
+    final RunningExecutionsUpdaterThread updaterThread = getRunningExecutionsUpdaterThread(props);
     return new ExecutorManager(props, this.execLoader, this.commonMetrics, this.apiGateway,
         this.runningExecutions, activeExecutors, this.updaterStage, this.executionFinalizer,
-        updaterThread);
+        updaterThread, this.executableFlowCache);
   }
 
-  private RunningExecutionsUpdaterThread getRunningExecutionsUpdaterThread() {
-    return new RunningExecutionsUpdaterThread(new RunningExecutionsUpdater(
+  private RunningExecutionsUpdaterThread getRunningExecutionsUpdaterThread(final Props props) {
+    return new RunningExecutionsUpdaterThread(new RunningExecutionsUpdater(props,
         this.updaterStage, this.alertHolder, this.commonMetrics, this.apiGateway,
-        this.runningExecutions, this.executionFinalizer, this.execLoader), this.runningExecutions);
+        this.runningExecutions, this.executionFinalizer, this.execLoader,
+        this.executableFlowCache), this.runningExecutions);
   }
 
   @After
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.trigger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import azkaban.Constants.ConfigurationKeys;
+import azkaban.executor.ExecutorManagerAdapter;
+import azkaban.metrics.MetricsManager;
+import azkaban.test.TestUtils;
+import azkaban.trigger.builtin.BasicTimeChecker;
+import azkaban.utils.Props;
+import com.codahale.metrics.MetricRegistry;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.joda.time.DateTimeZone;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the trigger manager with azkaban.trigger.scheduler.enabled, checking the triggers at their
+ * next check time.
+ */
+public class TriggerSchedulerTest {
+
+  private final Props props = new Props();
+  // Number of the next batch saves to fail
+  private final AtomicInteger failingBatches = new AtomicInteger();
+  private final MockTriggerLoader triggerLoader = new MockTriggerLoader() {
+    @Override
+    public void updateTriggers(final List<Trigger> triggers) throws TriggerLoaderException {
+      if (TriggerSchedulerTest.this.failingBatches.getAndDecrement() > 0) {
+        throw new TriggerLoaderException("Mocked db error");
+      }
+      super.updateTriggers(triggers);
+    }
+  };
+  private TriggerManager triggerManager;
+
+  @Before
+  public void setUp() throws Exception {
+    this.props.put(ConfigurationKeys.TRIGGER_SCHEDULER_ENABLED, "true");
+    // Much longer than the tests, the time triggers must be checked at their due time
+    this.props.put("trigger.scan.interval", 600000);
+    startTriggerManager();
+  }
+
+  private void startTriggerManager() throws Exception {
+    if (this.triggerManager != null) {
+      this.triggerManager.shutdown();
+    }
+    this.triggerManager = new TriggerManager(this.props, this.triggerLoader,
+        mock(ExecutorManagerAdapter.class), new MetricsManager(new MetricRegistry()));
+    this.triggerManager.start();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    this.triggerManager.shutdown();
+    // The triggers are shared by the trigger managers
+    for (final Trigger t : this.triggerManager.getTriggers()) {
+      this.triggerManager.removeTrigger(t);
+    }
+  }
+
+  @Test
+  public void testTriggerIsCheckedAtItsNextCheckTime() throws Exception {
+    final TriggerAction action = mock(TriggerAction.class);
+    final Trigger t = createTimeTrigger(System.currentTimeMillis() + 200, action);
+    this.triggerManager.insertTrigger(t);
+    assertThat(this.triggerManager.getTrigger(t.getTriggerId())).isSameAs(t);
+
+    TestUtils.await().untilAsserted(() -> verify(action).doAction());
+    // Not reset on trigger, so expired and removed
+    TestUtils.await().untilAsserted(
+        () -> assertThat(this.triggerManager.getTrigger(t.getTriggerId())).isNull());
+    verify(action, times(1)).doAction();
+  }
+
+  @Test
+  public void testRemovedTriggerIsNotChecked() throws Exception {
+    final TriggerAction removedAction = mock(TriggerAction.class);
+    final Trigger removed = createTimeTrigger(System.currentTimeMillis() + 200, removedAction);
+    final TriggerAction action = mock(TriggerAction.class);
+    final Trigger t = createTimeTrigger(System.currentTimeMillis() + 400, action);
+    this.triggerManager.insertTrigger(removed);
+    this.triggerManager.insertTrigger(t);
+    this.triggerManager.removeTrigger(removed.getTriggerId());
+
+    TestUtils.await().untilAsserted(() -> verify(action).doAction());
+    verify(removedAction, never()).doAction();
+  }
+
+  @Test
+  public void testUpdatedTriggerIsCheckedAtItsNewNextCheckTime() throws Exception {
+    final TriggerAction oldAction = mock(TriggerAction.class);
+    final Trigger t = createTimeTrigger(System.currentTimeMillis() + 3600000, oldAction);
+    this.triggerManager.insertTrigger(t);
+
+    final TriggerAction action = mock(TriggerAction.class);
+    final Trigger updated = createTimeTrigger(System.currentTimeMillis() + 200, action);
+    updated.setTriggerId(t.getTriggerId());
+    this.triggerManager.updateTrigger(updated);
+
+    TestUtils.await().untilAsserted(() -> verify(action).doAction());
+    verify(oldAction, never()).doAction();
+  }
+
+  @Test
+  public void testActionChangingTriggersWhileTheTriggerIsUpdated() throws Exception {
+    final CountDownLatch actionStarted = new CountDownLatch(1);
+    final Trigger inserted = createTimeTrigger(System.currentTimeMillis() + 3600000,
+        mock(TriggerAction.class));
+    final TriggerAction action = mock(TriggerAction.class);
+    final Trigger t = createTimeTrigger(System.currentTimeMillis() + 200, action);
+    t.setResetOnTrigger(true);
+    // Inserts a trigger once the trigger is being updated by another thread
+    doAnswer(invocation -> {
+      actionStarted.countDown();
+      Thread.sleep(200);
+      this.triggerManager.insertTrigger(inserted);
+      return null;
+    }).when(action).doAction();
+    this.triggerManager.insertTrigger(t);
+
+    actionStarted.await();
+    this.triggerManager.updateTrigger(t);
+    TestUtils.await().untilAsserted(() ->
+        assertThat(this.triggerManager.getTrigger(inserted.getTriggerId())).isSameAs(inserted));
+  }
+
+  @Test
+  public void testActionsRunOnActionThreads() throws Exception {
+    this.props.put(ConfigurationKeys.TRIGGER_ACTION_THREADS, 2);
+    startTriggerManager();
+    final List<String> actionThreads = new CopyOnWriteArrayList<>();
+    final TriggerAction action = mock(TriggerAction.class);
+    doAnswer(invocation -> actionThreads.add(Thread.currentThread().getName()))
+        .when(action).doAction();
+    final Trigger t = createTimeTrigger(System.currentTimeMillis() + 200, action);
+    t.setResetOnTrigger(true);
+    this.triggerManager.insertTrigger(t);
+    final long lastModifyTime = t.getLastModifyTime();
+
+    TestUtils.await().untilAsserted(() -> assertThat(actionThreads).hasSize(1));
+    assertThat(actionThreads.get(0)).startsWith("azk-trigger-action-");
+    // The reset trigger is saved
+    TestUtils.await().untilAsserted(() -> assertThat(
+        this.triggerLoader.loadTrigger(t.getTriggerId()).getLastModifyTime())
+        .isGreaterThan(lastModifyTime));
+  }
+
+  @Test
+  public void testTriggerUpdatesIncludeTriggersSavedByTheScanner() throws Exception {
+    final Trigger later = createTimeTrigger(System.currentTimeMillis() + 3600000,
+        mock(TriggerAction.class));
+    final Trigger t = createTimeTrigger(System.currentTimeMillis() + 200,
+        mock(TriggerAction.class));
+    t.setResetOnTrigger(true);
+    this.triggerManager.insertTrigger(t);
+    this.triggerManager.insertTrigger(later);
+    assertThat(this.triggerManager.getAllTriggerUpdates(0)).containsExactlyInAnyOrder(t, later);
+    assertThat(this.triggerManager.getTriggers("azkaban")).containsExactlyInAnyOrder(t, later);
+    assertThat(this.triggerManager.getTriggerUpdates("other", 0)).isEmpty();
+
+    // Reset and saved after its actions
+    final long lastModifyTime = later.getLastModifyTime();
+    TestUtils.await().untilAsserted(() -> assertThat(
+        this.triggerManager.getTriggerUpdates("azkaban", lastModifyTime)).containsExactly(t));
+    assertThat(this.triggerManager.getAllTriggerUpdates(lastModifyTime)).containsExactly(t);
+
+    this.triggerManager.removeTrigger(t);
+    assertThat(this.triggerManager.getAllTriggerUpdates(0)).containsExactly(later);
+  }
+
+  @Test
+  public void testFailedBatchIsSavedWithTheNextOne() throws Exception {
+    this.props.put(ConfigurationKeys.TRIGGER_ACTION_THREADS, 2);
+    // The pending updates are saved at least every interval
+    this.props.put("trigger.scan.interval", 100);
+    startTriggerManager();
+    this.failingBatches.set(1);
+    final Trigger t = createTimeTrigger(System.currentTimeMillis() + 200,
+        mock(TriggerAction.class));
+    t.setResetOnTrigger(true);
+    this.triggerManager.insertTrigger(t);
+    final long lastModifyTime = t.getLastModifyTime();
+
+    // Listed as updated even if its save failed
+    TestUtils.await().untilAsserted(() -> assertThat(
+        this.triggerManager.getAllTriggerUpdates(lastModifyTime)).containsExactly(t));
+    // Saved by the next batch
+    TestUtils.await().untilAsserted(() -> assertThat(this.failingBatches.get()).isLessThan(0));
+  }
+
+  private Trigger createTimeTrigger(final long checkTime, final TriggerAction action) {
+    final ConditionChecker timeChecker = new BasicTimeChecker("BasicTimeChecker_1", checkTime,
+        DateTimeZone.UTC, checkTime, false, false, null, null);
+    final ConditionChecker endTimeChecker = new BasicTimeChecker("EndTimeChecker_1", 111L,
+        DateTimeZone.UTC, 2536871155000L, false, false, null, null);
+    final Map<String, ConditionChecker> triggerCheckers = new HashMap<>();
+    triggerCheckers.put(timeChecker.getId(), timeChecker);
+    final Map<String, ConditionChecker> expireCheckers = new HashMap<>();
+    expireCheckers.put(endTimeChecker.getId(), endTimeChecker);
+
+    final Trigger t = new Trigger.TriggerBuilder("azkaban", "azkaban",
+        new Condition(triggerCheckers, timeChecker.getId() + ".eval()"),
+        new Condition(expireCheckers, endTimeChecker.getId() + ".eval()"),
+        Collections.singletonList(action)).build();
+    t.setResetOnTrigger(false);
+    return t;
+  }
+}
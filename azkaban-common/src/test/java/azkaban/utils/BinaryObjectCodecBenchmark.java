@@ -0,0 +1,131 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.utils;
+
+import azkaban.DispatchMethod;
+import azkaban.db.EncodingType;
+import azkaban.executor.ExecutableFlow;
+import azkaban.executor.ExecutableNode;
+import azkaban.executor.Status;
+import azkaban.flow.Edge;
+import azkaban.flow.Flow;
+import azkaban.flow.Node;
+import azkaban.project.Project;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+
+/**
+ * Compares the time to encode and decode large execution flows, and their size, with the GZIP
+ * (gzipped JSON) and BINARY encodings of execution_flows.flow_data.
+ *
+ * <p>Not run as part of the tests. Run the main method from the test classpath, optionally with
+ * the numbers of jobs per flow as arguments.
+ */
+public class BinaryObjectCodecBenchmark {
+
+  private static final int WARMUP_ITERATIONS = 20;
+  private static final int MEASURED_ITERATIONS = 50;
+
+  public static void main(final String[] args) throws Exception {
+    final int[] sizes = args.length > 0 ? new int[args.length] : new int[]{100, 1000, 5000};
+    for (int i = 0; i < args.length; i++) {
+      sizes[i] = Integer.parseInt(args[i]);
+    }
+
+    for (final int numJobs : sizes) {
+      final ExecutableFlow flow = createFlow(numJobs);
+      for (final EncodingType encType : new EncodingType[]{EncodingType.GZIP,
+          EncodingType.BINARY}) {
+        run(flow, encType, WARMUP_ITERATIONS);
+        final long[] result = run(flow, encType, MEASURED_ITERATIONS);
+        System.out.printf("%5d jobs %-6s encode %8.3f ms  decode %8.3f ms  %8d bytes%n",
+            numJobs, encType, result[0] / 1e6 / MEASURED_ITERATIONS,
+            result[1] / 1e6 / MEASURED_ITERATIONS, result[2]);
+      }
+    }
+  }
+
+  /**
+   * @return total encode time in ns, total decode time in ns, and encoded size in bytes
+   */
+  private static long[] run(final ExecutableFlow flow, final EncodingType encType,
+      final int iterations) throws IOException {
+    long encodeNanos = 0;
+    long decodeNanos = 0;
+    byte[] data = null;
+    for (int i = 0; i < iterations; i++) {
+      long start = System.nanoTime();
+      data = encode(flow, encType);
+      encodeNanos += System.nanoTime() - start;
+
+      start = System.nanoTime();
+      final ExecutableFlow decoded = ExecutableFlow.createExecutableFlow(
+          GZIPUtils.transformBytesToObject(data, encType), Status.RUNNING);
+      decodeNanos += System.nanoTime() - start;
+      if (decoded.getExecutableNodes().size() != flow.getExecutableNodes().size()) {
+        throw new IllegalStateException("Decoded flow doesn't match");
+      }
+    }
+    return new long[]{encodeNanos, decodeNanos, data.length};
+  }
+
+  private static byte[] encode(final ExecutableFlow flow, final EncodingType encType)
+      throws IOException {
+    if (encType == EncodingType.BINARY) {
+      return BinaryObjectCodec.encode(flow.toObject());
+    }
+    return GZIPUtils.gzipBytes(
+        JSONUtils.toJSON(flow.toObject()).getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static ExecutableFlow createFlow(final int numJobs) {
+    final Flow flow = new Flow("benchmark");
+    for (int i = 0; i < numJobs; i++) {
+      final Node node = new Node("job" + i);
+      node.setType("command");
+      node.setJobSource("job" + i + ".job");
+      flow.addNode(node);
+      // A few wide levels of dependencies
+      if (i >= 10) {
+        flow.addEdge(new Edge("job" + (i - 10), "job" + i));
+      }
+    }
+    flow.initialize();
+
+    final Project project = new Project(1, "benchmark");
+    final HashMap<String, Flow> flows = new HashMap<>();
+    flows.put(flow.getId(), flow);
+    project.setFlows(flows);
+
+    final ExecutableFlow exFlow = new ExecutableFlow(project, flow);
+    exFlow.setExecutionId(1);
+    exFlow.setDispatchMethod(DispatchMethod.POLL);
+    exFlow.setStatus(Status.RUNNING);
+    final long now = System.currentTimeMillis();
+    int i = 0;
+    for (final ExecutableNode node : exFlow.getExecutableNodes()) {
+      if (i++ % 2 == 0) {
+        node.setStatus(Status.SUCCEEDED);
+        node.setStartTime(now + i);
+        node.setEndTime(now + i * 2);
+        node.setUpdateTime(now + i * 2);
+      }
+    }
+    return exFlow;
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import azkaban.DispatchMethod;
+import azkaban.db.EncodingType;
+import azkaban.executor.ExecutableFlow;
+import azkaban.executor.Status;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+public class BinaryObjectCodecTest {
+
+  private static Object roundTrip(final Object obj) throws IOException {
+    return BinaryObjectCodec.decode(BinaryObjectCodec.encode(obj));
+  }
+
+  @Test
+  public void testRoundTripMatchesJson() throws Exception {
+    final Map<String, Object> obj = new HashMap<>();
+    obj.put("string", "value");
+    obj.put("unicode", "héllo 世界");
+    obj.put("int", -42);
+    obj.put("smallLong", 1234L);
+    obj.put("long", System.currentTimeMillis() * 1000);
+    obj.put("double", 3.5);
+    obj.put("bool", true);
+    obj.put("null", null);
+    obj.put("list", Arrays.asList("value", 1, Arrays.asList(false, "string")));
+    final Map<String, Object> nested = new HashMap<>();
+    nested.put("string", "value");
+    nested.put("status", Status.RUNNING);
+    obj.put("nested", nested);
+
+    assertThat(roundTrip(obj))
+        .isEqualTo(JSONUtils.parseJSONFromString(JSONUtils.toJSON(obj)));
+  }
+
+  @Test
+  public void testExecutableFlowRoundTrip() throws Exception {
+    final ExecutableFlow flow = TestUtils
+        .createTestExecutableFlow("exectest1", "exec1", DispatchMethod.POLL);
+    flow.setExecutionId(1);
+    flow.setStatus(Status.RUNNING);
+    flow.getExecutableNode("job1").setStatus(Status.SUCCEEDED);
+
+    final byte[] data = BinaryObjectCodec.encode(flow.toObject());
+    final ExecutableFlow decoded = ExecutableFlow.createExecutableFlow(
+        GZIPUtils.transformBytesToObject(data, EncodingType.BINARY), Status.RUNNING);
+
+    assertThat(JSONUtils.toJSON(decoded.toObject())).isEqualTo(JSONUtils.toJSON(flow.toObject()));
+    assertThat(decoded.getExecutableNode("job1").getStatus()).isEqualTo(Status.SUCCEEDED);
+  }
+
+  @Test
+  public void testCorruptedData() throws Exception {
+    final byte[] data = BinaryObjectCodec.encode(Arrays.asList("a", "b", "c"));
+    assertThatThrownBy(() -> BinaryObjectCodec.decode(Arrays.copyOf(data, 3)))
+        .isInstanceOf(IOException.class);
+    data[0] = 42;
+    assertThatThrownBy(() -> BinaryObjectCodec.decode(data)).isInstanceOf(IOException.class);
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+import java.util.List;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+import org.quartz.CronExpression;
+
+public class CronFireTimeCacheTest {
+
+  private static final DateTimeZone LOS_ANGELES = DateTimeZone.forID("America/Los_Angeles");
+
+  private static void assertSameAsQuartz(final String cron, final DateTimeZone timezone,
+      final long start, final long step, final int count) {
+    final CronExpression expression = Utils.parseCronExpression(cron, timezone);
+    for (long time = start; time < start + step * count; time += step) {
+      assertThat(CronFireTimeCache.getNextFireTimeAfter(cron, timezone, new Date(time)))
+          .as(cron + " after " + new DateTime(time, timezone))
+          .isEqualTo(expression.getNextValidTimeAfter(new Date(time)));
+    }
+  }
+
+  @Test
+  public void testSameFireTimesAsQuartz() {
+    final long start = new DateTime(2021, 1, 1, 0, 0, DateTimeZone.UTC).getMillis();
+    // Forward and backward in time, further than a series
+    assertSameAsQuartz("0 */5 * ? * *", DateTimeZone.UTC, start, 61000, 1000);
+    assertSameAsQuartz("0 */5 * ? * *", DateTimeZone.UTC, start - 600000, 61000, 100);
+    assertSameAsQuartz("0 0 3 ? * MON-FRI", DateTimeZone.UTC, start, 3600000, 2000);
+  }
+
+  @Test
+  public void testSameFireTimesAsQuartzAcrossDstTransitions() {
+    // 2021-03-14 and 2021-11-07 in Los Angeles
+    for (final DateTime transition : new DateTime[]{
+        new DateTime(2021, 3, 13, 0, 0, LOS_ANGELES),
+        new DateTime(2021, 11, 6, 0, 0, LOS_ANGELES)}) {
+      assertSameAsQuartz("0 30 1,2,3 ? * *", LOS_ANGELES, transition.getMillis(), 600000, 500);
+      assertSameAsQuartz("0 0 * ? * *", LOS_ANGELES, transition.getMillis(), 1800000, 200);
+    }
+  }
+
+  @Test
+  public void testFireTimesInAWindow() {
+    final long start = new DateTime(2021, 1, 1, 0, 0, DateTimeZone.UTC).getMillis();
+    final List<Long> times = CronFireTimeCache.getFireTimes("0 0 */6 ? * *", DateTimeZone.UTC,
+        start, start + 24 * 3600000L, 100);
+    assertThat(times).containsExactly(start + 6 * 3600000L, start + 12 * 3600000L,
+        start + 18 * 3600000L, start + 24 * 3600000L);
+
+    assertThat(CronFireTimeCache.getFireTimes("0 0 */6 ? * *", DateTimeZone.UTC, start,
+        start + 24 * 3600000L, 2)).containsExactly(start + 6 * 3600000L, start + 12 * 3600000L);
+  }
+
+  @Test
+  public void testNoFireTime() {
+    assertThat(CronFireTimeCache.getNextFireTimeAfter("not a cron", DateTimeZone.UTC,
+        new Date())).isNull();
+    // Only in 2020
+    assertThat(CronFireTimeCache.getNextFireTimeAfter("0 0 0 1 1 ? 2020", DateTimeZone.UTC,
+        new Date())).isNull();
+    assertThat(CronFireTimeCache.getFireTimes("0 0 0 1 1 ? 2020", DateTimeZone.UTC,
+        0, Long.MAX_VALUE, 10)).containsExactly(
+        new DateTime(2020, 1, 1, 0, 0, DateTimeZone.UTC).getMillis());
+  }
+}
@@ -28,6 +28,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.comparator.NameFileComparator;
 import org.junit.After;
@@ -146,6 +148,19 @@ public class FileIOUtilsTest {
     assertThat(areDirsEqual(this.baseDir, this.sourceDir, true)).isTrue();
   }
 
+  @Test
+  public void testHardlinkCopyInParallel() throws IOException {
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final int hardLinkCount =
+          FileIOUtils.createDeepHardlink(this.sourceDir, this.destDir, executor);
+      assertThat(areDirsEqual(this.sourceDir, this.destDir, true)).isTrue();
+      assertThat(hardLinkCount).isEqualTo(5);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
   @Ignore("Slow test (over 30s) - run manually if need to touch createDeepHardlink()")
   @Test
   public void testHardlinkCopyOfBigDir() throws IOException {
@@ -266,6 +281,47 @@ public class FileIOUtilsTest {
     assertEquals(correctString.length(), mixedText.length() - 3);
   }
 
+  @Test
+  public void testReadUtf8File() throws IOException {
+    final File file = this.temp.newFile("test.log");
+    final String text = "abc안녕하세요, 제 이름은 박병호입니다";
+    FileUtils.writeStringToFile(file, text, "UTF-8");
+
+    FileIOUtils.LogData logData = FileIOUtils.readUtf8File(file, 0, 1000);
+    assertThat(logData.getOffset()).isEqualTo(0);
+    assertThat(logData.getData()).isEqualTo(text);
+
+    // Starts and ends in the middle of multi-byte characters
+    logData = FileIOUtils.readUtf8File(file, 4, 10);
+    assertThat(logData.getOffset()).isEqualTo(6);
+    assertThat(logData.getLength()).isEqualTo(6);
+    assertThat(logData.getData()).isEqualTo("녕하");
+
+    // Read by a thread with a bigger, reused buffer
+    logData = FileIOUtils.readUtf8File(file, 3, 3);
+    assertThat(logData.getOffset()).isEqualTo(3);
+    assertThat(logData.getData()).isEqualTo("안");
+
+    final FileIOUtils.JobMetaData metaData = FileIOUtils.readUtf8MetaDataFile(file, 0, 3);
+    assertThat(metaData.getOffset()).isEqualTo(0);
+    assertThat(metaData.getData()).isEqualTo("abc");
+  }
+
+  @Test
+  public void testReadUtf8FileBeyondEnd() throws IOException {
+    final File file = this.temp.newFile("test.log");
+    FileUtils.writeStringToFile(file, "abcdef", "UTF-8");
+
+    FileIOUtils.LogData logData = FileIOUtils.readUtf8File(file, 4, 1000);
+    assertThat(logData.getOffset()).isEqualTo(4);
+    assertThat(logData.getData()).isEqualTo("ef");
+
+    logData = FileIOUtils.readUtf8File(file, 10, 1000);
+    assertThat(logData.getOffset()).isEqualTo(10);
+    assertThat(logData.getLength()).isEqualTo(0);
+    assertThat(logData.getData()).isEmpty();
+  }
+
   private byte[] createUTF8ByteArray(final String text) {
     byte[] textBytes = null;
     try {
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import azkaban.test.TestUtils;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Test;
+
+public class KeyedSerialExecutorTest {
+
+  private final KeyedSerialExecutor<Integer> executor =
+      new KeyedSerialExecutor<>(2, "azk-test-%d");
+  private final List<String> events = new CopyOnWriteArrayList<>();
+
+  @Test
+  public void testTasksOfAKeyRunInOrder() throws Exception {
+    final CountDownLatch blockTask = new CountDownLatch(1);
+    this.executor.execute(1, () -> {
+      try {
+        blockTask.await();
+      } catch (final InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+      this.events.add("1:a");
+    });
+    this.executor.execute(1, () -> {
+      throw new IllegalStateException("failed task");
+    });
+    this.executor.execute(1, () -> this.events.add("1:c"));
+    this.executor.execute(2, () -> this.events.add("2:a"));
+
+    // The tasks of another key aren't blocked
+    TestUtils.await().untilAsserted(() -> assertThat(this.events).containsExactly("2:a"));
+    assertThat(this.executor.getNumPendingKeys()).isEqualTo(1);
+    blockTask.countDown();
+    // A failed task doesn't stop the next ones
+    this.executor.shutdown(10000);
+    assertThat(this.events).containsExactly("2:a", "1:a", "1:c");
+    TestUtils.await().untilAsserted(
+        () -> assertThat(this.executor.getNumPendingKeys()).isEqualTo(0));
+  }
+}
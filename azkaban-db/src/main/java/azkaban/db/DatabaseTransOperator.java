@@ -107,6 +107,18 @@ public class DatabaseTransOperator {
     }
   }
 
+  /**
+   * Executes a batch of the same statement with each set of parameters, on the connection of the
+   * transaction.
+   *
+   * @param sqlCommand sql statement to execute
+   * @param params the parameters of each execution of the statement
+   * @return The number of rows updated per execution.
+   */
+  public int[] batch(final String sqlCommand, final Object[][] params) throws SQLException {
+    return this.queryRunner.batch(this.conn, sqlCommand, params);
+  }
+
   /**
    * @return the JDBC connection associated with this operator.
    */
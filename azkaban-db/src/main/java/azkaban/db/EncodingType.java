@@ -17,12 +17,14 @@
 package azkaban.db;
 
 /**
- * Used for when we store text data. Plain uses UTF8 encoding.
+ * Used for when we store text data. Plain uses UTF8 encoding. Binary is the compact encoding of
+ * azkaban.utils.BinaryObjectCodec, only used for object trees such as execution flows. External
+ * means the data is in an external store, and the column holds its UTF8 encoded key.
  */
 // TODO kunkun-tang: This class needs to move to azkaban-db module, as database module should be
 // Deprecated soon.
 public enum EncodingType {
-  PLAIN(1), GZIP(2);
+  PLAIN(1), GZIP(2), BINARY(3), EXTERNAL(4);
 
   private final int numVal;
 
@@ -36,6 +38,10 @@ public enum EncodingType {
         return PLAIN;
       case 2:
         return GZIP;
+      case 3:
+        return BINARY;
+      case 4:
+        return EXTERNAL;
       default:
         return PLAIN;
     }
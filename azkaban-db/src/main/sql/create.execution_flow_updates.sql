@@ -0,0 +1,16 @@
+-- Incremental status updates of a running execution. Each row holds the nodes that changed since
+-- the previous row (see ExecutableFlow#toUpdateObject). The full state of an execution is the
+-- flow_data snapshot in execution_flows plus every row here that is newer than the snapshot.
+-- Rows are removed whenever a new snapshot is written.
+
+CREATE TABLE execution_flow_updates (
+  update_id   BIGINT NOT NULL AUTO_INCREMENT,
+  exec_id     INT    NOT NULL,
+  update_time BIGINT NOT NULL,
+  enc_type    TINYINT,
+  update_data LONGBLOB,
+  PRIMARY KEY (update_id)
+);
+
+CREATE INDEX ex_flow_updates_exec_id
+  ON execution_flow_updates (exec_id, update_time);
@@ -29,15 +29,27 @@ import azkaban.utils.FileIOUtils;
 import azkaban.utils.Utils;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -55,6 +67,10 @@ public abstract class AbstractFlowPreparer {
   protected final DependencyTransferManager dependencyTransferManager;
   // Name of the file which keeps project directory size
   public static final String PROJECT_DIR_SIZE_FILE_NAME = "___azkaban_project_dir_size_in_bytes___";
+  // Downloads the startup dependencies of projects while their archives are extracted
+  private static final ExecutorService DEPENDENCY_DOWNLOAD_SERVICE = Executors.newCachedThreadPool(
+      new ThreadFactoryBuilder().setNameFormat("azk-dependency-download-%d").setDaemon(true)
+          .build());
 
   /**
    * Constructor
@@ -98,18 +114,32 @@ public abstract class AbstractFlowPreparer {
   static long calculateDirSizeAndSave(final File dir) throws IOException {
     final Path path = Paths.get(dir.getPath(), AbstractFlowPreparer.PROJECT_DIR_SIZE_FILE_NAME);
     if (!Files.exists(path)) {
-      final long sizeInByte = FileUtils.sizeOfDirectory(dir);
-      FileIOUtils.dumpNumberToFile(path, sizeInByte);
-      return sizeInByte;
+      return saveDirSize(dir, FileUtils.sizeOfDirectory(dir));
     } else {
       return FileIOUtils.readNumberFromFile(path);
     }
   }
 
+  /**
+   * Save the directory size, already known, to a file.
+   *
+   * @return the size of the dir.
+   */
+  private static long saveDirSize(final File dir, final long sizeInByte) throws IOException {
+    FileIOUtils.dumpNumberToFile(
+        Paths.get(dir.getPath(), AbstractFlowPreparer.PROJECT_DIR_SIZE_FILE_NAME), sizeInByte);
+    return sizeInByte;
+  }
+
 
   @VisibleForTesting
   public void downloadAndUnzipProject(final ProjectDirectoryMetadata proj, final int execId,
       final File dest) throws IOException {
+    if (this.projectStorageManager.isProjectFileStreamingEnabled()) {
+      streamAndUnzipProject(proj, execId, dest);
+      return;
+    }
+
     final long start = System.currentTimeMillis();
     final ProjectFileHandler projectFileHandler = requireNonNull(this.projectStorageManager
             .getProjectFile(proj.getProjectId(), proj.getVersion()));
@@ -135,6 +165,52 @@ public abstract class AbstractFlowPreparer {
     }
   }
 
+  /**
+   * Unzip the project archive while it's read from the storage, and download the startup
+   * dependencies at the same time. The size of the project dir is summed from the files written,
+   * instead of walking the directory afterwards.
+   */
+  private void streamAndUnzipProject(final ProjectDirectoryMetadata proj, final int execId,
+      final File dest) throws IOException {
+    final long start = System.currentTimeMillis();
+    final ProjectFileHandler projectFileHandler = this.projectStorageManager
+        .getProjectFileMetadata(proj.getProjectId(), proj.getVersion());
+    checkState("zip".equalsIgnoreCase(projectFileHandler.getFileType()));
+
+    // The startup dependencies come from the DB (see downloadAndUnzipProject), so they don't need
+    // to wait for the archive.
+    final Set<Dependency> dependencies = projectFileHandler.getStartupDependencies();
+    final CompletableFuture<Set<DependencyFile>> depFiles = dependencies.isEmpty()
+        ? CompletableFuture.completedFuture(Collections.emptySet())
+        : CompletableFuture.supplyAsync(
+            () -> downloadAllDependencies(proj, execId, dest, dependencies),
+            DEPENDENCY_DOWNLOAD_SERVICE);
+
+    long sizeInByte;
+    try (final InputStream in = new BufferedInputStream(
+        this.projectStorageManager.openProjectFile(projectFileHandler))) {
+      sizeInByte = Utils.unzip(new ZipInputStream(in), dest);
+      // Read the rest of the archive, the central directory, so that its checksum is validated
+      IOUtils.copy(in, NullOutputStream.NULL_OUTPUT_STREAM);
+    } catch (final IOException | RuntimeException e) {
+      // No dependency must be written to dest once the caller deletes it
+      depFiles.handle((files, ex) -> null).join();
+      throw e;
+    }
+    LOGGER.info("Downloading and unzipping project {} when preparing execution [execid {}] "
+        + "completed in {} second(s)", proj, execId, (System.currentTimeMillis() - start) / 1000);
+
+    try {
+      for (final DependencyFile depFile : depFiles.join()) {
+        sizeInByte += depFile.getFile().length();
+      }
+    } catch (final CompletionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw e;
+    }
+    proj.setDirSizeInByte(saveDirSize(dest, sizeInByte));
+  }
+
   /**
    * Download necessary JAR dependencies from storage
    *
@@ -142,9 +218,10 @@ public abstract class AbstractFlowPreparer {
    * @param execId execution id number
    * @param folder root of unzipped project
    * @param dependencies the set of dependencies to download
+   * @return the files downloaded
    */
-  private void downloadAllDependencies(final ProjectDirectoryMetadata proj, final int execId,
-      final File folder, final Set<Dependency> dependencies) {
+  private Set<DependencyFile> downloadAllDependencies(final ProjectDirectoryMetadata proj,
+      final int execId, final File folder, final Set<Dependency> dependencies) {
     // Download all of the dependencies from storage
     LOGGER.info("Downloading {} JAR dependencies... Project: {}, ExecId: {}",
             dependencies.size(), proj, execId);
@@ -159,6 +236,7 @@ public abstract class AbstractFlowPreparer {
       LOGGER.info("Downloading {} JAR dependencies for project {} when preparing "
                       + "execution [execid {}] completed in {} second(s)",
               dependencies.size(), proj, execId, (System.currentTimeMillis() - start) / 1000);
+      return depFiles;
     } catch (final DependencyTransferException e) {
       LOGGER.error("Unable to download one or more dependencies when preparing execId {} for " +
               "project {}.", execId, proj);
@@ -39,6 +39,7 @@ import azkaban.executor.Executor;
 import azkaban.executor.ExecutorLoader;
 import azkaban.executor.ExecutorManagerException;
 import azkaban.jmx.JmxJettyServer;
+import azkaban.jobExecutor.utils.process.ProcessOutputPump;
 import azkaban.metric.IMetricEmitter;
 import azkaban.metric.MetricException;
 import azkaban.metric.MetricReportManager;
@@ -238,6 +239,7 @@ public class AzkabanExecutorServer implements IMBeanRegistrable {
     this.root.setAttribute(Constants.AZKABAN_SERVLET_CONTEXT_KEY, this);
 
     JmxJobMBeanManager.getInstance().initialize(this.props);
+    ProcessOutputPump.initialize(this.props);
 
     // make sure this happens before
     ServerUtils.configureJobCallback(logger, this.props);
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.execapp;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Layout;
+import org.apache.log4j.RollingFileAppender;
+import org.apache.log4j.helpers.LogLog;
+import org.apache.log4j.spi.LoggingEvent;
+
+/**
+ * Job log appender which formats and writes the events of a job in batches, on threads shared by
+ * all the jobs of the executor, instead of on the threads logging them.
+ *
+ * <p>The events are buffered, then written and flushed to a {@link RollingFileAppender} with the
+ * same layout and rolling settings as the synchronous job log appender: every flush interval, or
+ * as soon as maxPendingEvents are buffered. Threads logging faster than the events are written
+ * wait once twice that many are buffered. Closing the appender writes and flushes all the
+ * buffered events.
+ *
+ * <p>As with log4j's AsyncAppender, the location information of the events isn't available to
+ * the layout.
+ */
+public class BatchingJobLogAppender extends AppenderSkeleton {
+
+  private static final int NUM_WRITER_THREADS = 2;
+  private static final ScheduledExecutorService writers = Executors.newScheduledThreadPool(
+      NUM_WRITER_THREADS, new ThreadFactoryBuilder().setDaemon(true)
+          .setNameFormat("azk-job-log-writer-%d").build());
+
+  private final FlushableRollingFileAppender fileAppender;
+  private final int maxPendingEvents;
+  private final ScheduledFuture<?> periodicWrite;
+  // Serializes the writes, so that the batches are written in order
+  private final Object writeLock = new Object();
+  // Guarded by this
+  private List<LoggingEvent> pendingEvents = new ArrayList<>();
+  private boolean writeScheduled = false;
+
+  public BatchingJobLogAppender(final Layout layout, final String fileName,
+      final String maxFileSize, final int maxBackupIndex, final long flushIntervalMs,
+      final int maxPendingEvents) throws IOException {
+    this.fileAppender = new FlushableRollingFileAppender(layout, fileName);
+    this.fileAppender.setMaxFileSize(maxFileSize);
+    this.fileAppender.setMaxBackupIndex(maxBackupIndex);
+    this.fileAppender.setImmediateFlush(false);
+    setLayout(layout);
+    this.maxPendingEvents = maxPendingEvents;
+    this.periodicWrite = writers.scheduleWithFixedDelay(this::writePendingEvents,
+        flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  protected void append(final LoggingEvent event) {
+    // Capture what depends on the logging thread before handing the event over
+    event.getNDC();
+    event.getThreadName();
+    event.getMDCCopy();
+    event.getRenderedMessage();
+    event.getThrowableStrRep();
+
+    // Called by doAppend(), synchronized on this
+    try {
+      while (this.pendingEvents.size() >= 2 * this.maxPendingEvents && !this.closed) {
+        wait();
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    this.pendingEvents.add(event);
+    if (this.pendingEvents.size() >= this.maxPendingEvents && !this.writeScheduled) {
+      this.writeScheduled = true;
+      writers.execute(this::writePendingEvents);
+    }
+  }
+
+  @Override
+  public void close() {
+    synchronized (this) {
+      if (this.closed) {
+        return;
+      }
+      this.closed = true;
+      notifyAll();
+    }
+    this.periodicWrite.cancel(false);
+    writePendingEvents();
+    this.fileAppender.close();
+  }
+
+  @Override
+  public boolean requiresLayout() {
+    return true;
+  }
+
+  private void writePendingEvents() {
+    try {
+      synchronized (this.writeLock) {
+        final List<LoggingEvent> events;
+        synchronized (this) {
+          events = this.pendingEvents;
+          this.pendingEvents = new ArrayList<>();
+          this.writeScheduled = false;
+          notifyAll();
+        }
+        if (!events.isEmpty()) {
+          for (final LoggingEvent event : events) {
+            this.fileAppender.doAppend(event);
+          }
+          this.fileAppender.flush();
+        }
+      }
+    } catch (final RuntimeException e) {
+      LogLog.error("Failed to write job log events to " + this.fileAppender.getFile(), e);
+    }
+  }
+
+  private static class FlushableRollingFileAppender extends RollingFileAppender {
+
+    private FlushableRollingFileAppender(final Layout layout, final String fileName)
+        throws IOException {
+      super(layout, fileName, true);
+    }
+
+    private void flush() {
+      if (this.qw != null) {
+        this.qw.flush();
+      }
+    }
+  }
+}
@@ -35,6 +35,11 @@ public class ExecMetrics {
   public static final String NUM_QUEUED_FLOWS_NAME = "EXEC-NumQueuedFlows";
   public static final String PROJECT_DIR_CACHE_HIT_RATIO_NAME = "project-dir-cache-hit-ratio";
   public static final String FLOW_SETUP_TIMER_NAME = "flow-setup-timer";
+  public static final String FLOW_SETUP_LOCK_WAIT_HISTOGRAM_NAME =
+      "flow-setup-lock-wait-histogram";
+  public static final String FLOW_SETUP_HARDLINK_HISTOGRAM_NAME = "flow-setup-hardlink-histogram";
+  public static final String PROJECT_DOWNLOAD_DEDUPLICATED_METER_NAME =
+      "project-download-deduplicated-meter";
   public static final String FLOW_STARTUP_DELAY_TIMER_NAME = "flow-startup-delay-timer";
   public static final String FLOW_KILLING_COUNTER_NAME = "flow-killing-counter";
   public static final String FLOW_TIME_TO_KILL_HISTOGRAM_NAME = "flow-time-to-kill-histogram";
@@ -48,6 +53,9 @@ public class ExecMetrics {
   private final MetricsManager metricsManager;
   private final Timer flowSetupTimer;
   private final Timer flowStartupDelayTimer;
+  private final Histogram flowSetupLockWaitHistogram;
+  private final Histogram flowSetupHardlinkHistogram;
+  private final Meter projectDownloadDeduplicatedMeter;
   private final ProjectCacheHitRatio projectCacheHitRatio;
   private final Counter flowKillingCounter;
   private final Histogram flowTimeToKillHistogram;
@@ -69,6 +77,12 @@ public class ExecMetrics {
         this.projectCacheHitRatio::getValue);
     this.flowSetupTimer = this.metricsManager.addTimer(FLOW_SETUP_TIMER_NAME);
     this.flowStartupDelayTimer = this.metricsManager.addTimer(FLOW_STARTUP_DELAY_TIMER_NAME);
+    this.flowSetupLockWaitHistogram =
+        this.metricsManager.addHistogram(FLOW_SETUP_LOCK_WAIT_HISTOGRAM_NAME);
+    this.flowSetupHardlinkHistogram =
+        this.metricsManager.addHistogram(FLOW_SETUP_HARDLINK_HISTOGRAM_NAME);
+    this.projectDownloadDeduplicatedMeter =
+        this.metricsManager.addMeter(PROJECT_DOWNLOAD_DEDUPLICATED_METER_NAME);
     this.flowKillingCounter = this.metricsManager.addCounter(FLOW_KILLING_COUNTER_NAME);
     this.flowTimeToKillHistogram =
         this.metricsManager.addHistogram(FLOW_TIME_TO_KILL_HISTOGRAM_NAME);
@@ -105,6 +119,32 @@ public class ExecMetrics {
     return this.flowStartupDelayTimer.time();
   }
 
+  /**
+   * Add the time a flow setup waited for the locks of the project cache.
+   *
+   * @param time wait time in ms
+   */
+  public void addFlowSetupLockWaitTime(final long time) {
+    this.flowSetupLockWaitHistogram.update(time);
+  }
+
+  /**
+   * Add the time it took to hard link a project into an execution directory.
+   *
+   * @param time link time in ms
+   */
+  public void addFlowSetupHardlinkTime(final long time) {
+    this.flowSetupHardlinkHistogram.update(time);
+  }
+
+  /**
+   * Record a flow setup which waited for the download of its project by another flow setup
+   * instead of downloading it.
+   */
+  public void markProjectDownloadDeduplicated() {
+    this.projectDownloadDeduplicatedMeter.mark();
+  }
+
   /**
    * Increment the number of flow executions in killing status.
    */
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.execapp;
+
+import azkaban.executor.ExecutorLoader;
+import azkaban.executor.ExecutorManagerException;
+import azkaban.utils.KeyedSerialExecutor;
+import java.io.File;
+import org.apache.log4j.Logger;
+
+/**
+ * Uploads the flow and job logs to the DB on background threads, so that the flow and job
+ * threads don't wait for the upload when they finish.
+ *
+ * <p>The tasks of an execution run one at a time, in the order they were queued, while those of
+ * different executions run in parallel. Tasks which depend on the logs being uploaded, like the
+ * deletion of the execution directory, are queued after the uploads with {@link
+ * #runAfterUploads(int, Runnable)}.
+ */
+public class ExecutionLogUploader {
+
+  private static final Logger logger = Logger.getLogger(ExecutionLogUploader.class);
+
+  private final ExecutorLoader executorLoader;
+  private final KeyedSerialExecutor<Integer> uploaders;
+
+  public ExecutionLogUploader(final ExecutorLoader executorLoader, final int numThreads) {
+    this.executorLoader = executorLoader;
+    this.uploaders = new KeyedSerialExecutor<>(numThreads, "azk-execution-log-uploader-%d");
+  }
+
+  /**
+   * Queue the upload of log files, see {@link ExecutorLoader#uploadLogFile(int, String, int,
+   * File...)}.
+   */
+  public void uploadLogFile(final int execId, final String name, final int attempt,
+      final File... files) {
+    this.uploaders.execute(execId, () -> {
+      try {
+        this.executorLoader.uploadLogFile(execId, name, attempt, files);
+      } catch (final ExecutorManagerException e) {
+        logger.error("Error uploading logs " + name + " of execution " + execId, e);
+      }
+    });
+  }
+
+  /**
+   * Queue a task to run once the logs of the execution queued so far are uploaded.
+   */
+  public void runAfterUploads(final int execId, final Runnable task) {
+    this.uploaders.execute(execId, task);
+  }
+
+  public int getNumPendingExecutions() {
+    return this.uploaders.getNumPendingKeys();
+  }
+
+  /**
+   * Wait for the queued tasks to complete, then stop the upload threads.
+   */
+  public void shutdown(final long timeoutMs) {
+    this.uploaders.shutdown(timeoutMs);
+  }
+}
@@ -0,0 +1,322 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.execapp;
+
+import azkaban.executor.ExecutableFlow;
+import azkaban.executor.ExecutableNode;
+import azkaban.executor.ExecutorLoader;
+import azkaban.executor.ExecutorManagerException;
+import azkaban.executor.Status;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.log4j.Logger;
+
+/**
+ * Write-behind stage for the status updates of running flows and jobs.
+ *
+ * <p>Instead of a DB round trip on the job thread for every status change, updates are buffered
+ * here, keeping only the latest state per job attempt and per flow, and written with one JDBC
+ * batch per table every flush interval, or as soon as the number of pending updates reaches the
+ * threshold. A burst of changes to the same job costs a single row update.
+ *
+ * <p>The state is copied when an update is buffered, so that the writer thread never reads the
+ * flow and node objects while the job threads change them, and the final state of an attempt is
+ * kept when the node is reset for a retry.
+ *
+ * <p>Callers which need the updates of an execution persisted at a given point, e.g. when a flow
+ * finishes, call {@link #flush(int)}, which only waits for the writes of that execution.
+ */
+public class ExecutionUpdateWriter {
+
+  private static final Logger logger = Logger.getLogger(ExecutionUpdateWriter.class);
+
+  private final ExecutorLoader executorLoader;
+  private final long flushIntervalMs;
+  private final int maxPendingUpdates;
+  private final ScheduledExecutorService scheduler;
+  private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+
+  // Guards the pending updates and the executions being written, and is notified when a write
+  // completes
+  private final Object pendingLock = new Object();
+  // Pending job updates per execution, by nested id and attempt
+  private final Map<Integer, Map<String, ExecutableNode>> pendingNodes = new LinkedHashMap<>();
+  private final Map<Integer, FlowSnapshot> pendingFlows = new LinkedHashMap<>();
+  // Executions with updates being written. Their next updates wait for the write to complete, so
+  // that an older state of a row is never written after a newer one.
+  private final Set<Integer> writingExecutions = new HashSet<>();
+  private int numPendingUpdates = 0;
+
+  public ExecutionUpdateWriter(final ExecutorLoader executorLoader, final long flushIntervalMs,
+      final int maxPendingUpdates) {
+    this.executorLoader = executorLoader;
+    this.flushIntervalMs = flushIntervalMs;
+    this.maxPendingUpdates = maxPendingUpdates;
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("azk-execution-update-writer").setDaemon(true)
+            .build());
+  }
+
+  public void start() {
+    this.scheduler.scheduleWithFixedDelay(this::flushQuietly, this.flushIntervalMs,
+        this.flushIntervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Stop the periodic flushes and write whatever is still pending.
+   */
+  public void shutdown() {
+    this.scheduler.shutdown();
+    flushQuietly();
+  }
+
+  /**
+   * Buffer the current state of a job. Supersedes any pending update of the same job attempt.
+   */
+  public void updateExecutableNode(final ExecutableNode node) {
+    final ExecutableNode snapshot = node.createStatusSnapshot();
+    final int execId = node.getExecutableFlow().getExecutionId();
+    final String key = node.getNestedId() + "#" + snapshot.getAttempt();
+    synchronized (this.pendingLock) {
+      if (this.pendingNodes.computeIfAbsent(execId, id -> new LinkedHashMap<>())
+          .put(key, snapshot) == null) {
+        this.numPendingUpdates++;
+      }
+    }
+    requestFlushIfFull();
+  }
+
+  /**
+   * Buffer the current state of a flow. Supersedes any pending update of the same flow.
+   */
+  public void updateExecutableFlow(final ExecutableFlow flow) {
+    final FlowSnapshot snapshot = new FlowSnapshot(flow.toObject(), flow.getStatus());
+    synchronized (this.pendingLock) {
+      if (this.pendingFlows.put(flow.getExecutionId(), snapshot) == null) {
+        this.numPendingUpdates++;
+      }
+    }
+    requestFlushIfFull();
+  }
+
+  public int getNumPendingUpdates() {
+    synchronized (this.pendingLock) {
+      return this.numPendingUpdates;
+    }
+  }
+
+  /**
+   * Synchronously write the pending updates of every execution, except those of the executions
+   * already being written, which are left to the next flush. The updates which failed to be
+   * written stay pending.
+   */
+  public void flush() throws ExecutorManagerException {
+    final Batch batch = new Batch();
+    synchronized (this.pendingLock) {
+      final Set<Integer> execIds = new HashSet<>(this.pendingNodes.keySet());
+      execIds.addAll(this.pendingFlows.keySet());
+      for (final int execId : execIds) {
+        if (!this.writingExecutions.contains(execId)) {
+          takePending(execId, batch);
+        }
+      }
+    }
+    write(batch);
+  }
+
+  /**
+   * Synchronously write the pending updates of an execution, after waiting for the ones of the
+   * execution already being written. The updates which failed to be written stay pending.
+   */
+  public void flush(final int execId) throws ExecutorManagerException {
+    final Batch batch = new Batch();
+    boolean interrupted = false;
+    synchronized (this.pendingLock) {
+      while (this.writingExecutions.contains(execId)) {
+        try {
+          this.pendingLock.wait();
+        } catch (final InterruptedException e) {
+          // e.g. a flow killed while finishing, its updates must still be written
+          interrupted = true;
+        }
+      }
+      takePending(execId, batch);
+    }
+    try {
+      write(batch);
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Move the pending updates of an execution to a batch, and mark it as being written. Must hold
+   * the pending lock.
+   */
+  private void takePending(final int execId, final Batch batch) {
+    final Map<String, ExecutableNode> nodes = this.pendingNodes.remove(execId);
+    if (nodes != null) {
+      batch.nodes.put(execId, nodes);
+      this.numPendingUpdates -= nodes.size();
+    }
+    final FlowSnapshot flow = this.pendingFlows.remove(execId);
+    if (flow != null) {
+      batch.flows.put(execId, flow);
+      this.numPendingUpdates--;
+    }
+    this.writingExecutions.add(execId);
+    batch.execIds.add(execId);
+  }
+
+  private void write(final Batch batch) throws ExecutorManagerException {
+    ExecutorManagerException error = null;
+    boolean nodesWritten = batch.nodes.isEmpty();
+    boolean flowsWritten = batch.flows.isEmpty();
+    try {
+      if (!nodesWritten) {
+        final List<ExecutableNode> nodes = new ArrayList<>();
+        for (final Map<String, ExecutableNode> executionNodes : batch.nodes.values()) {
+          nodes.addAll(executionNodes.values());
+        }
+        try {
+          this.executorLoader.updateExecutableNodes(nodes);
+          nodesWritten = true;
+        } catch (final ExecutorManagerException e) {
+          error = e;
+        }
+      }
+      if (!flowsWritten) {
+        final List<ExecutableFlow> flows = new ArrayList<>(batch.flows.size());
+        for (final FlowSnapshot snapshot : batch.flows.values()) {
+          flows.add(ExecutableFlow.createExecutableFlow(snapshot.data, snapshot.status));
+        }
+        try {
+          this.executorLoader.updateExecutableFlows(flows);
+          flowsWritten = true;
+        } catch (final ExecutorManagerException e) {
+          error = e;
+        }
+      }
+    } finally {
+      synchronized (this.pendingLock) {
+        if (!nodesWritten) {
+          restorePendingNodes(batch.nodes);
+        }
+        if (!flowsWritten) {
+          restorePendingFlows(batch.flows);
+        }
+        this.writingExecutions.removeAll(batch.execIds);
+        this.pendingLock.notifyAll();
+      }
+    }
+    if (error != null) {
+      throw error;
+    }
+  }
+
+  /**
+   * Put back the unwritten job updates, followed by the ones buffered since, which supersede them.
+   * Must hold the pending lock.
+   */
+  private void restorePendingNodes(final Map<Integer, Map<String, ExecutableNode>> unwritten) {
+    for (final Map.Entry<Integer, Map<String, ExecutableNode>> entry : unwritten.entrySet()) {
+      final Map<String, ExecutableNode> nodes = entry.getValue();
+      final Map<String, ExecutableNode> newer = this.pendingNodes.remove(entry.getKey());
+      if (newer != null) {
+        this.numPendingUpdates -= newer.size();
+        nodes.putAll(newer);
+      }
+      this.numPendingUpdates += nodes.size();
+      this.pendingNodes.put(entry.getKey(), nodes);
+    }
+  }
+
+  /**
+   * Put back the unwritten flow updates, unless superseded by the ones buffered since. Must hold
+   * the pending lock.
+   */
+  private void restorePendingFlows(final Map<Integer, FlowSnapshot> unwritten) {
+    for (final Map.Entry<Integer, FlowSnapshot> entry : unwritten.entrySet()) {
+      if (this.pendingFlows.putIfAbsent(entry.getKey(), entry.getValue()) == null) {
+        this.numPendingUpdates++;
+      }
+    }
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (final ExecutorManagerException e) {
+      logger.error("Error flushing execution updates.", e);
+    } catch (final RuntimeException e) {
+      // Keep the periodic flush scheduled
+      logger.error("Unexpected error flushing execution updates.", e);
+    }
+  }
+
+  private void requestFlushIfFull() {
+    if (getNumPendingUpdates() < this.maxPendingUpdates
+        || !this.flushRequested.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      this.scheduler.execute(() -> {
+        this.flushRequested.set(false);
+        flushQuietly();
+      });
+    } catch (final RejectedExecutionException e) {
+      // Shutting down, the remaining updates are flushed by shutdown()
+      this.flushRequested.set(false);
+    }
+  }
+
+  /**
+   * State of a flow when it was buffered
+   */
+  private static class FlowSnapshot {
+
+    private final Map<String, Object> data;
+    private final Status status;
+
+    private FlowSnapshot(final Map<String, Object> data, final Status status) {
+      this.data = data;
+      this.status = status;
+    }
+  }
+
+  /**
+   * Updates of some executions, taken from the pending ones to be written
+   */
+  private static class Batch {
+
+    private final Map<Integer, Map<String, ExecutableNode>> nodes = new LinkedHashMap<>();
+    private final Map<Integer, FlowSnapshot> flows = new LinkedHashMap<>();
+    private final Set<Integer> execIds = new HashSet<>();
+  }
+}
@@ -24,13 +24,25 @@ import azkaban.utils.DependencyTransferManager;
 import azkaban.utils.FileIOUtils;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.Striped;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.attribute.FileTime;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -49,16 +61,28 @@ public class FlowPreparer extends AbstractFlowPreparer {
   // Null if cache clean-up is disabled
   private final Optional<ProjectCacheCleaner> projectCacheCleaner;
   private final ProjectCacheHitRatio projectCacheHitRatio;
+  private final ExecMetrics execMetrics;
+  // Serializes the installation of a project version into the cache
+  private final Striped<Lock> projectLocks = Striped.lock(64);
+  // Held for writing to clean up the cache and install a project, for reading to hard link a
+  // project, so that the clean-up doesn't pick projects being linked
+  private final ReadWriteLock projectCacheLock = new ReentrantReadWriteLock();
+  private final ExecutorService hardlinkService;
+  // Downloads in progress by installed dir, completed once the project is installed or failed
+  private final ConcurrentMap<Path, CompletableFuture<Void>> projectDownloads =
+      new ConcurrentHashMap<>();
 
   FlowPreparer(final ProjectStorageManager projectStorageManager,
       final DependencyTransferManager dependencyTransferManager, final File projectsDir,
       final ProjectCacheCleaner cleaner, final ProjectCacheHitRatio projectCacheHitRatio,
-      final File executionsDir) {
+      final File executionsDir, final ExecMetrics execMetrics, final int hardlinkThreads) {
     super(projectStorageManager, dependencyTransferManager);
 
     Preconditions.checkNotNull(executionsDir);
     Preconditions.checkNotNull(projectsDir);
     Preconditions.checkNotNull(projectCacheHitRatio);
+    Preconditions.checkNotNull(execMetrics);
+    Preconditions.checkArgument(hardlinkThreads > 0);
 
     Preconditions.checkArgument(projectsDir.exists());
     Preconditions.checkArgument(executionsDir.exists());
@@ -67,6 +91,9 @@ public class FlowPreparer extends AbstractFlowPreparer {
     this.projectCacheDir = projectsDir;
     this.projectCacheCleaner = Optional.ofNullable(cleaner);
     this.projectCacheHitRatio = projectCacheHitRatio;
+    this.execMetrics = execMetrics;
+    this.hardlinkService = Executors.newFixedThreadPool(hardlinkThreads,
+        new ThreadFactoryBuilder().setNameFormat("azk-hardlink-pool-%d").setDaemon(true).build());
   }
 
 
@@ -78,41 +105,65 @@ public class FlowPreparer extends AbstractFlowPreparer {
   @Override
   public void setup(final ExecutableFlow flow) throws ExecutorManagerException {
     File tempDir = null;
+    Throwable failure = null;
+    final ProjectDirectoryMetadata project = new ProjectDirectoryMetadata(
+        flow.getProjectId(),
+        flow.getVersion());
     try {
-      final ProjectDirectoryMetadata project = new ProjectDirectoryMetadata(
-          flow.getProjectId(),
-          flow.getVersion());
-
       final long flowPrepStartTime = System.currentTimeMillis();
 
       tempDir = downloadProjectIfNotExists(project, flow.getExecutionId());
 
       LOGGER.info("Project is setup for execution {}", flow.getExecutionId());
-      // With synchronization, only one thread is allowed to proceed to avoid complicated race
-      // conditions which could arise when multiple threads are downloading/deleting/hard-linking
-      // the same project. But it doesn't prevent multiple executor processes interfering with each
-      // other triggering race conditions. So it's important to operationally make sure that only
-      // one executor process is setting up flow execution against the shared project directory.
-      long criticalSectionStartTime = -1;
-      File execDir = null;
-
-      synchronized (this) {
-        LOGGER.info("Setting up execution dir for {}", flow.getExecutionId());
-        criticalSectionStartTime = System.currentTimeMillis();
+      if (tempDir != null) {
+        // If new project is downloaded and project dir cache clean-up feature is enabled, then
+        // perform clean-up if size of all project dirs exceeds the cache size. Outside of the
+        // locks, as it may wait for the cleanup if the cache is full.
+        this.projectCacheCleaner.ifPresent(cacheCleaner -> cacheCleaner
+            .deleteProjectDirsIfNecessary(project.getDirSizeInByte()));
+      }
+      // The locks only keep the threads of this executor from downloading/deleting/hard-linking the
+      // same project at the same time. They don't prevent multiple executor processes interfering
+      // with each other triggering race conditions. So it's important to operationally make sure
+      // that only one executor process is setting up flow execution against the shared project
+      // directory.
+      final long lockWaitStartTime = System.currentTimeMillis();
+      final Lock projectLock = this.projectLocks.get(generateProjectDirName(project));
+      projectLock.lock();
+      try {
         if (!project.getInstalledDir().exists() && tempDir != null) {
-          // If new project is downloaded and project dir cache clean-up feature is enabled, then
-          // perform clean-up if size of all project dirs exceeds the cache size.
-          this.projectCacheCleaner.ifPresent(cacheCleaner -> cacheCleaner
-                  .deleteProjectDirsIfNecessary(project.getDirSizeInByte()));
-          // Rename temp dir to a proper project directory name.
-          Files.move(tempDir.toPath(), project.getInstalledDir().toPath());
+          this.projectCacheLock.writeLock().lock();
+          try {
+            // Rename temp dir to a proper project directory name.
+            Files.move(tempDir.toPath(), project.getInstalledDir().toPath());
+            this.projectCacheCleaner.ifPresent(cacheCleaner -> cacheCleaner
+                .projectInstalled(project));
+            // The waiting executions can link the installed project right away
+            finishProjectDownload(project, null);
+            // Downgraded, so that the new project can't be cleaned up before it's linked
+            this.projectCacheLock.readLock().lock();
+          } finally {
+            this.projectCacheLock.writeLock().unlock();
+          }
+        } else {
+          this.projectCacheLock.readLock().lock();
         }
+      } finally {
+        projectLock.unlock();
+      }
 
-        final long start = System.currentTimeMillis();
+      final long criticalSectionStartTime = System.currentTimeMillis();
+      final File execDir;
+      try {
+        LOGGER.info("Setting up execution dir for {}", flow.getExecutionId());
         execDir = setupExecutionDir(project.getInstalledDir().toPath(), flow);
-        final long end = System.currentTimeMillis();
-        LOGGER.info("Setting up execution dir {} took {} sec(s)", execDir, (end - start) / 1000);
+      } finally {
+        this.projectCacheLock.readLock().unlock();
       }
+      final long linkTime = System.currentTimeMillis() - criticalSectionStartTime;
+      this.execMetrics.addFlowSetupLockWaitTime(criticalSectionStartTime - lockWaitStartTime);
+      this.execMetrics.addFlowSetupHardlinkTime(linkTime);
+      LOGGER.info("Setting up execution dir {} took {} sec(s)", execDir, linkTime / 1000);
 
       final long flowPrepCompletionTime = System.currentTimeMillis();
       LOGGER.info("Flow preparation completed in {} sec(s), out of which {} sec(s) was spent inside "
@@ -121,10 +172,18 @@ public class FlowPreparer extends AbstractFlowPreparer {
           (flowPrepCompletionTime - criticalSectionStartTime) / 1000,
           flow.getExecutionId(), execDir.getPath());
     } catch (final Exception ex) {
+      failure = ex;
       LOGGER.error("Error in preparing flow execution {}", flow.getExecutionId(), ex);
       throw new ExecutorManagerException(ex);
+    } catch (final Throwable t) {
+      failure = t;
+      throw t;
     } finally {
-      FileIOUtils.deleteDirectorySilently(tempDir);
+      if (tempDir != null) {
+        FileIOUtils.deleteDirectorySilently(tempDir);
+        // No-op if the project was installed
+        finishProjectDownload(project, failure);
+      }
     }
   }
 
@@ -135,7 +194,7 @@ public class FlowPreparer extends AbstractFlowPreparer {
     try {
       execDir = createExecDir(flow);
       // Create hardlinks from the project
-      FileIOUtils.createDeepHardlink(dir.toFile(), execDir);
+      FileIOUtils.createDeepHardlink(dir.toFile(), execDir, this.hardlinkService);
       return execDir;
     } catch (final Exception ex) {
       FileIOUtils.deleteDirectorySilently(execDir);
@@ -172,12 +231,16 @@ public class FlowPreparer extends AbstractFlowPreparer {
   }
 
   /**
-   * Download project zip and unzip it if not exists locally.
+   * Download project zip and unzip it if not exists locally. Concurrent calls for the same project
+   * share one download: the first one downloads the project, the others wait until it's installed
+   * by {@link #setup(ExecutableFlow)}, or until the download fails and one of them takes over.
+   * The wait can be interrupted.
    *
    * @param proj project to download
    * @param execId execution id number
    * @return the temp dir where the new project is downloaded to, null if no project is downloaded.
-   * @throws IOException if downloading or unzipping fails.
+   * The download must then be finished with {@link #finishProjectDownload}.
+   * @throws IOException if downloading or unzipping fails, or the wait is interrupted.
    */
   @VisibleForTesting
   File downloadProjectIfNotExists(final ProjectDirectoryMetadata proj, final int execId)
@@ -187,28 +250,83 @@ public class FlowPreparer extends AbstractFlowPreparer {
       proj.setInstalledDir(new File(this.projectCacheDir, projectDir));
     }
 
-    // If directory exists, assume it's prepared and skip.
-    if (proj.getInstalledDir().exists()) {
-      LOGGER.info("Project {} already cached. Skipping download. ExecId: {}", proj, execId);
-      // Hit the local cache.
-      this.projectCacheHitRatio.markHit();
-      // Update last modified time of the file keeping project dir size when the project is
-      // accessed. This last modified time will be used to determined least recently used
-      // projects when performing project directory clean-up.
-      updateLastModifiedTime(
-          Paths.get(proj.getInstalledDir().getPath(), PROJECT_DIR_SIZE_FILE_NAME));
-      return null;
+    boolean deduplicated = false;
+    while (true) {
+      // If directory exists, assume it's prepared and skip.
+      if (proj.getInstalledDir().exists()) {
+        if (!deduplicated) {
+          LOGGER.info("Project {} already cached. Skipping download. ExecId: {}", proj, execId);
+          // Hit the local cache.
+          this.projectCacheHitRatio.markHit();
+        }
+        // Update last modified time of the file keeping project dir size when the project is
+        // accessed. This last modified time will be used to determined least recently used
+        // projects when performing project directory clean-up.
+        updateLastModifiedTime(
+            Paths.get(proj.getInstalledDir().getPath(), PROJECT_DIR_SIZE_FILE_NAME));
+        this.projectCacheCleaner.ifPresent(cacheCleaner -> cacheCleaner
+            .projectAccessed(proj.getInstalledDir()));
+        return null;
+      }
+
+      final CompletableFuture<Void> inProgress = this.projectDownloads
+          .putIfAbsent(proj.getInstalledDir().toPath(), new CompletableFuture<>());
+      if (inProgress == null) {
+        break;
+      }
+      if (!deduplicated) {
+        deduplicated = true;
+        this.execMetrics.markProjectDownloadDeduplicated();
+        LOGGER.info("Project {} is being downloaded by another execution. Waiting for it. "
+            + "ExecId: {}", proj, execId);
+      }
+      try {
+        inProgress.get();
+      } catch (final ExecutionException e) {
+        LOGGER.info("Download of project {} by another execution failed. ExecId: {}", proj,
+            execId);
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException(
+            "Interrupted while waiting for the download of project " + proj);
+      }
     }
 
     this.projectCacheHitRatio.markMiss();
 
     // Download project to a temp dir if not exists in local cache.
-    final File tempDir = createTempDir(proj);
-    downloadAndUnzipProject(proj, execId, tempDir);
+    File tempDir = null;
+    try {
+      tempDir = createTempDir(proj);
+      downloadAndUnzipProject(proj, execId, tempDir);
+    } catch (final Throwable t) {
+      FileIOUtils.deleteDirectorySilently(tempDir);
+      finishProjectDownload(proj, t);
+      throw t;
+    }
 
     return tempDir;
   }
 
+  /**
+   * Let the executions waiting for the download of the project proceed.
+   *
+   * @param failure why the download failed, null if the project was installed
+   */
+  private void finishProjectDownload(final ProjectDirectoryMetadata proj,
+      final Throwable failure) {
+    final CompletableFuture<Void> download =
+        this.projectDownloads.remove(proj.getInstalledDir().toPath());
+    if (download == null) {
+      return;
+    }
+    if (failure == null) {
+      download.complete(null);
+    } else {
+      download.completeExceptionally(failure);
+    }
+  }
+
   private File createExecDir(final ExecutableFlow flow) {
     final int execId = flow.getExecutionId();
     final File execDir = new File(this.executionsDir, String.valueOf(execId));
@@ -221,5 +339,6 @@ public class FlowPreparer extends AbstractFlowPreparer {
     if (projectCacheCleaner.isPresent()) {
       this.projectCacheCleaner.get().shutdown();
     }
+    this.hardlinkService.shutdown();
   }
 }
@@ -209,6 +209,19 @@ public class FlowRunner extends EventHandler<Event> implements Runnable {
   // Project upload data for events
   private final ProjectFileHandler projectFileHandler;
 
+  // Incremental persistence of the flow state, see ExecutorLoader#appendExecutableFlowUpdate
+  private final boolean incrementalUpdateEnabled;
+  private final long snapshotIntervalMs;
+  private final int snapshotMaxUpdates;
+  private long lastPersistedUpdateTime = -1;
+  private long lastUpdateWatermark = -1;
+  private long lastSnapshotTime = -1;
+  private int updatesSinceSnapshot = 0;
+
+  // Buffers the status updates of the flow and its jobs when write-behind is enabled
+  private ExecutionUpdateWriter updateWriter = null;
+  private ExecutionLogUploader logUploader = null;
+
   /**
    * Constructor. This will create its own ExecutorService for thread pools
    */
@@ -249,6 +262,14 @@ public class FlowRunner extends EventHandler<Event> implements Runnable {
     this.alerterHolder = alerterHolder;
     this.commonMetrics = commonMetrics;
     this.execMetrics = execMetrics;
+    this.incrementalUpdateEnabled = azkabanProps.getBoolean(
+        ConfigurationKeys.AZKABAN_EXECUTION_INCREMENTAL_UPDATE_ENABLED, false);
+    this.snapshotIntervalMs = azkabanProps.getLong(
+        ConfigurationKeys.AZKABAN_EXECUTION_SNAPSHOT_INTERVAL_MS,
+        Constants.DEFAULT_AZKABAN_EXECUTION_SNAPSHOT_INTERVAL_MS);
+    this.snapshotMaxUpdates = azkabanProps.getInt(
+        ConfigurationKeys.AZKABAN_EXECUTION_SNAPSHOT_MAX_UPDATES,
+        Constants.DEFAULT_AZKABAN_EXECUTION_SNAPSHOT_MAX_UPDATES);
 
     // Add the flow listener only if a non-null eventReporter is available.
     if (azkabanEventReporter != null) {
@@ -269,6 +290,16 @@ public class FlowRunner extends EventHandler<Event> implements Runnable {
     return this;
   }
 
+  public FlowRunner setUpdateWriter(final ExecutionUpdateWriter updateWriter) {
+    this.updateWriter = updateWriter;
+    return this;
+  }
+
+  public FlowRunner setLogUploader(final ExecutionLogUploader logUploader) {
+    this.logUploader = logUploader;
+    return this;
+  }
+
   public FlowRunner setNumJobThreads(final int jobs) {
     this.numJobThreads = jobs;
     return this;
@@ -448,6 +479,14 @@ public class FlowRunner extends EventHandler<Event> implements Runnable {
   }
 
   private synchronized void updateFlow(final long time) {
+    if (this.updateWriter != null) {
+      updateFlowWriteBehind(time);
+      return;
+    }
+    if (this.incrementalUpdateEnabled) {
+      updateFlowIncrementally(time);
+      return;
+    }
     try {
       this.flow.setUpdateTime(time);
       this.executorLoader.updateExecutableFlow(this.flow);
@@ -456,6 +495,66 @@ public class FlowRunner extends EventHandler<Event> implements Runnable {
     }
   }
 
+  /**
+   * Buffer the flow state in the write-behind stage, and write the pending updates of the flow
+   * synchronously once it has finished so that no state is lost.
+   */
+  private void updateFlowWriteBehind(final long time) {
+    this.flow.setUpdateTime(time);
+    this.updateWriter.updateExecutableFlow(this.flow);
+    if (this.flow.getEndTime() != -1) {
+      flushPendingUpdates();
+    }
+  }
+
+  /**
+   * Write the buffered updates of the flow and its jobs, if write-behind is enabled.
+   */
+  private void flushPendingUpdates() {
+    if (this.updateWriter == null) {
+      return;
+    }
+    try {
+      this.updateWriter.flush(this.execId);
+    } catch (final ExecutorManagerException e) {
+      this.logger.error("Error flushing flow updates.", e);
+    }
+  }
+
+  /**
+   * Persist only the nodes updated since the previous write, and a full snapshot of the flow when
+   * it starts, finishes, or has accumulated too many incremental updates.
+   */
+  private void updateFlowIncrementally(final long time) {
+    // Readers tell which incremental updates a snapshot already contains by their update time,
+    // so it must be strictly increasing even for several writes within the same millisecond.
+    final long updateTime = Math.max(time, this.lastPersistedUpdateTime + 1);
+    try {
+      this.flow.setUpdateTime(updateTime);
+      if (isSnapshotDue(updateTime)) {
+        this.executorLoader.updateExecutableFlow(this.flow);
+        this.lastSnapshotTime = updateTime;
+        this.updatesSinceSnapshot = 0;
+      } else {
+        this.executorLoader.appendExecutableFlowUpdate(this.flow, this.lastUpdateWatermark);
+        this.updatesSinceSnapshot++;
+      }
+      this.lastPersistedUpdateTime = updateTime;
+      // Nodes updated within the same millisecond as this write must go in the next one too
+      this.lastUpdateWatermark = time - 1;
+    } catch (final ExecutorManagerException e) {
+      this.logger.error("Error updating flow.", e);
+    }
+  }
+
+  private boolean isSnapshotDue(final long time) {
+    return this.lastSnapshotTime == -1
+        || this.flow.getEndTime() != -1
+        || Status.isStatusFinished(this.flow.getStatus())
+        || this.updatesSinceSnapshot >= this.snapshotMaxUpdates
+        || time - this.lastSnapshotTime >= this.snapshotIntervalMs;
+  }
+
   /**
    * setup logger and execution dir for the flowId
    */
@@ -491,6 +590,10 @@ public class FlowRunner extends EventHandler<Event> implements Runnable {
       this.logger.removeAppender(this.flowAppender);
       this.flowAppender.close();
 
+      if (this.logUploader != null) {
+        this.logUploader.uploadLogFile(this.execId, "", 0, this.logFile);
+        return;
+      }
       try {
         this.executorLoader.uploadLogFile(this.execId, "", 0, this.logFile);
       } catch (final ExecutorManagerException e) {
@@ -1224,6 +1327,8 @@ public class FlowRunner extends EventHandler<Event> implements Runnable {
       jobRunner.setValidatedProxyUsers(this.proxyUsers);
     }
 
+    jobRunner.setUpdateWriter(this.updateWriter);
+    jobRunner.setLogUploader(this.logUploader);
     jobRunner.setDelayStart(node.getDelayedExecution());
     jobRunner.setLogSettings(this.logger, this.jobLogFileSize, this.jobLogNumFiles);
     jobRunner.addListener(this.listener);
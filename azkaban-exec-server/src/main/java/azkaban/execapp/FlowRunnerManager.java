@@ -61,6 +61,7 @@ import azkaban.utils.TrackingThreadPool;
 import azkaban.utils.UndefinedPropertyException;
 import com.codahale.metrics.Timer;
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.Striped;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.File;
 import java.io.IOException;
@@ -82,6 +83,8 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -145,7 +148,8 @@ public class FlowRunnerManager implements EventListener<Event>,
   private final Props azkabanProps;
   private final File executionDirectory;
   private final File projectDirectory;
-  private final Object executionDirDeletionSync = new Object();
+  // Reads of the logs of an execution block the deletion of its directory, not each other
+  private final Striped<ReadWriteLock> executionDirLocks = Striped.readWriteLock(64);
   private final CommonMetrics commonMetrics;
   private final ExecMetrics execMetrics;
   private final DependencyTransferManager dependencyTransferManager;
@@ -159,6 +163,9 @@ public class FlowRunnerManager implements EventListener<Event>,
   // If true, jobs will validate proxy user against a list of valid proxy users.
   private final boolean validateProxyUser;
   private final ClusterRouter clusterRouter;
+  // Null unless write-behind of execution status updates is enabled
+  private final ExecutionUpdateWriter updateWriter;
+  private final ExecutionLogUploader logUploader;
   private PollingService pollingService;
   private int threadPoolQueueSize = -1;
   private Props globalProps;
@@ -213,6 +220,26 @@ public class FlowRunnerManager implements EventListener<Event>,
 
     this.flowRampManager = flowRampManager;
 
+    if (props.getBoolean(ConfigurationKeys.AZKABAN_EXECUTION_WRITE_BEHIND_ENABLED, false)) {
+      this.updateWriter = new ExecutionUpdateWriter(this.executorLoader,
+          props.getLong(ConfigurationKeys.AZKABAN_EXECUTION_WRITE_BEHIND_FLUSH_INTERVAL_MS,
+              Constants.DEFAULT_AZKABAN_EXECUTION_WRITE_BEHIND_FLUSH_INTERVAL_MS),
+          props.getInt(ConfigurationKeys.AZKABAN_EXECUTION_WRITE_BEHIND_MAX_PENDING_UPDATES,
+              Constants.DEFAULT_AZKABAN_EXECUTION_WRITE_BEHIND_MAX_PENDING_UPDATES));
+      this.updateWriter.start();
+    } else {
+      this.updateWriter = null;
+    }
+
+    if (props.getBoolean(ConfigurationKeys.EXECUTION_LOGS_ASYNC_UPLOAD_ENABLED,
+        Constants.DEFAULT_EXECUTION_LOGS_ASYNC_UPLOAD_ENABLED)) {
+      this.logUploader = new ExecutionLogUploader(this.executorLoader,
+          props.getInt(ConfigurationKeys.EXECUTION_LOGS_UPLOAD_THREADS,
+              Constants.DEFAULT_EXECUTION_LOGS_UPLOAD_THREADS));
+    } else {
+      this.logUploader = null;
+    }
+
     this.jobLogChunkSize = this.azkabanProps.getString("job.log.chunk.size", "5MB");
     this.jobLogNumFiles = this.azkabanProps.getInt("job.log.backup.index", 4);
 
@@ -244,7 +271,8 @@ public class FlowRunnerManager implements EventListener<Event>,
           .info("Configuring Cache Cleaner with {} % as threshold", projectCacheSizePercentage);
       cleaner = new ProjectCacheCleaner(this.projectDirectory,
           projectCacheSizePercentage,
-          projectCacheThrottlePercentage);
+          projectCacheThrottlePercentage,
+          getProjectCacheLowWatermarkPercentage(props, projectCacheSizePercentage));
       this.LOGGER.info("ProjectCacheCleaner configured.");
     } catch (final UndefinedPropertyException ex) {
       if (projectCacheSizePercentage == 0.0) {
@@ -257,14 +285,18 @@ public class FlowRunnerManager implements EventListener<Event>,
         this.LOGGER
             .info("Property {} not set. Initializing with default value of Throttle Percentage",
                 ConfigurationKeys.PROJECT_CACHE_THROTTLE_PERCENTAGE);
-        cleaner = new ProjectCacheCleaner(this.projectDirectory, projectCacheSizePercentage);
+        cleaner = new ProjectCacheCleaner(this.projectDirectory, projectCacheSizePercentage,
+            ProjectCacheCleaner.DEFAULT_THROTTLE_PERCENTAGE,
+            getProjectCacheLowWatermarkPercentage(props, projectCacheSizePercentage));
       }
     }
 
     // Create a flow preparer
     this.flowPreparer = new FlowPreparer(projectStorageManager, this.dependencyTransferManager,
         this.projectDirectory, cleaner, this.execMetrics.getProjectCacheHitRatio(),
-        this.executionDirectory);
+        this.executionDirectory, this.execMetrics,
+        props.getInt(ConfigurationKeys.EXECUTION_DIR_HARDLINK_THREADS,
+            Constants.DEFAULT_EXECUTION_DIR_HARDLINK_THREADS));
 
     this.execMetrics.addFlowRunnerManagerMetrics(this);
 
@@ -309,6 +341,15 @@ public class FlowRunnerManager implements EventListener<Event>,
     return true;
   }
 
+  /**
+   * @return the percentage of the disk the project cache is evicted down to, below its max size
+   */
+  private static double getProjectCacheLowWatermarkPercentage(final Props props,
+      final double projectCacheSizePercentage) {
+    return props.getDouble(ConfigurationKeys.PROJECT_CACHE_LOW_WATERMARK_PERCENTAGE,
+        projectCacheSizePercentage * Constants.DEFAULT_PROJECT_CACHE_LOW_WATERMARK_RATIO);
+  }
+
   /**
    * Add the startup dependency path to props if the current storage instance returns a non-null
    * dependencyRootPath.
@@ -532,6 +573,8 @@ public class FlowRunnerManager implements EventListener<Event>,
         .setJobLogSettings(this.jobLogChunkSize, this.jobLogNumFiles)
         .setValidateProxyUser(this.validateProxyUser)
         .setNumJobThreads(numJobThreads)
+        .setUpdateWriter(this.updateWriter)
+        .setLogUploader(this.logUploader)
         .addListeners(this, this.flowRampManager);
 
     configureFlowLevelMetrics(runner);
@@ -666,8 +709,19 @@ public class FlowRunnerManager implements EventListener<Event>,
    * delete execution dir pertaining to the given execution id
    */
   private void deleteExecutionDir(final int executionId) {
+    if (this.logUploader != null) {
+      // The logs in the directory may still be uploading
+      this.logUploader.runAfterUploads(executionId, () -> deleteExecutionDirNow(executionId));
+    } else {
+      deleteExecutionDirNow(executionId);
+    }
+  }
+
+  private void deleteExecutionDirNow(final int executionId) {
     LOGGER.info("Deleting execution directory for " + executionId);
-    synchronized (this.executionDirDeletionSync) {
+    final Lock lock = this.executionDirLocks.get(executionId).writeLock();
+    lock.lock();
+    try {
       LOGGER.info("Starting execution directory deletion for " + executionId);
       final Path flowExecutionDir = Paths.get(this.executionDirectory.toPath().toString(),
           String.valueOf(executionId));
@@ -676,6 +730,8 @@ public class FlowRunnerManager implements EventListener<Event>,
       } catch (final IOException e) {
         LOGGER.warn("Error when deleting directory " + flowExecutionDir.toAbsolutePath() + ".", e);
       }
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -712,7 +768,9 @@ public class FlowRunnerManager implements EventListener<Event>,
     final File dir = runner.getExecutionDir();
     if (dir != null && dir.exists()) {
       try {
-        synchronized (this.executionDirDeletionSync) {
+        final Lock lock = this.executionDirLocks.get(execId).readLock();
+        lock.lock();
+        try {
           if (!dir.exists()) {
             throw new ExecutorManagerException(
                 "Execution dir file doesn't exist. Probably has been deleted");
@@ -724,6 +782,8 @@ public class FlowRunnerManager implements EventListener<Event>,
           } else {
             throw new ExecutorManagerException("Flow log file doesn't exist.");
           }
+        } finally {
+          lock.unlock();
         }
       } catch (final IOException e) {
         throw new ExecutorManagerException(e);
@@ -745,7 +805,9 @@ public class FlowRunnerManager implements EventListener<Event>,
     final File dir = runner.getExecutionDir();
     if (dir != null && dir.exists()) {
       try {
-        synchronized (this.executionDirDeletionSync) {
+        final Lock lock = this.executionDirLocks.get(execId).readLock();
+        lock.lock();
+        try {
           if (!dir.exists()) {
             throw new ExecutorManagerException(
                 "Execution dir file doesn't exist. Probably has beend deleted");
@@ -756,6 +818,8 @@ public class FlowRunnerManager implements EventListener<Event>,
           } else {
             throw new ExecutorManagerException("Job log file doesn't exist.");
           }
+        } finally {
+          lock.unlock();
         }
       } catch (final IOException e) {
         throw new ExecutorManagerException(e);
@@ -781,7 +845,9 @@ public class FlowRunnerManager implements EventListener<Event>,
     }
 
     try {
-      synchronized (this.executionDirDeletionSync) {
+      final Lock lock = this.executionDirLocks.get(execId).readLock();
+      lock.lock();
+      try {
         if (!dir.exists()) {
           throw new ExecutorManagerException(
               "Execution dir file doesn't exist. Probably has been deleted");
@@ -796,6 +862,8 @@ public class FlowRunnerManager implements EventListener<Event>,
             (ArrayList<Object>) JSONUtils.parseJSONFromFile(attachmentFile);
 
         return jobAttachments;
+      } finally {
+        lock.unlock();
       }
     } catch (final IOException e) {
       throw new ExecutorManagerException(e);
@@ -813,7 +881,9 @@ public class FlowRunnerManager implements EventListener<Event>,
     final File dir = runner.getExecutionDir();
     if (dir != null && dir.exists()) {
       try {
-        synchronized (this.executionDirDeletionSync) {
+        final Lock lock = this.executionDirLocks.get(execId).readLock();
+        lock.lock();
+        try {
           if (!dir.exists()) {
             throw new ExecutorManagerException(
                 "Execution dir file doesn't exist. Probably has beend deleted");
@@ -825,6 +895,8 @@ public class FlowRunnerManager implements EventListener<Event>,
           } else {
             throw new ExecutorManagerException("Job log file doesn't exist.");
           }
+        } finally {
+          lock.unlock();
         }
       } catch (final IOException e) {
         throw new ExecutorManagerException(e);
@@ -941,6 +1013,12 @@ public class FlowRunnerManager implements EventListener<Event>,
       }
     }
     this.flowPreparer.shutdown();
+    if (this.updateWriter != null) {
+      this.updateWriter.shutdown();
+    }
+    if (this.logUploader != null) {
+      this.logUploader.shutdown(TimeUnit.MINUTES.toMillis(5));
+    }
     LOGGER.warn("Shutdown FlowRunnerManager complete.");
   }
 
@@ -955,6 +1033,9 @@ public class FlowRunnerManager implements EventListener<Event>,
     }
     this.executorService.shutdownNow();
     this.triggerManager.shutdown();
+    if (this.updateWriter != null) {
+      this.updateWriter.shutdown();
+    }
   }
 
   private boolean isPollDispatchMethodEnabled() {
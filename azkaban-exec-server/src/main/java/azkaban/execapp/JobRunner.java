@@ -17,6 +17,7 @@
 package azkaban.execapp;
 
 import azkaban.Constants;
+import azkaban.Constants.ConfigurationKeys;
 import azkaban.Constants.JobProperties;
 import azkaban.event.Event;
 import azkaban.event.EventData;
@@ -55,7 +56,6 @@ import java.util.Set;
 import org.apache.kafka.log4jappender.KafkaLog4jAppender;
 import org.apache.log4j.Appender;
 import org.apache.log4j.EnhancedPatternLayout;
-import org.apache.log4j.FileAppender;
 import org.apache.log4j.Layout;
 import org.apache.log4j.Logger;
 import org.apache.log4j.RollingFileAppender;
@@ -92,6 +92,9 @@ public class JobRunner extends EventHandler implements Runnable {
   private Integer pipelineLevel = null;
   private FlowWatcher watcher = null;
   private Set<String> proxyUsers = null;
+  // Buffers the status updates of the job when write-behind is enabled
+  private ExecutionUpdateWriter updateWriter = null;
+  private ExecutionLogUploader logUploader = null;
 
   private String jobLogChunkSize;
   private int jobLogBackupIndex;
@@ -178,6 +181,14 @@ public class JobRunner extends EventHandler implements Runnable {
     this.proxyUsers = proxyUsers;
   }
 
+  public void setUpdateWriter(final ExecutionUpdateWriter updateWriter) {
+    this.updateWriter = updateWriter;
+  }
+
+  public void setLogUploader(final ExecutionLogUploader logUploader) {
+    this.logUploader = logUploader;
+  }
+
   public void setLogSettings(final Logger flowLogger, final String logFileChuckSize,
       final int numLogBackup) {
     this.flowLogger = flowLogger;
@@ -345,7 +356,7 @@ public class JobRunner extends EventHandler implements Runnable {
     }
   }
 
-  private void attachFileAppender(final FileAppender appender) {
+  private void attachFileAppender(final Appender appender) {
     // If present, remove the existing file appender
     assert (this.jobAppender == null);
 
@@ -355,13 +366,25 @@ public class JobRunner extends EventHandler implements Runnable {
     this.flowLogger.info("Attached file appender for job " + this.jobId);
   }
 
-  private FileAppender createFileAppender() throws IOException {
+  private Appender createFileAppender() throws IOException {
     // Set up log files
     final String logName = createLogFileName(this.node);
     this.logFile = new File(this.workingDir, logName);
     final String absolutePath = this.logFile.getAbsolutePath();
     this.flowLogger.info("Log file path for job: " + this.jobId + " is: " + absolutePath);
 
+    if (this.azkabanProps.getBoolean(ConfigurationKeys.JOB_LOG_ASYNC_ENABLED,
+        Constants.DEFAULT_JOB_LOG_ASYNC_ENABLED)) {
+      final Appender fileAppender = new BatchingJobLogAppender(this.loggerLayout, absolutePath,
+          this.jobLogChunkSize, this.jobLogBackupIndex,
+          this.azkabanProps.getLong(ConfigurationKeys.JOB_LOG_ASYNC_FLUSH_INTERVAL_MS,
+              Constants.DEFAULT_JOB_LOG_ASYNC_FLUSH_INTERVAL_MS),
+          this.azkabanProps.getInt(ConfigurationKeys.JOB_LOG_ASYNC_MAX_PENDING_EVENTS,
+              Constants.DEFAULT_JOB_LOG_ASYNC_MAX_PENDING_EVENTS));
+      this.flowLogger.info("Created batching file appender for job " + this.jobId);
+      return fileAppender;
+    }
+
     // Attempt to create FileAppender
     final RollingFileAppender fileAppender =
         new RollingFileAppender(this.loggerLayout, absolutePath, true);
@@ -431,6 +454,10 @@ public class JobRunner extends EventHandler implements Runnable {
   private void writeStatus() {
     try {
       this.node.setUpdateTime(System.currentTimeMillis());
+      if (this.updateWriter != null) {
+        this.updateWriter.updateExecutableNode(this.node);
+        return;
+      }
       this.loader.updateExecutableNode(this.node);
     } catch (final ExecutorManagerException e) {
       this.flowLogger.error("Could not update job properties in db for "
@@ -564,6 +591,11 @@ public class JobRunner extends EventHandler implements Runnable {
       });
       Arrays.sort(files, Collections.reverseOrder());
 
+      if (this.logUploader != null) {
+        this.logUploader.uploadLogFile(this.executionId, this.node.getNestedId(), attemptNo,
+            files);
+        return;
+      }
       this.loader.uploadLogFile(this.executionId, this.node.getNestedId(), attemptNo,
           files);
     } catch (final ExecutorManagerException e) {
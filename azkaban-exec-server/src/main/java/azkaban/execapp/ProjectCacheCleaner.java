@@ -26,17 +26,20 @@ import java.io.FilenameFilter;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
@@ -47,6 +50,14 @@ import org.slf4j.LoggerFactory;
 /**
  * This class is responsible for deleting least recently accessed projects in the shared project
  * cache when there's no room to accommodate a new project.
+ *
+ * <p>The projects in the cache are indexed in memory in LRU order with their sizes. The index is
+ * loaded from the project dirs at startup, from the files keeping their sizes and the last
+ * modified times of those files, and then kept up to date by the {@link FlowPreparer} with
+ * {@link #projectAccessed} and {@link #projectInstalled}. Evictions don't rescan the cache.
+ *
+ * <p>The projects to evict are chosen on a thread of the cleaner and deleted by its pool, so the
+ * flow setups only wait for them when the cache reaches the throttle watermark.
  */
 class ProjectCacheCleaner {
 
@@ -61,20 +72,29 @@ class ProjectCacheCleaner {
   // Number of threads in the cache cleanup service
   private static final int CLEANING_SERVICE_THREAD_NUM = 8;
 
-  private static final double DEFAULT_THROTTLE_PERCENTAGE = 0.92; // 92%
+  static final double DEFAULT_THROTTLE_PERCENTAGE = 0.92; // 92%
 
   // If space in Cache partition goes above this Percentage, incoming request must wait
   // till the current cache cleanup cycle is done
   private double throttlePercentage;
 
-  // Currently cached projects
-  private final Map<Path, ProjectDirectoryMetadata> cachedProjects = new HashMap<>();
+  // Once the high watermark is reached, evict projects until the cache is below this percentage of
+  // the disk, so that the next projects fit without evictions
+  private final double lowWatermarkPercentage;
+
+  // Currently cached projects, from the least to the most recently used
+  private final LinkedHashMap<Path, ProjectDirectoryMetadata> cachedProjects =
+      new LinkedHashMap<>(16, 0.75f, true);
+  // Sum of the sizes of the cached projects
+  private long cachedProjectsSizeInBytes = 0;
 
   // A record of projects under deletion
   private final ConcurrentMap<Path, File> projectsUnderDeletion = new ConcurrentHashMap<>();
 
   // Executor service responsible for cache cleanup
   private final ExecutorService deletionService;
+  // Chooses the projects to evict, one eviction at a time
+  private final ExecutorService evictionService;
 
   // This is leveraged as a barrier mechanism to stall an incoming
   // request until ongoing cache cleanup cycle is done. This is only necessary if new projects
@@ -91,25 +111,40 @@ class ProjectCacheCleaner {
 
   public ProjectCacheCleaner(final File projectCacheDir, final double percentageOfDisk,
       final double throttlePercentage) {
+    this(projectCacheDir, percentageOfDisk, throttlePercentage, percentageOfDisk);
+  }
+
+  public ProjectCacheCleaner(final File projectCacheDir, final double percentageOfDisk,
+      final double throttlePercentage, final double lowWatermarkPercentage) {
     Preconditions.checkNotNull(projectCacheDir);
     Preconditions.checkArgument(projectCacheDir.exists());
     Preconditions.checkArgument(percentageOfDisk > 0 && percentageOfDisk <= 1);
+    Preconditions.checkArgument(lowWatermarkPercentage > 0
+        && lowWatermarkPercentage <= percentageOfDisk);
     this.projectCacheDir = projectCacheDir;
     this.percentageOfDisk = percentageOfDisk;
     this.throttlePercentage = throttlePercentage;
+    this.lowWatermarkPercentage = lowWatermarkPercentage;
 
-    log.info("ProjectCacheCleaner constructor called. ProjectCacheDir = {}, thresh-hold = {} %, throttle at {} %",
-        projectCacheDir.toPath(), this.percentageOfDisk, this.throttlePercentage);
+    log.info("ProjectCacheCleaner constructor called. ProjectCacheDir = {}, thresh-hold = {} %, "
+            + "throttle at {} %, evicting down to {} %", projectCacheDir.toPath(),
+        this.percentageOfDisk, this.throttlePercentage, this.lowWatermarkPercentage);
 
     emptyQCond = barrier.newCondition();
     deletionService = Executors.newFixedThreadPool(CLEANING_SERVICE_THREAD_NUM,
         new ThreadFactoryBuilder().setNameFormat("azk-cleaner-pool-%d").build());
+    this.evictionService = Executors.newSingleThreadExecutor(
+        new ThreadFactoryBuilder().setNameFormat("azk-project-cache-eviction").build());
+
+    final long start = System.currentTimeMillis();
+    loadAllProjects();
+    log.info("Loading {} project dirs metadata completed in {} msecs",
+        this.cachedProjects.size(), System.currentTimeMillis() - start);
   }
 
   /**
-   * Get metadata from the OS for the underlying path, lastAccessTime is fetched from the OS
-   * regardless of whether the given project already exists, but the space calculation for a
-   * project directory is only performed one-time.
+   * Get metadata from the OS for the underlying path. The size of a project directory is read from
+   * the file keeping it, and only calculated if that file is missing.
    *
    * @param project path for the project cache. Project filepath encodes projectID & version
    *                within the filename
@@ -117,23 +152,21 @@ class ProjectCacheCleaner {
    * @return OS Metadata for the given path
    */
   private ProjectDirectoryMetadata fetchProjectMetadata(final Path project) {
-    ProjectDirectoryMetadata projectDirectoryMetadata = this.cachedProjects.get(project);
+    ProjectDirectoryMetadata projectDirectoryMetadata = null;
 
     try {
-      if (projectDirectoryMetadata == null) {
-        final String fileName = project.getFileName().toString();
-        final int projectId = Integer.parseInt(fileName.split("\\.")[0]);
-        final int versionNum = Integer.parseInt(fileName.split("\\.")[1]);
-        projectDirectoryMetadata = new ProjectDirectoryMetadata(projectId, versionNum, project.toFile());
-
-        /*
-         * Calculate used-space (Equivalent of du command) only if the metadata for
-         * this project was never fetched before. This optimization is important as
-         * recursive space calculation is a very expensive operation.
-         */
-        projectDirectoryMetadata.setDirSizeInByte(
-            AbstractFlowPreparer.calculateDirSizeAndSave(projectDirectoryMetadata.getInstalledDir()));
-      }
+      final String fileName = project.getFileName().toString();
+      final int projectId = Integer.parseInt(fileName.split("\\.")[0]);
+      final int versionNum = Integer.parseInt(fileName.split("\\.")[1]);
+      projectDirectoryMetadata = new ProjectDirectoryMetadata(projectId, versionNum, project.toFile());
+
+      /*
+       * Calculate used-space (Equivalent of du command) only if the size of this project was
+       * never saved before. This optimization is important as recursive space calculation is a
+       * very expensive operation.
+       */
+      projectDirectoryMetadata.setDirSizeInByte(
+          AbstractFlowPreparer.calculateDirSizeAndSave(projectDirectoryMetadata.getInstalledDir()));
 
       projectDirectoryMetadata.setLastAccessTime(
           Files.getLastModifiedTime(Paths.get(projectDirectoryMetadata.getInstalledDir().toString(),
@@ -147,11 +180,10 @@ class ProjectCacheCleaner {
   }
 
   /**
-   * Browse Cache root directory to fetch all valid projects and unclean files. If a project
-   * already exists in the cache, don't bother to re-fetch the OS metadata again.
+   * Browse Cache root directory to index all valid projects, ordered by last access time.
    */
-  private void loadAllProjects() {
-    final List<Path> projects = new ArrayList<>();
+  private synchronized void loadAllProjects() {
+    final List<ProjectDirectoryMetadata> projects = new ArrayList<>();
     for (final File project : Objects
         .requireNonNull(this.projectCacheDir.listFiles(new FilenameFilter() {
           String pattern = "[0-9]+\\.[0-9]+";
@@ -163,22 +195,56 @@ class ProjectCacheCleaner {
       if (project.exists() && project.isDirectory() &&
           !projectsUnderDeletion.containsKey(project.toPath())) {
         ProjectDirectoryMetadata projectDirectoryMetadata = fetchProjectMetadata(project.toPath());
-        if (projectDirectoryMetadata != null) {
-            cachedProjects.put(project.toPath(), projectDirectoryMetadata);
+        if (projectDirectoryMetadata != null
+            && projectDirectoryMetadata.getLastAccessTime() != null) {
+          projects.add(projectDirectoryMetadata);
         }
       }
     } // end of for loop
+
+    projects.sort(Comparator.comparing(ProjectDirectoryMetadata::getLastAccessTime));
+    for (final ProjectDirectoryMetadata project : projects) {
+      addProject(project);
+    }
+  }
+
+  private void addProject(final ProjectDirectoryMetadata project) {
+    final ProjectDirectoryMetadata previous =
+        this.cachedProjects.put(project.getInstalledDir().toPath(), project);
+    if (previous != null) {
+      this.cachedProjectsSizeInBytes -= previous.getDirSizeInByte();
+    }
+    this.cachedProjectsSizeInBytes += project.getDirSizeInByte();
   }
 
   /**
-   * @return sum of the size of all project dirs
+   * Mark a cached project as the most recently used.
+   *
+   * @param installedDir directory of the project in the cache
    */
-  private long getProjectDirsTotalSizeInBytes() {
-    long totalSizeInBytes = 0;
-    for (ProjectDirectoryMetadata metadata : cachedProjects.values()) {
-      totalSizeInBytes += metadata.getDirSizeInByte();
+  public synchronized void projectAccessed(final File installedDir) {
+    final ProjectDirectoryMetadata project = this.cachedProjects.get(installedDir.toPath());
+    if (project != null) {
+      project.setLastAccessTime(FileTime.fromMillis(System.currentTimeMillis()));
+    } else if (!this.projectsUnderDeletion.containsKey(installedDir.toPath())) {
+      // Installed by another executor process sharing the cache
+      final ProjectDirectoryMetadata metadata = fetchProjectMetadata(installedDir.toPath());
+      if (metadata != null && metadata.getDirSizeInByte() != null) {
+        addProject(metadata);
+      }
     }
-    return totalSizeInBytes;
+  }
+
+  /**
+   * Add a project newly installed in the cache, as the most recently used.
+   *
+   * @param project project with its installed dir and size
+   */
+  public synchronized void projectInstalled(final ProjectDirectoryMetadata project) {
+    Preconditions.checkNotNull(project.getInstalledDir());
+    Preconditions.checkNotNull(project.getDirSizeInByte());
+    project.setLastAccessTime(FileTime.fromMillis(System.currentTimeMillis()));
+    addProject(project);
   }
 
   private void addToDeletionQueue(final File toDelete) {
@@ -225,19 +291,13 @@ class ProjectCacheCleaner {
    * @param sizeToFreeInBytes space to free up
    */
   private void deleteLeastRecentlyUsedProjects(long sizeToFreeInBytes) {
-
-    final List<ProjectDirectoryMetadata> lruList = new ArrayList<>(cachedProjects.values());
-    lruList.sort(Comparator.comparing(ProjectDirectoryMetadata::getLastAccessTime));
-    for (ProjectDirectoryMetadata lruEntry : lruList) {
-      if (sizeToFreeInBytes > 0) {
-        if (lruEntry.getInstalledDir() != null) {
-          cachedProjects.remove(lruEntry.getInstalledDir().toPath());
-          submitProjectForDeletion(lruEntry.getInstalledDir());
-          sizeToFreeInBytes -= lruEntry.getDirSizeInByte();
-        }
-      } else {
-        break;
-      }
+    final Iterator<ProjectDirectoryMetadata> lruIterator = cachedProjects.values().iterator();
+    while (sizeToFreeInBytes > 0 && lruIterator.hasNext()) {
+      final ProjectDirectoryMetadata lruEntry = lruIterator.next();
+      lruIterator.remove();
+      this.cachedProjectsSizeInBytes -= lruEntry.getDirSizeInByte();
+      submitProjectForDeletion(lruEntry.getInstalledDir());
+      sizeToFreeInBytes -= lruEntry.getDirSizeInByte();
     }
   }
 
@@ -247,12 +307,21 @@ class ProjectCacheCleaner {
 
   /**
    *
-   * This method will block until all active cleanup threads finish deleting submitted
-   * cleanup jobs.
+   * This method will block until the pending evictions are done and all active cleanup threads
+   * finish deleting submitted cleanup jobs.
    */
   @VisibleForTesting
   void finishPendingCleanup() {
     final long start = System.currentTimeMillis();
+    try {
+      // After the evictions queued before
+      this.evictionService.submit(() -> { }).get();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    } catch (final ExecutionException | RejectedExecutionException e) {
+      log.warn("Error waiting for the pending project cache evictions", e);
+    }
     try {
       this.barrier.lock();
       while (!projectsUnderDeletion.isEmpty()) {
@@ -275,27 +344,41 @@ class ProjectCacheCleaner {
    * 1. Calculates the total dynamic size available for the project cache.
    *    This = (Usable space left in the disk partition + Space currently occupied by the project cache).
    * 2. Calculates high water mark & throttle water marks based on the above number.
-   * 3. If the occupied bytes > high water mark, lazy (Non-blocking) LRU eviction kicks in
+   * 3. If the occupied bytes > high water mark, lazy (Non-blocking) LRU eviction kicks in on the
+   *    eviction thread
    * 4. If the occupied bytes > throttle water mark, the method will block until LRU eviction is complete.
-   * In each case, LRU eviction attempts to keep the occupied space below high water mark.
+   * In each case, LRU eviction attempts to bring the occupied space down to the low water mark.
    *
    * @param newProjectSizeInBytes space in bytes the new project will add to the existing cache
    */
   public void deleteProjectDirsIfNecessary(final long newProjectSizeInBytes) {
-    final long cachePartitionSize = this.projectCacheDir.getTotalSpace();
-    final long availablePartitionSize = this.projectCacheDir.getUsableSpace();
+    this.evictionService.execute(() -> evictProjectsIfNecessary(
+        this.projectCacheDir.getTotalSpace(), this.projectCacheDir.getUsableSpace(),
+        newProjectSizeInBytes));
+    if (isThrottleWatermarkHit(this.projectCacheDir.getUsableSpace(), newProjectSizeInBytes)) {
+      /*
+       * Block till the eviction and the already submitted cleanup are done.
+       */
+      log.info("Throttle Watermark was hit. Blocking till LRU eviction is complete.");
+      finishPendingCleanup();
+    }
+  }
 
-    final long start = System.currentTimeMillis();
-    loadAllProjects();
-    log.info("Loading {} project dirs metadata completed in {} msecs",
-        cachedProjects.size(), System.currentTimeMillis() - start);
+  private synchronized boolean isThrottleWatermarkHit(final long availablePartitionSize,
+      final long newProjectSizeInBytes) {
+    final long projectCacheDirCapacity = this.cachedProjectsSizeInBytes + availablePartitionSize;
+    return this.cachedProjectsSizeInBytes + newProjectSizeInBytes
+        >= (long) (projectCacheDirCapacity * this.throttlePercentage);
+  }
 
-    final long currentCacheSize = getProjectDirsTotalSizeInBytes();
+  private synchronized void evictProjectsIfNecessary(final long cachePartitionSize,
+      final long availablePartitionSize, final long newProjectSizeInBytes) {
+    final long currentCacheSize = this.cachedProjectsSizeInBytes;
     final long projectCacheDirCapacity = currentCacheSize + availablePartitionSize;
-    boolean throttleAfterDeletion = false;
 
     final long highWatermark = (long) (projectCacheDirCapacity * this.percentageOfDisk);
     final long throttleWatermark = (long) (projectCacheDirCapacity * this.throttlePercentage);
+    final long lowWatermark = (long) (projectCacheDirCapacity * this.lowWatermarkPercentage);
 
     long projectedCacheSize = currentCacheSize + newProjectSizeInBytes;
 
@@ -304,25 +387,14 @@ class ProjectCacheCleaner {
         bytesToMB(projectCacheDirCapacity),
         bytesToMB(currentCacheSize),
         bytesToMB(projectedCacheSize));
-    log.info("High Watermark = {} MB, Throttle Watermark = {} MB",
+    log.info("High Watermark = {} MB, Throttle Watermark = {} MB, Low Watermark = {} MB",
         bytesToMB(highWatermark),
-        bytesToMB(throttleWatermark));
-
-    if (projectedCacheSize >= throttleWatermark) {
-      throttleAfterDeletion = true;
-    }
+        bytesToMB(throttleWatermark),
+        bytesToMB(lowWatermark));
 
     if (projectedCacheSize >= highWatermark) {
       log.info("Projected cache size exceeds High Watermark. LRU Eviction will kick in");
-      deleteLeastRecentlyUsedProjects(projectedCacheSize - highWatermark);
-    }
-
-    if (throttleAfterDeletion) {
-      /*
-       * Block till already submitted cleanup is done.
-       */
-      log.info("Throttle Watermark was hit. Blocking till LRU eviction is complete.");
-      finishPendingCleanup();
+      deleteLeastRecentlyUsedProjects(projectedCacheSize - lowWatermark);
     }
   }
 
@@ -343,6 +415,7 @@ class ProjectCacheCleaner {
    */
   public void shutdown() {
     try {
+      new ExecutorServiceUtils().gracefulShutdown(evictionService, Duration.ofDays(1));
       new ExecutorServiceUtils().gracefulShutdown(deletionService, Duration.ofDays(1));
     } catch (final InterruptedException e) {
       log.warn("Error when deleting files", e);
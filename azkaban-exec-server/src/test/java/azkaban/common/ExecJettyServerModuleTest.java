@@ -29,7 +29,9 @@ import static azkaban.executor.ExecutorApiClientTest.TRUSTSTORE_PATH;
 import azkaban.DispatchMethod;
 import azkaban.executor.ExecutorApiClient;
 import azkaban.executor.ExecutorApiClientTest.SimpleServlet;
+import azkaban.metrics.MetricsManager;
 import azkaban.utils.Props;
+import com.codahale.metrics.MetricRegistry;
 import java.net.URI;
 import org.junit.Assert;
 import org.junit.Test;
@@ -64,7 +66,8 @@ public class ExecJettyServerModuleTest {
     final Context root = new Context(jettyServer, "/", Context.SESSIONS);
     root.addServlet(new ServletHolder(new SimpleServlet()), "/simple");
     jettyServer.start();
-    final ExecutorApiClient tlsDisabledClient = new ExecutorApiClient(new Props());
+    final ExecutorApiClient tlsDisabledClient = new ExecutorApiClient(new Props(),
+        new MetricsManager(new MetricRegistry()));
     final String postResponse = tlsDisabledClient
         .doPost(new URI(SimpleServlet.TLS_DISABLED_URI), DispatchMethod.CONTAINERIZED,
             null);
@@ -103,7 +106,8 @@ public class ExecJettyServerModuleTest {
         .put(EXECUTOR_CLIENT_TRUSTSTORE_PATH, TRUSTSTORE_PATH);
     clientProps.put(EXECUTOR_CLIENT_TRUSTSTORE_PASSWORD, "changeit");
 
-    final ExecutorApiClient tlsEnabledClient = new ExecutorApiClient(clientProps);
+    final ExecutorApiClient tlsEnabledClient = new ExecutorApiClient(clientProps,
+        new MetricsManager(new MetricRegistry()));
     final String postResponse = tlsEnabledClient
         .doPost(new URI(SimpleServlet.TLS_ENABLED_URI), DispatchMethod.CONTAINERIZED,
             null);
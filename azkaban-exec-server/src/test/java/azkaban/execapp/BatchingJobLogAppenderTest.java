@@ -0,0 +1,122 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.execapp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import azkaban.test.TestUtils;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.log4j.Logger;
+import org.apache.log4j.PatternLayout;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BatchingJobLogAppenderTest {
+
+  @Rule
+  public final TemporaryFolder temp = new TemporaryFolder();
+
+  private Logger logger;
+  private File logFile;
+  private BatchingJobLogAppender appender;
+
+  @Before
+  public void setUp() throws Exception {
+    this.logger = Logger.getLogger("BatchingJobLogAppenderTest." + System.nanoTime());
+    this.logger.setAdditivity(false);
+    this.logFile = new File(this.temp.getRoot(), "_job.1.test.log");
+  }
+
+  @After
+  public void tearDown() {
+    if (this.appender != null) {
+      this.logger.removeAppender(this.appender);
+      this.appender.close();
+    }
+  }
+
+  private void createAppender(final String maxFileSize, final long flushIntervalMs,
+      final int maxPendingEvents) throws Exception {
+    this.appender = new BatchingJobLogAppender(new PatternLayout("%p %t - %m%n"),
+        this.logFile.getAbsolutePath(), maxFileSize, 4, flushIntervalMs, maxPendingEvents);
+    this.logger.addAppender(this.appender);
+  }
+
+  private List<String> readLines(final File file) throws Exception {
+    return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testCloseWritesAllEvents() throws Exception {
+    createAppender("5MB", 60000, 1000);
+    for (int i = 0; i < 10; i++) {
+      this.logger.info("line " + i);
+    }
+    // Not written until the flush interval or the max pending events
+    assertThat(this.logFile.length()).isEqualTo(0);
+
+    this.appender.close();
+    final String threadName = Thread.currentThread().getName();
+    assertThat(readLines(this.logFile)).containsExactlyElementsOf(IntStream.range(0, 10)
+        .mapToObj(i -> "INFO " + threadName + " - line " + i).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testFlushInterval() throws Exception {
+    createAppender("5MB", 50, 1000);
+    this.logger.info("line");
+    final String threadName = Thread.currentThread().getName();
+    TestUtils.await().untilAsserted(() -> assertThat(readLines(this.logFile))
+        .containsExactly("INFO " + threadName + " - line"));
+  }
+
+  @Test
+  public void testMaxPendingEvents() throws Exception {
+    createAppender("5MB", 60000, 10);
+    for (int i = 0; i < 1000; i++) {
+      this.logger.info("line " + i);
+    }
+    TestUtils.await().untilAsserted(
+        () -> assertThat(readLines(this.logFile).size()).isGreaterThanOrEqualTo(990));
+    this.appender.close();
+    assertThat(readLines(this.logFile)).hasSize(1000);
+  }
+
+  @Test
+  public void testRolling() throws Exception {
+    createAppender("1KB", 60000, 10);
+    for (int i = 0; i < 200; i++) {
+      this.logger.info("line " + i);
+    }
+    this.appender.close();
+
+    final File backup = new File(this.logFile.getPath() + ".1");
+    assertThat(backup).exists();
+    assertThat(this.logFile.length()).isLessThanOrEqualTo(1024 + 100);
+    // Same rolling as RollingFileAppender: the newest lines are in the log file
+    final List<String> lines = readLines(this.logFile);
+    assertThat(lines.get(lines.size() - 1)).endsWith(" - line 199");
+  }
+}
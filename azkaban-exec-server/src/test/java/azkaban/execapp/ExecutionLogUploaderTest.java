@@ -0,0 +1,109 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.execapp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+import azkaban.executor.ExecutorLoader;
+import azkaban.executor.ExecutorManagerException;
+import azkaban.test.TestUtils;
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import org.junit.After;
+import org.junit.Test;
+
+public class ExecutionLogUploaderTest {
+
+  private final ExecutorLoader loader = mock(ExecutorLoader.class);
+  private final ExecutionLogUploader uploader = new ExecutionLogUploader(this.loader, 2);
+  private final List<String> events = new CopyOnWriteArrayList<>();
+
+  @After
+  public void tearDown() {
+    this.uploader.shutdown(10000);
+  }
+
+  private void recordUploads() throws Exception {
+    doAnswer(invocation -> {
+      this.events.add(invocation.getArgument(0) + ":" + invocation.getArgument(1));
+      return null;
+    }).when(this.loader).uploadLogFile(anyInt(), any(), anyInt(), any());
+  }
+
+  @Test
+  public void testRunsAfterUploadsOfTheExecution() throws Exception {
+    final CountDownLatch blockUpload = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      blockUpload.await();
+      this.events.add("1:job");
+      return null;
+    }).when(this.loader).uploadLogFile(eq(1), eq("job"), anyInt(), any());
+    doAnswer(invocation -> {
+      this.events.add(invocation.getArgument(0) + ":" + invocation.getArgument(1));
+      return null;
+    }).when(this.loader).uploadLogFile(eq(2), any(), anyInt(), any());
+
+    this.uploader.uploadLogFile(1, "job", 0, new File("job.log"));
+    this.uploader.runAfterUploads(1, () -> this.events.add("1:delete"));
+    this.uploader.uploadLogFile(2, "", 0, new File("flow.log"));
+    this.uploader.runAfterUploads(2, () -> this.events.add("2:delete"));
+
+    // The tasks of another execution aren't blocked
+    TestUtils.await().untilAsserted(
+        () -> assertThat(this.events).containsExactly("2:", "2:delete"));
+    blockUpload.countDown();
+    TestUtils.await().untilAsserted(() -> assertThat(this.events)
+        .containsExactly("2:", "2:delete", "1:job", "1:delete"));
+    TestUtils.await().untilAsserted(
+        () -> assertThat(this.uploader.getNumPendingExecutions()).isEqualTo(0));
+  }
+
+  @Test
+  public void testFailedUploadDoesNotStopTheQueue() throws Exception {
+    recordUploads();
+    doThrow(new ExecutorManagerException("DB down")).when(this.loader)
+        .uploadLogFile(eq(1), eq("job1"), anyInt(), any());
+
+    this.uploader.uploadLogFile(1, "job1", 0, new File("job1.log"));
+    this.uploader.runAfterUploads(1, () -> {
+      throw new IllegalStateException("failed task");
+    });
+    this.uploader.uploadLogFile(1, "job2", 0, new File("job2.log"));
+    this.uploader.runAfterUploads(1, () -> this.events.add("1:delete"));
+
+    TestUtils.await().untilAsserted(
+        () -> assertThat(this.events).containsExactly("1:job2", "1:delete"));
+  }
+
+  @Test
+  public void testShutdownWaitsForQueuedTasks() throws Exception {
+    recordUploads();
+    for (int i = 0; i < 10; i++) {
+      this.uploader.uploadLogFile(i, "", 0, new File("flow.log"));
+    }
+    this.uploader.shutdown(10000);
+    assertThat(this.events).hasSize(10);
+  }
+}
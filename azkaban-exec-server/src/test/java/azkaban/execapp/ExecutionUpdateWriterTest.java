@@ -0,0 +1,198 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.execapp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import azkaban.DispatchMethod;
+import azkaban.executor.ExecutableFlow;
+import azkaban.executor.ExecutableNode;
+import azkaban.executor.ExecutorLoader;
+import azkaban.executor.ExecutorManagerException;
+import azkaban.executor.Status;
+import azkaban.utils.TestUtils;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class ExecutionUpdateWriterTest {
+
+  private ExecutorLoader executorLoader;
+  private ExecutionUpdateWriter updateWriter;
+  private ExecutableFlow flow;
+
+  @Before
+  public void setUp() throws Exception {
+    this.executorLoader = mock(ExecutorLoader.class);
+    this.flow = TestUtils.createTestExecutableFlow("exectest1", "exec1", DispatchMethod.POLL);
+    this.flow.setExecutionId(1);
+  }
+
+  @After
+  public void tearDown() {
+    if (this.updateWriter != null) {
+      this.updateWriter.shutdown();
+    }
+  }
+
+  private static List<String> toIdsAndStatuses(final List<ExecutableNode> nodes) {
+    return nodes.stream().map(node -> node.getId() + "#" + node.getAttempt() + ":" + node
+        .getStatus()).collect(Collectors.toList());
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<ExecutableNode> verifyNodesWritten(final int numCalls) throws Exception {
+    final ArgumentCaptor<List<ExecutableNode>> captor = ArgumentCaptor.forClass(List.class);
+    verify(this.executorLoader, times(numCalls)).updateExecutableNodes(captor.capture());
+    return captor.getValue();
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<ExecutableFlow> verifyFlowsWritten(final int numCalls) throws Exception {
+    final ArgumentCaptor<List<ExecutableFlow>> captor = ArgumentCaptor.forClass(List.class);
+    verify(this.executorLoader, times(numCalls)).updateExecutableFlows(captor.capture());
+    return captor.getValue();
+  }
+
+  @Test
+  public void testUpdatesAreCoalesced() throws Exception {
+    this.updateWriter = new ExecutionUpdateWriter(this.executorLoader, 60 * 1000L, 100);
+    final ExecutableNode job1 = this.flow.getExecutableNode("job1");
+    final ExecutableNode job2 = this.flow.getExecutableNode("job2");
+
+    job1.setStatus(Status.RUNNING);
+    this.updateWriter.updateExecutableNode(job1);
+    job1.setStatus(Status.SUCCEEDED);
+    this.updateWriter.updateExecutableNode(job1);
+    this.updateWriter.updateExecutableNode(job2);
+    this.updateWriter.updateExecutableFlow(this.flow);
+    this.flow.setStatus(Status.RUNNING);
+    this.updateWriter.updateExecutableFlow(this.flow);
+    assertThat(this.updateWriter.getNumPendingUpdates()).isEqualTo(3);
+    verify(this.executorLoader, never()).updateExecutableNodes(any());
+
+    this.updateWriter.flush();
+    assertThat(toIdsAndStatuses(verifyNodesWritten(1)))
+        .containsExactly("job1#0:SUCCEEDED", "job2#0:READY");
+    final List<ExecutableFlow> flows = verifyFlowsWritten(1);
+    assertThat(flows).hasSize(1);
+    assertThat(flows.get(0).getExecutionId()).isEqualTo(1);
+    assertThat(flows.get(0).getStatus()).isEqualTo(Status.RUNNING);
+    assertThat(this.updateWriter.getNumPendingUpdates()).isEqualTo(0);
+  }
+
+  @Test
+  public void testStateIsCopiedWhenBuffered() throws Exception {
+    this.updateWriter = new ExecutionUpdateWriter(this.executorLoader, 60 * 1000L, 100);
+    final ExecutableNode job1 = this.flow.getExecutableNode("job1");
+    job1.setStatus(Status.FAILED);
+    this.updateWriter.updateExecutableNode(job1);
+    this.updateWriter.updateExecutableFlow(this.flow);
+
+    // Changes after the updates were buffered, and the next attempt of the job
+    this.flow.setStatus(Status.FAILED);
+    job1.resetForRetry();
+    job1.setStatus(Status.RUNNING);
+    this.updateWriter.updateExecutableNode(job1);
+
+    this.updateWriter.flush();
+    assertThat(toIdsAndStatuses(verifyNodesWritten(1)))
+        .containsExactly("job1#0:FAILED", "job1#1:RUNNING");
+    assertThat(verifyFlowsWritten(1).get(0).getStatus()).isEqualTo(Status.READY);
+  }
+
+  @Test
+  public void testFlushOfOneExecution() throws Exception {
+    this.updateWriter = new ExecutionUpdateWriter(this.executorLoader, 60 * 1000L, 100);
+    final ExecutableFlow otherFlow = TestUtils
+        .createTestExecutableFlow("exectest1", "exec1", DispatchMethod.POLL);
+    otherFlow.setExecutionId(2);
+    this.updateWriter.updateExecutableNode(this.flow.getExecutableNode("job1"));
+    this.updateWriter.updateExecutableNode(otherFlow.getExecutableNode("job1"));
+    this.updateWriter.updateExecutableFlow(otherFlow);
+
+    this.updateWriter.flush(1);
+    final List<ExecutableNode> nodes = verifyNodesWritten(1);
+    assertThat(nodes).hasSize(1);
+    assertThat(nodes.get(0).getExecutableFlow().getExecutionId()).isEqualTo(1);
+    verify(this.executorLoader, never()).updateExecutableFlows(any());
+    assertThat(this.updateWriter.getNumPendingUpdates()).isEqualTo(2);
+
+    // Nothing pending for the execution anymore
+    this.updateWriter.flush(1);
+    verify(this.executorLoader).updateExecutableNodes(any());
+  }
+
+  @Test
+  public void testFailedUpdatesStayPending() throws Exception {
+    this.updateWriter = new ExecutionUpdateWriter(this.executorLoader, 60 * 1000L, 100);
+    final ExecutableNode job1 = this.flow.getExecutableNode("job1");
+    final ExecutableNode job2 = this.flow.getExecutableNode("job2");
+    doThrow(new ExecutorManagerException("Mocked db error")).doNothing()
+        .when(this.executorLoader).updateExecutableNodes(any());
+    this.updateWriter.updateExecutableNode(job1);
+    this.updateWriter.updateExecutableFlow(this.flow);
+
+    try {
+      this.updateWriter.flush();
+      fail("Expected the db error");
+    } catch (final ExecutorManagerException e) {
+      assertThat(e).hasMessage("Mocked db error");
+    }
+    // The flow was written, the job wasn't
+    verifyFlowsWritten(1);
+    assertThat(this.updateWriter.getNumPendingUpdates()).isEqualTo(1);
+
+    job1.setStatus(Status.RUNNING);
+    this.updateWriter.updateExecutableNode(job2);
+    this.updateWriter.updateExecutableNode(job1);
+    this.updateWriter.flush();
+    // The unwritten update first, superseded by the newer one
+    assertThat(toIdsAndStatuses(verifyNodesWritten(2)))
+        .containsExactly("job1#0:RUNNING", "job2#0:READY");
+    assertThat(this.updateWriter.getNumPendingUpdates()).isEqualTo(0);
+  }
+
+  @Test
+  public void testFlushWhenMaxPendingUpdatesReached() throws Exception {
+    this.updateWriter = new ExecutionUpdateWriter(this.executorLoader, 60 * 1000L, 2);
+    this.updateWriter.updateExecutableNode(this.flow.getExecutableNode("job1"));
+    this.updateWriter.updateExecutableNode(this.flow.getExecutableNode("job2"));
+
+    verify(this.executorLoader, timeout(5000)).updateExecutableNodes(any());
+  }
+
+  @Test
+  public void testPeriodicFlush() throws Exception {
+    this.updateWriter = new ExecutionUpdateWriter(this.executorLoader, 10L, 100);
+    this.updateWriter.start();
+    this.updateWriter.updateExecutableFlow(this.flow);
+
+    verify(this.executorLoader, timeout(5000)).updateExecutableFlows(any());
+  }
+}
@@ -20,11 +20,15 @@ package azkaban.execapp;
 import azkaban.execapp.metric.ProjectCacheHitRatio;
 import azkaban.executor.ExecutableFlow;
 import azkaban.executor.ExecutorManagerException;
+import azkaban.project.ProjectFileHandler;
 import azkaban.spi.Dependency;
+import azkaban.storage.ProjectStorageManager;
+import azkaban.test.TestUtils;
 import azkaban.test.executions.ThinArchiveTestUtils;
 import azkaban.utils.DependencyTransferManager;
 import azkaban.utils.FileIOUtils;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -33,9 +37,11 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import org.apache.commons.io.FileUtils;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -54,6 +60,8 @@ public class FlowPreparerTest extends FlowPreparerTestBase {
   private File executionsDir;
   private File projectsDir;
   private FlowPreparer instance;
+  private ExecMetrics execMetrics;
+  private ProjectStorageManager projectStorageManager;
 
   @Before
   public void setUp() throws Exception {
@@ -61,10 +69,12 @@ public class FlowPreparerTest extends FlowPreparerTestBase {
     this.projectsDir = this.temporaryFolder.newFolder("projects");
 
     this.dependencyTransferManager = mock(DependencyTransferManager.class);
+    this.execMetrics = mock(ExecMetrics.class);
+    this.projectStorageManager = createMockStorageManager();
 
     this.instance = spy(
-            new FlowPreparer(createMockStorageManager(), this.dependencyTransferManager, this.projectsDir, null,
-                    new ProjectCacheHitRatio(), this.executionsDir));
+            new FlowPreparer(this.projectStorageManager, this.dependencyTransferManager, this.projectsDir, null,
+                    new ProjectCacheHitRatio(), this.executionsDir, this.execMetrics, 2));
     doNothing().when(this.instance).updateLastModifiedTime(any());
   }
 
@@ -151,6 +161,75 @@ public class FlowPreparerTest extends FlowPreparerTestBase {
         Files.newDirectoryStream(projectsDir.toPath(), "_temp.*").iterator().hasNext());
   }
 
+  @Test
+  public void testConcurrentSetupsShareTheProjectDownload() throws Exception {
+    final CountDownLatch downloadStarted = new CountDownLatch(1);
+    final CountDownLatch finishDownload = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      downloadStarted.countDown();
+      finishDownload.await();
+      return invocation.callRealMethod();
+    }).when(this.instance).downloadAndUnzipProject(any(), anyInt(), any());
+
+    final ExecutorService service = Executors.newFixedThreadPool(3);
+    final List<Future<?>> futures = new ArrayList<>();
+    futures.add(service.submit(() -> {
+      this.instance.setup(mockExecutableFlow(1, FAT_PROJECT_ID, 34));
+      return null;
+    }));
+    downloadStarted.await();
+    for (int execId = 2; execId <= 3; execId++) {
+      final ExecutableFlow flow = mockExecutableFlow(execId, FAT_PROJECT_ID, 34);
+      futures.add(service.submit(() -> {
+        this.instance.setup(flow);
+        return null;
+      }));
+    }
+    TestUtils.await().untilAsserted(
+        () -> verify(this.execMetrics, times(2)).markProjectDownloadDeduplicated());
+    finishDownload.countDown();
+
+    for (final Future<?> future : futures) {
+      future.get();
+    }
+    service.shutdownNow();
+    verify(this.instance, times(1)).downloadAndUnzipProject(any(), anyInt(), any());
+    for (int execId = 1; execId <= 3; execId++) {
+      assertTrue(new File(this.executionsDir, execId + "/" + SAMPLE_FLOW_01).exists());
+    }
+  }
+
+  @Test
+  public void testFailedProjectDownloadIsTakenOver() throws Exception {
+    final CountDownLatch downloadStarted = new CountDownLatch(1);
+    final CountDownLatch failDownload = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      downloadStarted.countDown();
+      failDownload.await();
+      throw new OutOfMemoryError("test");
+    }).doCallRealMethod().when(this.instance).downloadAndUnzipProject(any(), anyInt(), any());
+
+    final ExecutorService service = Executors.newFixedThreadPool(2);
+    final Future<?> failed = service.submit(() -> {
+      this.instance.setup(mockExecutableFlow(1, FAT_PROJECT_ID, 34));
+      return null;
+    });
+    downloadStarted.await();
+    final Future<?> waiting = service.submit(() -> {
+      this.instance.setup(mockExecutableFlow(2, FAT_PROJECT_ID, 34));
+      return null;
+    });
+    TestUtils.await().untilAsserted(
+        () -> verify(this.execMetrics).markProjectDownloadDeduplicated());
+    failDownload.countDown();
+
+    assertThatThrownBy(failed::get).hasCauseInstanceOf(OutOfMemoryError.class);
+    waiting.get();
+    service.shutdownNow();
+    verify(this.instance, times(2)).downloadAndUnzipProject(any(), anyInt(), any());
+    assertTrue(new File(this.executionsDir, "2/" + SAMPLE_FLOW_01).exists());
+  }
+
   @Test
   public void testSetupFlow() throws ExecutorManagerException {
     final ExecutableFlow executableFlow = mock(ExecutableFlow.class);
@@ -162,6 +241,8 @@ public class FlowPreparerTest extends FlowPreparerTestBase {
     final File execDir = new File(this.executionsDir, "12345");
     assertTrue(execDir.exists());
     assertTrue(new File(execDir, SAMPLE_FLOW_01).exists());
+    verify(this.execMetrics).addFlowSetupLockWaitTime(anyLong());
+    verify(this.execMetrics).addFlowSetupHardlinkTime(anyLong());
   }
 
   @Test
@@ -184,4 +265,31 @@ public class FlowPreparerTest extends FlowPreparerTestBase {
     Set<Dependency> expectedDownloadedDeps = ThinArchiveTestUtils.getDepSetAB();
     verify(this.dependencyTransferManager).downloadAllDependencies(depSetEq(expectedDownloadedDeps));
   }
+
+  @Test
+  public void testStreamAndUnzipProjectTHIN() throws Exception {
+    final ProjectFileHandler projectFileHandler =
+        this.projectStorageManager.getProjectFile(THIN_PROJECT_ID, 34);
+    final File zipFile = projectFileHandler.getLocalFile();
+    when(this.projectStorageManager.isProjectFileStreamingEnabled()).thenReturn(true);
+    when(this.projectStorageManager.getProjectFileMetadata(THIN_PROJECT_ID, 34))
+        .thenReturn(projectFileHandler);
+    when(this.projectStorageManager.openProjectFile(projectFileHandler))
+        .thenAnswer(invocation -> new FileInputStream(zipFile));
+
+    final ProjectDirectoryMetadata proj = new ProjectDirectoryMetadata(THIN_PROJECT_ID, 34,
+        new File(this.projectsDir, SAMPLE_FLOW_01));
+    final File dest = this.temporaryFolder.newFolder("dest");
+    this.instance.downloadAndUnzipProject(proj, 124, dest);
+
+    verify(this.dependencyTransferManager)
+        .downloadAllDependencies(depSetEq(ThinArchiveTestUtils.getDepSetAB()));
+    verify(projectFileHandler, never()).deleteLocalFile();
+    // The size is summed while unzipping
+    final File sizeFile = new File(dest, AbstractFlowPreparer.PROJECT_DIR_SIZE_FILE_NAME);
+    assertThat(proj.getDirSizeInByte()).isGreaterThan(0L)
+        .isEqualTo(FileUtils.sizeOfDirectory(dest) - sizeFile.length());
+    assertThat(FileIOUtils.readNumberFromFile(sizeFile.toPath()))
+        .isEqualTo(proj.getDirSizeInByte());
+  }
 }
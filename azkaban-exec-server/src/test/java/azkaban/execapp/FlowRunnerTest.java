@@ -28,6 +28,12 @@ import static azkaban.Constants.EventReporterConstants.PROJECT_NAME;
 import static azkaban.Constants.EventReporterConstants.SLA_OPTIONS;
 import static azkaban.Constants.EventReporterConstants.SUBMIT_USER;
 import static azkaban.Constants.EventReporterConstants.VERSION_SET;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
 import azkaban.Constants;
 import azkaban.common.ServerUtils;
@@ -36,6 +42,7 @@ import azkaban.executor.ExecutableNode;
 import azkaban.executor.ExecutionOptions;
 import azkaban.executor.ExecutionOptions.FailureAction;
 import azkaban.executor.InteractiveTestJob;
+import azkaban.executor.MockExecutorLoader;
 import azkaban.executor.Status;
 import azkaban.imagemgmt.version.VersionSet;
 import azkaban.spi.EventType;
@@ -86,6 +93,61 @@ public class FlowRunnerTest extends FlowRunnerTestBase {
     eventCollector.assertEvents(EventType.FLOW_STARTED, EventType.FLOW_FINISHED);
   }
 
+  @Test
+  public void exec1IncrementalUpdates() throws Exception {
+    final Props azkabanProps = new Props();
+    azkabanProps.put(Constants.ConfigurationKeys.AZKABAN_EXECUTION_INCREMENTAL_UPDATE_ENABLED,
+        "true");
+    azkabanProps.put(Constants.ConfigurationKeys.AZKABAN_EXECUTION_SNAPSHOT_MAX_UPDATES, 1000);
+    final MockExecutorLoader executorLoader = spy(new MockExecutorLoader());
+    this.testUtil.setExecutorLoader(executorLoader);
+    this.runner = this.testUtil.createFromFlowFile("exec1", azkabanProps);
+
+    FlowRunnerTestUtil.startThread(this.runner);
+    succeedJobs("job3", "job4", "job6");
+
+    waitForAndAssertFlowStatus(Status.SUCCEEDED);
+    assertThreadShutDown();
+
+    // Snapshots are written when the flow starts and finishes, job status changes in between
+    // only append incremental updates
+    verify(executorLoader, atLeast(2)).updateExecutableFlow(any());
+    verify(executorLoader, atLeastOnce()).appendExecutableFlowUpdate(any(), anyLong());
+    final ExecutableFlow persistedFlow = executorLoader
+        .fetchExecutableFlow(this.runner.getExecutableFlow().getExecutionId());
+    Assert.assertEquals(Status.SUCCEEDED, persistedFlow.getStatus());
+    for (final String jobId : new String[]{"job1", "job2", "job5", "job7", "job8", "job10"}) {
+      Assert.assertEquals(Status.SUCCEEDED, persistedFlow.getExecutableNode(jobId).getStatus());
+    }
+  }
+
+  @Test
+  public void exec1WriteBehindUpdates() throws Exception {
+    final MockExecutorLoader executorLoader = spy(new MockExecutorLoader());
+    this.testUtil.setExecutorLoader(executorLoader);
+    // Nothing is flushed before the flow finishes
+    final ExecutionUpdateWriter updateWriter =
+        new ExecutionUpdateWriter(executorLoader, 60 * 60 * 1000L, 1000);
+    this.runner = this.testUtil.createFromFlowFile("exec1");
+    this.runner.setUpdateWriter(updateWriter);
+
+    FlowRunnerTestUtil.startThread(this.runner);
+    succeedJobs("job3", "job4", "job6");
+
+    waitForAndAssertFlowStatus(Status.SUCCEEDED);
+    assertThreadShutDown();
+
+    verify(executorLoader, atLeastOnce()).updateExecutableFlows(any());
+    verify(executorLoader, atLeastOnce()).updateExecutableNodes(any());
+    Assert.assertEquals(0, updateWriter.getNumPendingUpdates());
+    final ExecutableFlow persistedFlow = executorLoader
+        .fetchExecutableFlow(this.runner.getExecutableFlow().getExecutionId());
+    Assert.assertEquals(Status.SUCCEEDED, persistedFlow.getStatus());
+    for (final String jobId : new String[]{"job1", "job2", "job5", "job7", "job8", "job10"}) {
+      Assert.assertEquals(Status.SUCCEEDED, persistedFlow.getExecutableNode(jobId).getStatus());
+    }
+  }
+
   @Test
   public void exec1Disabled() throws Exception {
     final EventCollectorListener eventCollector = new EventCollectorListener();
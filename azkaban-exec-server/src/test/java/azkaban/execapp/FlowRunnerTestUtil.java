@@ -188,10 +188,23 @@ public class FlowRunnerTestUtil {
         watcher, pipeline);
   }
 
+  public FlowRunner createFromFlowFile(final String flowName, final Props azkabanProps)
+      throws Exception {
+    return createFromFlowFile(flowName, new EventCollectorListener(), new ExecutionOptions(),
+        null, null, azkabanProps);
+  }
+
   public FlowRunner createFromFlowFile(final String flowName,
       final EventCollectorListener eventCollector,
       final ExecutionOptions options, final FlowWatcher watcher, final Integer pipeline)
       throws Exception {
+    return createFromFlowFile(flowName, eventCollector, options, watcher, pipeline, new Props());
+  }
+
+  public FlowRunner createFromFlowFile(final String flowName,
+      final EventCollectorListener eventCollector,
+      final ExecutionOptions options, final FlowWatcher watcher, final Integer pipeline,
+      final Props azkabanProps) throws Exception {
     final ExecutableFlow exFlow = FlowRunnerTestUtil
         .prepareExecDir(this.workingDir, this.projectDir, flowName, 1);
     exFlow.setDispatchMethod(DispatchMethod.POLL);
@@ -202,8 +215,7 @@ public class FlowRunnerTestUtil {
     // Add version set to executable flow
     exFlow.setVersionSet(createVersionSet());
     final FlowRunner runner = createFromExecutableFlow(eventCollector, exFlow, options,
-        new HashMap<>(),
-        new Props());
+        new HashMap<>(), azkabanProps);
     runner.setFlowWatcher(watcher);
     return runner;
   }
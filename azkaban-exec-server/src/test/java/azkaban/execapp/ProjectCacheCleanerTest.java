@@ -132,4 +132,43 @@ public class ProjectCacheCleanerTest {
     assertThat(this.cacheDir.list()).hasSize(1);
     assertThat(this.cacheDir.list()).contains("3.1");
   }
+
+  @Test
+  /**
+   * An accessed project becomes the most recently used one.
+   */
+  public void testProjectAccessedIsNotDeleted() {
+    final ProjectCacheCleaner cleaner = new ProjectCacheCleaner(this.cacheDir, 0.7);
+    cleaner.projectAccessed(new File(this.cacheDir, "1.1"));
+    cleaner.deleteProjectDirsIfNecessary(2000000);
+    cleaner.finishPendingCleanup();
+    assertThat(this.cacheDir.list()).containsExactlyInAnyOrder("1.1", "3.1");
+  }
+
+  @Test
+  /**
+   * An installed project is counted in the cache size, without rescanning the cache.
+   */
+  public void testProjectInstalledIsCounted() {
+    final ProjectCacheCleaner cleaner = new ProjectCacheCleaner(this.cacheDir, 0.7);
+    final ProjectDirectoryMetadata project =
+        new ProjectDirectoryMetadata(4, 1, new File(this.cacheDir, "4.1"));
+    project.setDirSizeInByte(2000000L);
+    cleaner.projectInstalled(project);
+    // Without the installed project, there would be room for this one
+    cleaner.deleteProjectDirsIfNecessary(1000000);
+    cleaner.finishPendingCleanup();
+    assertThat(this.cacheDir.list()).containsExactlyInAnyOrder("2.1", "3.1");
+  }
+
+  @Test
+  /**
+   * Deleting least recently used items until the cache is below the low watermark.
+   */
+  public void testDeletingDownToLowWatermark() {
+    final ProjectCacheCleaner cleaner = new ProjectCacheCleaner(this.cacheDir, 0.7, 0.92, 0.5);
+    cleaner.deleteProjectDirsIfNecessary(2000000);
+    cleaner.finishPendingCleanup();
+    assertThat(this.cacheDir.list()).containsExactly("3.1");
+  }
 }
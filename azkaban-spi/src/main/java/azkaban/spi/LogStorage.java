@@ -0,0 +1,59 @@
+/*
+ * Copyright 2021 LinkedIn Corp.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package azkaban.spi;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * The Azkaban LogStorage interface stores the logs of finished flows and jobs outside of the
+ * database, e.g. on a shared file system. The database then keeps a single row per log, pointing
+ * to it by its key, instead of the content of the log.
+ *
+ * The logs are written once and read in ranges, by the web server for the UI.
+ *
+ * Note: This is a synchronous interface.
+ */
+public interface LogStorage {
+
+  /**
+   * Store the concatenation of the given files as one log, replacing any log with the same key.
+   *
+   * @param key The key is a relative path identifying the log in the storage.
+   * @param files Local files making the log, in order
+   * @return Length of the log in bytes
+   */
+  long putLog(String key, File... files) throws IOException;
+
+  /**
+   * Read a range of a log.
+   *
+   * @param key The key of the log
+   * @param offset Offset in the log of the first byte to read
+   * @param length Max number of bytes to read
+   * @return The bytes read, fewer than length if the end of the log is reached
+   */
+  byte[] readLog(String key, long offset, int length) throws IOException;
+
+  /**
+   * Delete a log from the storage.
+   *
+   * @param key The key of the log
+   * @return true if delete was successful. false if there was nothing to delete.
+   */
+  boolean deleteLog(String key) throws IOException;
+}
@@ -19,6 +19,7 @@ package azkaban.webapp;
 
 import static azkaban.Constants.ConfigurationKeys.JETTY_PORT;
 import static azkaban.Constants.ConfigurationKeys.JETTY_SSL_PORT;
+import static azkaban.Constants.ConfigurationKeys.JETTY_USE_NIO;
 import static azkaban.Constants.ConfigurationKeys.JETTY_USE_SSL;
 import static azkaban.Constants.DEFAULT_JETTY_MAX_THREAD_COUNT;
 import static azkaban.Constants.DEFAULT_PORT_NUMBER;
@@ -48,17 +49,28 @@ public class WebServerProvider implements Provider<Server> {
     requireNonNull(this.props);
 
     final boolean useSsl = this.props.getBoolean(JETTY_USE_SSL, true);
+    final boolean useNio = this.props.getBoolean(JETTY_USE_NIO, true);
     final int port;
     final Server server = new Server();
     if (useSsl) {
       port = this.props
           .getInt(JETTY_SSL_PORT, DEFAULT_SSL_PORT_NUMBER);
-      server.addConnector(JettyServerUtils.getSslSocketConnector(port, this.props));
-      logger.info("Added SslSocketConnector as Ssl is enabled");
+      if (useNio) {
+        server.addConnector(JettyServerUtils.getSslSelectChannelConnector(port, this.props));
+        logger.info("Added SslSelectChannelConnector as Ssl and Nio are enabled");
+      } else {
+        server.addConnector(JettyServerUtils.getSslSocketConnector(port, this.props));
+        logger.info("Added SslSocketConnector as Ssl is enabled");
+      }
     } else {
       port = this.props.getInt(JETTY_PORT, DEFAULT_PORT_NUMBER);
-      server.addConnector(JettyServerUtils.getSocketConnector(port));
-      logger.info("Added SocketConnector as Ssl is disabled");
+      if (useNio) {
+        server.addConnector(JettyServerUtils.getSelectChannelConnector(port));
+        logger.info("Added SelectChannelConnector as Ssl is disabled and Nio is enabled");
+      } else {
+        server.addConnector(JettyServerUtils.getSocketConnector(port));
+        logger.info("Added SocketConnector as Ssl is disabled");
+      }
     }
 
     // Configure the ThreadPool
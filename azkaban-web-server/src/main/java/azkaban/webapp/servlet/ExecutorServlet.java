@@ -16,6 +16,7 @@
 package azkaban.webapp.servlet;
 
 import azkaban.Constants;
+import azkaban.Constants.ConfigurationKeys;
 import azkaban.executor.ClusterInfo;
 import azkaban.executor.ConnectorParams;
 import azkaban.executor.ExecutableFlow;
@@ -52,17 +53,21 @@ import azkaban.utils.Props;
 import azkaban.webapp.AzkabanWebServer;
 import azkaban.webapp.plugin.PluginRegistry;
 import azkaban.webapp.plugin.ViewerPlugin;
+import com.google.common.collect.ImmutableSet;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import org.apache.commons.lang.StringEscapeUtils;
+import org.mortbay.util.ajax.Continuation;
+import org.mortbay.util.ajax.ContinuationSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -87,6 +92,10 @@ public class ExecutorServlet extends LoginAbstractAzkabanServlet {
   private static final String API_EXECUTE_FLOW = "executeFlow";
   private static final String API_RAMP = "ramp";
   private static final String API_UPDATE_PROP = "updateProp";
+  // The actions which only display the execution, and can use its cached copy
+  private static final Set<String> READ_ONLY_EXEC_APIS = ImmutableSet.of(API_FETCH_EXEC_FLOW,
+      API_FETCH_EXEC_FLOW_UPDATE, API_FETCH_EXEC_FLOW_LOGS, API_FETCH_EXEC_JOB_LOGS,
+      API_FETCH_EXEC_JOB_STATS, API_FLOW_INFO);
 
   private static final Logger logger = LoggerFactory.getLogger(ExecutorServlet.class.getName());
   private static final long serialVersionUID = 1L;
@@ -95,6 +104,8 @@ public class ExecutorServlet extends LoginAbstractAzkabanServlet {
   private ExecutorManagerAdapter executorManagerAdapter;
   private ScheduleManager scheduleManager;
   private UserManager userManager;
+  // Max time an update request waits for the execution to change, 0 without long polling
+  private long maxUpdateWaitMs;
 
   public ExecutorServlet() {
     super(createAPIEndpoints());
@@ -109,6 +120,16 @@ public class ExecutorServlet extends LoginAbstractAzkabanServlet {
     this.executorManagerAdapter = server.getExecutorManager();
     this.scheduleManager = server.getScheduleManager();
     this.flowTriggerService = server.getFlowTriggerService();
+
+    final Props props = server.getServerProps();
+    final int maxUpdateWaiters = props.getInt(
+        ConfigurationKeys.AZKABAN_EXECUTION_UPDATE_LONG_POLL_MAX_WAITERS,
+        Constants.DEFAULT_AZKABAN_EXECUTION_UPDATE_LONG_POLL_MAX_WAITERS);
+    // Without the NIO connector, a suspended request would hold a thread
+    final boolean useNio = props.getBoolean(ConfigurationKeys.JETTY_USE_NIO, true);
+    this.maxUpdateWaitMs = maxUpdateWaiters <= 0 || !useNio ? 0 : props.getLong(
+        ConfigurationKeys.AZKABAN_EXECUTION_UPDATE_LONG_POLL_MAX_WAIT_MS,
+        Constants.DEFAULT_AZKABAN_EXECUTION_UPDATE_LONG_POLL_MAX_WAIT_MS);
   }
 
   private static List<AzkabanAPI> createAPIEndpoints() {
@@ -162,7 +183,9 @@ public class ExecutorServlet extends LoginAbstractAzkabanServlet {
       ExecutableFlow exFlow = null;
 
       try {
-        exFlow = this.executorManagerAdapter.getExecutableFlow(execid);
+        exFlow = READ_ONLY_EXEC_APIS.contains(ajaxName)
+            ? this.executorManagerAdapter.getCachedExecutableFlow(execid)
+            : this.executorManagerAdapter.getExecutableFlow(execid);
       } catch (final ExecutorManagerException e) {
         ret.put("error",
             "Error fetching execution '" + execid + "': " + e.getMessage());
@@ -342,7 +365,7 @@ public class ExecutorServlet extends LoginAbstractAzkabanServlet {
     ExecutableFlow flow = null;
     ExecutableNode node = null;
     try {
-      flow = this.executorManagerAdapter.getExecutableFlow(execId);
+      flow = this.executorManagerAdapter.getCachedExecutableFlow(execId);
       if (flow == null) {
         page.add("errorMsg", "Error loading executing flow " + execId
             + ": not found.");
@@ -417,6 +440,7 @@ public class ExecutorServlet extends LoginAbstractAzkabanServlet {
     final Page page =
         newPage(req, resp, session,
             "azkaban/webapp/servlet/velocity/executingflowpage.vm");
+    page.add("updateWaitMs", this.maxUpdateWaitMs);
     final User user = session.getUser();
     final String triggerInstanceId = getParam(req, "triggerinstanceid");
 
@@ -466,6 +490,7 @@ public class ExecutorServlet extends LoginAbstractAzkabanServlet {
     final Page page =
         newPage(req, resp, session,
             "azkaban/webapp/servlet/velocity/executingflowpage.vm");
+    page.add("updateWaitMs", this.maxUpdateWaitMs);
     final User user = session.getUser();
     final int execId = getIntParam(req, "execid");
     page.add("execid", execId);
@@ -473,7 +498,7 @@ public class ExecutorServlet extends LoginAbstractAzkabanServlet {
 
     ExecutableFlow flow = null;
     try {
-      flow = this.executorManagerAdapter.getExecutableFlow(execId);
+      flow = this.executorManagerAdapter.getCachedExecutableFlow(execId);
       if (flow == null) {
         page.add("errorMsg", "Error loading executing flow " + execId
             + " not found.");
@@ -618,6 +643,14 @@ public class ExecutorServlet extends LoginAbstractAzkabanServlet {
       final LogData data = this.executorManagerAdapter
           .getExecutionJobLog(exFlow, jobId, offset, length, attempt);
       ret.putAll(appendLogData(data, offset));
+      if (offset == 0) {
+        // Lets the log viewer skip the middle of large logs
+        final int totalLength = this.executorManagerAdapter
+            .getExecutionJobLogLength(exFlow, jobId, attempt);
+        if (totalLength >= 0) {
+          ret.put("totalLength", totalLength);
+        }
+      }
 
     } catch (final ExecutorManagerException e) {
       throw new ServletException(e);
@@ -918,7 +951,7 @@ public class ExecutorServlet extends LoginAbstractAzkabanServlet {
 
   private void ajaxFetchExecutableFlowUpdate(final HttpServletRequest req,
       final HttpServletResponse resp, final HashMap<String, Object> ret, final User user,
-      final ExecutableFlow exFlow) throws ServletException {
+      ExecutableFlow exFlow) throws ServletException {
     final Long lastUpdateTime = Long.parseLong(getParam(req, "lastUpdateTime"));
     logger.info("Fetching " + exFlow.getExecutionId());
 
@@ -928,6 +961,17 @@ public class ExecutorServlet extends LoginAbstractAzkabanServlet {
       return;
     }
 
+    // Optional long poll: wait for the execution to change instead of answering right away
+    final long waitMs = Math.min(getLongParam(req, "waitMs", 0), this.maxUpdateWaitMs);
+    if (waitMs > 0) {
+      final ExecutableFlow updatedFlow = waitForUpdate(req, exFlow, lastUpdateTime, waitMs);
+      // Tells the client whether it can keep long polling, or should fall back to polling
+      ret.put("longPoll", updatedFlow != null);
+      if (updatedFlow != null) {
+        exFlow = updatedFlow;
+      }
+    }
+
     final Map<String, Object> map =
         getExecutableFlowUpdateInfo(exFlow, lastUpdateTime);
     map.put("status", exFlow.getStatus());
@@ -937,6 +981,57 @@ public class ExecutorServlet extends LoginAbstractAzkabanServlet {
     ret.putAll(map);
   }
 
+  /**
+   * Suspend the request until the execution changes or waitMs elapsed. With the NIO connector the
+   * suspended request doesn't hold a thread: jetty dispatches it again, from the start, once it is
+   * resumed or timed out.
+   *
+   * @return the execution to answer with, or null if too many requests are already waiting
+   */
+  private ExecutableFlow waitForUpdate(final HttpServletRequest req, final ExecutableFlow exFlow,
+      final long lastUpdateTime, final long waitMs) {
+    final int execId = exFlow.getExecutionId();
+    final Continuation continuation = ContinuationSupport.getContinuation(req, null);
+    final Runnable listener = (Runnable) continuation.getObject();
+    if (listener != null) {
+      // Dispatched again after being suspended, exFlow was read again meanwhile
+      continuation.suspend(waitMs);
+      this.executorManagerAdapter.removeExecutableFlowUpdateListener(execId, listener);
+      return exFlow;
+    }
+    if (exFlow.getUpdateTime() > lastUpdateTime || Status.isStatusFinished(exFlow.getStatus())) {
+      return exFlow;
+    }
+
+    final Runnable newListener = continuation::resume;
+    if (!this.executorManagerAdapter.addExecutableFlowUpdateListener(execId, newListener)) {
+      return null;
+    }
+    continuation.setObject(newListener);
+    try {
+      // Check again, the execution may have changed before the listener was added
+      final ExecutableFlow current = this.executorManagerAdapter.getCachedExecutableFlow(execId);
+      if (current != null && current.getUpdateTime() <= lastUpdateTime
+          && !Status.isStatusFinished(current.getStatus())) {
+        // Throws a RetryRequest with the NIO connector, returns once resumed or timed out with
+        // the blocking one
+        continuation.suspend(waitMs);
+      }
+    } catch (final ExecutorManagerException e) {
+      logger.warn("Error waiting for updates of execution " + execId, e);
+    }
+    // Only reached without suspending, or with the blocking connector
+    continuation.setObject(null);
+    this.executorManagerAdapter.removeExecutableFlowUpdateListener(execId, newListener);
+    try {
+      final ExecutableFlow current = this.executorManagerAdapter.getCachedExecutableFlow(execId);
+      return current != null ? current : exFlow;
+    } catch (final ExecutorManagerException e) {
+      logger.warn("Error fetching execution " + execId, e);
+      return exFlow;
+    }
+  }
+
   private void ajaxFetchExecutableFlow(final HttpServletRequest req,
       final HttpServletResponse resp, final HashMap<String, Object> ret, final User user,
       final ExecutableFlow exFlow) throws ServletException {
@@ -63,6 +63,13 @@ public class ScheduleServlet extends LoginAbstractAzkabanServlet {
   private static final String API_SCHEDULE_FLOW = "scheduleFlow";
   private static final String API_SCHEDULE_CRON_FLOW = "scheduleCronFlow";
   private static final String API_REMOVE_SCHED = "removeSched";
+  private static final String API_FETCH_UPCOMING_EXECUTIONS = "fetchUpcomingExecutions";
+
+  private static final long DEFAULT_UPCOMING_EXECUTIONS_WINDOW_MS = 24 * 60 * 60 * 1000L;
+  private static final int DEFAULT_UPCOMING_EXECUTIONS_MAX = 100;
+  // Bounds on the requested window and times per schedule, as every schedule is expanded
+  private static final long MAX_UPCOMING_EXECUTIONS_WINDOW_MS = 31 * 24 * 60 * 60 * 1000L;
+  private static final int MAX_UPCOMING_EXECUTIONS_MAX = 1000;
 
   public static final String PARAM_SLA_EMAILS = "slaEmails";
   public static final String PARAM_SCHEDULE_ID = "scheduleId";
@@ -103,6 +110,7 @@ public class ScheduleServlet extends LoginAbstractAzkabanServlet {
     apiEndpoints.add(new AzkabanAPI("ajax", API_LOAD_FLOW));
     apiEndpoints.add(new AzkabanAPI("ajax", API_SCHEDULE_FLOW));
     apiEndpoints.add(new AzkabanAPI("ajax", API_SCHEDULE_CRON_FLOW));
+    apiEndpoints.add(new AzkabanAPI("ajax", API_FETCH_UPCOMING_EXECUTIONS));
 
     apiEndpoints.add(new AzkabanAPI("action", API_SCHEDULE_FLOW));
     apiEndpoints.add(new AzkabanAPI("action", API_SCHEDULE_CRON_FLOW));
@@ -138,6 +146,8 @@ public class ScheduleServlet extends LoginAbstractAzkabanServlet {
       ajaxScheduleCronFlow(req, ret, session.getUser());
     } else if (API_FETCH_SCHEDULE.equals(ajaxName)) {
       ajaxFetchSchedule(req, ret, session.getUser());
+    } else if (API_FETCH_UPCOMING_EXECUTIONS.equals(ajaxName)) {
+      ajaxFetchUpcomingExecutions(req, ret);
     }
 
     if (ret != null) {
@@ -170,6 +180,43 @@ public class ScheduleServlet extends LoginAbstractAzkabanServlet {
     }
   }
 
+  /**
+   * The execution times of all the schedules in a window, by default the next day and at most
+   * a month.
+   */
+  private void ajaxFetchUpcomingExecutions(final HttpServletRequest req,
+      final HashMap<String, Object> ret) throws ServletException {
+    final long start = getLongParam(req, "start", System.currentTimeMillis());
+    final long end = Math.min(
+        getLongParam(req, "end", start + DEFAULT_UPCOMING_EXECUTIONS_WINDOW_MS),
+        start + MAX_UPCOMING_EXECUTIONS_WINDOW_MS);
+    final int max = Math.max(0, Math.min(
+        getIntParam(req, "max", DEFAULT_UPCOMING_EXECUTIONS_MAX), MAX_UPCOMING_EXECUTIONS_MAX));
+    final List<Schedule> schedules;
+    try {
+      schedules = this.scheduleManager.getSchedules();
+    } catch (final ScheduleManagerException e) {
+      throw new ServletException(e);
+    }
+
+    final List<HashMap<String, Object>> output = new ArrayList<>();
+    for (final Schedule schedule : schedules) {
+      final List<Long> times = schedule.getExecutionTimes(start, end, max);
+      if (!times.isEmpty()) {
+        final HashMap<String, Object> data = new HashMap<>();
+        data.put(PARAM_SCHEDULE_ID, schedule.getScheduleId());
+        data.put("flowname", schedule.getFlowName());
+        data.put("projectname", schedule.getProjectName());
+        data.put("cron", schedule.getCronExpression());
+        data.put("times", times);
+        output.add(data);
+      }
+    }
+    ret.put("start", start);
+    ret.put("end", end);
+    ret.put("items", output);
+  }
+
   private void writeScheduleData(final List<HashMap<String, Object>> output,
       final Schedule schedule) throws ScheduleManagerException {
 
@@ -17,40 +17,33 @@
 $.namespace('azkaban');
 
 azkaban.JobLogModel = Backbone.Model.extend({
+  // Bytes shown at the end of a log too large to be fully loaded, and loaded from the skipped
+  // section at each request of the user
+  tailLength: 5000000,
+  chunkLength: 50000,
+
   initialize: function () {
     this.set("offset", 0);
     this.set("logData", "");
+    // Log before and after the skipped section, if any
+    this.headData = "";
+    this.tailData = "";
+    this.set("skipStart", 0);
+    this.set("skipEnd", 0);
   },
 
-  refresh: function () {
+  fetchLog: function (offset, length, successHandler) {
     var requestURL = contextURL + "/executor";
 
     var requestData = {
       "execid": execId,
       "jobId": jobId,
       "ajax": "fetchExecJobLogs",
-      "offset": this.get("offset"),
-      "length": 50000,
+      "offset": offset,
+      "length": length,
       "attempt": attempt
     };
 
-    var self = this;
-
-    var successHandler = function (data) {
-      console.log("fetchLogs " + data.offset);
-      if (data.error) {
-        console.log(data.error);
-      }
-      else {
-        self.set("offset", data.offset + data.length);
-        self.set("logData", self.get("logData") + data.data);
-        if (data.length != 0) {
-          // There may be more data available so request the next chunk
-          self.refresh();
-        }
-      }
-    };
-
     $.ajax({
       url: requestURL,
       type: "get",
@@ -59,7 +52,84 @@ azkaban.JobLogModel = Backbone.Model.extend({
       error: function (data) {
         console.log(data);
       },
-      success: successHandler
+      success: function (data) {
+        console.log("fetchLogs " + data.offset);
+        if (data.error) {
+          console.log(data.error);
+        }
+        else {
+          successHandler(data);
+        }
+      }
+    });
+  },
+
+  refresh: function () {
+    var self = this;
+    this.fetchLog(this.get("offset"), this.chunkLength, function (data) {
+      var offset = data.offset + data.length;
+      if (self.hasSkippedSection()) {
+        self.tailData += data.data;
+      }
+      else {
+        self.headData += data.data;
+        if (data.totalLength > offset + self.tailLength) {
+          // Large finished log: show its head and tail only
+          self.set("skipStart", offset);
+          self.set("skipEnd", data.totalLength - self.tailLength);
+          offset = data.totalLength - self.tailLength;
+        }
+      }
+      self.set("offset", offset);
+      self.updateLogData();
+      if (data.length != 0) {
+        // There may be more data available so request the next chunk
+        self.refresh();
+      }
     });
   },
+
+  hasSkippedSection: function () {
+    return this.get("skipEnd") > this.get("skipStart");
+  },
+
+  /**
+   * Load the next part of the skipped section, at most tailLength bytes.
+   */
+  loadSkipped: function () {
+    if (!this.hasSkippedSection() || this.loadingSkipped) {
+      return;
+    }
+    this.loadingSkipped = true;
+    var loadEnd = Math.min(this.get("skipStart") + this.tailLength, this.get("skipEnd"));
+    var self = this;
+    var loadNextChunk = function () {
+      var skipStart = self.get("skipStart");
+      self.fetchLog(skipStart, Math.min(self.chunkLength, loadEnd - skipStart), function (data) {
+        self.headData += data.data;
+        self.set("skipStart", skipStart + data.length);
+        if (!self.hasSkippedSection()) {
+          self.headData += self.tailData;
+          self.tailData = "";
+        }
+        self.updateLogData();
+        if (data.length != 0 && self.get("skipStart") < loadEnd) {
+          loadNextChunk();
+        }
+        else {
+          self.loadingSkipped = false;
+        }
+      });
+    };
+    loadNextChunk();
+  },
+
+  updateLogData: function () {
+    var logData = this.headData;
+    if (this.hasSkippedSection()) {
+      var skipped = this.get("skipEnd") - this.get("skipStart");
+      logData += "\n... " + skipped + " bytes skipped ...\n\n" + this.tailData;
+    }
+    this.set("logData", logData);
+  },
 });
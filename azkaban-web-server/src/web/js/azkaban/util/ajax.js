@@ -51,7 +51,7 @@ function ajaxCall(requestURL, data, successCallback, beforeSendCallback,
     options.beforeSend = beforeSendCallback;
   }
 
-  $.ajax(options);
+  return $.ajax(options);
 }
 
 function executeFlow(executingData) {
@@ -414,7 +414,7 @@ var logModel;
 var flowTriggerModel;
 azkaban.LogModel = Backbone.Model.extend({});
 
-var updateStatus = function (updateTime) {
+var updateStatus = function (updateTime, waitMs, callback) {
   var requestURL = contextURL + "/executor";
   var oldData = graphModel.get("data");
   var nodeMap = graphModel.get("nodeMap");
@@ -428,9 +428,16 @@ var updateStatus = function (updateTime) {
     "ajax": "fetchexecflowupdate",
     "lastUpdateTime": updateTime
   };
+  if (waitMs) {
+    // Long poll: the server answers once the flow changed or after waitMs
+    requestData.waitMs = waitMs;
+  }
 
+  // Whether the server held the request until the flow changed
+  var longPolled = false;
   var successHandler = function (data) {
     console.log("data updated");
+    longPolled = data.longPoll === true;
     if (data.updateTime) {
       updateGraph(oldData, data);
 
@@ -438,7 +445,12 @@ var updateStatus = function (updateTime) {
       graphModel.trigger("change:update");
     }
   };
-  ajaxCall(requestURL, requestData, successHandler);
+  var request = ajaxCall(requestURL, requestData, successHandler);
+  if (callback) {
+    request.always(function () {
+      callback(longPolled);
+    });
+  }
 }
 
 function updatePastAttempts(data, update) {
@@ -492,6 +504,8 @@ var updateGraph = function (data, update) {
 }
 
 var updateTime = -1;
+// Min time between the update requests when long polling
+var minLongPollIntervalMs = 10 * 1000;
 var updaterFunction = function () {
   var oldData = graphModel.get("data");
   var keepRunning =
@@ -499,38 +513,57 @@ var updaterFunction = function () {
       oldData.status != "FAILED" &&
       oldData.status != "KILLED";
 
-  if (keepRunning) {
-    updateStatus();
-
-    var data = graphModel.get("data");
-    if (data.status == "UNKNOWN" ||
-        data.status == "WAITING" ||
-        data.status == "PREPARING") {
-      // 2 min updates
-      setTimeout(function () {
-        updaterFunction();
-      }, 2 * 60 * 1000);
-    } else if (data.status == "KILLING") {
-      // 30 s updates - should finish soon now
-      setTimeout(function () {
-        updaterFunction();
-      }, 30 * 1000);
-    } else if (data.status != "SUCCEEDED" && data.status != "FAILED") {
-      // 2 min updates
+  if (keepRunning && updateWaitMs > 0) {
+    // Ask again once the previous request is answered, the server holds it until the flow
+    // changes
+    var start = new Date().getTime();
+    updateStatus(undefined, updateWaitMs, function (longPolled) {
+      if (!longPolled) {
+        // The server didn't hold the request, e.g. too many were waiting: poll as without long
+        // polling this time
+        scheduleUpdate();
+        return;
+      }
+      var elapsed = new Date().getTime() - start;
       setTimeout(function () {
         updaterFunction();
-      }, 2 * 60 * 1000);
-    } else {
-      console.log("Flow finished, so no more updates");
-      setTimeout(function () {
-        updateStatus(0);
-      }, 500);
-    }
+      }, Math.max(minLongPollIntervalMs - elapsed, 0));
+    });
+  } else if (keepRunning) {
+    updateStatus();
+    scheduleUpdate();
   } else {
     console.log("Flow finished, so no more updates");
   }
 }
 
+var scheduleUpdate = function () {
+  var data = graphModel.get("data");
+  if (data.status == "UNKNOWN" ||
+      data.status == "WAITING" ||
+      data.status == "PREPARING") {
+    // 2 min updates
+    setTimeout(function () {
+      updaterFunction();
+    }, 2 * 60 * 1000);
+  } else if (data.status == "KILLING") {
+    // 30 s updates - should finish soon now
+    setTimeout(function () {
+      updaterFunction();
+    }, 30 * 1000);
+  } else if (data.status != "SUCCEEDED" && data.status != "FAILED") {
+    // 2 min updates
+    setTimeout(function () {
+      updaterFunction();
+    }, 2 * 60 * 1000);
+  } else {
+    console.log("Flow finished, so no more updates");
+    setTimeout(function () {
+      updateStatus(0);
+    }, 500);
+  }
+}
+
 var logUpdaterFunction = function () {
   var oldData = graphModel.get("data");
   var keepRunning =
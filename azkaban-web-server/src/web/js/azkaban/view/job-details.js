@@ -68,7 +68,8 @@ var initAttemptPage = function (settings) {
 var jobLogView;
 azkaban.JobLogView = Backbone.View.extend({
   events: {
-    "click #updateLogBtn": "refresh"
+    "click #updateLogBtn": "refresh",
+    "click #loadSkippedLogBtn": "loadSkipped"
   },
 
   initialize: function () {
@@ -81,11 +82,16 @@ azkaban.JobLogView = Backbone.View.extend({
     this.model.refresh();
   },
 
+  loadSkipped: function () {
+    this.model.loadSkipped();
+  },
+
   render: function () {
     var re = /(https?:\/\/\S+)/g;
     var log = this.model.get("logData");
     log = log.replace(re, "<a href=\"$1\" title=\"\">$1</a>");
     $("#logSection").html(log);
+    $("#loadSkippedLogBtn").toggle(this.model.hasSkippedSection());
   },
 
   handleInitView: function () {